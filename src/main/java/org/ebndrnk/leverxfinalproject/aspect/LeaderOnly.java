@@ -0,0 +1,22 @@
+package org.ebndrnk.leverxfinalproject.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a scheduled method that must run on one replica only. The replica holding the lease of the job
+ * runs it, the others skip their ticks until the lease expires.
+ *
+ * @see LeaderOnlyAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LeaderOnly {
+
+    /**
+     * @return The name of the job, unique across the application.
+     */
+    String value();
+}
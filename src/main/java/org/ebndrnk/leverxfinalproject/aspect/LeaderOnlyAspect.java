@@ -0,0 +1,36 @@
+package org.ebndrnk.leverxfinalproject.aspect;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.ebndrnk.leverxfinalproject.service.scheduling.ScheduledJobRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * LeaderOnlyAspect
+ * <p>
+ * Runs methods annotated with {@link LeaderOnly} through the {@link ScheduledJobRegistry}, which skips
+ * the call unless this replica leads the job and records the outcome of each run.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LeaderOnlyAspect {
+
+    private final ScheduledJobRegistry scheduledJobRegistry;
+
+    @Around("@annotation(leaderOnly)")
+    public Object runOnLeader(ProceedingJoinPoint joinPoint, LeaderOnly leaderOnly) {
+        scheduledJobRegistry.runIfLeader(leaderOnly.value(), () -> {
+            try {
+                joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return null;
+    }
+}
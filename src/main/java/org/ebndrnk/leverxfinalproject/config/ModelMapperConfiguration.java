@@ -1,5 +1,10 @@
 package org.ebndrnk.leverxfinalproject.config;
 
+import org.ebndrnk.leverxfinalproject.model.dto.game.GamePatchRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,13 +12,41 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ModelMapperConfiguration {
 
+    /**
+     * Name of the type map from a profile to a ProfileResponse that leaves the comments and games unset,
+     * so listings can load only the associations they were asked for.
+     */
+    public static final String PROFILE_WITHOUT_ASSOCIATIONS = "profile-without-associations";
+
     /**
      * Creates another ModelMapper bean.
+     * <p>
+     * The {@code categoryId} of game requests would otherwise be matched to the ID of the game
+     * and of its category. The category is resolved by the game service instead.
+     * </p>
      *
      * @return a new ModelMapper instance
      */
     @Bean
     ModelMapper modelMapper(){
-        return new ModelMapper();
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.emptyTypeMap(GameRequest.class, GameObject.class)
+                .addMappings(mapper -> {
+                    mapper.skip(GameObject::setId);
+                    mapper.skip(GameObject::setCategory);
+                })
+                .implicitMappings();
+        modelMapper.emptyTypeMap(GamePatchRequest.class, GameObject.class)
+                .addMappings(mapper -> {
+                    mapper.skip(GameObject::setId);
+                    mapper.skip(GameObject::setCategory);
+                })
+                .implicitMappings();
+        modelMapper.createTypeMap(Profile.class, ProfileResponse.class, PROFILE_WITHOUT_ASSOCIATIONS)
+                .addMappings(mapper -> {
+                    mapper.skip(ProfileResponse::setComment);
+                    mapper.skip(ProfileResponse::setGameObjects);
+                });
+        return modelMapper;
     }
 }
@@ -0,0 +1,34 @@
+package org.ebndrnk.leverxfinalproject.config;
+
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class NearCacheConfiguration {
+
+    /**
+     * Subscribes the near cache to the invalidations broadcast by the other replicas. The container is shared
+     * by every subscription of the application, so they all go over one Redis connection.
+     *
+     * @param connectionFactory the Redis connection factory used to subscribe.
+     * @param nearCache the near cache that applies the invalidations.
+     * @param nearCacheEnabled whether the near cache is in use; without it nothing is subscribed here.
+     * @return the listener container holding the subscriptions.
+     */
+    @Bean
+    RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                NearCache nearCache,
+                                                                @Value("${cache.near.enabled:true}") boolean nearCacheEnabled) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (nearCacheEnabled) {
+            container.addMessageListener(nearCache, new ChannelTopic(NearCache.INVALIDATION_CHANNEL));
+        }
+        return container;
+    }
+}
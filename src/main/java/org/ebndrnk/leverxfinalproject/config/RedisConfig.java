@@ -1,7 +1,5 @@
 package org.ebndrnk.leverxfinalproject.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
 import org.ebndrnk.leverxfinalproject.model.entity.auth.password.ResetPasswordCodeEntity;
 import org.ebndrnk.leverxfinalproject.model.entity.auth.verify.VerifyEntity;
@@ -10,8 +8,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
-
-import java.util.List;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
  * Configuration class for setting up Redis templates for different types of objects.
@@ -70,27 +67,25 @@ public class RedisConfig {
 
     /**
      * Creates and configures a {@link RedisTemplate} for handling keys of type {@code String}
-     * and values of type {@code List<ProfileResponse>}.
+     * and values of type {@link ProfileResponse}.
      * <p>
-     * This template is designed to store lists of {@link ProfileResponse} objects under a single Redis key.
-     * Since Redis does not natively support generic types, the {@link ObjectMapper} and {@link TypeFactory}
-     * are used to properly define the type for serialization.
+     * This template stores one cached profile summary per key for the seller leaderboard.
+     * Keys are written as plain strings, so they can be built from profile ids and read in one {@code MGET}.
      * </p>
      *
      * @param connectionFactory the Redis connection factory used to establish a connection to the Redis server.
-     * @return a configured {@link RedisTemplate} for managing lists of {@link ProfileResponse} objects.
+     * @return a configured {@link RedisTemplate} for managing {@link ProfileResponse} objects.
      */
     @Bean
-    public RedisTemplate<String, List<ProfileResponse>> redisProfileResponseTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, List<ProfileResponse>> template = new RedisTemplate<>();
+    public RedisTemplate<String, ProfileResponse> redisProfileSummaryTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, ProfileResponse> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        TypeFactory typeFactory = objectMapper.getTypeFactory();
-        Jackson2JsonRedisSerializer<List<ProfileResponse>> serializer =
-                new Jackson2JsonRedisSerializer<>(typeFactory.constructCollectionType(List.class, ProfileResponse.class));
+        Jackson2JsonRedisSerializer<ProfileResponse> serializer =
+                new Jackson2JsonRedisSerializer<>(ProfileResponse.class);
 
-        template.setDefaultSerializer(serializer);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(serializer);
         template.afterPropertiesSet();
         return template;
     }
@@ -0,0 +1,27 @@
+package org.ebndrnk.leverxfinalproject.config;
+
+import org.ebndrnk.leverxfinalproject.service.search.CatalogSearchServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "search.index.broadcast-enabled", havingValue = "true", matchIfMissing = true)
+public class SearchIndexConfiguration {
+
+    /**
+     * Subscribes the search index of this replica to the changes indexed by the other replicas,
+     * on the listener container of {@link NearCacheConfiguration}.
+     *
+     * @param listenerContainer the shared listener container.
+     * @param catalogSearchService the catalog search that indexes the changed items.
+     */
+    @Autowired
+    void subscribeToChanges(RedisMessageListenerContainer listenerContainer,
+                            CatalogSearchServiceImpl catalogSearchService) {
+        listenerContainer.addMessageListener(catalogSearchService,
+                new ChannelTopic(CatalogSearchServiceImpl.CHANGES_CHANNEL));
+    }
+}
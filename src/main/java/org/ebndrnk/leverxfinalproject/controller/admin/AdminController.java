@@ -4,11 +4,30 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.job.ScheduledJobStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.ModerationBatchResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRecomputeStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingReplayResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchIndexStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationDecision;
 import org.ebndrnk.leverxfinalproject.service.admin.AdminService;
 import org.ebndrnk.leverxfinalproject.service.comment.CommentService;
+import org.ebndrnk.leverxfinalproject.service.game.GameCategoryService;
+import org.ebndrnk.leverxfinalproject.service.moderation.BulkModerationService;
+import org.ebndrnk.leverxfinalproject.service.moderation.ModerationService;
+import org.ebndrnk.leverxfinalproject.service.rating.RatingEventService;
+import org.ebndrnk.leverxfinalproject.service.rating.RatingRecomputeService;
+import org.ebndrnk.leverxfinalproject.service.scheduling.ScheduledJobRegistry;
+import org.ebndrnk.leverxfinalproject.service.search.CatalogSearchService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,6 +41,11 @@ import java.util.List;
  *   <li>Retrieving and confirming/unconfirming users</li>
  *   <li>Managing comment confirmations</li>
  *   <li>Deleting users and comments</li>
+ *   <li>Claiming and releasing batches of the moderation queues</li>
+ *   <li>Confirming or declining comments and users in bulk</li>
+ *   <li>Rebuilding rating aggregates, in bulk or from the rating event log</li>
+ *   <li>Creating game categories</li>
+ *   <li>Inspecting scheduled jobs</li>
  * </ul>
  * </p>
  */
@@ -33,6 +57,13 @@ public class AdminController {
 
     private final AdminService adminService;
     private final CommentService commentService;
+    private final ModerationService moderationService;
+    private final BulkModerationService bulkModerationService;
+    private final RatingRecomputeService ratingRecomputeService;
+    private final RatingEventService ratingEventService;
+    private final GameCategoryService gameCategoryService;
+    private final ScheduledJobRegistry scheduledJobRegistry;
+    private final CatalogSearchService catalogSearchService;
 
     /**
      * Retrieves a list of users who have not been confirmed by an administrator.
@@ -159,4 +190,285 @@ public class AdminController {
         commentService.deleteById(commentId);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Claims the oldest pending comments for the current administrator. The comments stay claimed until they are
+     * confirmed or declined, released, or the lease expires; other administrators get different comments meanwhile.
+     *
+     * @param size the number of comments to claim.
+     * @return {@link ResponseEntity} containing the claimed comments and the end of the lease.
+     */
+    @Operation(summary = "Claim comments", description = "Claims a batch of pending comments for review, skipping comments claimed by other administrators.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comments claimed successfully")
+    })
+    @PostMapping("/moderation/comments/claim")
+    public ResponseEntity<ModerationBatchResponse<CommentResponse>> claimComments(
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(moderationService.claimComments(size));
+    }
+
+    /**
+     * Gives back claimed comments that the current administrator will not review.
+     *
+     * @param commentIds the IDs of the comments.
+     * @return {@link ResponseEntity} containing the number of released comments.
+     */
+    @Operation(summary = "Release comments", description = "Returns claimed but unreviewed comments to the moderation queue.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comments released successfully")
+    })
+    @PostMapping("/moderation/comments/release")
+    public ResponseEntity<Integer> releaseComments(@RequestBody List<Long> commentIds) {
+        return ResponseEntity.ok(moderationService.releaseComments(commentIds));
+    }
+
+    /**
+     * Claims the oldest users waiting for confirmation for the current administrator.
+     *
+     * @param size the number of users to claim.
+     * @return {@link ResponseEntity} containing the claimed users and the end of the lease.
+     */
+    @Operation(summary = "Claim users", description = "Claims a batch of users waiting for confirmation, skipping users claimed by other administrators.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users claimed successfully")
+    })
+    @PostMapping("/moderation/users/claim")
+    public ResponseEntity<ModerationBatchResponse<ProfileSummaryResponse>> claimUsers(
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(moderationService.claimProfiles(size));
+    }
+
+    /**
+     * Gives back claimed users that the current administrator will not review.
+     *
+     * @param userIds the IDs of the users.
+     * @return {@link ResponseEntity} containing the number of released users.
+     */
+    @Operation(summary = "Release users", description = "Returns claimed but unreviewed users to the moderation queue.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users released successfully")
+    })
+    @PostMapping("/moderation/users/release")
+    public ResponseEntity<Integer> releaseUsers(@RequestBody List<Long> userIds) {
+        return ResponseEntity.ok(moderationService.releaseProfiles(userIds));
+    }
+
+    /**
+     * Confirms the comments with the given IDs, or all comments matching the filters, with one update.
+     * Large sets are confirmed by a background job.
+     *
+     * @param request the IDs of the comments or the filters selecting them.
+     * @return {@link ResponseEntity} containing the number of confirmed comments, with status 200,
+     * or the status of the job confirming them, with status 202.
+     */
+    @Operation(summary = "Confirm comments in bulk", description = "Confirms comments by IDs or filters and returns how many were confirmed; large sets are confirmed by a background job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comments confirmed successfully"),
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/moderation/comments/confirm")
+    public ResponseEntity<BulkModerationResponse> confirmComments(@Valid @RequestBody BulkModerationRequest request) {
+        return bulkResponse(bulkModerationService.decideComments(ModerationDecision.CONFIRM, request));
+    }
+
+    /**
+     * Declines the comments with the given IDs, or all comments matching the filters, with one update.
+     * Large sets are declined by a background job.
+     *
+     * @param request the IDs of the comments or the filters selecting them.
+     * @return {@link ResponseEntity} containing the number of declined comments, with status 200,
+     * or the status of the job declining them, with status 202.
+     */
+    @Operation(summary = "Decline comments in bulk", description = "Declines comments by IDs or filters and returns how many were declined; large sets are declined by a background job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comments declined successfully"),
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/moderation/comments/decline")
+    public ResponseEntity<BulkModerationResponse> declineComments(@Valid @RequestBody BulkModerationRequest request) {
+        return bulkResponse(bulkModerationService.decideComments(ModerationDecision.DECLINE, request));
+    }
+
+    /**
+     * Confirms the users with the given IDs, or all users matching the filters, with one update.
+     * Large sets are confirmed by a background job.
+     *
+     * @param request the IDs of the users or the filters selecting them.
+     * @return {@link ResponseEntity} containing the number of confirmed users, with status 200,
+     * or the status of the job confirming them, with status 202.
+     */
+    @Operation(summary = "Confirm users in bulk", description = "Confirms users by IDs or filters and returns how many were confirmed; large sets are confirmed by a background job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users confirmed successfully"),
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/moderation/users/confirm")
+    public ResponseEntity<BulkModerationResponse> confirmUsers(@Valid @RequestBody BulkModerationRequest request) {
+        return bulkResponse(bulkModerationService.decideProfiles(ModerationDecision.CONFIRM, request));
+    }
+
+    /**
+     * Cancels the confirmation of the users with the given IDs, or of all users matching the filters,
+     * with one update. Large sets are handled by a background job.
+     *
+     * @param request the IDs of the users or the filters selecting them.
+     * @return {@link ResponseEntity} containing the number of declined users, with status 200,
+     * or the status of the job declining them, with status 202.
+     */
+    @Operation(summary = "Decline users in bulk", description = "Cancels the confirmation of users by IDs or filters and returns how many were declined; large sets are declined by a background job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users declined successfully"),
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/moderation/users/decline")
+    public ResponseEntity<BulkModerationResponse> declineUsers(@Valid @RequestBody BulkModerationRequest request) {
+        return bulkResponse(bulkModerationService.decideProfiles(ModerationDecision.DECLINE, request));
+    }
+
+    /**
+     * Returns the progress of a bulk moderation job.
+     *
+     * @param jobId the ID of the job.
+     * @return {@link ResponseEntity} containing the status of the job.
+     */
+    @Operation(summary = "Get bulk moderation job", description = "Returns the status and the number of items decided so far by a bulk moderation job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping("/moderation/jobs/{jobId}")
+    public ResponseEntity<BulkModerationResponse> getModerationJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(bulkModerationService.getJob(jobId));
+    }
+
+    /**
+     * Starts the job that rebuilds the rating aggregates of all profiles from the stored ratings.
+     * If the last job did not complete, it is resumed from its checkpoint.
+     *
+     * @return {@link ResponseEntity} with status 202 containing the status of the job.
+     */
+    @Operation(summary = "Recompute ratings", description = "Starts or resumes the background job that rebuilds rating aggregates of all profiles.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job started or already running")
+    })
+    @PostMapping("/ratings/recompute")
+    public ResponseEntity<RatingRecomputeStatusResponse> recomputeRatings() {
+        return ResponseEntity.accepted().body(ratingRecomputeService.start());
+    }
+
+    /**
+     * Returns the progress of the last rating recompute job.
+     *
+     * @return {@link ResponseEntity} containing the status of the job.
+     */
+    @Operation(summary = "Get rating recompute status", description = "Returns progress and throughput of the last rating recompute job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully")
+    })
+    @GetMapping("/ratings/recompute")
+    public ResponseEntity<RatingRecomputeStatusResponse> getRatingRecomputeStatus() {
+        return ResponseEntity.ok(ratingRecomputeService.getStatus());
+    }
+
+    /**
+     * Starts rebuilding the catalog search index of the replica serving the request from the database.
+     * Searches on that replica see the previous index until the rebuild ends.
+     *
+     * @return {@link ResponseEntity} with status 202 containing the status of the index.
+     */
+    @Operation(summary = "Rebuild search index", description = "Starts rebuilding the catalog search index of this replica from the database, unless a rebuild is running already.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Rebuild started or already running")
+    })
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<SearchIndexStatusResponse> rebuildSearchIndex() {
+        return ResponseEntity.accepted().body(catalogSearchService.rebuild());
+    }
+
+    /**
+     * Returns the size of the catalog search index of the replica serving the request and its last rebuild.
+     *
+     * @return {@link ResponseEntity} containing the status of the index.
+     */
+    @Operation(summary = "Get search index status", description = "Returns the number of indexed items and the progress of the last rebuild on this replica.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully")
+    })
+    @GetMapping("/search/status")
+    public ResponseEntity<SearchIndexStatusResponse> getSearchIndexStatus() {
+        return ResponseEntity.ok(catalogSearchService.getStatus());
+    }
+
+    /**
+     * Replays the rating event log of a profile from its latest snapshot without changing anything.
+     *
+     * @param profileId the ID of the profile.
+     * @return {@link ResponseEntity} containing the aggregate according to the event log.
+     */
+    @Operation(summary = "Replay rating events", description = "Rebuilds the rating aggregate of a profile from its latest snapshot and the events after it, without saving it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events replayed successfully"),
+            @ApiResponse(responseCode = "404", description = "Profile not found")
+    })
+    @GetMapping("/ratings/{profileId}/replay")
+    public ResponseEntity<RatingReplayResponse> replayRatingEvents(@PathVariable Long profileId) {
+        return ResponseEntity.ok(ratingEventService.replay(profileId, false));
+    }
+
+    /**
+     * Rebuilds the rating aggregate of a profile from the rating event log and saves it.
+     *
+     * @param profileId the ID of the profile.
+     * @return {@link ResponseEntity} containing the saved aggregate.
+     */
+    @Operation(summary = "Rebuild rating from events", description = "Rebuilds the rating aggregate of a profile from its latest snapshot and the events after it, and saves it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Aggregate rebuilt successfully"),
+            @ApiResponse(responseCode = "404", description = "Profile not found")
+    })
+    @PostMapping("/ratings/{profileId}/replay")
+    public ResponseEntity<RatingReplayResponse> applyRatingEvents(@PathVariable Long profileId) {
+        return ResponseEntity.ok(ratingEventService.replay(profileId, true));
+    }
+
+    /**
+     * Creates a game category that games can be assigned to and sellers are ranked in.
+     *
+     * @param categoryRequest the name and slug of the category.
+     * @return {@link ResponseEntity} containing the created category.
+     */
+    @Operation(summary = "Create game category", description = "Creates a game category, e.g. CS:GO or FIFA.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "409", description = "Category with this name or slug already exists")
+    })
+    @PostMapping("/game-categories")
+    public ResponseEntity<GameCategoryResponse> createGameCategory(@Valid @RequestBody GameCategoryRequest categoryRequest) {
+        return ResponseEntity.ok(gameCategoryService.createCategory(categoryRequest));
+    }
+
+    /**
+     * Retrieves the scheduled jobs seen by the replica serving the request, with the replica leading each job
+     * and the last run on this replica.
+     *
+     * @return {@link ResponseEntity} containing one status per job.
+     */
+    @Operation(summary = "Get scheduled jobs", description = "Returns the leader, last run duration and status of each scheduled job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job statuses retrieved successfully")
+    })
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ScheduledJobStatusResponse>> getScheduledJobs() {
+        return ResponseEntity.ok(scheduledJobRegistry.getStatuses());
+    }
+
+    private static ResponseEntity<BulkModerationResponse> bulkResponse(BulkModerationResponse response) {
+        return response.getJobId() == null ? ResponseEntity.ok(response) : ResponseEntity.accepted().body(response);
+    }
 }
@@ -6,7 +6,11 @@ import lombok.RequiredArgsConstructor;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.seller.SellerFromCommentRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
 import org.ebndrnk.leverxfinalproject.service.comment.CommentService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -122,26 +126,67 @@ public class CommentController {
     }
 
     /**
-     * Get the list of comments for a seller.
+     * Get the comments of a seller, one window at a time.
      *
      * <p>
-     * This endpoint returns a list of all comments for a specific seller.
+     * This endpoint returns the comments of a specific seller, newest first. Only approved comments are
+     * returned unless asked otherwise; the next window is requested with the cursor of the previous one.
      * </p>
      *
      * @param sellerId the ID of the seller whose comments are to be retrieved.
-     * @return the list of comments for the seller.
+     * @param approvedOnly whether to leave out comments not approved yet.
+     * @param cursor the cursor returned with the previous window; omitted for the first window.
+     * @param size the number of comments per window.
+     * @return the comments of the window and the cursor of the next one.
      */
     @Operation(
-            summary = "Get a list of comments for a seller",
-            description = "Returns a list of all comments for a specific seller.",
+            summary = "Get the comments of a seller",
+            description = "Returns the comments of a specific seller, newest first, one window at a time using an opaque cursor.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Comments list successfully fetched"),
+                    @ApiResponse(responseCode = "200", description = "Comments successfully fetched"),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor"),
                     @ApiResponse(responseCode = "404", description = "Seller not found")
             }
     )
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<List<CommentResponse>> getListOfSellersComments(@PathVariable Long sellerId) {
-        return ResponseEntity.ok(commentService.getSellersComments(sellerId));
+    public ResponseEntity<ScrollResponse<CommentResponse>> getListOfSellersComments(
+            @PathVariable Long sellerId,
+            @RequestParam(defaultValue = "true") boolean approvedOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.getSellersComments(sellerId, approvedOnly, cursor, size));
+    }
+
+    /**
+     * Search comments by their message.
+     *
+     * <p>
+     * This endpoint returns the comments matching a full-text query, most relevant first.
+     * </p>
+     *
+     * @param q            the full-text search query, e.g. {@code fast delivery -scam}.
+     * @param sellerId     the ID of the seller the comments are about (optional).
+     * @param approvedOnly whether to leave out comments not approved yet.
+     * @param count        how to report the total: exact, none or approximate.
+     * @param pageable     the page; the results cannot be sorted otherwise.
+     * @return the matching comments.
+     */
+    @Operation(
+            summary = "Search comments",
+            description = "Returns the comments matching a full-text query, most relevant first.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Comments successfully fetched"),
+                    @ApiResponse(responseCode = "400", description = "Blank query or unsupported sort")
+            }
+    )
+    @GetMapping("/search")
+    public ResponseEntity<Slice<CommentResponse>> searchComments(
+            @RequestParam String q,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(defaultValue = "true") boolean approvedOnly,
+            @RequestParam(defaultValue = "EXACT") PageCountMode count,
+            Pageable pageable) {
+        return ResponseEntity.ok(commentService.searchComments(q, sellerId, approvedOnly, count, pageable));
     }
 
     /**
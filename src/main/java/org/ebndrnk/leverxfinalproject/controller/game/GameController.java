@@ -5,17 +5,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GamePatchRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.ebndrnk.leverxfinalproject.service.game.GameCategoryService;
 import org.ebndrnk.leverxfinalproject.service.game.GameService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 /**
  * The controller for handling game object-related requests.
@@ -29,6 +35,7 @@ import java.net.URI;
 @RequestMapping("/game")
 public class GameController {
     private final GameService gameObjectService;
+    private final GameCategoryService gameCategoryService;
 
     /**
      * Creates a new game object.
@@ -112,13 +119,41 @@ public class GameController {
      */
     @Operation(summary = "List Game Objects", description = "Retrieves a list of all game objects.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Game objects retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Game objects retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unsupported sort")
     })
     @GetMapping
     public ResponseEntity<Page<GameResponse>> getAllGameObjects(Pageable pageable) {
         return ResponseEntity.ok(gameObjectService.getAllGameObjects(pageable));
     }
 
+    /**
+     * Retrieves game objects one window at a time, newest first, optionally filtered by title and text.
+     * <p>
+     * The next window is requested with the cursor of the previous one instead of a page number,
+     * so deep windows are as fast as the first, and no total count is computed.
+     * </p>
+     *
+     * @param title   the title of the game object to search for (optional).
+     * @param text    the text content of the game object to search for (optional).
+     * @param cursor  the cursor returned with the previous window; omitted for the first window.
+     * @param size    the number of game objects per window.
+     * @return a ResponseEntity containing the game objects of the window and the cursor of the next one.
+     */
+    @Operation(summary = "Scroll Game Objects", description = "Retrieves game objects one window at a time using an opaque cursor, without a total count.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Game objects retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollResponse<GameResponse>> scrollGameObjects(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(gameObjectService.scrollGameObjects(title, text, cursor, size));
+    }
+
     /**
      * Deletes a game object by its ID.
      * <p>
@@ -175,24 +210,44 @@ public class GameController {
      * <p>
      * Allows searching for game objects by providing one or both of the search criteria:
      * title and text. It returns a paginated list of game objects that match the search parameters.
+     * With a full-text query, the matching game objects are ranked by relevance instead.
      * </p>
      *
      * @param title   the title of the game object to search for (optional).
      * @param text    the text content of the game object to search for (optional).
+     * @param q       the full-text search query, e.g. {@code "rare skin" -souvenir} (optional).
+     * @param count   how to report the total: exact, none or approximate.
      * @param pageable the pagination information.
      * @return a ResponseEntity containing a paginated list of GameResponse objects matching the search criteria.
      */
     @GetMapping("/search")
-    @Operation(summary = "Search Game Objects", description = "Searches game objects by title or text.")
+    @Operation(summary = "Search Game Objects", description = "Searches game objects by title or text, or ranks them by relevance to a full-text query.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Game objects retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Game objects retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unsupported sort")
     })
-    public ResponseEntity<Page<GameResponse>> searchGameObjects(
+    public ResponseEntity<Slice<GameResponse>> searchGameObjects(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String text,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "EXACT") PageCountMode count,
             Pageable pageable) {
 
-        return ResponseEntity.ok(gameObjectService.findGameObjects(title, text, pageable));
+        return ResponseEntity.ok(gameObjectService.findGameObjects(title, text, q, count, pageable));
+    }
+
+    /**
+     * Retrieves the game categories games can be assigned to.
+     *
+     * @return a ResponseEntity containing the categories ordered by name.
+     */
+    @Operation(summary = "List Game Categories", description = "Retrieves the game categories, e.g. CS:GO or FIFA, ordered by name.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Game categories retrieved successfully")
+    })
+    @GetMapping("/categories")
+    public ResponseEntity<List<GameCategoryResponse>> getGameCategories() {
+        return ResponseEntity.ok(gameCategoryService.getAllCategories());
     }
 
 }
@@ -7,15 +7,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileExpansion;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.DailyRatingResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingStatisticsResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.RatingWindow;
 import org.ebndrnk.leverxfinalproject.service.profile.ProfileService;
 import org.ebndrnk.leverxfinalproject.service.rating.RatingService;
+import org.ebndrnk.leverxfinalproject.service.rating.RatingWindowService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Controller for handling user profile operations.
  * <p>
@@ -31,6 +43,7 @@ public class ProfileController {
 
     private final ProfileService profileService;
     private final RatingService ratingService;
+    private final RatingWindowService ratingWindowService;
 
     /**
      * Retrieves a list of all users in the system.
@@ -40,19 +53,55 @@ public class ProfileController {
      * </p>
      *
      * @param projection a flag to select a projection if only part of the data is needed.
+     * @param expand the associations to include with each user: comments, games or none; all when omitted.
+     * @param count how to report the total: exact, none or approximate.
      * @param pageable pagination for the response data.
      * @return ResponseEntity containing the list of users.
      */
     @Operation(summary = "Get all users", description = "Returns a list of all users or a projection if requested")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Users retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown expand value or unsupported sort")
     })
     @GetMapping()
-    public ResponseEntity<Page<?>> getAllProfiles(
+    public ResponseEntity<Slice<?>> getAllProfiles(
             @Parameter(description = "If true, returns a projection of user data instead of full profiles")
             @RequestParam(required = false) boolean projection,
+            @Parameter(description = "Associations to include: comments, games or none; all when omitted")
+            @RequestParam(required = false) List<String> expand,
+            @Parameter(description = "Total to report: EXACT counts, NONE only tells whether more follow, APPROXIMATE estimates")
+            @RequestParam(defaultValue = "EXACT") PageCountMode count,
             Pageable pageable) {
-        return ResponseEntity.ok(profileService.getAll(projection, pageable));
+        return ResponseEntity.ok(profileService.getAll(projection, ProfileExpansion.parse(expand), count, pageable));
+    }
+
+    /**
+     * Retrieves users one window at a time, ordered by rating, best first.
+     * <p>
+     * Unlike the paginated listing, the next window is requested with the cursor of the previous one,
+     * so deep windows are as fast as the first, and no total count is computed.
+     * </p>
+     *
+     * @param expand the associations to include with each user: comments, games or none; all when omitted.
+     * @param cursor the cursor returned with the previous window; omitted for the first window.
+     * @param size the number of users per window.
+     * @return ResponseEntity containing the users of the window and the cursor of the next one.
+     */
+    @Operation(summary = "Scroll all users", description = "Returns users by rating one window at a time using an opaque cursor, without a total count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or expand value")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollResponse<ProfileSummaryResponse>> scrollProfiles(
+            @Parameter(description = "Associations to include: comments, games or none; all when omitted")
+            @RequestParam(required = false) List<String> expand,
+            @Parameter(description = "Cursor of the next window returned with the previous one")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of users per window, at most 100")
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(profileService.scrollProfiles(null, null, null, null,
+                ProfileExpansion.parse(expand), cursor, size));
     }
 
     /**
@@ -76,6 +125,51 @@ public class ProfileController {
         return ResponseEntity.ok(profileService.getProfileResponseById(profileId));
     }
 
+    /**
+     * Retrieves the rating statistics of a user profile.
+     * <p>
+     * Returns the distribution of marks, the average and the median mark of the profile.
+     * </p>
+     *
+     * @param profileId the unique ID of the user profile.
+     * @return ResponseEntity containing the rating statistics of the profile.
+     */
+    @Operation(summary = "Get rating statistics of a profile", description = "Retrieves the mark distribution, average and median of a profile")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rating statistics retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "User profile not found")
+    })
+    @GetMapping("/{profileId}/statistics")
+    public ResponseEntity<RatingStatisticsResponse> getRatingStatistics(
+            @Parameter(description = "Unique ID of the user profile")
+            @PathVariable(name = "profileId") Long profileId) {
+        return ResponseEntity.ok(profileService.getRatingStatistics(profileId));
+    }
+
+    /**
+     * Retrieves the daily rating trend of a user profile.
+     * <p>
+     * Returns the number and average of the marks given per day, oldest day first, including days without marks.
+     * </p>
+     *
+     * @param profileId the unique ID of the user profile.
+     * @param days the number of days up to and including today.
+     * @return ResponseEntity containing one entry per day.
+     */
+    @Operation(summary = "Get rating trend of a profile", description = "Retrieves the number and average of marks per day, up to one year back")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rating trend retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "User profile not found")
+    })
+    @GetMapping("/{profileId}/rating-trend")
+    public ResponseEntity<List<DailyRatingResponse>> getRatingTrend(
+            @Parameter(description = "Unique ID of the user profile")
+            @PathVariable(name = "profileId") Long profileId,
+            @Parameter(description = "Number of days up to and including today, at most 365")
+            @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(ratingWindowService.getTrend(profileId, days));
+    }
+
     /**
      * Allows a user to rate a profile.
      * <p>
@@ -85,15 +179,17 @@ public class ProfileController {
      * @param request the request containing rating data.
      * @param profileId the unique ID of the profile being rated.
      * @param httpServletRequest the request object to get data about the current user.
-     * @return ResponseEntity containing the updated profile data after rating.
+     * @return ResponseEntity containing the rating summary of the profile after rating.
      */
     @Operation(summary = "Rate a user profile", description = "Allows users to rate a profile by sending a rating request")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Profile rated successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid rating request")
+            @ApiResponse(responseCode = "400", description = "Invalid rating request"),
+            @ApiResponse(responseCode = "404", description = "Profile not found"),
+            @ApiResponse(responseCode = "429", description = "Too many ratings are waiting to be written")
     })
     @PostMapping("/{profileId}/rating")
-    public ResponseEntity<ProfileResponse> evaluate(
+    public ResponseEntity<RatingSummaryResponse> evaluate(
             @Valid @RequestBody RatingRequest request,
             @Parameter(description = "Unique ID of the profile to be rated")
             @PathVariable(name = "profileId") Long profileId,
@@ -101,53 +197,135 @@ public class ProfileController {
         return ResponseEntity.ok(ratingService.evaluate(request, profileId, httpServletRequest));
     }
 
+    /**
+     * Retracts the mark the current user has given to a profile.
+     *
+     * @param profileId the unique ID of the rated profile.
+     * @param httpServletRequest the request object to get data about the current user.
+     * @return ResponseEntity containing the rating summary of the profile after the retraction.
+     */
+    @Operation(summary = "Retract a rating", description = "Removes the mark the current user has given to a profile")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rating retracted successfully"),
+            @ApiResponse(responseCode = "404", description = "Profile or rating not found")
+    })
+    @DeleteMapping("/{profileId}/rating")
+    public ResponseEntity<RatingSummaryResponse> retract(
+            @Parameter(description = "Unique ID of the rated profile")
+            @PathVariable(name = "profileId") Long profileId,
+            HttpServletRequest httpServletRequest) {
+        return ResponseEntity.ok(ratingService.retract(profileId, httpServletRequest));
+    }
+
     /**
      * Retrieves a list of top sellers from the cache.
      * <p>
-     * This method returns a list of users with the highest ratings (by sales),
-     * limited by the specified count. The default count is 10, and these results
+     * This method returns a list of users with the highest ranking score, limited by the specified count.
+     * The score is a Bayesian average of the marks, so sellers with few marks do not outrank
+     * sellers with a long track record. The default count is 10, and these results
      * are fetched from Redis cache for performance optimization.
      * </p>
      *
      * @param count the maximum number of top sellers to return (default is 10).
+     * @param categoryId the game category to rank the sellers in; all sellers are ranked when omitted.
+     * @param projection a flag to return only the ranking data of each seller, without comments and games.
      * @return ResponseEntity containing the list of top sellers.
      */
     @Operation(summary = "Get top-rated sellers", description = "Returns a list of the highest-rated sellers, fetched from Redis cache")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Top sellers retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Game category not found"),
             @ApiResponse(responseCode = "500", description = "Error retrieving top sellers")
     })
     @GetMapping("/top")
-    public ResponseEntity<Page<ProfileResponse>> getTopBestSellers(
+    public ResponseEntity<Page<?>> getTopBestSellers(
             @Parameter(description = "Maximum number of top sellers to retrieve (default is 10)")
-            @RequestParam(name = "count", defaultValue = "10") int count){
-        return ResponseEntity.ok(profileService.getTopSellers(count));
+            @RequestParam(name = "count", defaultValue = "10") int count,
+            @Parameter(description = "ID of the game category to rank the sellers in, see /game/categories")
+            @RequestParam(name = "category", required = false) Long categoryId,
+            @Parameter(description = "If true, returns only the ranking data of each seller, without comments and games")
+            @RequestParam(required = false) boolean projection){
+        return ResponseEntity.ok(profileService.getTopSellers(count, categoryId, projection));
     }
 
     /**
      * Searches for user profiles by rating.
      * <p>
-     * This method allows searching for user profiles filtered by minimum and maximum rating.
+     * This method allows searching for user profiles filtered by minimum and maximum rating
+     * and by the minimum average mark over a recent window. Results can be sorted by the windowed scores,
+     * e.g. {@code sort=ratingAvg30d,desc}.
      * </p>
      *
      * @param minRating the minimum rating for filtering.
      * @param maxRating the maximum rating for filtering.
+     * @param window the recent window used by minRecentRating.
+     * @param minRecentRating the minimum average mark within the window.
+     * @param expand the associations to include with each profile: comments, games or none; all when omitted.
+     * @param count how to report the total: exact, none or approximate.
      * @param pageable pagination for the response data.
      * @return ResponseEntity containing the list of user profiles matching the criteria.
      */
     @Operation(summary = "Search profiles by rating", description = "Filters profiles based on minimum and maximum rating values")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Profiles matching the criteria retrieved successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid rating filter range")
+            @ApiResponse(responseCode = "400", description = "Invalid rating filter range, expand value or unsupported sort")
     })
     @GetMapping("/search")
-    public ResponseEntity<Page<ProfileResponse>> searchProfilesByRating(
+    public ResponseEntity<Slice<ProfileSummaryResponse>> searchProfilesByRating(
             @Parameter(description = "Minimum rating for filtering")
             @RequestParam(required = false) Byte minRating,
             @Parameter(description = "Maximum rating for filtering")
             @RequestParam(required = false) Byte maxRating,
+            @Parameter(description = "Recent window the minimum recent rating applies to")
+            @RequestParam(defaultValue = "DAYS_30") RatingWindow window,
+            @Parameter(description = "Minimum average mark within the recent window")
+            @RequestParam(required = false) Double minRecentRating,
+            @Parameter(description = "Associations to include: comments, games or none; all when omitted")
+            @RequestParam(required = false) List<String> expand,
+            @Parameter(description = "Total to report: EXACT counts, NONE only tells whether more follow, APPROXIMATE estimates")
+            @RequestParam(defaultValue = "EXACT") PageCountMode count,
             Pageable pageable) {
 
-        return ResponseEntity.ok(profileService.findProfilesByRating(minRating, maxRating, pageable));
+        return ResponseEntity.ok(profileService.findProfilesByRating(minRating, maxRating, window, minRecentRating,
+                ProfileExpansion.parse(expand), count, pageable));
+    }
+
+    /**
+     * Searches for user profiles by rating one window at a time, ordered by rating, best first.
+     * Takes the filters of {@code /profile/search} and a cursor instead of a page number.
+     *
+     * @param minRating the minimum rating for filtering.
+     * @param maxRating the maximum rating for filtering.
+     * @param window the recent window used by minRecentRating.
+     * @param minRecentRating the minimum average mark within the window.
+     * @param expand the associations to include with each profile: comments, games or none; all when omitted.
+     * @param cursor the cursor returned with the previous window; omitted for the first window.
+     * @param size the number of profiles per window.
+     * @return ResponseEntity containing the profiles of the window and the cursor of the next one.
+     */
+    @Operation(summary = "Scroll profiles by rating", description = "Filters profiles by rating and returns them one window at a time using an opaque cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profiles matching the criteria retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid rating filter range, cursor or expand value")
+    })
+    @GetMapping("/search/scroll")
+    public ResponseEntity<ScrollResponse<ProfileSummaryResponse>> scrollProfilesByRating(
+            @Parameter(description = "Minimum rating for filtering")
+            @RequestParam(required = false) Byte minRating,
+            @Parameter(description = "Maximum rating for filtering")
+            @RequestParam(required = false) Byte maxRating,
+            @Parameter(description = "Recent window the minimum recent rating applies to")
+            @RequestParam(defaultValue = "DAYS_30") RatingWindow window,
+            @Parameter(description = "Minimum average mark within the recent window")
+            @RequestParam(required = false) Double minRecentRating,
+            @Parameter(description = "Associations to include: comments, games or none; all when omitted")
+            @RequestParam(required = false) List<String> expand,
+            @Parameter(description = "Cursor of the next window returned with the previous one")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of profiles per window, at most 100")
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(profileService.scrollProfiles(minRating, maxRating, window, minRecentRating,
+                ProfileExpansion.parse(expand), cursor, size));
     }
 }
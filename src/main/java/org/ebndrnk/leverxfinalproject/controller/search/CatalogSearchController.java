@@ -0,0 +1,61 @@
+package org.ebndrnk.leverxfinalproject.controller.search;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.model.dto.search.CatalogSearchHit;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.service.search.CatalogSearchService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+/**
+ * The controller for searching the whole catalog: games, seller profiles and approved comments.
+ * <p>
+ * Searches are served from the search index of the replica, not from the database, so a change may take
+ * a second to show up.
+ * </p>
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/search")
+public class CatalogSearchController {
+    private final CatalogSearchService catalogSearchService;
+
+    /**
+     * Searches the catalog.
+     * <p>
+     * Every word of the query has to match, but it may be misspelled or only the start of a word,
+     * e.g. {@code advent} or {@code adventrue} for "adventure". The results come most relevant first.
+     * </p>
+     *
+     * @param q        the words to look for.
+     * @param type     the kinds of items to look for (optional, all kinds by default).
+     * @param minPrice the lowest price of the games (optional); only games match a price range.
+     * @param maxPrice the highest price of the games (optional).
+     * @param pageable the page; the results cannot be sorted otherwise.
+     * @return the matching items.
+     */
+    @Operation(summary = "Search Catalog", description = "Finds games, seller profiles and approved comments by words, tolerating typos and incomplete words, most relevant first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed successfully"),
+            @ApiResponse(responseCode = "400", description = "Query without words, empty price range, unsupported sort or page past the first 1000 results")
+    })
+    @GetMapping("")
+    public ResponseEntity<Slice<CatalogSearchHit>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Set<SearchDocumentType> type,
+            @RequestParam(required = false) Float minPrice,
+            @RequestParam(required = false) Float maxPrice,
+            Pageable pageable) {
+        return ResponseEntity.ok(catalogSearchService.search(q, type, minPrice, maxPrice, pageable));
+    }
+}
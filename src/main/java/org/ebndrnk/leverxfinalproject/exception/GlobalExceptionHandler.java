@@ -221,6 +221,143 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorInfo, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(RatingNotFoundException.class)
+    public ResponseEntity<ErrorInfo> handleRatingNotFoundException(
+            RatingNotFoundException ex, HttpServletRequest request) {
+        log.error("RatingNotFoundException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.NOT_FOUND.value(),
+                HttpStatus.NOT_FOUND.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(RatingIngestionOverflowException.class)
+    public ResponseEntity<ErrorInfo> handleRatingIngestionOverflowException(
+            RatingIngestionOverflowException ex, HttpServletRequest request) {
+        log.warn("RatingIngestionOverflowException: {}", ex.getMessage());
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(GameCategoryNotFoundException.class)
+    public ResponseEntity<ErrorInfo> handleGameCategoryNotFoundException(
+            GameCategoryNotFoundException ex, HttpServletRequest request) {
+        log.error("GameCategoryNotFoundException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.NOT_FOUND.value(),
+                HttpStatus.NOT_FOUND.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(GameCategoryAlreadyExistsException.class)
+    public ResponseEntity<ErrorInfo> handleGameCategoryAlreadyExistsException(
+            GameCategoryAlreadyExistsException ex, HttpServletRequest request) {
+        log.error("GameCategoryAlreadyExistsException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorInfo> handleInvalidCursorException(InvalidCursorException ex, HttpServletRequest request) {
+        log.error("InvalidCursorException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidExpandException.class)
+    public ResponseEntity<ErrorInfo> handleInvalidExpandException(InvalidExpandException ex, HttpServletRequest request) {
+        log.error("InvalidExpandException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidSortException.class)
+    public ResponseEntity<ErrorInfo> handleInvalidSortException(InvalidSortException ex, HttpServletRequest request) {
+        log.error("InvalidSortException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidModerationRequestException.class)
+    public ResponseEntity<ErrorInfo> handleInvalidModerationRequestException(InvalidModerationRequestException ex,
+                                                                             HttpServletRequest request) {
+        log.error("InvalidModerationRequestException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ModerationItemClaimedException.class)
+    public ResponseEntity<ErrorInfo> handleModerationItemClaimedException(ModerationItemClaimedException ex,
+                                                                          HttpServletRequest request) {
+        log.error("ModerationItemClaimedException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidSearchQueryException.class)
+    public ResponseEntity<ErrorInfo> handleInvalidSearchQueryException(InvalidSearchQueryException ex,
+                                                                       HttpServletRequest request) {
+        log.error("InvalidSearchQueryException: {}", ex.getMessage(), ex);
+        ErrorInfo errorInfo = new ErrorInfo(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorInfo, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorInfo> handleValidationExceptions(MethodArgumentNotValidException ex, HttpServletRequest request) {
         String errorMessages = ex.getBindingResult().getFieldErrors().stream()
@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class GameCategoryAlreadyExistsException extends RuntimeException {
+    public GameCategoryAlreadyExistsException(String message) {
+        super(message);
+    }
+}
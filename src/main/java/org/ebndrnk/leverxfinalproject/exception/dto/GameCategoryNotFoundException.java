@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class GameCategoryNotFoundException extends RuntimeException {
+    public GameCategoryNotFoundException(String message) {
+        super(message);
+    }
+}
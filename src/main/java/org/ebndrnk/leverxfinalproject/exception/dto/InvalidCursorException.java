@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class InvalidExpandException extends RuntimeException {
+    public InvalidExpandException(String message) {
+        super(message);
+    }
+}
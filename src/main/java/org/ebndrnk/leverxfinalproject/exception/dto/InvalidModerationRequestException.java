@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class InvalidModerationRequestException extends RuntimeException {
+    public InvalidModerationRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class ModerationItemClaimedException extends RuntimeException {
+    public ModerationItemClaimedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class RatingIngestionOverflowException extends RuntimeException {
+    public RatingIngestionOverflowException(String message) {
+        super(message);
+    }
+}
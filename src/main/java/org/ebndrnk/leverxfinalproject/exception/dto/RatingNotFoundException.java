@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.exception.dto;
+
+public class RatingNotFoundException extends RuntimeException {
+    public RatingNotFoundException(String message) {
+        super(message);
+    }
+}
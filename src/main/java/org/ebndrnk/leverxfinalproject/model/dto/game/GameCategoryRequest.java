@@ -0,0 +1,22 @@
+package org.ebndrnk.leverxfinalproject.model.dto.game;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class GameCategoryRequest {
+
+    @Schema(description = "Display name of the category", example = "CS:GO")
+    @NotBlank(message = "Name cannot be blank.")
+    @Size(max = 100, message = "Name cannot exceed 100 characters.")
+    private String name;
+
+    @Schema(description = "URL-friendly name of the category", example = "cs-go")
+    @NotBlank(message = "Slug cannot be blank.")
+    @Size(max = 100, message = "Slug cannot exceed 100 characters.")
+    @Pattern(regexp = "[a-z0-9]+(-[a-z0-9]+)*", message = "Slug may only contain lowercase letters, digits and dashes.")
+    private String slug;
+}
@@ -0,0 +1,17 @@
+package org.ebndrnk.leverxfinalproject.model.dto.game;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class GameCategoryResponse {
+
+    @Schema(description = "ID of the category", example = "1")
+    private Long id;
+
+    @Schema(description = "Display name of the category", example = "CS:GO")
+    private String name;
+
+    @Schema(description = "URL-friendly name of the category", example = "cs-go")
+    private String slug;
+}
@@ -19,4 +19,7 @@ public class GamePatchRequest {
     @Schema(description = "Price of the game", example = "49.99")
     @Min(value = 0, message = "Price should be greater than or equal to 0.")
     private Float price;
+
+    @Schema(description = "ID of the game category, see /game/categories", example = "1")
+    private Long categoryId;
 }
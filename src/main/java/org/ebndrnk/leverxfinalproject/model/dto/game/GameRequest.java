@@ -21,4 +21,7 @@ public class GameRequest {
     @Min(value = 0, message = "Price should be greater than or equal to 0.")
     @NotNull(message = "price cannot be null")
     private float price;
+
+    @Schema(description = "ID of the game category, see /game/categories", example = "1")
+    private Long categoryId;
 }
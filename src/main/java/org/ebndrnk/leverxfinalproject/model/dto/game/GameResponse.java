@@ -17,4 +17,10 @@ public class GameResponse {
 
     @Schema(description = "price of game")
     private float price;
+
+    @Schema(description = "ID of the game category", example = "1")
+    private Long categoryId;
+
+    @Schema(description = "Name of the game category", example = "CS:GO")
+    private String categoryName;
 }
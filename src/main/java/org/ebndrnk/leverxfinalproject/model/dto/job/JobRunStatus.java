@@ -0,0 +1,10 @@
+package org.ebndrnk.leverxfinalproject.model.dto.job;
+
+public enum JobRunStatus {
+    SUCCEEDED,
+    FAILED,
+    /**
+     * Another replica holds the lease of the job.
+     */
+    SKIPPED
+}
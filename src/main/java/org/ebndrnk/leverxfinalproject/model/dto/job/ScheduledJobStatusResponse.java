@@ -0,0 +1,37 @@
+package org.ebndrnk.leverxfinalproject.model.dto.job;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledJobStatusResponse {
+
+    @Schema(description = "Name of the job", example = "rating-shard-fold")
+    private String name;
+
+    @Schema(description = "Whether this replica holds the lease of the job")
+    private boolean leader;
+
+    @Schema(description = "Replica holding the lease of the job, if known", example = "backend-7d9f6-x2k4p:1f3a9c2e")
+    private String leaseOwner;
+
+    @Schema(description = "Outcome of the last tick on this replica", example = "SUCCEEDED")
+    private JobRunStatus lastStatus;
+
+    @Schema(description = "When this replica last ran the job")
+    private LocalDateTime lastStartedAt;
+
+    @Schema(description = "Duration of the last run on this replica in milliseconds", example = "42")
+    private Long lastDurationMs;
+
+    @Schema(description = "Error of the last failed run, if any")
+    private String lastError;
+
+    @Schema(description = "Number of runs on this replica", example = "1200")
+    private long runs;
+
+    @Schema(description = "Number of ticks skipped on this replica because another replica leads the job", example = "3600")
+    private long skipped;
+}
@@ -0,0 +1,26 @@
+package org.ebndrnk.leverxfinalproject.model.dto.moderation;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class BulkModerationRequest {
+
+    @Schema(description = "IDs of the items to decide; without them the decision applies to every item matching the filters",
+            example = "[12, 15, 16]")
+    @Size(max = 100000, message = "No more than 100000 IDs per request.")
+    private List<Long> ids;
+
+    @Schema(description = "Only decide items no moderator has reviewed yet", example = "true")
+    private boolean pendingOnly = true;
+
+    @Schema(description = "Only decide comments about this seller", example = "7")
+    private Long sellerId;
+
+    @Schema(description = "Only decide items created before this time", example = "2026-10-01T00:00:00")
+    private LocalDateTime createdBefore;
+}
@@ -0,0 +1,37 @@
+package org.ebndrnk.leverxfinalproject.model.dto.moderation;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationDecision;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJobStatus;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BulkModerationResponse {
+
+    @Schema(description = "Identifier of the background job, absent when the decision completed within the request", example = "3")
+    private Long jobId;
+
+    @Schema(description = "Queue of the decided items", example = "COMMENTS")
+    private ModerationQueue queue;
+
+    @Schema(description = "Decision applied to the items", example = "CONFIRM")
+    private ModerationDecision decision;
+
+    @Schema(description = "State of the decision", example = "COMPLETED")
+    private ModerationJobStatus status;
+
+    @Schema(description = "Number of items decided so far", example = "50000")
+    private long affectedItems;
+
+    @Schema(description = "When the job was created")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "When the job completed or failed")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Error that stopped the job, if any")
+    private String errorMessage;
+}
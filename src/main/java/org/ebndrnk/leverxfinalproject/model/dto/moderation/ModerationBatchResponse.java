@@ -0,0 +1,23 @@
+package org.ebndrnk.leverxfinalproject.model.dto.moderation;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A batch of a moderation queue claimed by one moderator.
+ */
+@Data
+public class ModerationBatchResponse<T> {
+
+    @Schema(description = "Claimed items, oldest first")
+    private List<T> items;
+
+    @Schema(description = "Moderator holding the claims", example = "admin")
+    private String claimedBy;
+
+    @Schema(description = "When the claims expire and the items unreviewed by then go back to the queue")
+    private LocalDateTime leaseExpiresAt;
+}
@@ -0,0 +1,35 @@
+package org.ebndrnk.leverxfinalproject.model.dto.page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page whose total is an estimate, e.g. "about 12k results". Returned when more items follow the page;
+ * a listing that ends within the page knows its total and is returned as an exact page instead.
+ */
+@Getter
+public class ApproximatePage<T> extends SliceImpl<T> {
+
+    @Schema(description = "Estimated number of matching items", example = "12000")
+    private final long approximateTotalElements;
+
+    @Schema(description = "Whether the estimate is only a lower bound, i.e. counting stopped at a cap")
+    private final boolean lowerBound;
+
+    public ApproximatePage(List<T> content, Pageable pageable, long approximateTotalElements, boolean lowerBound) {
+        super(content, pageable, true);
+        this.approximateTotalElements = approximateTotalElements;
+        this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public <U> ApproximatePage<U> map(Function<? super T, ? extends U> converter) {
+        return new ApproximatePage<>(getConvertedContent(converter), getPageable(),
+                approximateTotalElements, lowerBound);
+    }
+}
@@ -0,0 +1,19 @@
+package org.ebndrnk.leverxfinalproject.model.dto.page;
+
+/**
+ * How a paginated listing reports the number of matching items.
+ */
+public enum PageCountMode {
+    /**
+     * Exact total, counted with a separate query whenever more items follow the page.
+     */
+    EXACT,
+    /**
+     * No total, only whether more items follow the page. Runs no count query.
+     */
+    NONE,
+    /**
+     * Estimated total, see {@link ApproximatePage}. Runs no full count query.
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,26 @@
+package org.ebndrnk.leverxfinalproject.model.dto.page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One window of a keyset-paginated listing. Unlike a page it carries no total count; the next window
+ * is requested with {@link #nextCursor}.
+ */
+@Data
+public class ScrollResponse<T> {
+
+    @Schema(description = "Items of this window")
+    private List<T> content;
+
+    @Schema(description = "Number of items in this window", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more items follow this window")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque cursor of the next window, absent on the last one", example = "eyJyYXRpbmciOjcsImlkIjo0Mn0")
+    private String nextCursor;
+}
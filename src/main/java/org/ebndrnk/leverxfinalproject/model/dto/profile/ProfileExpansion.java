@@ -0,0 +1,59 @@
+package org.ebndrnk.leverxfinalproject.model.dto.profile;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidExpandException;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Associations of a profile that listings load only when the {@code expand} parameter asks for them.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProfileExpansion {
+    COMMENTS("comments"),
+    GAMES("games");
+
+    /**
+     * Value of {@code expand} that asks for no association, returning profile summaries.
+     */
+    public static final String NONE = "none";
+
+    private final String parameter;
+
+    /**
+     * Parses the {@code expand} parameter, e.g. {@code expand=comments,games} or {@code expand=none}.
+     * Without the parameter every association is expanded, as listings did before it existed.
+     *
+     * @param values The values of the parameter, or {@code null} if it is absent.
+     * @return The associations to load.
+     * @throws InvalidExpandException if a value names no association.
+     */
+    public static Set<ProfileExpansion> parse(Collection<String> values) {
+        if (values == null) {
+            return EnumSet.allOf(ProfileExpansion.class);
+        }
+        Set<ProfileExpansion> expansions = EnumSet.noneOf(ProfileExpansion.class);
+        for (String value : values) {
+            String parameter = value.trim().toLowerCase(Locale.ROOT);
+            if (parameter.isEmpty() || parameter.equals(NONE)) {
+                continue;
+            }
+            expansions.add(fromParameter(parameter));
+        }
+        return expansions;
+    }
+
+    private static ProfileExpansion fromParameter(String parameter) {
+        for (ProfileExpansion expansion : values()) {
+            if (expansion.parameter.equals(parameter)) {
+                return expansion;
+            }
+        }
+        throw new InvalidExpandException("Unknown expand value '" + parameter + "', expected comments, games or none");
+    }
+}
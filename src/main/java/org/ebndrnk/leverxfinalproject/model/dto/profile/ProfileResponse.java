@@ -1,39 +1,25 @@
 package org.ebndrnk.leverxfinalproject.model.dto.profile;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
 
 import java.util.List;
 
 @Data
-public class ProfileResponse {
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ProfileResponse extends ProfileSummaryResponse {
 
-    @Schema(description = "Unique identifier of the profile")
-    private Long id;
-
-    @Schema(description = "Username of the profile owner")
-    private String username;
-
-    @Schema(description = "First name of the profile owner")
-    private String firstname;
-
-    @Schema(description = "Last name of the profile owner")
-    private String lastname;
-
-    @Schema(description = "Email of the profile owner")
-    private String email;
-
-    @Schema(description = "List of comments made by users on the profile")
+    @Schema(description = "List of comments made by users on the profile, absent unless expanded")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<CommentResponse> comment;
 
-    @Schema(description = "Indicates if the profile is confirmed by an admin")
-    private boolean isConfirmedByAdmin;
-
-    @Schema(description = "List of games associated with the profile")
+    @Schema(description = "List of games associated with the profile, absent unless expanded")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<GameResponse> gameObjects;
-
-    @Schema(description = "Rating of the profile, ranging from 0 to 5")
-    private byte rating;
 }
@@ -0,0 +1,56 @@
+package org.ebndrnk.leverxfinalproject.model.dto.profile;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * A profile without its comments and games, returned by listings unless they are expanded.
+ */
+@Data
+public class ProfileSummaryResponse {
+
+    @Schema(description = "Unique identifier of the profile")
+    private Long id;
+
+    @Schema(description = "Username of the profile owner")
+    private String username;
+
+    @Schema(description = "First name of the profile owner")
+    private String firstname;
+
+    @Schema(description = "Last name of the profile owner")
+    private String lastname;
+
+    @Schema(description = "Email of the profile owner")
+    private String email;
+
+    @Schema(description = "Indicates if the profile is confirmed by an admin")
+    private boolean isConfirmedByAdmin;
+
+    @Schema(description = "Rating of the profile, ranging from 0 to 5")
+    private byte rating;
+
+    @Schema(description = "Number of marks the rating is based on")
+    private long ratingCount;
+
+    @Schema(description = "Confidence-weighted score sellers are ranked by")
+    private Double rankingScore;
+
+    @Schema(description = "Average mark given during the last 7 days, 0 when there were none")
+    private double ratingAvg7d;
+
+    @Schema(description = "Number of marks given during the last 7 days")
+    private long ratingCount7d;
+
+    @Schema(description = "Average mark given during the last 30 days, 0 when there were none")
+    private double ratingAvg30d;
+
+    @Schema(description = "Number of marks given during the last 30 days")
+    private long ratingCount30d;
+
+    @Schema(description = "Average mark given during the last 90 days, 0 when there were none")
+    private double ratingAvg90d;
+
+    @Schema(description = "Number of marks given during the last 90 days")
+    private long ratingCount90d;
+}
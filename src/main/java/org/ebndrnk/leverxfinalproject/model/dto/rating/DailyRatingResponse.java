@@ -0,0 +1,20 @@
+package org.ebndrnk.leverxfinalproject.model.dto.rating;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailyRatingResponse {
+
+    @Schema(description = "Day the marks were given", example = "2026-10-17")
+    private LocalDate day;
+
+    @Schema(description = "Number of marks given that day", example = "12")
+    private long ratingCount;
+
+    @Schema(description = "Average of the marks given that day rounded to two decimal places, 0 when there were none",
+            example = "7.42")
+    private double average;
+}
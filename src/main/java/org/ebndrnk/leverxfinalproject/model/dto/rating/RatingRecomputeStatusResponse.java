@@ -0,0 +1,38 @@
+package org.ebndrnk.leverxfinalproject.model.dto.rating;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RecomputeJobStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RatingRecomputeStatusResponse {
+
+    @Schema(description = "Identifier of the job", example = "3")
+    private Long jobId;
+
+    @Schema(description = "State of the job", example = "RUNNING")
+    private RecomputeJobStatus status;
+
+    @Schema(description = "Every profile with an id up to this one has been recomputed", example = "120000")
+    private long lastProfileId;
+
+    @Schema(description = "Number of profiles recomputed so far", example = "120000")
+    private long processedProfiles;
+
+    @Schema(description = "Number of ratings read so far", example = "4500000")
+    private long processedRatings;
+
+    @Schema(description = "Ratings read per second since the job was (re)started", example = "250000.0")
+    private double ratingsPerSecond;
+
+    @Schema(description = "When the job was created")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "When the job completed or failed")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Error that stopped the job, if any")
+    private String errorMessage;
+}
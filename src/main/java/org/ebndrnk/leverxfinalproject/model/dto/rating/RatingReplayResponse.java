@@ -0,0 +1,34 @@
+package org.ebndrnk.leverxfinalproject.model.dto.rating;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class RatingReplayResponse {
+
+    @Schema(description = "Unique identifier of the profile", example = "1")
+    private Long profileId;
+
+    @Schema(description = "Last event included in the snapshot the replay started from, 0 without a snapshot",
+            example = "104233")
+    private long snapshotEventId;
+
+    @Schema(description = "Last event replayed", example = "104871")
+    private long lastEventId;
+
+    @Schema(description = "Number of events replayed on top of the snapshot", example = "638")
+    private long replayedEvents;
+
+    @Schema(description = "Number of marks according to the event log", example = "128")
+    private long ratingCount;
+
+    @Schema(description = "Average mark according to the event log, rounded to two decimal places", example = "7.42")
+    private double average;
+
+    @Schema(description = "Number of marks per value: element i is the number of marks equal to i (0..10)",
+            example = "[0, 1, 0, 2, 3, 5, 10, 20, 40, 30, 17]")
+    private long[] histogram;
+
+    @Schema(description = "Whether the replayed aggregate was written to the profile")
+    private boolean applied;
+}
@@ -0,0 +1,24 @@
+package org.ebndrnk.leverxfinalproject.model.dto.rating;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class RatingStatisticsResponse {
+
+    @Schema(description = "Unique identifier of the profile", example = "1")
+    private Long profileId;
+
+    @Schema(description = "Number of marks given to the profile", example = "128")
+    private long ratingCount;
+
+    @Schema(description = "Average mark rounded to two decimal places", example = "7.42")
+    private double average;
+
+    @Schema(description = "Median mark, 0 when the profile has no marks", example = "8")
+    private int median;
+
+    @Schema(description = "Number of marks per value: element i is the number of marks equal to i (0..10)",
+            example = "[0, 1, 0, 2, 3, 5, 10, 20, 40, 30, 17]")
+    private long[] histogram;
+}
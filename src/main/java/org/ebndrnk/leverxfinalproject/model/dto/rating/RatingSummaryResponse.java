@@ -0,0 +1,23 @@
+package org.ebndrnk.leverxfinalproject.model.dto.rating;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class RatingSummaryResponse {
+
+    @Schema(description = "Unique identifier of the rated profile", example = "1")
+    private Long profileId;
+
+    @Schema(description = "Rating of the profile (truncated average mark), ranging from 0 to 10", example = "7")
+    private byte rating;
+
+    @Schema(description = "Exact average mark of the profile", example = "7.42")
+    private double average;
+
+    @Schema(description = "Number of marks the rating is based on", example = "128")
+    private long ratingCount;
+
+    @Schema(description = "True when the vote was accepted but is not yet reflected in the rating", example = "false")
+    private boolean pending;
+}
@@ -0,0 +1,29 @@
+package org.ebndrnk.leverxfinalproject.model.dto.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class CatalogSearchHit {
+
+    @Schema(description = "Kind of the item", example = "GAME")
+    private SearchDocumentType type;
+
+    @Schema(description = "ID of the game, profile or comment", example = "12")
+    private Long id;
+
+    @Schema(description = "Title of a game or username of a profile; absent for comments", example = "Epic Adventure")
+    private String title;
+
+    @Schema(description = "Description of a game, name of a profile or message of a comment")
+    private String text;
+
+    @Schema(description = "Price of a game; absent for profiles and comments", example = "19.99")
+    private Float price;
+
+    @Schema(description = "ID of the seller offering the game, receiving the comment or owning the profile", example = "3")
+    private Long sellerId;
+
+    @Schema(description = "Relevance of the item to the query, higher is better", example = "7.25")
+    private float score;
+}
@@ -0,0 +1,10 @@
+package org.ebndrnk.leverxfinalproject.model.dto.search;
+
+/**
+ * The kinds of items in the catalog search index.
+ */
+public enum SearchDocumentType {
+    GAME,
+    PROFILE,
+    COMMENT
+}
@@ -0,0 +1,28 @@
+package org.ebndrnk.leverxfinalproject.model.dto.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SearchIndexStatusResponse {
+
+    @Schema(description = "Number of items in the index of this replica", example = "125000")
+    private long documents;
+
+    @Schema(description = "Whether a rebuild is running; searches see the index as it was before it until it ends")
+    private boolean rebuilding;
+
+    @Schema(description = "When the last rebuild started")
+    private LocalDateTime lastRebuildStartedAt;
+
+    @Schema(description = "When the last rebuild completed or failed")
+    private LocalDateTime lastRebuildFinishedAt;
+
+    @Schema(description = "Number of items indexed by the last rebuild", example = "125000")
+    private long lastRebuildDocuments;
+
+    @Schema(description = "Error that stopped the last rebuild, if any")
+    private String lastRebuildError;
+}
@@ -6,6 +6,8 @@ import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
 import org.ebndrnk.leverxfinalproject.model.entity.anonymous.AnonymousUser;
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Getter
 @Setter
@@ -31,4 +33,23 @@ public class Comment extends BasicEntity {
     @org.hibernate.annotations.Comment("A flag indicating whether the comment has been approved by an admin. Default is false.")
     @Column(name = "approved")
     private boolean approved = false;
-}
\ No newline at end of file
+
+    @org.hibernate.annotations.Comment("Moderator holding the claim on the comment in the moderation queue. Written only by the queue.")
+    @Column(name = "claimed_by", length = 100, insertable = false, updatable = false)
+    private String claimedBy;
+
+    @org.hibernate.annotations.Comment("End of the moderation claim; the comment can be claimed again afterwards. Written only by the queue.")
+    @Column(name = "claim_expires_at", insertable = false, updatable = false)
+    private LocalDateTime claimExpiresAt;
+
+    @org.hibernate.annotations.Comment("When a moderator confirmed or declined the comment. Null while it waits for moderation.")
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+
+    public Comment(String message, AnonymousUser author, Profile seller, boolean approved) {
+        this.message = message;
+        this.author = author;
+        this.seller = seller;
+        this.approved = approved;
+    }
+}
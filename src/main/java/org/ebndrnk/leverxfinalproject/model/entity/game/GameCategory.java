@@ -0,0 +1,24 @@
+package org.ebndrnk.leverxfinalproject.model.entity.game;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.hibernate.annotations.Comment;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Table(name = "game_category")
+public class GameCategory extends BasicEntity {
+
+    @Comment("Display name of the category")
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Comment("URL-friendly name of the category")
+    @Column(name = "slug", nullable = false, unique = true, length = 100)
+    private String slug;
+}
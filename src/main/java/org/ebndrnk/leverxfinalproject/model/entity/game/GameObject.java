@@ -32,4 +32,9 @@ public class GameObject extends BasicEntity {
     @Column(name = "price", nullable = false)
     private Float price;
 
+    @Comment("Category of the game. A seller belongs to every category they offer a game in.")
+    @ManyToOne
+    @JoinColumn(name = "category_id")
+    private GameCategory category;
+
 }
\ No newline at end of file
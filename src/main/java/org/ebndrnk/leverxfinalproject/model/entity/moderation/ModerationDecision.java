@@ -0,0 +1,16 @@
+package org.ebndrnk.leverxfinalproject.model.entity.moderation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * What a moderator decided about an item: confirming sets its approval flag, declining clears it.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ModerationDecision {
+    CONFIRM(true),
+    DECLINE(false);
+
+    private final boolean approved;
+}
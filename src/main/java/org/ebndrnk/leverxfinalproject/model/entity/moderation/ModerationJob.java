@@ -0,0 +1,71 @@
+package org.ebndrnk.leverxfinalproject.model.entity.moderation;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "moderation_job")
+@ToString
+@Data
+public class ModerationJob extends BasicEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "queue", length = 20, nullable = false)
+    @Comment("COMMENTS or PROFILES")
+    private ModerationQueue queue;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "decision", length = 20, nullable = false)
+    @Comment("CONFIRM or DECLINE")
+    private ModerationDecision decision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    @Comment("QUEUED, RUNNING, COMPLETED or FAILED")
+    private ModerationJobStatus status;
+
+    @Column(name = "requested_by", length = 100, nullable = false)
+    @Comment("Username of the moderator who started the job")
+    private String requestedBy;
+
+    @Column(name = "last_item_id", nullable = false)
+    @Comment("Every selected item with id <= last_item_id has already been decided")
+    private long lastItemId = 0;
+
+    @Column(name = "affected_items", nullable = false)
+    @Comment("Number of items decided by the job")
+    private long affectedItems = 0;
+
+    @Column(name = "finished_at")
+    @Comment("Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", length = 1000)
+    @Comment("Error that stopped the job, if any")
+    private String errorMessage;
+
+    @Column(name = "pending_only")
+    @Comment("Filter of the job: only items not reviewed yet. Null for jobs deciding a list of IDs")
+    private Boolean pendingOnly;
+
+    @Column(name = "seller_id")
+    @Comment("Filter of the job: only comments about this seller")
+    private Long sellerId;
+
+    @Column(name = "created_before")
+    @Comment("Filter of the job: only items created before this time")
+    private LocalDateTime createdBefore;
+
+    @Column(name = "heartbeat_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP")
+    @Comment("Last time the replica holding the job showed it is alive")
+    private LocalDateTime heartbeatAt;
+}
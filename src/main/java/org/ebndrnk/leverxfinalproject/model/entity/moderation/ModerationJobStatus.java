@@ -0,0 +1,8 @@
+package org.ebndrnk.leverxfinalproject.model.entity.moderation;
+
+public enum ModerationJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -9,7 +9,11 @@ import lombok.ToString;
 import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
 import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
 import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @EqualsAndHashCode(callSuper = true)
@@ -43,6 +47,7 @@ public class Profile extends BasicEntity {
     @org.hibernate.annotations.Comment("List of comments made by the user.")
     @Column(name = "comment", columnDefinition = "TEXT")
     @OneToMany(mappedBy = "seller", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<Comment> comment;
 
     @org.hibernate.annotations.Comment("Flag indicating whether the profile is confirmed by an admin.")
@@ -51,9 +56,67 @@ public class Profile extends BasicEntity {
 
     @org.hibernate.annotations.Comment("List of game objects associated with the user.")
     @OneToMany(mappedBy = "seller")
+    @BatchSize(size = 100)
     private List<GameObject> gameObjects;
 
     @org.hibernate.annotations.Comment("Users rating. Default is 0.")
     @Column(name = "rating")
     private byte rating = 0;
-}
\ No newline at end of file
+
+    @org.hibernate.annotations.Comment("Sum of all marks given to the seller. Maintained incrementally on every vote.")
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum = 0;
+
+    @org.hibernate.annotations.Comment("Number of marks given to the seller. Maintained incrementally on every vote.")
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount = 0;
+
+    @org.hibernate.annotations.Comment("Number of marks per value: element i counts the marks equal to i. Maintained incrementally on every vote.")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "rating_histogram", nullable = false)
+    private long[] ratingHistogram = new long[11];
+
+    @org.hibernate.annotations.Comment("Average mark in fixed point with two decimal places (average * 100, rounded half up).")
+    @Column(name = "rating_mean_fixed", nullable = false)
+    private int ratingMeanFixed = 0;
+
+    @org.hibernate.annotations.Comment("Bayesian average used to rank sellers: (rating_sum + 10 * 5) / (rating_count + 10). Generated by the database.")
+    @Column(name = "ranking_score", insertable = false, updatable = false)
+    private Double rankingScore;
+
+    @org.hibernate.annotations.Comment("Average mark given during the last 7 days. Rolled up from profile_rating_daily.")
+    @Column(name = "rating_avg_7d", nullable = false)
+    private double ratingAvg7d = 0;
+
+    @org.hibernate.annotations.Comment("Number of marks given during the last 7 days. Rolled up from profile_rating_daily.")
+    @Column(name = "rating_count_7d", nullable = false)
+    private long ratingCount7d = 0;
+
+    @org.hibernate.annotations.Comment("Average mark given during the last 30 days. Rolled up from profile_rating_daily.")
+    @Column(name = "rating_avg_30d", nullable = false)
+    private double ratingAvg30d = 0;
+
+    @org.hibernate.annotations.Comment("Number of marks given during the last 30 days. Rolled up from profile_rating_daily.")
+    @Column(name = "rating_count_30d", nullable = false)
+    private long ratingCount30d = 0;
+
+    @org.hibernate.annotations.Comment("Average mark given during the last 90 days. Rolled up from profile_rating_daily.")
+    @Column(name = "rating_avg_90d", nullable = false)
+    private double ratingAvg90d = 0;
+
+    @org.hibernate.annotations.Comment("Number of marks given during the last 90 days. Rolled up from profile_rating_daily.")
+    @Column(name = "rating_count_90d", nullable = false)
+    private long ratingCount90d = 0;
+
+    @org.hibernate.annotations.Comment("Moderator holding the claim on the profile in the moderation queue. Written only by the queue.")
+    @Column(name = "claimed_by", length = 100, insertable = false, updatable = false)
+    private String claimedBy;
+
+    @org.hibernate.annotations.Comment("End of the moderation claim; the profile can be claimed again afterwards. Written only by the queue.")
+    @Column(name = "claim_expires_at", insertable = false, updatable = false)
+    private LocalDateTime claimExpiresAt;
+
+    @org.hibernate.annotations.Comment("When a moderator confirmed or declined the profile. Null while it waits for moderation.")
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+}
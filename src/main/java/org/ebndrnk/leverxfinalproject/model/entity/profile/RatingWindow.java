@@ -0,0 +1,19 @@
+package org.ebndrnk.leverxfinalproject.model.entity.profile;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Windows of recent marks rolled up on the profile, with the names of the attributes that hold them.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RatingWindow {
+    DAYS_7(7, "ratingAvg7d", "ratingCount7d"),
+    DAYS_30(30, "ratingAvg30d", "ratingCount30d"),
+    DAYS_90(90, "ratingAvg90d", "ratingCount90d");
+
+    private final int days;
+    private final String averageAttribute;
+    private final String countAttribute;
+}
@@ -0,0 +1,45 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.hibernate.annotations.Comment;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "profile_rating_daily", uniqueConstraints = @UniqueConstraint(
+        name = "profile_rating_daily_uk", columnNames = {"profile_id", "day", "shard"}))
+@ToString
+@Data
+public class ProfileRatingDaily extends BasicEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "profile_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @Comment("Rated seller")
+    private Profile profile;
+
+    @Column(name = "day", nullable = false)
+    @Comment("Day the marks were given")
+    private LocalDate day;
+
+    @Column(name = "shard", nullable = false)
+    @Comment("Stripe of the seller counters, chosen by the hash of the author")
+    private short shard;
+
+    @Column(name = "rating_sum", nullable = false)
+    @Comment("Sum of the marks given that day")
+    private long ratingSum = 0;
+
+    @Column(name = "rating_count", nullable = false)
+    @Comment("Number of the marks given that day")
+    private long ratingCount = 0;
+}
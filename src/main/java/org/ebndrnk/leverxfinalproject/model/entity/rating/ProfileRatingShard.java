@@ -0,0 +1,39 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.hibernate.annotations.Comment;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "profile_rating_shard", uniqueConstraints = @UniqueConstraint(
+        name = "profile_rating_shard_uk", columnNames = {"profile_id", "shard", "mark"}))
+@ToString
+@Data
+public class ProfileRatingShard extends BasicEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "profile_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @Comment("Rated seller")
+    private Profile profile;
+
+    @Column(name = "shard", nullable = false)
+    @Comment("Stripe of the seller counters, chosen by the hash of the author")
+    private short shard;
+
+    @Column(name = "mark", nullable = false)
+    @Comment("number from 0 to 10")
+    private short mark;
+
+    @Column(name = "mark_count", nullable = false)
+    @Comment("Change of the number of marks with this value since the last fold, may be negative")
+    private long markCount = 0;
+}
@@ -13,7 +13,8 @@ import org.hibernate.annotations.Comment;
 
 @EqualsAndHashCode(callSuper = true)
 @Entity
-@Table(name = "rating")
+@Table(name = "rating", uniqueConstraints = @UniqueConstraint(
+        name = "rating_seller_author_uk", columnNames = {"seller_id", "author_id"}))
 @ToString
 @Data
 public class Rating extends BasicEntity {
@@ -0,0 +1,54 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change of a rating in the append-only rating log.
+ * <p>
+ * Events are never updated, so unlike the other entities it has no version and no update time,
+ * and refers to the seller and the author by id only to keep the rows small.
+ * </p>
+ */
+@Entity
+@Table(name = "rating_event", indexes = {
+        @Index(name = "rating_event_seller_idx", columnList = "seller_id, id"),
+        @Index(name = "rating_event_seller_author_idx", columnList = "seller_id, author_id, id")
+})
+@Data
+public class RatingEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Comment("Identifier, also the order of the events")
+    @Column(nullable = false, name = "id", columnDefinition = "BIGINT")
+    private Long id;
+
+    @Comment("Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000")
+    @Column(nullable = false, name = "created_dttm", columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "seller_id", nullable = false)
+    @Comment("Rated seller")
+    private Long sellerId;
+
+    @Column(name = "author_id", nullable = false)
+    @Comment("Anonymous user who voted")
+    private Long authorId;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "event_type", nullable = false)
+    @Comment("0 - mark given, 1 - mark changed, 2 - mark retracted")
+    private RatingEventType eventType;
+
+    @Column(name = "mark")
+    @Comment("Mark after the event, null for a retraction")
+    private Byte mark;
+
+    @Column(name = "previous_mark")
+    @Comment("Mark before the event, null for a new mark")
+    private Byte previousMark;
+}
@@ -0,0 +1,10 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+/**
+ * Type of a rating event. Stored by ordinal, so new types may only be appended.
+ */
+public enum RatingEventType {
+    CREATE,
+    CHANGE,
+    RETRACT
+}
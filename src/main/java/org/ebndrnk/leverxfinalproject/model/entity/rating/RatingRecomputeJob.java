@@ -0,0 +1,52 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "rating_recompute_job")
+@ToString
+@Data
+public class RatingRecomputeJob extends BasicEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    @Comment("RUNNING, COMPLETED or FAILED")
+    private RecomputeJobStatus status;
+
+    @Column(name = "last_profile_id", nullable = false)
+    @Comment("Every profile with id <= last_profile_id has already been recomputed")
+    private long lastProfileId = 0;
+
+    @Column(name = "processed_profiles", nullable = false)
+    @Comment("Number of profiles recomputed by the job")
+    private long processedProfiles = 0;
+
+    @Column(name = "processed_ratings", nullable = false)
+    @Comment("Number of ratings read by the job")
+    private long processedRatings = 0;
+
+    @Column(name = "finished_at")
+    @Comment("Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", length = 1000)
+    @Comment("Error that stopped the job, if any")
+    private String errorMessage;
+
+    @Column(name = "owner", length = 64, updatable = false)
+    @Comment("Id of the replica running or last running the job")
+    private String owner;
+
+    @Column(name = "heartbeat_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP")
+    @Comment("Last time the owner showed it is alive")
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,31 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.hibernate.annotations.Comment;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "rating_snapshot")
+@ToString
+@Data
+public class RatingSnapshot extends BasicEntity {
+
+    @Column(name = "profile_id", nullable = false, unique = true)
+    @Comment("Rated seller")
+    private Long profileId;
+
+    @Column(name = "last_event_id", nullable = false)
+    @Comment("Last event of the seller included in the snapshot")
+    private long lastEventId;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "rating_histogram", nullable = false)
+    @Comment("Number of marks per value: element i counts the marks equal to i")
+    private long[] ratingHistogram = new long[11];
+}
@@ -0,0 +1,20 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.hibernate.annotations.Comment;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "rating_snapshot_scan")
+@ToString
+@Data
+public class RatingSnapshotScan extends BasicEntity {
+
+    @Column(name = "scanned_event_id", nullable = false)
+    @Comment("Every event with id <= scanned_event_id has been considered for a snapshot")
+    private long scannedEventId = 0;
+}
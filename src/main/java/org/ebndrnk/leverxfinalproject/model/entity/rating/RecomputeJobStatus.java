@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.model.entity.rating;
+
+public enum RecomputeJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
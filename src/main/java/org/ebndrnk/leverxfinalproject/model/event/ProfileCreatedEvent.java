@@ -0,0 +1,9 @@
+package org.ebndrnk.leverxfinalproject.model.event;
+
+/**
+ * Published when a seller profile was created, so it enters the leaderboard before its first vote.
+ *
+ * @param profileId The ID of the new profile.
+ */
+public record ProfileCreatedEvent(Long profileId) {
+}
@@ -0,0 +1,9 @@
+package org.ebndrnk.leverxfinalproject.model.event;
+
+/**
+ * Published when a seller profile was deleted, so it leaves the leaderboard and the caches.
+ *
+ * @param profileId The ID of the deleted profile.
+ */
+public record ProfileDeletedEvent(Long profileId) {
+}
@@ -0,0 +1,11 @@
+package org.ebndrnk.leverxfinalproject.model.event;
+
+/**
+ * Published when the rating aggregate of a seller changed.
+ *
+ * @param profileId   The ID of the rated profile.
+ * @param ratingSum   The sum of the marks after the change, including changes still pending in the rating shards.
+ * @param ratingCount The number of marks after the change, including changes still pending in the rating shards.
+ */
+public record RatingChangedEvent(Long profileId, long ratingSum, long ratingCount) {
+}
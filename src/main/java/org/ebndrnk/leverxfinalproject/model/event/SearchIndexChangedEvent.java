@@ -0,0 +1,15 @@
+package org.ebndrnk.leverxfinalproject.model.event;
+
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+
+import java.util.Collection;
+
+/**
+ * Published when games, profiles or comments were created, changed or deleted, so the catalog search index
+ * reads them again.
+ *
+ * @param type The kind of the changed items.
+ * @param ids  The IDs of the changed items.
+ */
+public record SearchIndexChangedEvent(SearchDocumentType type, Collection<Long> ids) {
+}
@@ -0,0 +1,12 @@
+package org.ebndrnk.leverxfinalproject.model.event;
+
+import java.util.Set;
+
+/**
+ * Published when a seller added, moved or removed games, so the seller may have joined or left categories.
+ *
+ * @param profileId   The ID of the seller.
+ * @param categoryIds The categories of the changed games, before and after the change.
+ */
+public record SellerCatalogChangedEvent(Long profileId, Set<Long> categoryIds) {
+}
@@ -0,0 +1,10 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+
+import java.time.LocalDate;
+
+public interface DailyRating {
+    LocalDate getDay();
+    long getRatingSum();
+    long getRatingCount();
+}
@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+public interface ProfileVersion {
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+
+public interface RatingStatistics {
+    Long getId();
+    long[] getRatingHistogram();
+}
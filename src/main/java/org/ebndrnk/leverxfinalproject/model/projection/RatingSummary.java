@@ -0,0 +1,8 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+
+public interface RatingSummary {
+    Long getId();
+    long getRatingSum();
+    long getRatingCount();
+}
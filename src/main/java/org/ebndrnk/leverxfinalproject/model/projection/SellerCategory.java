@@ -0,0 +1,7 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+public interface SellerCategory {
+    Long getSellerId();
+
+    Long getCategoryId();
+}
@@ -0,0 +1,15 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+/**
+ * A comment of a seller feed. A seller without matching comments is read as a single row
+ * whose comment fields are {@code null}.
+ */
+public interface SellerComment {
+    Long getSellerId();
+
+    Long getId();
+
+    String getMessage();
+
+    Boolean getApproved();
+}
@@ -0,0 +1,14 @@
+package org.ebndrnk.leverxfinalproject.model.projection;
+
+/**
+ * Leaderboard entry of a seller without comments and games.
+ */
+public interface TopSellerPreview {
+    Long getId();
+    String getUsername();
+    String getFirstname();
+    String getLastname();
+    byte getRating();
+    long getRatingCount();
+    Double getRankingScore();
+}
@@ -1,20 +1,46 @@
 package org.ebndrnk.leverxfinalproject.repository.comment;
 
 import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.projection.SellerComment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllBySeller_Id(Long id);
 
-    @Modifying
+    /**
+     * Reads the seller and the comments before a cursor in one query, so a missing seller is told apart
+     * from a seller without comments: the first gives no row, the second one row without a comment.
+     */
+    String SELLER_COMMENTS_SELECT = "SELECT p.id AS sellerId, c.id AS id, c.message AS message, c.approved AS approved" +
+            " FROM Profile p LEFT JOIN Comment c ON c.seller = p AND c.id < :beforeId";
+
+    /**
+     * Reads a window of the approved comments of a seller, newest first, from
+     * {@code comment_seller_approved_id_idx}.
+     */
+    @Query(SELLER_COMMENTS_SELECT + " AND c.approved = true WHERE p.id = :sellerId ORDER BY c.id DESC")
+    List<SellerComment> findApprovedSellerComments(@Param("sellerId") Long sellerId,
+                                                   @Param("beforeId") long beforeId,
+                                                   Pageable pageable);
+
+    @Query(SELLER_COMMENTS_SELECT + " WHERE p.id = :sellerId ORDER BY c.id DESC")
+    List<SellerComment> findSellerComments(@Param("sellerId") Long sellerId,
+                                           @Param("beforeId") long beforeId,
+                                           Pageable pageable);
+
     @Query(value = "SELECT c from Comment c where c.approved = false")
     List<Comment> findAllUnconfirmed();
 
-    @Modifying
     @Query(value = "SELECT c from Comment c where c.approved = true")
     List<Comment> findAllConfirmed();
+
+    /**
+     * Reads the approved comments after a key, for a rebuild of the search index.
+     */
+    @Query("SELECT c FROM Comment c WHERE c.approved = true AND c.id > :afterId ORDER BY c.id")
+    List<Comment> findSearchIndexPage(@Param("afterId") long afterId, Pageable pageable);
 }
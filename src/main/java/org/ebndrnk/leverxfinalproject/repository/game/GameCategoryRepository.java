@@ -0,0 +1,16 @@
+package org.ebndrnk.leverxfinalproject.repository.game;
+
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface GameCategoryRepository extends JpaRepository<GameCategory, Long> {
+    boolean existsByNameIgnoreCaseOrSlug(String name, String slug);
+
+    List<GameCategory> findAllByOrderByNameAsc();
+
+    @Query("SELECT c.id FROM GameCategory c")
+    List<Long> findAllIds();
+}
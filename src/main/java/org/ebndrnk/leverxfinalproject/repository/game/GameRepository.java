@@ -1,8 +1,33 @@
 package org.ebndrnk.leverxfinalproject.repository.game;
 
 import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.projection.SellerCategory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface GameRepository extends JpaRepository<GameObject, Long>, JpaSpecificationExecutor<GameObject> {
+
+    /**
+     * @param sellerId The ID of the seller.
+     * @return The categories the seller offers at least one game in.
+     */
+    @Query("SELECT DISTINCT g.category.id FROM GameObject g WHERE g.seller.id = :sellerId AND g.category IS NOT NULL")
+    List<Long> findCategoryIdsBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT DISTINCT g.seller.id AS sellerId, g.category.id AS categoryId FROM GameObject g" +
+            " WHERE g.seller.id IN :sellerIds AND g.category IS NOT NULL")
+    List<SellerCategory> findSellerCategories(@Param("sellerIds") Collection<Long> sellerIds);
+
+    /**
+     * Reads the games after a key with their sellers and categories, for a rebuild of the search index.
+     */
+    @Query("SELECT g FROM GameObject g JOIN FETCH g.seller LEFT JOIN FETCH g.category" +
+            " WHERE g.id > :afterId ORDER BY g.id")
+    List<GameObject> findSearchIndexPage(@Param("afterId") long afterId, Pageable pageable);
 }
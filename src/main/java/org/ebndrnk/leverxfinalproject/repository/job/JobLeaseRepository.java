@@ -0,0 +1,92 @@
+package org.ebndrnk.leverxfinalproject.repository.job;
+
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Redis leases of scheduled jobs. A lease is a key holding the id of the replica that leads the job and
+ * expires unless that replica renews it, so another replica takes over once the leader stops.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobLeaseRepository {
+
+    private static final String LEASE_KEY_PREFIX = "job-lease:";
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 1 end " +
+            "return 0", Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0", Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Takes the lease of a job if it is free, or extends it if the owner already holds it.
+     *
+     * @return {@code true} if the owner holds the lease now.
+     */
+    public boolean acquire(String jobName, String owner, Duration lease) {
+        return execute(ACQUIRE_SCRIPT, jobName, owner, lease, "Error acquiring job lease: ");
+    }
+
+    /**
+     * Extends the lease of a job if the owner still holds it.
+     *
+     * @return {@code false} if the lease expired or was taken over.
+     */
+    public boolean renew(String jobName, String owner, Duration lease) {
+        return execute(RENEW_SCRIPT, jobName, owner, lease, "Error renewing job lease: ");
+    }
+
+    public void release(String jobName, String owner) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(jobName)), owner);
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error releasing job lease: ", e);
+        }
+    }
+
+    public String findOwner(String jobName) {
+        try {
+            return stringRedisTemplate.opsForValue().get(leaseKey(jobName));
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error reading job lease: ", e);
+        }
+    }
+
+    private boolean execute(RedisScript<Long> script, String jobName, String owner, Duration lease, String error) {
+        try {
+            Long result = stringRedisTemplate.execute(script, List.of(leaseKey(jobName)), owner,
+                    Long.toString(lease.toMillis()));
+            return result != null && result == 1L;
+        } catch (DataAccessException e) {
+            throw new RedisOperationException(error, e);
+        }
+    }
+
+    private static String leaseKey(String jobName) {
+        return LEASE_KEY_PREFIX + jobName;
+    }
+}
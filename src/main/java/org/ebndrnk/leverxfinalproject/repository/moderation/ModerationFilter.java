@@ -0,0 +1,13 @@
+package org.ebndrnk.leverxfinalproject.repository.moderation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects the items of a moderation queue a bulk decision applies to.
+ *
+ * @param pendingOnly   Only items no moderator has reviewed yet.
+ * @param sellerId      Only comments about this seller, or {@code null} for all sellers.
+ * @param createdBefore Only items created before this time, or {@code null} for all of them.
+ */
+public record ModerationFilter(boolean pendingOnly, Long sellerId, LocalDateTime createdBefore) {
+}
@@ -0,0 +1,41 @@
+package org.ebndrnk.leverxfinalproject.repository.moderation;
+
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJob;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ModerationJobRepository extends JpaRepository<ModerationJob, Long> {
+
+    /**
+     * @return The jobs in one of the statuses whose heartbeat is older than {@code staleBefore}, oldest first.
+     */
+    List<ModerationJob> findByStatusInAndHeartbeatAtBeforeOrderById(Collection<ModerationJobStatus> statuses,
+                                                                     LocalDateTime staleBefore);
+
+    /**
+     * Shows that the replica running or queueing the jobs is alive.
+     *
+     * @return The number of touched jobs.
+     */
+    @Modifying
+    @Query("UPDATE ModerationJob j SET j.heartbeatAt = LOCAL DATETIME WHERE j.id IN :ids")
+    int heartbeat(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Takes over a job whose heartbeat is still older than {@code staleBefore}. Of the replicas starting
+     * at the same time only one succeeds, since the others find the heartbeat touched.
+     *
+     * @return 1 if the job was taken over, 0 if another replica holds it.
+     */
+    @Modifying
+    @Query("UPDATE ModerationJob j SET j.heartbeatAt = LOCAL DATETIME " +
+            "WHERE j.id = :id AND j.heartbeatAt < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,24 @@
+package org.ebndrnk.leverxfinalproject.repository.moderation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Items waiting for a moderator: new comments and profiles not confirmed yet.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ModerationQueue {
+    COMMENTS("comment", "approved", "seller_id"),
+    PROFILES("profile", "is_confirmed_by_admin", null);
+
+    private final String table;
+    /**
+     * The flag a moderation decision sets.
+     */
+    private final String approvalColumn;
+    /**
+     * The seller the items are about, or {@code null} if the items are not about a seller.
+     */
+    private final String sellerColumn;
+}
@@ -0,0 +1,214 @@
+package org.ebndrnk.leverxfinalproject.repository.moderation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Claims of the moderation queues, kept in the {@code claimed_by} and {@code claim_expires_at} columns
+ * of the moderated rows.
+ * <p>
+ * An item is pending until a moderator reviews it ({@code reviewed_at} is set). Moderators claim the oldest
+ * pending items that nobody holds, or whose claim has expired, for the length of a lease. The claimable rows
+ * are locked with {@code FOR UPDATE SKIP LOCKED}, so moderators claiming at the same time get disjoint batches
+ * instead of waiting for each other. Lease and review times come from the database clock, which all replicas
+ * share, so single decisions written through the entities take their review time from {@link #now()}.
+ * A single decision first takes the item with {@link #takeForDecision}, which clears its claim unless another
+ * moderator still holds it and keeps the row locked until the decision commits.
+ * </p>
+ * <p>
+ * Bulk decisions set the approval flag of many items with one {@code UPDATE}, either for a list of IDs or
+ * for the next chunk of items matching a {@link ModerationFilter}. They review the items like a single
+ * decision does, clear their claims and bump their version. Being plain SQL they bypass the Hibernate events
+ * that evict cached copies, so they return the seller of every decided comment for the caller to evict
+ * the profiles embedding it once the decision is committed.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class ModerationQueueRepository {
+
+    private static final String CLAIM_SQL =
+            "UPDATE %1$s SET claimed_by = ?, claim_expires_at = CURRENT_TIMESTAMP + make_interval(secs => ?) " +
+            "WHERE id IN (SELECT id FROM %1$s " +
+                "WHERE reviewed_at IS NULL AND (claim_expires_at IS NULL OR claim_expires_at < CURRENT_TIMESTAMP) " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, claim_expires_at";
+
+    private static final String RELEASE_SQL =
+            "UPDATE %s SET claimed_by = NULL, claim_expires_at = NULL " +
+            "WHERE id = ANY (?) AND claimed_by = ? AND reviewed_at IS NULL";
+
+    private static final String TAKE_FOR_DECISION_SQL =
+            "UPDATE %s SET claimed_by = NULL, claim_expires_at = NULL " +
+            "WHERE id = ANY (?) AND (claimed_by IS NULL OR claimed_by = ? OR claim_expires_at < CURRENT_TIMESTAMP) " +
+            "RETURNING id";
+
+    private static final String DECIDE_SQL =
+            "UPDATE %1$s SET %2$s = ?, reviewed_at = CURRENT_TIMESTAMP, claimed_by = NULL, claim_expires_at = NULL, " +
+                "version = version + 1, updated_at = CURRENT_TIMESTAMP ";
+
+    private static final String DECIDE_IDS_SQL = DECIDE_SQL + "WHERE id = ANY (?) AND %3$s RETURNING %4$s";
+
+    // the locked rows are checked against the filter again, so items decided meanwhile are not decided twice
+    private static final String DECIDE_NEXT_SQL = DECIDE_SQL +
+            "WHERE id IN (SELECT id FROM %1$s WHERE id > ? AND %3$s ORDER BY id LIMIT ? FOR UPDATE) " +
+            "RETURNING %4$s";
+
+    private static final String NOW_SQL = "SELECT LOCALTIMESTAMP";
+
+    private static final RowMapper<Decided> DECIDED_MAPPER = (rs, rowNum) ->
+            new Decided(rs.getLong("id"), rs.getObject("seller_id", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return The current time of the database clock, in the form {@code reviewed_at} stores it.
+     * Inside a transaction this is its start time, like {@code CURRENT_TIMESTAMP} in its statements.
+     */
+    public LocalDateTime now() {
+        return jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    /**
+     * Claims up to {@code limit} pending items of the queue, oldest first.
+     *
+     * @param queue     The queue.
+     * @param moderator The moderator claiming the items.
+     * @param limit     The maximum number of items.
+     * @param lease     How long the items stay claimed unless reviewed or released.
+     * @return The claimed items, in no particular order.
+     */
+    public List<Claim> claim(ModerationQueue queue, String moderator, int limit, Duration lease) {
+        return jdbcTemplate.query(CLAIM_SQL.formatted(queue.getTable()),
+                (rs, rowNum) -> new Claim(rs.getLong("id"), rs.getTimestamp("claim_expires_at").toLocalDateTime()),
+                moderator, lease.toMillis() / 1000.0, limit);
+    }
+
+    /**
+     * Gives back items claimed by the moderator and not reviewed yet, so others can claim them
+     * without waiting for the lease to expire.
+     *
+     * @param queue     The queue.
+     * @param moderator The moderator holding the claims.
+     * @param ids       The IDs of the items.
+     * @return The number of released items.
+     */
+    public int release(ModerationQueue queue, String moderator, Collection<Long> ids) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RELEASE_SQL.formatted(queue.getTable()));
+            Array idArray = connection.createArrayOf("bigint", ids.toArray());
+            ps.setArray(1, idArray);
+            ps.setString(2, moderator);
+            return ps;
+        });
+    }
+
+    /**
+     * Clears the claims of items a moderator is about to decide one by one, skipping items another moderator
+     * holds an unexpired claim on. Run in the transaction writing the decisions, so the taken rows cannot be
+     * claimed again before the decisions commit.
+     *
+     * @param queue     The queue.
+     * @param moderator The moderator deciding the items.
+     * @param ids       The IDs of the items.
+     * @return The IDs of the taken items, in no particular order.
+     */
+    public List<Long> takeForDecision(ModerationQueue queue, String moderator, Collection<Long> ids) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(TAKE_FOR_DECISION_SQL.formatted(queue.getTable()));
+            ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            ps.setString(2, moderator);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("id"));
+    }
+
+    /**
+     * Decides the listed items that match the filter.
+     *
+     * @param queue    The queue.
+     * @param approved The approval flag to set.
+     * @param filter   The filter the items must also match.
+     * @param ids      The IDs of the items.
+     * @return The decided items, in no particular order.
+     */
+    public List<Decided> decide(ModerationQueue queue, boolean approved, ModerationFilter filter,
+                                Collection<Long> ids) {
+        List<Object> filterArgs = new ArrayList<>();
+        String sql = DECIDE_IDS_SQL.formatted(queue.getTable(), queue.getApprovalColumn(),
+                where(queue, filter, filterArgs), returning(queue));
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setBoolean(1, approved);
+            ps.setArray(2, connection.createArrayOf("bigint", ids.toArray()));
+            for (int i = 0; i < filterArgs.size(); i++) {
+                ps.setObject(i + 3, filterArgs.get(i));
+            }
+            return ps;
+        }, DECIDED_MAPPER);
+    }
+
+    /**
+     * Decides the next {@code limit} items matching the filter, in id order.
+     *
+     * @param queue    The queue.
+     * @param approved The approval flag to set.
+     * @param filter   The filter.
+     * @param afterId  The items are taken after this id.
+     * @param limit    The maximum number of items.
+     * @return The decided items, in no particular order. Fewer than {@code limit}
+     * means no matching items are left.
+     */
+    public List<Decided> decideNext(ModerationQueue queue, boolean approved, ModerationFilter filter,
+                                 long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(approved);
+        args.add(afterId);
+        String where = where(queue, filter, args);
+        args.add(limit);
+        return jdbcTemplate.query(DECIDE_NEXT_SQL.formatted(queue.getTable(), queue.getApprovalColumn(), where,
+                returning(queue)), DECIDED_MAPPER, args.toArray());
+    }
+
+    private static String returning(ModerationQueue queue) {
+        return queue.getSellerColumn() == null
+                ? "id, CAST(NULL AS bigint) AS seller_id"
+                : "id, " + queue.getSellerColumn() + " AS seller_id";
+    }
+
+    private static String where(ModerationQueue queue, ModerationFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.pendingOnly()) {
+            conditions.add("reviewed_at IS NULL");
+        }
+        if (filter.sellerId() != null) {
+            conditions.add(queue.getSellerColumn() + " = ?");
+            args.add(filter.sellerId());
+        }
+        if (filter.createdBefore() != null) {
+            conditions.add("created_dttm < ?");
+            args.add(Timestamp.valueOf(filter.createdBefore()));
+        }
+        return conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions);
+    }
+
+    public record Claim(long id, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * @param id       The ID of the decided item.
+     * @param sellerId The seller the comment is about, {@code null} for profiles.
+     */
+    public record Decided(long id, Long sellerId) {
+    }
+}
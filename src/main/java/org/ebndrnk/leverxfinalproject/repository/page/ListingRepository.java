@@ -0,0 +1,220 @@
+package org.ebndrnk.leverxfinalproject.repository.page;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Table;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ApproximatePage;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Paginated reads of entity listings that pay for a total only as far as the {@link PageCountMode} asks.
+ * <p>
+ * Every page is read with one extra row, which tells whether more items follow. A listing that ends within
+ * the page knows its total without counting. Otherwise an exact total runs {@code COUNT(*)}, no total runs
+ * nothing, and an approximate total reads the planner estimate of the table from {@code pg_class} for
+ * unfiltered listings, or counts matching ids up to a cap for filtered ones. Listings read with native SQL
+ * are counted the same way, except that they always count up to the cap for an approximate total.
+ * </p>
+ */
+@Slf4j
+@Repository
+public class ListingRepository {
+
+    private static final String ESTIMATE_ROWS_SQL =
+            "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass(?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int countCap;
+
+    public ListingRepository(JdbcTemplate jdbcTemplate,
+                             @Value("${listing.approximate-count.cap:10000}") int countCap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.countCap = countCap;
+    }
+
+    /**
+     * Reads one page of the entities matching the specification.
+     *
+     * @param type     The entity type.
+     * @param spec     The filter, or {@code null} for all entities.
+     * @param pageable The page and its sort.
+     * @param mode     How to report the total.
+     * @return A page, a slice or an {@link ApproximatePage}, depending on the mode.
+     */
+    public <T> Slice<T> findAll(Class<T> type, Specification<T> spec, Pageable pageable, PageCountMode mode) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            List<T> content = typedQuery.getResultList();
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<T> rows = typedQuery.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return withTotal(new SliceImpl<>(content, pageable, hasNext), type, spec, mode);
+    }
+
+    /**
+     * Adds the total the mode asks for to a slice read elsewhere, e.g. with a projection query.
+     *
+     * @param slice      The slice of the listing.
+     * @param entityType The entity the listing reads.
+     * @param spec       The filter of the listing, or {@code null} if it reads all entities.
+     * @param mode       How to report the total.
+     * @return A page, the slice itself or an {@link ApproximatePage}, depending on the mode.
+     */
+    public <T, E> Slice<T> withTotal(Slice<T> slice, Class<E> entityType, Specification<E> spec, PageCountMode mode) {
+        return withTotal(slice, mode,
+                () -> count(entityType, spec),
+                () -> spec != null && isFiltered(entityType, spec) ? -1 : estimateRows(entityType),
+                cap -> countUpTo(entityType, spec, cap));
+    }
+
+    /**
+     * Adds the total the mode asks for to a slice read with native SQL, e.g. a full-text search.
+     *
+     * @param slice   The slice of the listing.
+     * @param fromSql The {@code FROM} and {@code WHERE} clauses of the listing, with {@code ?} placeholders.
+     * @param args    The values of the placeholders.
+     * @param mode    How to report the total.
+     * @return A page, the slice itself or an {@link ApproximatePage}, depending on the mode.
+     */
+    public <T> Slice<T> withTotal(Slice<T> slice, String fromSql, List<?> args, PageCountMode mode) {
+        return withTotal(slice, mode,
+                () -> countNative("SELECT count(*) " + fromSql, args),
+                () -> -1,
+                cap -> countNative("SELECT count(*) FROM (SELECT 1 " + fromSql + " LIMIT " + cap + ") capped", args));
+    }
+
+    /**
+     * @param exactCount Counts all matching rows.
+     * @param estimate   Estimates the number of rows of an unfiltered listing, or returns {@code -1}.
+     * @param countUpTo  Counts the matching rows up to the given cap.
+     */
+    private <T> Slice<T> withTotal(Slice<T> slice, PageCountMode mode, LongSupplier exactCount,
+                                   LongSupplier estimate, LongUnaryOperator countUpTo) {
+        Pageable pageable = slice.getPageable();
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        if (!slice.hasNext() && (slice.hasContent() || offset == 0)) {
+            return new PageImpl<>(slice.getContent(), pageable, offset + slice.getNumberOfElements());
+        }
+        if (mode == PageCountMode.EXACT) {
+            return new PageImpl<>(slice.getContent(), pageable, exactCount.getAsLong());
+        }
+        // an empty page past the end tells nothing about the total
+        return mode == PageCountMode.APPROXIMATE && slice.hasNext() ? approximate(slice, estimate, countUpTo) : slice;
+    }
+
+    private <T> Slice<T> approximate(Slice<T> slice, LongSupplier estimate, LongUnaryOperator countUpTo) {
+        Pageable pageable = slice.getPageable();
+        // at least one item follows the page
+        long seen = pageable.getOffset() + slice.getNumberOfElements() + 1;
+        long estimated = estimate.getAsLong();
+        if (estimated >= 0) {
+            return new ApproximatePage<>(slice.getContent(), pageable, Math.max(estimated, seen), false);
+        }
+        long cap = Math.max(countCap, seen);
+        long counted = countUpTo.applyAsLong(cap);
+        if (counted < cap) {
+            return new PageImpl<>(slice.getContent(), pageable, counted);
+        }
+        return new ApproximatePage<>(slice.getContent(), pageable, cap, true);
+    }
+
+    private <E> boolean isFiltered(Class<E> entityType, Specification<E> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        return spec.toPredicate(query.from(entityType), query, cb) != null;
+    }
+
+    /**
+     * Reads the row estimate the planner keeps for the table of the entity.
+     *
+     * @return The estimate, or {@code -1} if the table was never analyzed or the database keeps no estimates.
+     */
+    private long estimateRows(Class<?> entityType) {
+        Table table = entityType.getAnnotation(Table.class);
+        if (table == null) {
+            return -1;
+        }
+        try {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATE_ROWS_SQL, Long.class, table.name());
+            return estimate == null ? -1 : estimate;
+        } catch (DataAccessException e) {
+            log.debug("No row estimate for table {}: {}", table.name(), e.getMessage());
+            return -1;
+        }
+    }
+
+    private <E> long count(Class<E> entityType, Specification<E> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityType);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query.select(cb.count(root))).getSingleResult();
+    }
+
+    private long countNative(String sql, List<?> args) {
+        Query query = entityManager.createNativeQuery(sql);
+        for (int i = 0; i < args.size(); i++) {
+            query.setParameter(i + 1, args.get(i));
+        }
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /**
+     * Counts the matching entities by reading at most {@code cap} of their ids, so a broad filter
+     * stops at the cap instead of counting the whole table.
+     */
+    private <E> long countUpTo(Class<E> entityType, Specification<E> spec, long cap) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = cb.createQuery(Object.class);
+        Root<E> root = query.from(entityType);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id"));
+        return entityManager.createQuery(query)
+                .setMaxResults(Math.toIntExact(Math.min(cap, Integer.MAX_VALUE)))
+                .getResultList()
+                .size();
+    }
+}
@@ -2,12 +2,20 @@ package org.ebndrnk.leverxfinalproject.repository.pofile;
 
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
 import org.ebndrnk.leverxfinalproject.model.projection.ProfilePreview;
+import org.ebndrnk.leverxfinalproject.model.projection.ProfileVersion;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingStatistics;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+import org.ebndrnk.leverxfinalproject.model.projection.TopSellerPreview;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,30 +23,137 @@ public interface ProfileRepository extends JpaRepository<Profile, Long>, JpaSpec
     Optional<Profile> findByUsername(String username);
     Optional<Profile> findByEmail(String email);
 
+    String PROFILE_VERSION_SELECT = "SELECT p.id AS id, p.version AS version FROM Profile p ";
+
+    /**
+     * Reads only the id and version of a profile, to check a cached copy of it without loading the entity.
+     */
+    @Query(PROFILE_VERSION_SELECT + "WHERE p.id = :profileId")
+    Optional<ProfileVersion> findVersionById(@Param("profileId") Long profileId);
+
+    @Query(PROFILE_VERSION_SELECT + "WHERE p.username = :username")
+    Optional<ProfileVersion> findVersionByUsername(@Param("username") String username);
+
+    @Query(PROFILE_VERSION_SELECT + "WHERE p.email = :email")
+    Optional<ProfileVersion> findVersionByEmail(@Param("email") String email);
+
     @Query("SELECT p from Profile p where p.isConfirmedByAdmin = false")
     List<Profile> findAllNotConfirmedProfiles();
 
     @Query("SELECT p from Profile p where p.isConfirmedByAdmin = true")
     List<Profile> findAllConfirmedProfiles();
 
-    @Query("SELECT p FROM Profile p "
-            + "LEFT JOIN FETCH p.comment "
-            + "WHERE p.rating IS NOT NULL "
-            + "ORDER BY p.rating DESC")
-    List<Profile> findTopSellersWithLimit(Pageable pageable);
+    /**
+     * Reads the profiles confirmed by an admin after a key, for a rebuild of the search index.
+     */
+    @Query("SELECT p FROM Profile p WHERE p.isConfirmedByAdmin = true AND p.id > :afterId ORDER BY p.id")
+    List<Profile> findSearchIndexPage(@Param("afterId") long afterId, Pageable pageable);
 
+    /**
+     * Reads one page of the ranking from {@code profile_ranking_score_idx}. Profiles are loaded separately
+     * by these ids, since fetching their comments in the same query would make Hibernate paginate in memory.
+     */
+    @Query("SELECT p.id FROM Profile p ORDER BY p.rankingScore DESC, p.id DESC")
+    List<Long> findTopSellerIds(Pageable pageable);
+
+    @Query("SELECT p.id FROM Profile p "
+            + "WHERE EXISTS (SELECT 1 FROM GameObject g WHERE g.seller = p AND g.category.id = :categoryId) "
+            + "ORDER BY p.rankingScore DESC, p.id DESC")
+    List<Long> findTopSellerIdsInCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query("SELECT p.id AS id," +
+            " p.username AS username," +
+            " p.firstname AS firstname," +
+            " p.lastname AS lastname," +
+            " p.rating AS rating," +
+            " p.ratingCount AS ratingCount," +
+            " p.rankingScore AS rankingScore" +
+            " FROM Profile p WHERE p.id IN :profileIds")
+    List<TopSellerPreview> findTopSellerPreviewsByIds(@Param("profileIds") Collection<Long> profileIds);
 
 
 
 
-    @Query("SELECT p.username AS username," +
+    String PROFILE_PREVIEW_SELECT = "SELECT p.username AS username," +
             " p.firstname AS firstname," +
             " p.lastname AS lastname," +
             " p.email AS email," +
             "p.isConfirmedByAdmin AS confirmedByAdmin,"+
             "p.rating AS rating,"+
             "p.id AS id"+
-            " FROM Profile p")
+            " FROM Profile p";
+
+    @Query(PROFILE_PREVIEW_SELECT)
     Page<ProfilePreview> findAllProjectedProfiles(Pageable pageable);
 
+    /**
+     * Reads a page of previews with one extra row instead of a count query.
+     */
+    @Query(PROFILE_PREVIEW_SELECT)
+    Slice<ProfilePreview> findProjectedProfilesSlice(Pageable pageable);
+
+    /**
+     * Locks the given profile rows until the end of the current transaction.
+     */
+    @Query(value = "SELECT id FROM profile WHERE id IN (:profileIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockProfiles(@Param("profileIds") Collection<Long> profileIds);
+
+    /**
+     * Rebuilds the rating aggregate, histogram and averages of the given profiles from their ratings
+     * with one set-based statement.
+     * <p>
+     * Changes still pending in the rating shards are subtracted, since the next fold adds them to the profile.
+     * Callers should lock the profiles first with {@link #lockProfiles(Collection)}, so a fold running
+     * at the same time cannot move shard counters that this statement has already subtracted.
+     * </p>
+     *
+     * @param profileIds The IDs of the profiles.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE profile p SET " +
+            "rating_sum = agg.rating_sum, " +
+            "rating_count = agg.rating_count, " +
+            "rating = CASE WHEN agg.rating_count = 0 THEN 0 ELSE agg.rating_sum / agg.rating_count END, " +
+            "rating_mean_fixed = CASE WHEN agg.rating_count = 0 THEN 0 " +
+                "ELSE (agg.rating_sum * 100 + agg.rating_count / 2) / agg.rating_count END, " +
+            "rating_histogram = agg.rating_histogram, " +
+            "version = p.version + 1, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT s.id AS profile_id, " +
+                "CAST(COALESCE(SUM(m.mark * c.mark_count), 0) AS bigint) AS rating_sum, " +
+                "CAST(COALESCE(SUM(c.mark_count), 0) AS bigint) AS rating_count, " +
+                "ARRAY_AGG(COALESCE(c.mark_count, 0) ORDER BY m.mark) AS rating_histogram " +
+                "FROM profile s " +
+                "CROSS JOIN generate_series(0, 10) AS m(mark) " +
+                "LEFT JOIN (SELECT u.seller_id, u.mark, SUM(u.mark_count) AS mark_count FROM (" +
+                    "SELECT seller_id, mark, 1 AS mark_count FROM rating WHERE seller_id IN (:profileIds) " +
+                    "UNION ALL " +
+                    "SELECT profile_id, mark, -mark_count FROM profile_rating_shard WHERE profile_id IN (:profileIds)" +
+                    ") u GROUP BY u.seller_id, u.mark) c " +
+                    "ON c.seller_id = s.id AND c.mark = m.mark " +
+                "WHERE s.id IN (:profileIds) " +
+                "GROUP BY s.id) agg " +
+            "WHERE p.id = agg.profile_id", nativeQuery = true)
+    int recalculateRatingAggregates(@Param("profileIds") Collection<Long> profileIds);
+
+    String RATING_SUMMARY_SELECT = "SELECT p.id AS id," +
+            " p.ratingSum + COALESCE((SELECT SUM(s1.mark * s1.markCount) FROM ProfileRatingShard s1" +
+            " WHERE s1.profile.id = p.id), 0) AS ratingSum," +
+            " p.ratingCount + COALESCE((SELECT SUM(s2.markCount) FROM ProfileRatingShard s2" +
+            " WHERE s2.profile.id = p.id), 0) AS ratingCount" +
+            " FROM Profile p ";
+
+    @Query(RATING_SUMMARY_SELECT + "WHERE p.id = :profileId")
+    Optional<RatingSummary> findRatingSummaryById(@Param("profileId") Long profileId);
+
+    @Query(RATING_SUMMARY_SELECT + "WHERE p.id IN :profileIds")
+    List<RatingSummary> findRatingSummariesByIds(@Param("profileIds") Collection<Long> profileIds);
+
+    @Query(RATING_SUMMARY_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    List<RatingSummary> findRatingSummariesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id," +
+            " p.ratingHistogram AS ratingHistogram" +
+            " FROM Profile p WHERE p.id = :profileId")
+    Optional<RatingStatistics> findRatingStatisticsById(@Param("profileId") Long profileId);
 }
@@ -0,0 +1,386 @@
+package org.ebndrnk.leverxfinalproject.repository.pofile;
+
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.util.CacheTtl;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Redis storage of the seller leaderboard.
+ * <p>
+ * The ranking is a sorted set of profile ids scored by their ranking score. The ids are zero-padded, so sellers
+ * with the same score are ordered by their id, newest first, like the ranking in the database. Profile summaries shown
+ * on the leaderboard are cached separately under one key per profile, so a rating change only
+ * invalidates the summary of the rated seller.
+ * </p>
+ * <p>
+ * Every game category has its own sorted set with the sellers offering games in it, scored like the
+ * overall ranking. Methods taking a nullable {@code categoryId} address the overall ranking for {@code null}.
+ * </p>
+ * <p>
+ * A rebuild writes to keys of its own and holds a lock key while it runs, so only one replica rebuilds at a time.
+ * Score changes made while the lock is held also record the changed seller, and the record is handed to the
+ * rebuild when it publishes, so the caller can re-apply changes the rebuilt rankings missed.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SellerLeaderboardRepository {
+
+    /**
+     * Versioned, so rankings stored with unpadded members are rebuilt instead of read.
+     */
+    private static final String LEADERBOARD_KEY = "leaderboard:v2:sellers";
+    private static final String REBUILD_INFIX = ":rebuild:";
+    private static final String REBUILD_LOCK_KEY = "leaderboard:v2:sellers:rebuilding";
+    private static final String REBUILD_CHANGES_KEY = "leaderboard:v2:sellers:rebuild-changes";
+    private static final String CATEGORY_KEY_PREFIX = "leaderboard:v2:sellers:category:";
+    private static final String SUMMARY_KEY_PREFIX = "leaderboard:seller:";
+
+    /**
+     * Keeps the keys of a rebuild that died before publishing from staying in Redis for good.
+     */
+    private static final Duration REBUILD_KEY_TTL = Duration.ofHours(1);
+
+    private static final RedisScript<Long> SAVE_SCORE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 3, #KEYS do redis.call('ZADD', KEYS[i], ARGV[2], ARGV[1]) end " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('SADD', KEYS[2], ARGV[1]) end " +
+            "return 1", Long.class);
+
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 3, #KEYS do redis.call('ZREM', KEYS[i], unpack(ARGV)) end " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('SADD', KEYS[2], unpack(ARGV)) end " +
+            "return 1", Long.class);
+
+    private static final RedisScript<Long> START_REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+                    "redis.call('DEL', KEYS[2]) " +
+                    "return 1 " +
+            "end " +
+            "return 0", Long.class);
+
+    private static final RedisScript<Long> RENEW_REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0", Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> PUBLISH_REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return false end " +
+            "for i = 3, #KEYS, 2 do " +
+                    "if redis.call('EXISTS', KEYS[i]) == 1 then " +
+                            "redis.call('RENAME', KEYS[i], KEYS[i + 1]) " +
+                            "redis.call('PERSIST', KEYS[i + 1]) " +
+                    "else " +
+                            "redis.call('DEL', KEYS[i + 1]) " +
+                    "end " +
+            "end " +
+            "local changed = redis.call('SMEMBERS', KEYS[2]) " +
+            "redis.call('DEL', KEYS[1], KEYS[2]) " +
+            "return changed", List.class);
+
+    private static final RedisScript<Long> ABORT_REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #KEYS do redis.call('DEL', KEYS[i]) end " +
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('DEL', KEYS[1]) end " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, ProfileResponse> redisProfileSummaryTemplate;
+
+    public boolean exists() {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(LEADERBOARD_KEY));
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error checking leaderboard: ", e);
+        }
+    }
+
+    /**
+     * Saves the score of a seller in the overall ranking and in the rankings of the given categories,
+     * in one script that also records the seller if a rebuild is running.
+     *
+     * @param profileId   The ID of the seller.
+     * @param score       The ranking score.
+     * @param categoryIds The categories the seller offers games in.
+     */
+    public void saveScore(long profileId, double score, Collection<Long> categoryIds) {
+        List<String> keys = changeKeys();
+        keys.add(LEADERBOARD_KEY);
+        for (Long categoryId : categoryIds) {
+            keys.add(leaderboardKey(categoryId));
+        }
+        try {
+            stringRedisTemplate.execute(SAVE_SCORE_SCRIPT, keys, member(profileId), Double.toString(score));
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error saving leaderboard score: ", e);
+        }
+    }
+
+    public void removeScores(Long categoryId, Collection<Long> profileIds) {
+        if (profileIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = changeKeys();
+        keys.add(leaderboardKey(categoryId));
+        try {
+            stringRedisTemplate.execute(REMOVE_SCRIPT, keys,
+                    profileIds.stream().map(SellerLeaderboardRepository::member).toArray());
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error removing leaderboard scores: ", e);
+        }
+    }
+
+    /**
+     * Removes a seller from the rankings of the given categories, in one script that also records the seller
+     * if a rebuild is running.
+     *
+     * @param profileId   The ID of the seller.
+     * @param categoryIds The categories the seller left.
+     */
+    public void removeFromCategories(long profileId, Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = changeKeys();
+        for (Long categoryId : categoryIds) {
+            keys.add(leaderboardKey(categoryId));
+        }
+        try {
+            stringRedisTemplate.execute(REMOVE_SCRIPT, keys, member(profileId));
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error removing category leaderboard scores: ", e);
+        }
+    }
+
+    /**
+     * Takes the rebuild lock if no other rebuild holds it, and starts recording the sellers whose scores change.
+     *
+     * @param lease The time the lock is held unless renewed.
+     * @return The id of the rebuild, {@code null} if another rebuild is running.
+     */
+    public String startRebuild(Duration lease) {
+        String rebuildId = UUID.randomUUID().toString();
+        try {
+            Long result = stringRedisTemplate.execute(START_REBUILD_SCRIPT, List.of(REBUILD_LOCK_KEY, REBUILD_CHANGES_KEY),
+                    rebuildId, Long.toString(lease.toMillis()));
+            return result != null && result == 1L ? rebuildId : null;
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error starting leaderboard rebuild: ", e);
+        }
+    }
+
+    /**
+     * Extends the rebuild lock if the rebuild still holds it.
+     *
+     * @return {@code false} if the lock expired or was taken by another rebuild.
+     */
+    public boolean renewRebuild(String rebuildId, Duration lease) {
+        try {
+            Long result = stringRedisTemplate.execute(RENEW_REBUILD_SCRIPT, List.of(REBUILD_LOCK_KEY),
+                    rebuildId, Long.toString(lease.toMillis()));
+            return result != null && result == 1L;
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error renewing leaderboard rebuild: ", e);
+        }
+    }
+
+    /**
+     * Adds scores to a leaderboard that is being rebuilt. The rebuilt leaderboard replaces
+     * the live one only in {@link #publishRebuild(String, Collection)}, so readers never see a partial ranking.
+     *
+     * @param rebuildId  The id returned by {@link #startRebuild(Duration)}.
+     * @param categoryId The category of the leaderboard, {@code null} for the overall one.
+     * @param scores     The ranking scores by profile id.
+     */
+    public void saveRebuildScores(String rebuildId, Long categoryId, Map<Long, Double> scores) {
+        Set<TypedTuple<String>> tuples = new HashSet<>();
+        scores.forEach((profileId, score) -> tuples.add(TypedTuple.of(member(profileId), score)));
+        String key = rebuildKey(rebuildId, categoryId);
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                    redis.opsForZSet().add(key, tuples);
+                    redis.expire(key, REBUILD_KEY_TTL);
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error saving leaderboard scores: ", e);
+        }
+    }
+
+    /**
+     * Replaces the live leaderboards with the rebuilt ones and releases the rebuild lock, in one script.
+     *
+     * @param rebuildId   The id returned by {@link #startRebuild(Duration)}.
+     * @param categoryIds The categories whose leaderboards are rebuilt along with the overall one.
+     * @return The ids of the sellers whose scores changed while the rebuild ran.
+     * @throws RedisOperationException if the rebuild lost its lock, in which case nothing is published.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> publishRebuild(String rebuildId, Collection<Long> categoryIds) {
+        List<String> keys = changeKeys();
+        for (Long categoryId : categoryIds) {
+            keys.add(rebuildKey(rebuildId, categoryId));
+            keys.add(leaderboardKey(categoryId));
+        }
+        keys.add(rebuildKey(rebuildId, null));
+        keys.add(LEADERBOARD_KEY);
+        List<String> changed;
+        try {
+            changed = stringRedisTemplate.execute(PUBLISH_REBUILD_SCRIPT, keys, rebuildId);
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error publishing leaderboard: ", e);
+        }
+        if (changed == null) {
+            throw new RedisOperationException("Leaderboard rebuild " + rebuildId + " lost its lock", null);
+        }
+        return changed.stream().map(Long::valueOf).toList();
+    }
+
+    /**
+     * Drops the keys of a rebuild that will not be published and releases the lock if the rebuild still holds it.
+     *
+     * @param rebuildId   The id returned by {@link #startRebuild(Duration)}.
+     * @param categoryIds The categories passed to {@link #publishRebuild(String, Collection)}.
+     */
+    public void abortRebuild(String rebuildId, Collection<Long> categoryIds) {
+        List<String> keys = new ArrayList<>();
+        keys.add(REBUILD_LOCK_KEY);
+        keys.add(rebuildKey(rebuildId, null));
+        for (Long categoryId : categoryIds) {
+            keys.add(rebuildKey(rebuildId, categoryId));
+        }
+        try {
+            stringRedisTemplate.execute(ABORT_REBUILD_SCRIPT, keys, rebuildId);
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error aborting leaderboard rebuild: ", e);
+        }
+    }
+
+    /**
+     * Reads the head of a ranking with one {@code ZREVRANGE}, whose cost does not depend on the size
+     * of the catalog.
+     *
+     * @param categoryId The category, {@code null} for the overall ranking.
+     * @param count      The number of sellers.
+     * @return The ids of the best ranked sellers, best first.
+     */
+    public List<Long> findTopIds(Long categoryId, int count) {
+        try {
+            Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(leaderboardKey(categoryId), 0, count - 1L);
+            return members == null ? List.of() : members.stream().map(Long::valueOf).toList();
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error retrieving leaderboard: ", e);
+        }
+    }
+
+    /**
+     * Reads the cached summaries of the given profiles with a single {@code MGET}.
+     *
+     * @param profileIds The profile ids.
+     * @return The summaries in the order of the ids, {@code null} for profiles that are not cached.
+     */
+    public List<ProfileResponse> findSummaries(List<Long> profileIds) {
+        if (profileIds.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<ProfileResponse> summaries = redisProfileSummaryTemplate.opsForValue()
+                    .multiGet(profileIds.stream().map(SellerLeaderboardRepository::summaryKey).toList());
+            return summaries == null ? new ArrayList<>() : summaries;
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error retrieving seller summaries: ", e);
+        }
+    }
+
+    /**
+     * Caches profile summaries in one pipeline. Each summary gets its own jittered time to live,
+     * so the summaries loaded together after a rebuild do not expire together.
+     *
+     * @param summaries The summaries to cache.
+     * @param ttl       The longest time the summaries are kept.
+     * @param ttlJitter The largest share of the time to live cut at random from each summary.
+     */
+    public void saveSummaries(List<ProfileResponse> summaries, Duration ttl, double ttlJitter) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        try {
+            redisProfileSummaryTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisTemplate<String, ProfileResponse> template = (RedisTemplate<String, ProfileResponse>) operations;
+                    for (ProfileResponse summary : summaries) {
+                        template.opsForValue().set(summaryKey(summary.getId()), summary,
+                                CacheTtl.jittered(ttl, ttlJitter));
+                    }
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error saving seller summaries: ", e);
+        }
+    }
+
+    public void deleteSummary(long profileId) {
+        try {
+            redisProfileSummaryTemplate.delete(summaryKey(profileId));
+        } catch (DataAccessException e) {
+            throw new RedisOperationException("Error deleting seller summary: ", e);
+        }
+    }
+
+    private static String leaderboardKey(Long categoryId) {
+        return categoryId == null ? LEADERBOARD_KEY : CATEGORY_KEY_PREFIX + categoryId;
+    }
+
+    private static String rebuildKey(String rebuildId, Long categoryId) {
+        return leaderboardKey(categoryId) + REBUILD_INFIX + rebuildId;
+    }
+
+    /**
+     * The keys every writing script starts with: the rebuild lock and the record of changes made while it is held.
+     */
+    private static List<String> changeKeys() {
+        List<String> keys = new ArrayList<>();
+        keys.add(REBUILD_LOCK_KEY);
+        keys.add(REBUILD_CHANGES_KEY);
+        return keys;
+    }
+
+    /**
+     * Pads the id to the width of the largest long, so the lexicographic order Redis uses for equal scores
+     * is the numeric order of the ids.
+     */
+    private static String member(long profileId) {
+        return String.format("%019d", profileId);
+    }
+
+    private static String summaryKey(long profileId) {
+        return SUMMARY_KEY_PREFIX + profileId;
+    }
+}
@@ -0,0 +1,113 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.ProfileRatingDaily;
+import org.ebndrnk.leverxfinalproject.model.projection.DailyRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProfileRatingDailyRepository extends JpaRepository<ProfileRatingDaily, Long> {
+
+    String WINDOWS_UPDATE = "UPDATE profile p SET " +
+            "rating_count_7d = w.count_7d, " +
+            "rating_avg_7d = CASE WHEN w.count_7d = 0 THEN 0 ELSE CAST(w.sum_7d AS double precision) / w.count_7d END, " +
+            "rating_count_30d = w.count_30d, " +
+            "rating_avg_30d = CASE WHEN w.count_30d = 0 THEN 0 ELSE CAST(w.sum_30d AS double precision) / w.count_30d END, " +
+            "rating_count_90d = w.count_90d, " +
+            "rating_avg_90d = CASE WHEN w.count_90d = 0 THEN 0 ELSE CAST(w.sum_90d AS double precision) / w.count_90d END, " +
+            "version = p.version + 1, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT s.id AS profile_id, " +
+                "COALESCE(SUM(d.rating_sum) FILTER (WHERE d.day > CAST(:today AS date) - 7), 0) AS sum_7d, " +
+                "COALESCE(SUM(d.rating_count) FILTER (WHERE d.day > CAST(:today AS date) - 7), 0) AS count_7d, " +
+                "COALESCE(SUM(d.rating_sum) FILTER (WHERE d.day > CAST(:today AS date) - 30), 0) AS sum_30d, " +
+                "COALESCE(SUM(d.rating_count) FILTER (WHERE d.day > CAST(:today AS date) - 30), 0) AS count_30d, " +
+                "COALESCE(SUM(d.rating_sum), 0) AS sum_90d, " +
+                "COALESCE(SUM(d.rating_count), 0) AS count_90d " +
+                "FROM profile s " +
+                "LEFT JOIN profile_rating_daily d ON d.profile_id = s.id AND d.day > CAST(:today AS date) - 90 ";
+
+    String WINDOWS_UPDATE_TAIL = "GROUP BY s.id) w " +
+            "WHERE p.id = w.profile_id " +
+            "AND (p.rating_count_7d, p.rating_count_30d, p.rating_count_90d, p.rating_avg_7d, p.rating_avg_30d, p.rating_avg_90d) " +
+            "IS DISTINCT FROM (w.count_7d, w.count_30d, w.count_90d, " +
+                "CASE WHEN w.count_7d = 0 THEN 0 ELSE CAST(w.sum_7d AS double precision) / w.count_7d END, " +
+                "CASE WHEN w.count_30d = 0 THEN 0 ELSE CAST(w.sum_30d AS double precision) / w.count_30d END, " +
+                "CASE WHEN w.count_90d = 0 THEN 0 ELSE CAST(w.sum_90d AS double precision) / w.count_90d END)";
+
+    /**
+     * @return The current time of the database clock, which bucket days and {@code updated_at} are written with.
+     */
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime now();
+
+    /**
+     * Adds a delta to the daily bucket of a profile in one shard.
+     *
+     * @return The number of updated rows, {@code 0} if the bucket row does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProfileRatingDaily d SET " +
+            "d.ratingSum = d.ratingSum + :sumDelta, " +
+            "d.ratingCount = d.ratingCount + :countDelta, " +
+            "d.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE d.profile.id = :profileId AND d.day = :day AND d.shard = :shard")
+    int addToBucket(@Param("profileId") Long profileId,
+                    @Param("day") LocalDate day,
+                    @Param("shard") short shard,
+                    @Param("sumDelta") long sumDelta,
+                    @Param("countDelta") long countDelta);
+
+    @Query("SELECT d.day AS day, SUM(d.ratingSum) AS ratingSum, SUM(d.ratingCount) AS ratingCount " +
+            "FROM ProfileRatingDaily d " +
+            "WHERE d.profile.id = :profileId AND d.day >= :from " +
+            "GROUP BY d.day ORDER BY d.day")
+    List<DailyRating> findDailyRatings(@Param("profileId") Long profileId, @Param("from") LocalDate from);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM profile_rating_daily WHERE profile_id IN (:profileIds)", nativeQuery = true)
+    int deleteBuckets(@Param("profileIds") Collection<Long> profileIds);
+
+    /**
+     * Rebuilds the daily buckets of the given profiles from their ratings into shard {@code 0}.
+     * The old buckets have to be removed first with {@link #deleteBuckets(Collection)}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO profile_rating_daily " +
+            "(profile_id, day, shard, rating_sum, rating_count, version, created_dttm, updated_at) " +
+            "SELECT seller_id, CAST(updated_at AS date), 0, SUM(mark), COUNT(*), 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+            "FROM rating WHERE seller_id IN (:profileIds) " +
+            "GROUP BY seller_id, CAST(updated_at AS date)", nativeQuery = true)
+    int insertBucketsFromRatings(@Param("profileIds") Collection<Long> profileIds);
+
+    /**
+     * Rolls the daily buckets up into the 7, 30 and 90 day rating windows of the profiles whose buckets
+     * changed since the given moment. Profiles whose windows did not change are not rewritten.
+     *
+     * @return The number of updated profiles.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = WINDOWS_UPDATE +
+            "WHERE s.id IN (SELECT profile_id FROM profile_rating_daily WHERE updated_at >= :since) " +
+            WINDOWS_UPDATE_TAIL, nativeQuery = true)
+    int refreshChangedRatingWindows(@Param("today") LocalDate today, @Param("since") LocalDateTime since);
+
+    /**
+     * Rolls the daily buckets up into the rating windows of every profile that had marks in the last 90 days
+     * or still shows a non-empty window, so the windows move on as days pass.
+     *
+     * @return The number of updated profiles.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = WINDOWS_UPDATE +
+            "WHERE s.rating_count_90d <> 0 OR s.id IN (SELECT profile_id FROM profile_rating_daily " +
+                "WHERE day > CAST(:today AS date) - 90) " +
+            WINDOWS_UPDATE_TAIL, nativeQuery = true)
+    int refreshAllRatingWindows(@Param("today") LocalDate today);
+}
@@ -0,0 +1,74 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.ProfileRatingShard;
+import org.ebndrnk.leverxfinalproject.model.projection.MarkCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProfileRatingShardRepository extends JpaRepository<ProfileRatingShard, Long> {
+
+    /**
+     * Adds a delta to the counter of one mark in one shard of a profile.
+     *
+     * @return The number of updated rows, {@code 0} if the shard row does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProfileRatingShard s SET s.markCount = s.markCount + :delta " +
+            "WHERE s.profile.id = :profileId AND s.shard = :shard AND s.mark = :mark")
+    int addToShard(@Param("profileId") Long profileId,
+                   @Param("shard") short shard,
+                   @Param("mark") short mark,
+                   @Param("delta") long delta);
+
+    @Query("SELECT s.mark AS mark, SUM(s.markCount) AS markCount FROM ProfileRatingShard s " +
+            "WHERE s.profile.id = :profileId AND s.markCount <> 0 GROUP BY s.mark")
+    List<MarkCount> findPendingMarkCounts(@Param("profileId") Long profileId);
+
+    /**
+     * Moves pending shard counters into the profile aggregates and resets them, in one statement.
+     * Shard rows locked by running votes are skipped and folded next time.
+     *
+     * @param limit The maximum number of shard rows to fold.
+     * @return The number of updated profiles.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "WITH pending AS (" +
+                "SELECT id, mark_count FROM profile_rating_shard WHERE mark_count <> 0 " +
+                "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED), " +
+            "moved AS (" +
+                "UPDATE profile_rating_shard s SET " +
+                "mark_count = 0, " +
+                "version = s.version + 1, " +
+                "updated_at = CURRENT_TIMESTAMP " +
+                "FROM pending WHERE s.id = pending.id " +
+                "RETURNING s.profile_id, s.mark, pending.mark_count), " +
+            "deltas AS (" +
+                "SELECT profile_id, mark, SUM(mark_count) AS mark_count FROM moved GROUP BY profile_id, mark), " +
+            "per_profile AS (" +
+                "SELECT d.profile_id, " +
+                "CAST(SUM(d.mark * d.mark_count) AS bigint) AS sum_delta, " +
+                "CAST(SUM(d.mark_count) AS bigint) AS count_delta, " +
+                "ARRAY(SELECT CAST(COALESCE(SUM(x.mark_count), 0) AS bigint) FROM generate_series(0, 10) AS g(mark) " +
+                    "LEFT JOIN deltas x ON x.profile_id = d.profile_id AND x.mark = g.mark " +
+                    "GROUP BY g.mark ORDER BY g.mark) AS histogram_delta " +
+                "FROM deltas d GROUP BY d.profile_id) " +
+            "UPDATE profile p SET " +
+            "rating_sum = p.rating_sum + pp.sum_delta, " +
+            "rating_count = p.rating_count + pp.count_delta, " +
+            "rating = CASE WHEN p.rating_count + pp.count_delta = 0 THEN 0 " +
+                "ELSE (p.rating_sum + pp.sum_delta) / (p.rating_count + pp.count_delta) END, " +
+            "rating_mean_fixed = CASE WHEN p.rating_count + pp.count_delta = 0 THEN 0 " +
+                "ELSE ((p.rating_sum + pp.sum_delta) * 100 + (p.rating_count + pp.count_delta) / 2) " +
+                "/ (p.rating_count + pp.count_delta) END, " +
+            "rating_histogram = ARRAY(SELECT h.mark_count + h.delta " +
+                "FROM unnest(p.rating_histogram, pp.histogram_delta) WITH ORDINALITY AS h(mark_count, delta, slot) " +
+                "ORDER BY h.slot), " +
+            "version = p.version + 1, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "FROM per_profile pp WHERE p.id = pp.profile_id", nativeQuery = true)
+    int foldPendingShards(@Param("limit") int limit);
+}
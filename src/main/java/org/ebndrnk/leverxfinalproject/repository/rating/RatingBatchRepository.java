@@ -0,0 +1,70 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC batch writes of ratings used by the buffered ingestion mode.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RatingBatchRepository {
+
+    private static final String UPSERT_RATING_SQL =
+            "INSERT INTO rating AS r (mark, seller_id, author_id, version, created_dttm, updated_at) " +
+            "SELECT ?, p.id, a.id, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+            "FROM profile p JOIN anonymous_user a ON a.id = ? WHERE p.id = ? " +
+            "ON CONFLICT (seller_id, author_id) DO UPDATE SET " +
+            "mark = EXCLUDED.mark, " +
+            "updated_at = CURRENT_TIMESTAMP, " +
+            "version = r.version + 1 " +
+            "WHERE r.mark <> EXCLUDED.mark";
+
+    private static final String APPEND_MARK_EVENT_SQL =
+            "INSERT INTO rating_event (created_dttm, seller_id, author_id, event_type, mark, previous_mark) " +
+            "SELECT CURRENT_TIMESTAMP, p.id, ?, CASE WHEN l.mark IS NULL THEN 0 ELSE 1 END, ?, l.mark " +
+            "FROM profile p CROSS JOIN (SELECT (SELECT e.mark FROM rating_event e " +
+                "WHERE e.seller_id = ? AND e.author_id = ? ORDER BY e.id DESC LIMIT 1) AS mark) l " +
+            "WHERE p.id = ? AND l.mark IS DISTINCT FROM ? " +
+            "AND EXISTS (SELECT 1 FROM anonymous_user a WHERE a.id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes the given marks in one JDBC batch. Marks of deleted profiles or anonymous users are skipped.
+     *
+     * @param marks The marks to write.
+     */
+    public void upsertMarks(List<PendingMark> marks) {
+        jdbcTemplate.batchUpdate(UPSERT_RATING_SQL, marks, marks.size(), (ps, mark) -> {
+            ps.setShort(1, mark.mark());
+            ps.setLong(2, mark.authorId());
+            ps.setLong(3, mark.sellerId());
+        });
+    }
+
+    /**
+     * Appends the rating events of the given marks in one JDBC batch, like
+     * {@link RatingEventRepository#appendMark(Long, Long, short)}. Must run in the transaction
+     * that wrote the marks with {@link #upsertMarks(List)}.
+     *
+     * @param marks The written marks.
+     */
+    public void appendMarkEvents(List<PendingMark> marks) {
+        jdbcTemplate.batchUpdate(APPEND_MARK_EVENT_SQL, marks, marks.size(), (ps, mark) -> {
+            ps.setLong(1, mark.authorId());
+            ps.setShort(2, mark.mark());
+            ps.setLong(3, mark.sellerId());
+            ps.setLong(4, mark.authorId());
+            ps.setLong(5, mark.sellerId());
+            ps.setShort(6, mark.mark());
+            ps.setLong(7, mark.authorId());
+        });
+    }
+
+    public record PendingMark(long sellerId, long authorId, byte mark) {
+    }
+}
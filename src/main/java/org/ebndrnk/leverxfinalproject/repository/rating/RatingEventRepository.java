@@ -0,0 +1,60 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RatingEventRepository extends JpaRepository<RatingEvent, Long> {
+
+    String LAST_MARK = "(SELECT (SELECT e.mark FROM rating_event e " +
+            "WHERE e.seller_id = :sellerId AND e.author_id = :authorId ORDER BY e.id DESC LIMIT 1) AS mark) l ";
+
+    /**
+     * Appends the event of a mark given by an author. The previous mark is taken from the last event of the author,
+     * so the log stays consistent on its own. Nothing is appended when the mark did not change.
+     * <p>
+     * Must run in the transaction that wrote the rating: the rating row lock orders the events of one author.
+     * </p>
+     *
+     * @return The number of appended events.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO rating_event (created_dttm, seller_id, author_id, event_type, mark, previous_mark) " +
+            "SELECT CURRENT_TIMESTAMP, :sellerId, :authorId, CASE WHEN l.mark IS NULL THEN 0 ELSE 1 END, :mark, l.mark " +
+            "FROM " + LAST_MARK +
+            "WHERE l.mark IS DISTINCT FROM :mark", nativeQuery = true)
+    int appendMark(@Param("sellerId") Long sellerId,
+                   @Param("authorId") Long authorId,
+                   @Param("mark") short mark);
+
+    /**
+     * Appends the retraction of the mark of an author, if the author has a mark.
+     *
+     * @return The number of appended events.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO rating_event (created_dttm, seller_id, author_id, event_type, mark, previous_mark) " +
+            "SELECT CURRENT_TIMESTAMP, :sellerId, :authorId, 2, CAST(NULL AS smallint), l.mark " +
+            "FROM " + LAST_MARK +
+            "WHERE l.mark IS NOT NULL", nativeQuery = true)
+    int appendRetraction(@Param("sellerId") Long sellerId, @Param("authorId") Long authorId);
+
+    @Query("SELECT e FROM RatingEvent e " +
+            "WHERE e.sellerId = :sellerId AND e.id > :afterId AND e.id <= :upToId ORDER BY e.id")
+    List<RatingEvent> findTail(@Param("sellerId") Long sellerId,
+                               @Param("afterId") long afterId,
+                               @Param("upToId") long upToId,
+                               Pageable pageable);
+
+    @Query("SELECT MAX(e.id) FROM RatingEvent e WHERE e.createdAt < :before")
+    Long findLastEventIdBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT DISTINCT e.sellerId FROM RatingEvent e WHERE e.id > :afterId AND e.id <= :upToId")
+    List<Long> findSellerIdsWithEvents(@Param("afterId") long afterId, @Param("upToId") long upToId);
+}
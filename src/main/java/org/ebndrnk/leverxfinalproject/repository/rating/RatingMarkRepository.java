@@ -0,0 +1,80 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * JDBC writes of single ratings that return what they changed, used to correct the rating aggregates by a delta.
+ * The statements return rows, so they run through JDBC rather than as modifying queries of {@link RatingRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RatingMarkRepository {
+
+    private static final String UPSERT_MARK_SQL =
+            "WITH prev AS (" +
+            "SELECT mark, updated_at FROM rating WHERE seller_id = ? AND author_id = ?) " +
+            "INSERT INTO rating AS r (mark, seller_id, author_id, version, created_dttm, updated_at) " +
+            "VALUES (?, ?, ?, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (seller_id, author_id) DO UPDATE SET " +
+            "mark = EXCLUDED.mark, " +
+            "updated_at = CURRENT_TIMESTAMP, " +
+            "version = r.version + 1 " +
+            "WHERE r.mark <> EXCLUDED.mark " +
+            "RETURNING (r.xmax = 0) AS inserted, " +
+            "CAST((SELECT mark FROM prev) AS integer) AS previous_mark, " +
+            "(SELECT CAST(updated_at AS date) - DATE '1970-01-01' FROM prev) AS previous_epoch_day, " +
+            "CURRENT_DATE - DATE '1970-01-01' AS epoch_day";
+
+    private static final String DELETE_MARK_SQL =
+            "DELETE FROM rating WHERE seller_id = ? AND author_id = ? " +
+            "RETURNING CAST(mark AS integer) AS mark, " +
+            "CAST(updated_at AS date) - DATE '1970-01-01' AS epoch_day";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the mark of an author for a seller or overwrites the one already given,
+     * relying on the unique (seller_id, author_id) constraint. Giving the same mark again changes nothing,
+     * so {@code updated_at} always stays the day the current mark was counted.
+     * <p>
+     * The previous mark is read from the snapshot taken at the start of the statement, so it is
+     * {@code null} when a concurrent vote of the same author was committed in the meantime.
+     * </p>
+     *
+     * @return The result of the write, empty if the author had given this mark already.
+     */
+    public Optional<UpsertedMark> upsertMark(long sellerId, long authorId, byte mark) {
+        return jdbcTemplate.query(UPSERT_MARK_SQL, (rs, rowNum) -> new UpsertedMark(
+                        rs.getBoolean("inserted"),
+                        rs.getObject("previous_mark", Integer.class),
+                        rs.getObject("previous_epoch_day", Integer.class),
+                        rs.getInt("epoch_day")),
+                sellerId, authorId, (short) mark, sellerId, authorId).stream().findFirst();
+    }
+
+    /**
+     * Deletes the mark of an author for a seller.
+     *
+     * @return The deleted mark and the day it was given, empty if the author had no mark.
+     */
+    public Optional<RetractedMark> deleteMark(long sellerId, long authorId) {
+        return jdbcTemplate.query(DELETE_MARK_SQL, (rs, rowNum) -> new RetractedMark(
+                        rs.getInt("mark"),
+                        rs.getInt("epoch_day")),
+                sellerId, authorId).stream().findFirst();
+    }
+
+    /**
+     * The result of {@link #upsertMark(long, long, byte)}. Days are epoch days of the database clock:
+     * {@code previousEpochDay} is the day the replaced mark was given, {@code epochDay} the day the new mark counts for.
+     */
+    public record UpsertedMark(boolean inserted, Integer previousMark, Integer previousEpochDay, int epochDay) {
+    }
+
+    public record RetractedMark(int mark, int epochDay) {
+    }
+}
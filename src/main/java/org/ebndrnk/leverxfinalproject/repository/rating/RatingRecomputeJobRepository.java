@@ -0,0 +1,39 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingRecomputeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RatingRecomputeJobRepository extends JpaRepository<RatingRecomputeJob, Long> {
+    Optional<RatingRecomputeJob> findFirstByOrderByIdDesc();
+
+    /**
+     * Claims a job that is not running, that is running on a replica whose heartbeat is older than
+     * {@code staleBefore}, or that the owner itself left running. Of the replicas claiming at the same time
+     * only one succeeds, since the others find the job running with a fresh heartbeat. The version is bumped,
+     * so checkpoints of a replica that lost the job fail instead of overwriting it.
+     *
+     * @return 1 if the job was claimed, 0 if another replica holds it.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RatingRecomputeJob j SET j.status = org.ebndrnk.leverxfinalproject.model.entity.rating.RecomputeJobStatus.RUNNING, " +
+            "j.owner = :owner, j.heartbeatAt = LOCAL DATETIME, j.errorMessage = null, j.finishedAt = null, " +
+            "j.version = j.version + 1 " +
+            "WHERE j.id = :id AND (j.status <> org.ebndrnk.leverxfinalproject.model.entity.rating.RecomputeJobStatus.RUNNING " +
+            "OR j.heartbeatAt < :staleBefore OR j.owner = :owner)")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Shows that the owner of the job is alive.
+     *
+     * @return 1 if the owner still holds the job, 0 if another replica took it over.
+     */
+    @Modifying
+    @Query("UPDATE RatingRecomputeJob j SET j.heartbeatAt = LOCAL DATETIME WHERE j.id = :id AND j.owner = :owner")
+    int heartbeat(@Param("id") Long id, @Param("owner") String owner);
+}
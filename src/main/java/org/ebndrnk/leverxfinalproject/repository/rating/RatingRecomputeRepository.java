@@ -0,0 +1,128 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.util.RatingAggregateAccumulator;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * JDBC access used by the job that rebuilds rating aggregates from the rating table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RatingRecomputeRepository {
+
+    private static final int MARKS_FETCH_SIZE = 5_000;
+
+    private static final String NOW_SQL = "SELECT LOCALTIMESTAMP";
+
+    private static final String FIND_PROFILE_IDS_SQL =
+            "SELECT id FROM profile WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String LOCK_PROFILES_SQL =
+            "SELECT id FROM profile WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+
+    /**
+     * Ratings of the range, minus the changes pending in the rating shards: those are added to the profile
+     * by the next fold. Both are read by one statement, so they come from the same snapshot.
+     */
+    private static final String FIND_MARKS_SQL =
+            "SELECT seller_id, mark, 1 AS weight, 1 AS rating_row FROM rating WHERE seller_id BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT profile_id, mark, -mark_count, 0 FROM profile_rating_shard " +
+            "WHERE profile_id BETWEEN ? AND ? AND mark_count <> 0";
+
+    private static final String UPDATE_AGGREGATE_SQL =
+            "UPDATE profile SET " +
+            "rating_sum = ?, " +
+            "rating_count = ?, " +
+            "rating = ?, " +
+            "rating_mean_fixed = ?, " +
+            "rating_histogram = ?, " +
+            "version = version + 1, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return The current time of the database clock, which the heartbeats of the job are written with.
+     */
+    public LocalDateTime now() {
+        return jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    /**
+     * Reads the next page of profile ids using keyset pagination.
+     *
+     * @param afterId The last id of the previous page.
+     * @param limit   The maximum number of ids.
+     * @return The profile ids in ascending order.
+     */
+    public long[] findProfileIdsAfter(long afterId, int limit) {
+        return jdbcTemplate.queryForList(FIND_PROFILE_IDS_SQL, Long.class, afterId, limit).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    /**
+     * Locks the profiles of an id range until the end of the current transaction,
+     * so votes applied concurrently wait for the rebuilt aggregate instead of being overwritten by it.
+     */
+    public void lockProfiles(long fromId, long toId) {
+        jdbcTemplate.query(LOCK_PROFILES_SQL, rs -> {
+        }, fromId, toId);
+    }
+
+    /**
+     * Streams the marks of every seller in an id range into the accumulator.
+     *
+     * @return The number of ratings read.
+     */
+    public long accumulateMarks(long fromId, long toId, RatingAggregateAccumulator accumulator) {
+        long[] read = new long[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_MARKS_SQL);
+            ps.setFetchSize(MARKS_FETCH_SIZE);
+            ps.setLong(1, fromId);
+            ps.setLong(2, toId);
+            ps.setLong(3, fromId);
+            ps.setLong(4, toId);
+            return ps;
+        }, rs -> {
+            accumulator.add(rs.getLong(1), rs.getInt(2), rs.getLong(3));
+            read[0] += rs.getInt(4);
+        });
+        return read[0];
+    }
+
+    /**
+     * Writes the aggregates of every profile in the accumulator in one JDBC batch.
+     */
+    public void writeAggregates(RatingAggregateAccumulator accumulator) {
+        jdbcTemplate.batchUpdate(UPDATE_AGGREGATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int slot) throws SQLException {
+                Long[] histogram = Arrays.stream(accumulator.histogram(slot)).boxed().toArray(Long[]::new);
+                ps.setLong(1, accumulator.sum(slot));
+                ps.setLong(2, accumulator.count(slot));
+                ps.setShort(3, (short) accumulator.rating(slot));
+                ps.setInt(4, accumulator.meanFixed(slot));
+                ps.setArray(5, ps.getConnection().createArrayOf("bigint", histogram));
+                ps.setLong(6, accumulator.profileId(slot));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return accumulator.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface RatingSnapshotRepository extends JpaRepository<RatingSnapshot, Long> {
+    Optional<RatingSnapshot> findByProfileId(Long profileId);
+}
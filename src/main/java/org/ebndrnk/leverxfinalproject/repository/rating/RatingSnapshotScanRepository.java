@@ -0,0 +1,10 @@
+package org.ebndrnk.leverxfinalproject.repository.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingSnapshotScan;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface RatingSnapshotScanRepository extends JpaRepository<RatingSnapshotScan, Long> {
+    Optional<RatingSnapshotScan> findFirstByOrderByIdAsc();
+}
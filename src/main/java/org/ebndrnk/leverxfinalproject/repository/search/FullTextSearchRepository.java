@@ -0,0 +1,112 @@
+package org.ebndrnk.leverxfinalproject.repository.search;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.repository.page.ListingRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranked full-text search of games and comments.
+ * <p>
+ * The searched tables keep a generated {@code search_vector} column with a GIN index, so the database finds
+ * the matching rows without reading the others. The query is parsed by {@code websearch_to_tsquery}, which
+ * accepts what users type into a search box: words, {@code "quoted phrases"}, {@code or} and {@code -excluded}
+ * words. Matches are ordered by {@code ts_rank_cd}, newest first among equally relevant ones; game titles
+ * weigh more than their descriptions.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class FullTextSearchRepository {
+
+    private static final String GAME_SEARCH_FROM =
+            "FROM game_object g, websearch_to_tsquery('english', ?) query WHERE g.search_vector @@ query";
+    private static final String GAME_SEARCH_ORDER = " ORDER BY ts_rank_cd(g.search_vector, query) DESC, g.id DESC";
+
+    private static final String COMMENT_SEARCH_FROM =
+            "FROM comment c, websearch_to_tsquery('english', ?) query WHERE c.search_vector @@ query";
+    private static final String COMMENT_SEARCH_ORDER = " ORDER BY ts_rank_cd(c.search_vector, query) DESC, c.id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ListingRepository listingRepository;
+
+    /**
+     * Finds the games matching the query, most relevant first.
+     *
+     * @param searchQuery The search query.
+     * @param title       Only games whose title contains this, or {@code null} for all titles.
+     * @param text        Only games whose description contains this, or {@code null} for all descriptions.
+     * @param pageable    The page; its sort is ignored.
+     * @param mode        How to report the total.
+     * @return A page, a slice or an approximate page of the games, depending on the mode.
+     */
+    public Slice<GameObject> searchGames(String searchQuery, String title, String text,
+                                         Pageable pageable, PageCountMode mode) {
+        StringBuilder from = new StringBuilder(GAME_SEARCH_FROM);
+        List<Object> args = new ArrayList<>();
+        args.add(searchQuery);
+        // the trigram indexes on lower(title) and lower(text) serve these
+        if (title != null) {
+            from.append(" AND lower(g.title) LIKE ?");
+            args.add("%" + title.toLowerCase() + "%");
+        }
+        if (text != null) {
+            from.append(" AND lower(g.text) LIKE ?");
+            args.add("%" + text.toLowerCase() + "%");
+        }
+        return search(GameObject.class, "SELECT g.* ", from.toString(), GAME_SEARCH_ORDER, args, pageable, mode);
+    }
+
+    /**
+     * Finds the comments matching the query, most relevant first.
+     *
+     * @param searchQuery  The search query.
+     * @param sellerId     Only comments about this seller, or {@code null} for all sellers.
+     * @param approvedOnly Whether to leave out comments not approved by a moderator.
+     * @param pageable     The page; its sort is ignored.
+     * @param mode         How to report the total.
+     * @return A page, a slice or an approximate page of the comments, depending on the mode.
+     */
+    public Slice<Comment> searchComments(String searchQuery, Long sellerId, boolean approvedOnly,
+                                         Pageable pageable, PageCountMode mode) {
+        StringBuilder from = new StringBuilder(COMMENT_SEARCH_FROM);
+        List<Object> args = new ArrayList<>();
+        args.add(searchQuery);
+        if (approvedOnly) {
+            from.append(" AND c.approved");
+        }
+        if (sellerId != null) {
+            from.append(" AND c.seller_id = ?");
+            args.add(sellerId);
+        }
+        return search(Comment.class, "SELECT c.* ", from.toString(), COMMENT_SEARCH_ORDER, args, pageable, mode);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Slice<T> search(Class<T> type, String select, String from, String order, List<Object> args,
+                                Pageable pageable, PageCountMode mode) {
+        Query query = entityManager.createNativeQuery(select + from + order, type);
+        for (int i = 0; i < args.size(); i++) {
+            query.setParameter(i + 1, args.get(i));
+        }
+        query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<T> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return listingRepository.withTotal(new SliceImpl<>(content, pageable, hasNext), from, args, mode);
+    }
+}
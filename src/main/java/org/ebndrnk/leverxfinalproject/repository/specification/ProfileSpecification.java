@@ -1,6 +1,7 @@
 package org.ebndrnk.leverxfinalproject.repository.specification;
 
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.RatingWindow;
 import org.springframework.data.jpa.domain.Specification;
 
 /**
@@ -38,4 +39,24 @@ public class ProfileSpecification {
             return cb.between(root.get("rating"), minRating, maxRating);
         };
     }
+
+    /**
+     * Creates a Specification to filter profiles by their average mark over a recent window.
+     * Profiles without marks in the window are excluded as soon as a minimum is given.
+     *
+     * @param window The window to filter by. Can be null to disable the filter.
+     * @param minRecentRating The minimum average mark in the window. Can be null to disable the filter.
+     * @return The Specification for filtering profiles by recent rating.
+     */
+    public static Specification<Profile> hasRecentRatingAtLeast(RatingWindow window, Double minRecentRating) {
+        return (root, query, cb) -> {
+            if (window == null || minRecentRating == null) {
+                return null;
+            }
+
+            return cb.and(
+                    cb.greaterThan(root.<Long>get(window.getCountAttribute()), 0L),
+                    cb.greaterThanOrEqualTo(root.get(window.getAverageAttribute()), minRecentRating));
+        };
+    }
 }
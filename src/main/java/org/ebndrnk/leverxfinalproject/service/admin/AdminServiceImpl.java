@@ -2,23 +2,34 @@ package org.ebndrnk.leverxfinalproject.service.admin;
 
 import lombok.RequiredArgsConstructor;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
 import org.ebndrnk.leverxfinalproject.model.entity.auth.Role;
 import org.ebndrnk.leverxfinalproject.model.entity.auth.User;
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.ProfileDeletedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
 import org.ebndrnk.leverxfinalproject.repository.auth.UserRepository;
 import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
 import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
 import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.exception.dto.ModerationItemClaimedException;
 import org.ebndrnk.leverxfinalproject.exception.dto.NoAuthorityForActionException;
 import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
 import org.ebndrnk.leverxfinalproject.exception.dto.UserNotFoundException;
 import org.ebndrnk.leverxfinalproject.repository.rating.RatingRepository;
+import org.ebndrnk.leverxfinalproject.service.moderation.ModerationService;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service implementation for administrative user operations.
@@ -40,6 +51,9 @@ public class AdminServiceImpl implements AdminService {
     private final GameRepository gameRepository;
     private final CommentRepository commentRepository;
     private final RatingRepository ratingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ModerationQueueRepository moderationQueueRepository;
+    private final ModerationService moderationService;
 
     /**
      * Retrieves all users from the repository.
@@ -86,13 +100,18 @@ public class AdminServiceImpl implements AdminService {
      * @param userId the identifier of the user to be confirmed.
      * @return the updated UserDto.
      * @throws UserNotFoundException if no user with the specified ID is found.
+     * @throws ModerationItemClaimedException if another moderator holds an unexpired claim on the profile.
      */
     @Override
+    @Transactional
     public ProfileResponse confirmUserByAdmin(Long userId) {
         Profile profile = profileRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Profile with this id not found"));
+        moderationService.takeForDecision(ModerationQueue.PROFILES, profile.getId());
         profile.setConfirmedByAdmin(true);
+        profile.setReviewedAt(moderationQueueRepository.now());
         profileRepository.save(profile);
+        publishIndexChange(List.of(profile.getId()));
 
         return modelMapper.map(profile, ProfileResponse.class);
     }
@@ -102,16 +121,28 @@ public class AdminServiceImpl implements AdminService {
      *
      * <p>
      * Retrieves all users with the admin confirmation flag set to false, updates the flag to true,
-     * saves the changes in bulk, and returns a list of the updated UserDto objects.
+     * saves the changes in bulk, and returns a list of the updated UserDto objects. Users claimed by another
+     * moderator whose claim has not expired are left to that moderator.
      * </p>
      *
      * @return a list of confirmed users as UserDto objects.
      */
     @Override
+    @Transactional
     public List<ProfileResponse> confirmAllUsers() {
-        List<Profile> profileList = profileRepository.findAllNotConfirmedProfiles();
-        profileList.forEach(profile -> profile.setConfirmedByAdmin(true));
+        List<Profile> unconfirmed = profileRepository.findAllNotConfirmedProfiles();
+        Set<Long> takenIds = new HashSet<>(moderationService.takeAllForDecision(ModerationQueue.PROFILES,
+                unconfirmed.stream().map(Profile::getId).toList()));
+        List<Profile> profileList = unconfirmed.stream()
+                .filter(profile -> takenIds.contains(profile.getId()))
+                .toList();
+        LocalDateTime reviewedAt = moderationQueueRepository.now();
+        profileList.forEach(profile -> {
+            profile.setConfirmedByAdmin(true);
+            profile.setReviewedAt(reviewedAt);
+        });
         profileRepository.saveAll(profileList);
+        publishIndexChange(profileList.stream().map(Profile::getId).toList());
         return profileList.stream()
                 .map(profile -> modelMapper.map(profile, ProfileResponse.class))
                 .toList();
@@ -128,13 +159,18 @@ public class AdminServiceImpl implements AdminService {
      * @param userId the identifier of the user whose confirmation is to be cancelled.
      * @return the updated UserDto.
      * @throws UserNotFoundException if no user with the specified ID is found.
+     * @throws ModerationItemClaimedException if another moderator holds an unexpired claim on the profile.
      */
     @Override
+    @Transactional
     public ProfileResponse cancelAdminConfirmation(Long userId) {
         Profile profile = profileRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Profile with this id not found"));
+        moderationService.takeForDecision(ModerationQueue.PROFILES, profile.getId());
         profile.setConfirmedByAdmin(false);
+        profile.setReviewedAt(moderationQueueRepository.now());
         profileRepository.save(profile);
+        publishIndexChange(List.of(profile.getId()));
 
         return modelMapper.map(profile, ProfileResponse.class);
     }
@@ -177,5 +213,14 @@ public class AdminServiceImpl implements AdminService {
         commentRepository.deleteAll(profile.getComment());
         profileRepository.delete(profile);
         userRepository.delete(user);
+        eventPublisher.publishEvent(new ProfileDeletedEvent(profile.getId()));
+        // a deleted profile takes its games and the comments about it out of the search index
+        publishIndexChange(List.of(profile.getId()));
+    }
+
+    private void publishIndexChange(List<Long> profileIds) {
+        if (!profileIds.isEmpty()) {
+            eventPublisher.publishEvent(new SearchIndexChangedEvent(SearchDocumentType.PROFILE, profileIds));
+        }
     }
 }
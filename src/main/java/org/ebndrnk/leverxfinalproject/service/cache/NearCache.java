@@ -0,0 +1,243 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Size-bounded in-process cache in front of Redis and the database, one Caffeine cache per {@link NearCacheRegion}.
+ * <p>
+ * Caffeine evicts with W-TinyLFU, so a burst of one-off reads does not push out the hot entries. Every invalidation
+ * is applied locally and broadcast to the other replicas over the Redis channel {@value #INVALIDATION_CHANNEL},
+ * so a write on one replica evicts the entry everywhere within a round trip. Messages lost while a replica
+ * is disconnected are covered by the time to live of the region.
+ * </p>
+ * <p>
+ * Every invalidation also bumps a stamp of the key. A reader that loads a value the writer is about to evict
+ * reads the stamp with {@link #stamp} before loading and caches the value with {@link #putIfUnchanged}, which drops
+ * it if the key was invalidated in between. Stamps are striped by key hash, so a collision only costs a skipped put.
+ * </p>
+ * <p>
+ * Hits, misses and evictions of each region are exported as the Micrometer {@code cache.*} meters tagged with
+ * the region name, plus a {@code cache.hit.ratio} gauge. With {@code cache.near.enabled=false} every read goes
+ * to the loader and nothing is broadcast.
+ * </p>
+ */
+@Component
+@Slf4j
+public class NearCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "near-cache:invalidation";
+
+    private static final String SEPARATOR = "|";
+    private static final String REGION_SEPARATOR = ",";
+    private static final String ALL_KEYS = "*";
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Map<NearCacheRegion, Cache<Object, Object>> caches = new EnumMap<>(NearCacheRegion.class);
+    private final Map<NearCacheRegion, AtomicLongArray> stamps = new EnumMap<>(NearCacheRegion.class);
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public NearCache(StringRedisTemplate stringRedisTemplate,
+                     MeterRegistry meterRegistry,
+                     Environment environment,
+                     @Value("${cache.near.enabled:true}") boolean enabled) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        for (NearCacheRegion region : NearCacheRegion.values()) {
+            String prefix = "cache.near." + region.getName();
+            long maximumSize = environment.getProperty(prefix + ".maximum-size", Long.class, region.getDefaultMaximumSize());
+            long ttlMillis = environment.getProperty(prefix + ".ttl-ms", Long.class, region.getDefaultTtlMillis());
+            Cache<Object, Object> cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, region.getName());
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tag("cache", region.getName())
+                    .description("Share of near cache reads served without a call to Redis or the database")
+                    .register(meterRegistry);
+            caches.put(region, cache);
+            stamps.put(region, new AtomicLongArray(STAMP_STRIPES));
+        }
+    }
+
+    /**
+     * Returns the cached value, loading and caching it on a miss. {@code null} values are not cached.
+     *
+     * @param region The region.
+     * @param key    The key.
+     * @param loader Loads the value on a miss.
+     * @return The value.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> V get(NearCacheRegion region, K key, Function<K, V> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        return (V) caches.get(region).get(key, k -> loader.apply((K) k));
+    }
+
+    /**
+     * @return The cached values of the keys that are present.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getIfPresent(NearCacheRegion region, Object key) {
+        if (!enabled) {
+            return null;
+        }
+        return (V) caches.get(region).getIfPresent(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAllPresent(NearCacheRegion region, Collection<K> keys) {
+        if (!enabled) {
+            return Map.of();
+        }
+        return (Map<K, V>) (Map<?, ?>) caches.get(region).getAllPresent(keys);
+    }
+
+    public void put(NearCacheRegion region, Object key, Object value) {
+        if (enabled) {
+            caches.get(region).put(key, value);
+        }
+    }
+
+    /**
+     * Reads the invalidation stamp of a key, to be passed to {@link #putIfUnchanged} once the value is loaded.
+     */
+    public long stamp(NearCacheRegion region, Object key) {
+        return stamps.get(region).get(stripe(key));
+    }
+
+    /**
+     * Caches a value unless the key was invalidated since the stamp was read, so a value loaded before
+     * a committed change cannot be put back after the change evicted it.
+     *
+     * @param stamp The result of {@link #stamp} read before the value was loaded.
+     * @return {@code true} if the value was cached.
+     */
+    public boolean putIfUnchanged(NearCacheRegion region, Object key, Object value, long stamp) {
+        if (!enabled) {
+            return false;
+        }
+        AtomicLongArray regionStamps = stamps.get(region);
+        int stripe = stripe(key);
+        boolean[] cached = {false};
+        caches.get(region).asMap().compute(key, (k, previous) -> {
+            if (regionStamps.get(stripe) != stamp) {
+                return previous;
+            }
+            cached[0] = true;
+            return value;
+        });
+        return cached[0];
+    }
+
+    /**
+     * Evicts the entries of a key on this replica and on all others, with one message for all regions.
+     *
+     * @param key     The profile id the entries are cached under.
+     * @param regions The regions to evict the key from.
+     */
+    public void invalidate(Long key, NearCacheRegion... regions) {
+        if (!enabled || regions.length == 0) {
+            return;
+        }
+        for (NearCacheRegion region : regions) {
+            evict(region, key);
+        }
+        broadcast(regions, Long.toString(key));
+    }
+
+    /**
+     * Evicts all entries of a region on this replica and on all others.
+     *
+     * @param region The region.
+     */
+    public void invalidateAll(NearCacheRegion region) {
+        if (!enabled) {
+            return;
+        }
+        evictAll(region);
+        broadcast(new NearCacheRegion[]{region}, ALL_KEYS);
+    }
+
+    /**
+     * Applies an invalidation broadcast by another replica.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            for (String regionName : parts[1].split(REGION_SEPARATOR)) {
+                NearCacheRegion region = NearCacheRegion.valueOf(regionName);
+                if (ALL_KEYS.equals(parts[2])) {
+                    evictAll(region);
+                } else {
+                    evict(region, Long.valueOf(parts[2]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed near cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bumps the stamp before evicting, so a concurrent {@link #putIfUnchanged} either sees the new stamp
+     * or puts its value before the eviction removes it.
+     */
+    private void evict(NearCacheRegion region, Long key) {
+        stamps.get(region).incrementAndGet(stripe(key));
+        caches.get(region).invalidate(key);
+    }
+
+    private void evictAll(NearCacheRegion region) {
+        AtomicLongArray regionStamps = stamps.get(region);
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            regionStamps.incrementAndGet(i);
+        }
+        caches.get(region).invalidateAll();
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), STAMP_STRIPES);
+    }
+
+    private void broadcast(NearCacheRegion[] regions, String key) {
+        String regionNames = Arrays.stream(regions).map(NearCacheRegion::name).collect(Collectors.joining(REGION_SEPARATOR));
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + SEPARATOR + regionNames + SEPARATOR + key);
+        } catch (DataAccessException e) {
+            log.warn("Failed to broadcast invalidation of {} {}, other replicas keep it until it expires: {}",
+                    regionNames, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts the cached profile response and DTO once a change to the profile, one of its comments or one of its games
+ * is committed. Both embed all three. Comment and game changes do not bump the version of the profile,
+ * so these evictions are what keeps the cached comments and games current.
+ * <p>
+ * Bulk statements bypass Hibernate events; rating aggregates written that way are covered by
+ * {@link org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent} and by the time to live of the region.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class NearCacheEntityListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final NearCache nearCache;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return entityClass == Profile.class || entityClass == Comment.class || entityClass == GameObject.class;
+    }
+
+    private void invalidate(Object entity) {
+        Profile profile = null;
+        if (entity instanceof Profile changedProfile) {
+            profile = changedProfile;
+        } else if (entity instanceof Comment comment) {
+            profile = comment.getSeller();
+        } else if (entity instanceof GameObject gameObject) {
+            profile = gameObject.getSeller();
+        }
+        if (profile != null && profile.getId() != null) {
+            nearCache.invalidate(profile.getId(), NearCacheRegion.PROFILES, NearCacheRegion.PROFILE_DETAILS);
+        }
+    }
+}
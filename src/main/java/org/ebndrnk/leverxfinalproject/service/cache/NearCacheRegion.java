@@ -0,0 +1,35 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Regions of the in-process near cache. Each region has its own size bound, time to live and metrics,
+ * configured under {@code cache.near.<name>}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum NearCacheRegion {
+    /**
+     * Leaderboard summaries of sellers by profile id, in front of the summaries cached in Redis.
+     */
+    SELLER_SUMMARIES("seller-summaries", 10_000, 600_000),
+    /**
+     * Ids of the best ranked sellers by category and count. Not invalidated on votes, so the time to live
+     * bounds how long a new score takes to show.
+     */
+    TOP_SELLERS("top-sellers", 1_000, 1_000),
+    /**
+     * Profile responses by profile id, in front of the database. Entries are {@link Versioned} and checked
+     * against the version of the profile row on every read.
+     */
+    PROFILES("profiles", 10_000, 30_000),
+    /**
+     * Profile DTOs by profile id, read by id, username or email. Entries are {@link Versioned} like {@link #PROFILES}.
+     */
+    PROFILE_DETAILS("profile-details", 10_000, 30_000);
+
+    private final String name;
+    private final long defaultMaximumSize;
+    private final long defaultTtlMillis;
+}
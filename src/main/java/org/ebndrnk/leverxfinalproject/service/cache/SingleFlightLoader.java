@@ -0,0 +1,162 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.util.CacheTtl;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of expensive reads that loads each key at most once at a time.
+ * <p>
+ * On a miss the first caller runs the loader and the callers arriving meanwhile wait for its result instead of
+ * running the same query again. Entries get a jittered time to live (see {@link CacheTtl}), and a caller may
+ * recompute an entry before it expires with a probability that grows as the expiry nears and with the time the
+ * last load took (XFetch). The others keep reading the current value while it reloads, so a hot key is normally
+ * refreshed by a single caller before anyone has to wait.
+ * </p>
+ * <p>
+ * Loader failures are passed to every waiting caller and are not cached, a failed early refresh keeps the current
+ * value. Entries are kept up to {@code maximumSize}; once it is reached, new keys are loaded but not kept until
+ * expired entries are dropped.
+ * </p>
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+@Slf4j
+public class SingleFlightLoader<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final double ttlJitter;
+    private final double beta;
+    private final int maximumSize;
+    private final LongSupplier clock;
+    private final DoubleSupplier random;
+
+    /**
+     * @param ttl         The nominal time to live of an entry; zero keeps no entries, so only callers arriving
+     *                    while a load runs share its result.
+     * @param ttlJitter   The largest share of the time to live cut at random from each entry.
+     * @param beta        How eagerly entries are recomputed before they expire; {@code 0} disables early refresh,
+     *                    {@code 1} is the usual setting and larger values refresh earlier.
+     * @param maximumSize The number of entries kept.
+     */
+    public SingleFlightLoader(Duration ttl, double ttlJitter, double beta, int maximumSize) {
+        this(ttl, ttlJitter, beta, maximumSize, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    SingleFlightLoader(Duration ttl, double ttlJitter, double beta, int maximumSize,
+                       LongSupplier clock, DoubleSupplier random) {
+        this.ttlNanos = ttl.toNanos();
+        this.ttlJitter = ttlJitter;
+        this.beta = beta;
+        this.maximumSize = maximumSize;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * Returns the value of the key, loading it if it is missing, expired or picked for an early refresh.
+     *
+     * @param key    The key.
+     * @param loader Loads the value. Runs on the calling thread of one of the concurrent callers.
+     * @return The value.
+     */
+    public V get(K key, Function<K, V> loader) {
+        Entry<V> entry = entries.get(key);
+        long now = clock.getAsLong();
+        if (entry != null && now < entry.expiresAt()) {
+            if (!isEarlyRefreshDue(entry, now)) {
+                return entry.value();
+            }
+            CompletableFuture<V> refresh = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, refresh) != null) {
+                // someone is already refreshing, the current value is still valid
+                return entry.value();
+            }
+            try {
+                return load(key, loader, refresh);
+            } catch (RuntimeException e) {
+                log.warn("Early refresh of {} failed, keeping the current value: {}", key, e.getMessage());
+                return entry.value();
+            }
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        return load(key, loader, flight);
+    }
+
+    private V load(K key, Function<K, V> loader, CompletableFuture<V> flight) {
+        try {
+            long start = clock.getAsLong();
+            V value = loader.apply(key);
+            long end = clock.getAsLong();
+            if (ttlNanos > 0) {
+                store(key, new Entry<>(value, end - start,
+                        end + CacheTtl.jittered(Duration.ofNanos(ttlNanos), ttlJitter).toNanos()));
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void store(K key, Entry<V> entry) {
+        if (entries.size() >= maximumSize && !entries.containsKey(key)) {
+            long now = clock.getAsLong();
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+            if (entries.size() >= maximumSize) {
+                log.debug("Single-flight cache is full, value of {} is not kept", key);
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    /**
+     * XFetch: recompute once {@code now - delta * beta * ln(random)} reaches the expiry,
+     * where {@code delta} is the duration of the last load.
+     */
+    private boolean isEarlyRefreshDue(Entry<V> entry, long now) {
+        if (beta <= 0) {
+            return false;
+        }
+        double gap = -entry.loadNanos() * beta * Math.log(Math.max(random.getAsDouble(), Double.MIN_VALUE));
+        return now + gap >= entry.expiresAt();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<V>(V value, long loadNanos, long expiresAt) {
+    }
+}
@@ -0,0 +1,15 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+/**
+ * A cached value together with the version of the entity it was built from. A reader compares the version
+ * with the current one and drops the value on a mismatch, so a missed invalidation cannot serve stale data.
+ *
+ * @param version The {@code version} of the entity when the value was built.
+ * @param value   The cached value.
+ */
+public record Versioned<T>(long version, T value) {
+
+    public boolean isCurrent(Long currentVersion) {
+        return currentVersion != null && currentVersion == version;
+    }
+}
@@ -4,6 +4,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.seller.SellerFromCommentRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -18,7 +22,10 @@ public interface CommentService {
 
     void deleteById(Long commentId);
 
-    List<CommentResponse> getSellersComments(Long userId);
+    ScrollResponse<CommentResponse> getSellersComments(Long sellerId, boolean approvedOnly, String cursor, int size);
+
+    Slice<CommentResponse> searchComments(String searchQuery, Long sellerId, boolean approvedOnly,
+                                          PageCountMode countMode, Pageable pageable);
 
     CommentResponse getCommentById(Long commentId);
 
@@ -7,25 +7,47 @@ import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.seller.SellerFromCommentDto;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.seller.SellerFromCommentRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileDto;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
 import org.ebndrnk.leverxfinalproject.model.entity.anonymous.AnonymousUser;
 import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.SellerComment;
 import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
 import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.search.FullTextSearchRepository;
 import org.ebndrnk.leverxfinalproject.service.anonymous.AnonymousUserService;
 import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
 import org.ebndrnk.leverxfinalproject.service.comment.seller.SellerFromCommentService;
+import org.ebndrnk.leverxfinalproject.service.moderation.ModerationService;
 import org.ebndrnk.leverxfinalproject.service.profile.ProfileService;
 import org.ebndrnk.leverxfinalproject.exception.dto.CommentNotFoundException;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSearchQueryException;
+import org.ebndrnk.leverxfinalproject.exception.dto.ModerationItemClaimedException;
 import org.ebndrnk.leverxfinalproject.exception.dto.NoAuthorityForActionException;
 import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
 import org.ebndrnk.leverxfinalproject.exception.dto.UserNotFoundException;
+import org.ebndrnk.leverxfinalproject.util.PagingPolicy;
+import org.ebndrnk.leverxfinalproject.util.ScrollCursor;
+import org.apache.commons.lang3.StringUtils;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -35,6 +57,10 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CommentServiceImpl implements CommentService {
 
+    private static final int MAX_COMMENT_WINDOW = 100;
+    private static final Map<String, Class<?>> COMMENT_SCROLL_KEYS = Map.of("id", Long.class);
+    private static final PagingPolicy COMMENT_SEARCH_PAGING = PagingPolicy.fixedOrder(100);
+
     private final CommentRepository commentRepository;
     private final ModelMapper modelMapper;
     private final UserService userService;
@@ -42,6 +68,10 @@ public class CommentServiceImpl implements CommentService {
     private final SellerFromCommentService sellerFromCommentService;
     private final ProfileService profileService;
     private final AnonymousUserService anonymousUserService;
+    private final FullTextSearchRepository fullTextSearchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ModerationQueueRepository moderationQueueRepository;
+    private final ModerationService moderationService;
 
 
     /**
@@ -159,6 +189,7 @@ public class CommentServiceImpl implements CommentService {
                 throw new NoAuthorityForActionException("You have no authority for this action");
             } else {
                 commentRepository.deleteById(commentId);
+                publishIndexChange(commentId);
                 log.info("Comment with id: {} was deleted by seller", commentId);
             }
         } catch (UserNotFoundException e) {
@@ -167,6 +198,7 @@ public class CommentServiceImpl implements CommentService {
                 throw new NoAuthorityForActionException("You have no authority for this action");
             } else {
                 commentRepository.deleteById(commentId);
+                publishIndexChange(commentId);
                 log.info("Comment with id: {} was deleted by anonymous user which published this comment", commentId);
             }
         }
@@ -182,22 +214,88 @@ public class CommentServiceImpl implements CommentService {
                 .orElseThrow(() -> new CommentNotFoundException("Comment with this id not found"));
 
         commentRepository.deleteById(commentId);
+        publishIndexChange(commentId);
     }
 
     /**
-     * Retrieves all comments for a specific seller.
+     * Retrieves the comments of a seller one window at a time, newest first.
+     * <p>
+     * Each window is read together with the seller by one query that starts right after the last comment
+     * of the previous window, so its cost does not depend on how many comments the seller has.
+     * </p>
      *
-     * @param userId the ID of the seller
-     * @return a list of comment responses
+     * @param sellerId     the ID of the seller
+     * @param approvedOnly whether to leave out comments not approved yet
+     * @param cursor       the cursor returned with the previous window, or {@code null} for the first one
+     * @param size         the number of comments, at most {@value #MAX_COMMENT_WINDOW}
+     * @return the comments of the window and the cursor of the next one
+     * @throws ProfileNotFoundException if the seller does not exist
      */
     @Override
-    public List<CommentResponse> getSellersComments(Long userId) {
-        profileRepository.findById(userId).orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+    @Transactional(readOnly = true)
+    public ScrollResponse<CommentResponse> getSellersComments(Long sellerId, boolean approvedOnly,
+                                                              String cursor, int size) {
+        log.info("Retrieving comments for seller with id: {} after cursor {}", sellerId, cursor);
+        ScrollPosition position = ScrollCursor.decode(cursor, COMMENT_SCROLL_KEYS);
+        long beforeId = position.isInitial()
+                ? Long.MAX_VALUE
+                : (Long) ((KeysetScrollPosition) position).getKeys().get("id");
+        int limit = Math.max(1, Math.min(size, MAX_COMMENT_WINDOW));
+        // one extra row tells whether another window follows
+        Pageable window = PageRequest.of(0, limit + 1);
+
+        List<SellerComment> rows = approvedOnly
+                ? commentRepository.findApprovedSellerComments(sellerId, beforeId, window)
+                : commentRepository.findSellerComments(sellerId, beforeId, window);
+        if (rows.isEmpty()) {
+            throw new ProfileNotFoundException("Profile with this id not found");
+        }
 
-        log.info("Retrieving all comments for seller with id: {}", userId);
-        return commentRepository.findAllBySeller_Id(userId).stream()
-                .map(c -> modelMapper.map(c, CommentResponse.class))
+        List<CommentResponse> comments = rows.stream()
+                .filter(row -> row.getId() != null)
+                .limit(limit)
+                .map(CommentServiceImpl::toResponse)
                 .toList();
+        ScrollResponse<CommentResponse> response = new ScrollResponse<>();
+        response.setContent(comments);
+        response.setSize(comments.size());
+        response.setHasNext(rows.size() > limit);
+        if (response.isHasNext()) {
+            response.setNextCursor(ScrollCursor.encode(Map.of("id", comments.get(comments.size() - 1).getId())));
+        }
+        return response;
+    }
+
+    /**
+     * Searches comments by their message, most relevant first.
+     *
+     * @param searchQuery  the full-text search query
+     * @param sellerId     the ID of the seller the comments are about, or {@code null} for all sellers
+     * @param approvedOnly whether to leave out comments not approved yet
+     * @param countMode    how to report the total number of matching comments
+     * @param pageable     the page; comments cannot be sorted otherwise
+     * @return the matching comments
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CommentResponse> searchComments(String searchQuery, Long sellerId, boolean approvedOnly,
+                                                 PageCountMode countMode, Pageable pageable) {
+        if (StringUtils.isBlank(searchQuery)) {
+            throw new InvalidSearchQueryException("Search query must not be blank");
+        }
+        log.info("Searching comments for query: '{}', seller id: {}", searchQuery, sellerId);
+        return fullTextSearchRepository
+                .searchComments(searchQuery, sellerId, approvedOnly, COMMENT_SEARCH_PAGING.apply(pageable), countMode)
+                .map(comment -> modelMapper.map(comment, CommentResponse.class));
+    }
+
+    private static CommentResponse toResponse(SellerComment comment) {
+        CommentResponse response = new CommentResponse();
+        response.setId(comment.getId());
+        response.setMessage(comment.getMessage());
+        response.setApproved(Boolean.TRUE.equals(comment.getApproved()));
+        response.setSellerId(comment.getSellerId());
+        return response;
     }
 
     /**
@@ -232,6 +330,7 @@ public class CommentServiceImpl implements CommentService {
         } else {
             comment.setMessage(commentRequest.getMessage());
             CommentResponse commentResponse = modelMapper.map(commentRepository.save(comment), CommentResponse.class);
+            publishIndexChange(commentId);
             log.info("Comment with id: {} was edited by anonymous user which published this comment", commentId);
             return commentResponse;
         }
@@ -268,15 +367,22 @@ public class CommentServiceImpl implements CommentService {
      *
      * @param commentId the ID of the comment to confirm
      * @return the confirmed comment response
+     * @throws ModerationItemClaimedException if another moderator holds an unexpired claim on the comment
      */
     @Override
+    @Transactional
     public CommentResponse confirm(Long commentId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new CommentNotFoundException("comment with this id not found"));
+        moderationService.takeForDecision(ModerationQueue.COMMENTS, commentId);
         comment.setApproved(true);
+        comment.setReviewedAt(moderationQueueRepository.now());
+
+        Comment savedComment = commentRepository.save(comment);
+        publishIndexChange(commentId);
 
         log.info("Comment with id: {} has been confirmed", commentId);
-        return modelMapper.map(commentRepository.save(comment), CommentResponse.class);
+        return modelMapper.map(savedComment, CommentResponse.class);
     }
 
     /**
@@ -284,14 +390,31 @@ public class CommentServiceImpl implements CommentService {
      *
      * @param commentId the ID of the comment to decline
      * @return the declined comment response
+     * @throws ModerationItemClaimedException if another moderator holds an unexpired claim on the comment
      */
     @Override
+    @Transactional
     public CommentResponse decline(Long commentId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new CommentNotFoundException("comment with this id not found"));
+        moderationService.takeForDecision(ModerationQueue.COMMENTS, commentId);
         comment.setApproved(false);
+        comment.setReviewedAt(moderationQueueRepository.now());
+
+        Comment savedComment = commentRepository.save(comment);
+        publishIndexChange(commentId);
 
         log.info("Comment with id: {} has been declined", commentId);
-        return modelMapper.map(commentRepository.save(comment), CommentResponse.class);
+        return modelMapper.map(savedComment, CommentResponse.class);
+    }
+
+    /**
+     * Makes the catalog search read the comment again once the change is committed; only approved comments
+     * are searchable.
+     *
+     * @param commentId the ID of the changed comment
+     */
+    private void publishIndexChange(Long commentId) {
+        eventPublisher.publishEvent(new SearchIndexChangedEvent(SearchDocumentType.COMMENT, List.of(commentId)));
     }
 }
@@ -0,0 +1,15 @@
+package org.ebndrnk.leverxfinalproject.service.game;
+
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameCategory;
+
+import java.util.List;
+
+public interface GameCategoryService {
+    List<GameCategoryResponse> getAllCategories();
+
+    GameCategoryResponse createCategory(GameCategoryRequest categoryRequest);
+
+    GameCategory getCategoryById(Long categoryId);
+}
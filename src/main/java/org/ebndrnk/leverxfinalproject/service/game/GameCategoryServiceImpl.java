@@ -0,0 +1,60 @@
+package org.ebndrnk.leverxfinalproject.service.game;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.exception.dto.GameCategoryAlreadyExistsException;
+import org.ebndrnk.leverxfinalproject.exception.dto.GameCategoryNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameCategoryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameCategory;
+import org.ebndrnk.leverxfinalproject.repository.game.GameCategoryRepository;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service for the game categories sellers are ranked in.
+ */
+@Service
+@Slf4j
+@Primary
+@RequiredArgsConstructor
+public class GameCategoryServiceImpl implements GameCategoryService {
+
+    private final GameCategoryRepository gameCategoryRepository;
+    private final ModelMapper modelMapper;
+
+    @Override
+    public List<GameCategoryResponse> getAllCategories() {
+        return gameCategoryRepository.findAllByOrderByNameAsc().stream()
+                .map(category -> modelMapper.map(category, GameCategoryResponse.class))
+                .toList();
+    }
+
+    /**
+     * Creates a game category. Names are unique regardless of case, slugs are unique as given.
+     *
+     * @param categoryRequest The name and slug of the category.
+     * @return The created category.
+     * @throws GameCategoryAlreadyExistsException if a category with this name or slug exists.
+     */
+    @Override
+    public GameCategoryResponse createCategory(GameCategoryRequest categoryRequest) {
+        if (gameCategoryRepository.existsByNameIgnoreCaseOrSlug(categoryRequest.getName(), categoryRequest.getSlug())) {
+            throw new GameCategoryAlreadyExistsException("Game category " + categoryRequest.getName() + " already exists");
+        }
+        GameCategory category = new GameCategory(categoryRequest.getName(), categoryRequest.getSlug());
+        GameCategory savedCategory = gameCategoryRepository.save(category);
+
+        log.info("Created game category {} with ID: {}", savedCategory.getName(), savedCategory.getId());
+        return modelMapper.map(savedCategory, GameCategoryResponse.class);
+    }
+
+    @Override
+    public GameCategory getCategoryById(Long categoryId) {
+        return gameCategoryRepository.findById(categoryId)
+                .orElseThrow(() -> new GameCategoryNotFoundException("Game category with id " + categoryId + " not found"));
+    }
+}
@@ -3,11 +3,15 @@ package org.ebndrnk.leverxfinalproject.service.game;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GamePatchRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface GameService {
-    Page<GameResponse> findGameObjects(String title, String text, Pageable pageable);
+    Slice<GameResponse> findGameObjects(String title, String text, String searchQuery,
+                                        PageCountMode countMode, Pageable pageable);
 
     GameResponse createGameObject(GameRequest gameRequest);
 
@@ -17,6 +21,8 @@ public interface GameService {
 
     Page<GameResponse> getAllGameObjects(Pageable pageable);
 
+    ScrollResponse<GameResponse> scrollGameObjects(String title, String text, String cursor, int size);
+
     void deleteGameObjectById(Long gameObjectId);
 
     GameResponse patchGameObject(Long gameObjectId, GamePatchRequest gameRequest);
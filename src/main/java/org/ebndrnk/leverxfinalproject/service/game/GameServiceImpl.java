@@ -6,22 +6,43 @@ import org.ebndrnk.leverxfinalproject.model.dto.game.GameDto;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GamePatchRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
 import org.ebndrnk.leverxfinalproject.model.entity.auth.User;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameCategory;
 import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.SellerCatalogChangedEvent;
 import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
+import org.ebndrnk.leverxfinalproject.repository.page.ListingRepository;
+import org.ebndrnk.leverxfinalproject.repository.search.FullTextSearchRepository;
 import org.ebndrnk.leverxfinalproject.repository.specification.GameObjectSpecification;
 import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
 import org.ebndrnk.leverxfinalproject.util.Patcher;
+import org.ebndrnk.leverxfinalproject.util.PagingPolicy;
+import org.ebndrnk.leverxfinalproject.util.ScrollCursor;
 import org.ebndrnk.leverxfinalproject.exception.dto.GameNotFoundException;
 import org.ebndrnk.leverxfinalproject.exception.dto.NoAuthorityForActionException;
+import org.apache.commons.lang3.StringUtils;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Service class for managing game objects.
@@ -30,6 +51,11 @@ import java.util.Objects;
  * It uses a ModelMapper for converting between DTOs and entities, and delegates
  * user-related logic to the UserService.
  * </p>
+ * <p>
+ * Every change that may move a seller into or out of a game category publishes a
+ * {@link SellerCatalogChangedEvent}, so the category leaderboards follow the catalog. Every change
+ * of a game publishes a {@link SearchIndexChangedEvent}, so the catalog search follows it too.
+ * </p>
  */
 @Service
 @Slf4j
@@ -37,25 +63,56 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class GameServiceImpl implements GameService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final Sort GAME_SCROLL_SORT = Sort.by(Sort.Order.desc("id"));
+    private static final Map<String, Class<?>> GAME_SCROLL_KEYS = Map.of("id", Long.class);
+    /**
+     * Orders of the paginated game listings, each read from an index of the game_object table.
+     */
+    private static final PagingPolicy GAME_PAGING = PagingPolicy.of(100,
+            Sort.by(Sort.Order.desc("id")),
+            Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id")),
+            Sort.by(Sort.Order.asc("title"), Sort.Order.asc("id")));
+    /**
+     * Full-text search results come most relevant first.
+     */
+    private static final PagingPolicy GAME_SEARCH_PAGING = PagingPolicy.fixedOrder(100);
 
     private final ModelMapper modelMapper;
     private final UserService userService;
     private final GameRepository gameRepository;
+    private final ListingRepository listingRepository;
+    private final FullTextSearchRepository fullTextSearchRepository;
+    private final GameCategoryService gameCategoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * FIND A GAME using with filters using specifications
+     * <p>
+     * With a search query, the games matching it are returned most relevant first and cannot be sorted otherwise.
+     * </p>
      * @param title
      * @param text
+     * @param searchQuery full-text search query, or {@code null} to list the games in the requested order
+     * @param countMode how to report the total number of matching games
      * @param pageable
      */
     @Override
-    public Page<GameResponse> findGameObjects(String title, String text, Pageable pageable) {
-        log.info("Fetching game objects with title: '{}' and text: '{}'", title, text);
+    @Transactional(readOnly = true)
+    public Slice<GameResponse> findGameObjects(String title, String text, String searchQuery,
+                                               PageCountMode countMode, Pageable pageable) {
+        log.info("Fetching game objects with title: '{}', text: '{}' and query: '{}'", title, text, searchQuery);
+
+        if (StringUtils.isNotBlank(searchQuery)) {
+            return fullTextSearchRepository
+                    .searchGames(searchQuery, title, text, GAME_SEARCH_PAGING.apply(pageable), countMode)
+                    .map(gameObject -> modelMapper.map(gameObject, GameResponse.class));
+        }
 
         Specification<GameObject> spec = Specification.where(GameObjectSpecification.hasTitleLike(title))
                 .and(GameObjectSpecification.hasTextLike(text));
 
-        return gameRepository.findAll(spec, pageable)
+        return listingRepository.findAll(GameObject.class, spec, GAME_PAGING.apply(pageable), countMode)
                 .map(gameObject -> modelMapper.map(gameObject, GameResponse.class));
     }
 
@@ -71,7 +128,10 @@ public class GameServiceImpl implements GameService {
 
         GameObject gameObject = modelMapper.map(gameRequest, GameObject.class);
         gameObject.setSeller(modelMapper.map(userService.getCurrentUser(), User.class).getProfile());
+        gameObject.setCategory(findCategory(gameRequest.getCategoryId()));
         GameObject savedGameObject = gameRepository.save(gameObject);
+        publishCatalogChange(savedGameObject, null);
+        publishIndexChange(savedGameObject.getId());
 
         log.info("Created new game object with ID: {}", savedGameObject.getId());
         return modelMapper.map(savedGameObject, GameResponse.class);
@@ -102,9 +162,13 @@ public class GameServiceImpl implements GameService {
             throw new NoAuthorityForActionException("Only author can update game");
         }
 
+        GameCategory previousCategory = existingGameObject.getCategory();
         modelMapper.map(gameRequest, existingGameObject);
+        existingGameObject.setCategory(findCategory(gameRequest.getCategoryId()));
 
         GameObject savedGameObject = gameRepository.save(existingGameObject);
+        publishCatalogChange(savedGameObject, previousCategory);
+        publishIndexChange(savedGameObject.getId());
 
         log.info("Updated game object with ID: {}", savedGameObject.getId());
         return modelMapper.map(savedGameObject, GameResponse.class);
@@ -138,10 +202,36 @@ public class GameServiceImpl implements GameService {
     public Page<GameResponse> getAllGameObjects(Pageable pageable) {
         log.info("Fetching all game objects");
 
-        return gameRepository.findAll(pageable)
+        return gameRepository.findAll(GAME_PAGING.apply(pageable))
                 .map(gameObject -> modelMapper.map(gameObject, GameResponse.class));
     }
 
+    /**
+     * Retrieves game objects, optionally filtered by title and text, one window at a time, newest first.
+     * Each window is read from the primary key index right after the last game of the previous window,
+     * without an offset or a count query.
+     *
+     * @param title the title to search for, or {@code null}.
+     * @param text the text to search for, or {@code null}.
+     * @param cursor the cursor returned with the previous window, or {@code null} for the first one.
+     * @param size the number of games, at most {@value #MAX_SCROLL_SIZE}.
+     * @return the games of the window and the cursor of the next one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ScrollResponse<GameResponse> scrollGameObjects(String title, String text, String cursor, int size) {
+        log.info("Scrolling game objects with title: '{}' and text: '{}' after cursor {}", title, text, cursor);
+
+        Specification<GameObject> spec = Specification.where(GameObjectSpecification.hasTitleLike(title))
+                .and(GameObjectSpecification.hasTextLike(text));
+        ScrollPosition position = ScrollCursor.decode(cursor, GAME_SCROLL_KEYS);
+        Window<GameObject> gameObjects = gameRepository.findBy(spec, query -> query
+                .sortBy(GAME_SCROLL_SORT)
+                .limit(Math.max(1, Math.min(size, MAX_SCROLL_SIZE)))
+                .scroll(position));
+        return ScrollCursor.toResponse(gameObjects, gameObject -> modelMapper.map(gameObject, GameResponse.class));
+    }
+
     /**
      * Deletes a game object by its ID.
      *
@@ -151,17 +241,23 @@ public class GameServiceImpl implements GameService {
     public void deleteGameObjectById(Long gameObjectId) {
         log.info("Deleting game object with ID: {}", gameObjectId);
 
-        if (!gameRepository.existsById(gameObjectId)) {
-            log.error("Game object with id {} not found", gameObjectId);
-            throw new GameNotFoundException("Game object with id " + gameObjectId + " not found");
-        }
+        GameObject gameObject = gameRepository.findById(gameObjectId)
+                .orElseThrow(() -> {
+                    log.error("Game object with id {} not found", gameObjectId);
+                    return new GameNotFoundException("Game object with id " + gameObjectId + " not found");
+                });
 
-        if (!isCurrentUserGameAuthor(gameObjectId)) {
+        if (!isCurrentUserGameAuthor(gameObject)) {
             log.error("User does not have authority to delete game object with ID: {}", gameObjectId);
             throw new NoAuthorityForActionException("Only author can delete game");
         }
 
         gameRepository.deleteById(gameObjectId);
+        if (gameObject.getCategory() != null) {
+            eventPublisher.publishEvent(new SellerCatalogChangedEvent(gameObject.getSeller().getId(),
+                    Set.of(gameObject.getCategory().getId())));
+        }
+        publishIndexChange(gameObjectId);
 
         log.info("Deleted game object with ID: {}", gameObjectId);
     }
@@ -194,7 +290,11 @@ public class GameServiceImpl implements GameService {
             throw new NoAuthorityForActionException("Only author can update game");
         }
 
+        GameCategory previousCategory = existingGameObject.getCategory();
         GameObject incompleteGameObject = modelMapper.map(gameRequest, GameObject.class);
+        if (gameRequest.getCategoryId() != null) {
+            incompleteGameObject.setCategory(findCategory(gameRequest.getCategoryId()));
+        }
 
         try {
             Patcher.patchEntity(existingGameObject, incompleteGameObject);
@@ -204,6 +304,8 @@ public class GameServiceImpl implements GameService {
         }
 
         GameObject updatedGameObject = gameRepository.save(existingGameObject);
+        publishCatalogChange(updatedGameObject, previousCategory);
+        publishIndexChange(updatedGameObject.getId());
 
         log.info("Patched game object with ID: {}", updatedGameObject.getId());
         return modelMapper.map(updatedGameObject, GameResponse.class);
@@ -211,7 +313,41 @@ public class GameServiceImpl implements GameService {
 
     private boolean isCurrentUserGameAuthor(Long gameId) {
         GameObject gameObject = gameRepository.findById(gameId).orElseThrow(() -> new GameNotFoundException("Game with this id not found"));
+        return isCurrentUserGameAuthor(gameObject);
+    }
+
+    private boolean isCurrentUserGameAuthor(GameObject gameObject) {
         return Objects.equals(gameObject.getSeller().getId(),
                 userService.getCurrentUser().getProfile().getId());
     }
+
+    private GameCategory findCategory(Long categoryId) {
+        return categoryId == null ? null : gameCategoryService.getCategoryById(categoryId);
+    }
+
+    private void publishIndexChange(Long gameObjectId) {
+        eventPublisher.publishEvent(new SearchIndexChangedEvent(SearchDocumentType.GAME, List.of(gameObjectId)));
+    }
+
+    /**
+     * Publishes a catalog change of the seller of the game if the game entered or left a category.
+     *
+     * @param gameObject       The saved game.
+     * @param previousCategory The category of the game before the change, {@code null} for new games.
+     */
+    private void publishCatalogChange(GameObject gameObject, GameCategory previousCategory) {
+        Set<Long> categoryIds = new HashSet<>();
+        if (previousCategory != null) {
+            categoryIds.add(previousCategory.getId());
+        }
+        if (gameObject.getCategory() != null) {
+            categoryIds.add(gameObject.getCategory().getId());
+        }
+        if (categoryIds.size() == 1 && previousCategory != null && gameObject.getCategory() != null) {
+            return;
+        }
+        if (!categoryIds.isEmpty() && gameObject.getSeller() != null) {
+            eventPublisher.publishEvent(new SellerCatalogChangedEvent(gameObject.getSeller().getId(), categoryIds));
+        }
+    }
 }
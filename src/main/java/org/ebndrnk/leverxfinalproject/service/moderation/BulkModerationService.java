@@ -0,0 +1,13 @@
+package org.ebndrnk.leverxfinalproject.service.moderation;
+
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationDecision;
+
+public interface BulkModerationService {
+    BulkModerationResponse decideComments(ModerationDecision decision, BulkModerationRequest request);
+
+    BulkModerationResponse decideProfiles(ModerationDecision decision, BulkModerationRequest request);
+
+    BulkModerationResponse getJob(Long jobId);
+}
@@ -0,0 +1,381 @@
+package org.ebndrnk.leverxfinalproject.service.moderation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.ebndrnk.leverxfinalproject.aspect.LeaderOnly;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidModerationRequestException;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationDecision;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJob;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJobStatus;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationFilter;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationJobRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository.Decided;
+import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCacheRegion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Confirms or declines many comments or profiles at once with set-based updates.
+ * <p>
+ * A decision applies to a list of IDs or to every item matching a filter. Sets of up to {@code syncLimit}
+ * items are decided within the request by a single {@code UPDATE}; a filter is tried that way first and only
+ * becomes a job if it matched more. Larger sets are decided by a background job in chunks of {@code chunkSize}
+ * items, one transaction per chunk, so no transaction holds row locks for long. The job row records the progress
+ * after every chunk and can be polled. Jobs run one at a time per replica, in the order they were requested.
+ * Each decided set is published as a {@link SearchIndexChangedEvent}, so the catalog search follows the decisions.
+ * Once a set is committed, the near cache entries of the profiles embedding the decided comments are evicted,
+ * since the set-based updates bypass the entity listener doing that for single decisions.
+ * </p>
+ * <p>
+ * Jobs run in memory, so the replica holding them touches their heartbeat after every chunk. A sweep on the leading
+ * replica takes over the jobs whose heartbeat is older than {@code orphanAfterMs}: a job deciding the items matching
+ * a filter continues after the last item it decided, a job deciding a list of IDs fails, since the list is not
+ * stored.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class BulkModerationServiceImpl implements BulkModerationService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final List<ModerationJobStatus> UNFINISHED =
+            List.of(ModerationJobStatus.QUEUED, ModerationJobStatus.RUNNING);
+
+    private final ModerationQueueRepository moderationQueueRepository;
+    private final ModerationJobRepository jobRepository;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NearCache nearCache;
+    private final Executor jobExecutor;
+    private final int syncLimit;
+    private final int chunkSize;
+    private final long orphanAfterMs;
+    private final Set<Long> heldJobs = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public BulkModerationServiceImpl(ModerationQueueRepository moderationQueueRepository,
+                                     ModerationJobRepository jobRepository,
+                                     UserService userService,
+                                     TransactionTemplate transactionTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     NearCache nearCache,
+                                     @Value("${moderation.bulk.sync-limit:1000}") int syncLimit,
+                                     @Value("${moderation.bulk.chunk-size:5000}") int chunkSize,
+                                     @Value("${moderation.bulk.orphan-after-ms:600000}") long orphanAfterMs) {
+        this(moderationQueueRepository, jobRepository, userService, transactionTemplate, eventPublisher, nearCache,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-moderation");
+                    thread.setDaemon(true);
+                    return thread;
+                }), syncLimit, chunkSize, orphanAfterMs);
+    }
+
+    BulkModerationServiceImpl(ModerationQueueRepository moderationQueueRepository,
+                              ModerationJobRepository jobRepository,
+                              UserService userService,
+                              TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              NearCache nearCache,
+                              Executor jobExecutor,
+                              int syncLimit,
+                              int chunkSize,
+                              long orphanAfterMs) {
+        this.moderationQueueRepository = moderationQueueRepository;
+        this.jobRepository = jobRepository;
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.nearCache = nearCache;
+        this.jobExecutor = jobExecutor;
+        this.syncLimit = syncLimit;
+        this.chunkSize = chunkSize;
+        this.orphanAfterMs = orphanAfterMs;
+    }
+
+    /**
+     * Confirms or declines the comments selected by the request.
+     *
+     * @param decision the decision.
+     * @param request  the IDs of the comments or the filter selecting them.
+     * @return the number of decided comments, or the status of the job deciding them.
+     */
+    @Override
+    public BulkModerationResponse decideComments(ModerationDecision decision, BulkModerationRequest request) {
+        return decide(ModerationQueue.COMMENTS, decision, request);
+    }
+
+    /**
+     * Confirms or declines the profiles selected by the request.
+     *
+     * @param decision the decision.
+     * @param request  the IDs of the profiles or the filter selecting them.
+     * @return the number of decided profiles, or the status of the job deciding them.
+     * @throws InvalidModerationRequestException if the request filters by seller.
+     */
+    @Override
+    public BulkModerationResponse decideProfiles(ModerationDecision decision, BulkModerationRequest request) {
+        return decide(ModerationQueue.PROFILES, decision, request);
+    }
+
+    /**
+     * Returns the progress of a bulk moderation job.
+     *
+     * @param jobId the ID of the job.
+     * @return the status of the job.
+     */
+    @Override
+    public BulkModerationResponse getJob(Long jobId) {
+        return toResponse(jobRepository.findById(jobId).orElseThrow());
+    }
+
+    /**
+     * Takes over the jobs left unfinished by replicas that stopped: jobs for a filter are continued,
+     * jobs for a list of IDs fail. Runs periodically rather than on startup, since a replica that restarts
+     * quickly finds the heartbeats of its own lost jobs still fresh.
+     */
+    @Scheduled(initialDelayString = "${moderation.bulk.orphan-sweep-interval-ms:60000}",
+            fixedDelayString = "${moderation.bulk.orphan-sweep-interval-ms:60000}")
+    @LeaderOnly("moderation-orphan-sweep")
+    public void takeOverOrphanedJobs() {
+        try {
+            LocalDateTime staleBefore = moderationQueueRepository.now().minus(Duration.ofMillis(orphanAfterMs));
+            for (ModerationJob job : jobRepository.findByStatusInAndHeartbeatAtBeforeOrderById(UNFINISHED, staleBefore)) {
+                Integer taken = transactionTemplate.execute(status -> jobRepository.takeOver(job.getId(), staleBefore));
+                if (taken == null || taken == 0) {
+                    continue;
+                }
+                if (job.getPendingOnly() == null) {
+                    log.warn("Bulk moderation job {} was interrupted after item id {}, its list of IDs is lost",
+                            job.getId(), job.getLastItemId());
+                    fail(job, "Interrupted by a restart after item id " + job.getLastItemId()
+                            + ", request the remaining IDs again");
+                    continue;
+                }
+                ModerationFilter filter = new ModerationFilter(job.getPendingOnly(), job.getSellerId(),
+                        job.getCreatedBefore());
+                log.info("Resuming bulk moderation job {} after item id {}", job.getId(), job.getLastItemId());
+                heldJobs.add(job.getId());
+                jobExecutor.execute(() -> run(job, filter, null));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not take over orphaned bulk moderation jobs: {}", e.getMessage());
+        }
+    }
+
+    private BulkModerationResponse decide(ModerationQueue queue, ModerationDecision decision,
+                                          BulkModerationRequest request) {
+        if (request.getSellerId() != null && queue.getSellerColumn() == null) {
+            throw new InvalidModerationRequestException(queue + " cannot be filtered by seller");
+        }
+        ModerationFilter filter = new ModerationFilter(request.isPendingOnly(), request.getSellerId(),
+                request.getCreatedBefore());
+        String moderator = userService.getCurrentUser().getUsername();
+
+        if (request.getIds() != null) {
+            List<Long> ids = request.getIds().stream().distinct().sorted().toList();
+            if (ids.size() <= syncLimit) {
+                List<Decided> decided = ids.isEmpty() ? List.of() : transactionTemplate.execute(status ->
+                        moderationQueueRepository.decide(queue, decision.isApproved(), filter, ids));
+                publishIndexChange(queue, ids);
+                evictSellers(decided);
+                log.info("Moderator {} decided {} of {} {}: {}", moderator, decision, ids.size(), queue, decided.size());
+                return completed(queue, decision, decided.size());
+            }
+            ModerationJob job = createJob(queue, decision, moderator, null, 0, 0);
+            jobExecutor.execute(() -> run(job, filter, ids));
+            return toResponse(job);
+        }
+
+        List<Decided> decided = transactionTemplate.execute(status ->
+                moderationQueueRepository.decideNext(queue, decision.isApproved(), filter, 0, syncLimit));
+        publishIndexChange(queue, ids(decided));
+        evictSellers(decided);
+        if (decided.size() < syncLimit) {
+            log.info("Moderator {} decided {} of {} matching {}: {}", moderator, decision, queue, filter, decided.size());
+            return completed(queue, decision, decided.size());
+        }
+        ModerationJob job = createJob(queue, decision, moderator, filter, Collections.max(ids(decided)),
+                decided.size());
+        jobExecutor.execute(() -> run(job, filter, null));
+        return toResponse(job);
+    }
+
+    private ModerationJob createJob(ModerationQueue queue, ModerationDecision decision, String moderator,
+                                    ModerationFilter filter, long lastItemId, long affectedItems) {
+        ModerationJob job = new ModerationJob();
+        job.setQueue(queue);
+        job.setDecision(decision);
+        job.setStatus(ModerationJobStatus.QUEUED);
+        job.setRequestedBy(moderator);
+        job.setLastItemId(lastItemId);
+        job.setAffectedItems(affectedItems);
+        if (filter != null) {
+            job.setPendingOnly(filter.pendingOnly());
+            job.setSellerId(filter.sellerId());
+            job.setCreatedBefore(filter.createdBefore());
+        }
+        ModerationJob saved = jobRepository.save(job);
+        heldJobs.add(saved.getId());
+        log.info("Moderator {} started bulk moderation job {}: {} of {}", moderator, saved.getId(), decision, queue);
+        return saved;
+    }
+
+    /**
+     * Decides the listed items chunk by chunk, or, without a list, the items matching the filter after
+     * the last checkpointed id.
+     */
+    private void run(ModerationJob job, ModerationFilter filter, List<Long> ids) {
+        ModerationQueue queue = job.getQueue();
+        boolean approved = job.getDecision().isApproved();
+        try {
+            job.setStatus(ModerationJobStatus.RUNNING);
+            job = jobRepository.save(job);
+
+            if (ids != null) {
+                for (int from = 0; from < ids.size(); from += chunkSize) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                    List<Decided> decided = transactionTemplate.execute(status ->
+                            moderationQueueRepository.decide(queue, approved, filter, chunk));
+                    publishIndexChange(queue, chunk);
+                    evictSellers(decided);
+                    job = checkpoint(job, chunk.get(chunk.size() - 1), decided.size());
+                }
+            } else {
+                List<Decided> decided;
+                do {
+                    long afterId = job.getLastItemId();
+                    decided = transactionTemplate.execute(status ->
+                            moderationQueueRepository.decideNext(queue, approved, filter, afterId, chunkSize));
+                    if (!decided.isEmpty()) {
+                        List<Long> decidedIds = ids(decided);
+                        publishIndexChange(queue, decidedIds);
+                        evictSellers(decided);
+                        job = checkpoint(job, Collections.max(decidedIds), decided.size());
+                    }
+                } while (decided.size() == chunkSize);
+            }
+
+            job.setStatus(ModerationJobStatus.COMPLETED);
+            job.setFinishedAt(moderationQueueRepository.now());
+            job = jobRepository.save(job);
+            log.info("Bulk moderation job {} completed: {} {} decided", job.getId(), job.getAffectedItems(), queue);
+        } catch (RuntimeException e) {
+            log.error("Bulk moderation job {} failed after item id {}: {}",
+                    job.getId(), job.getLastItemId(), e.getMessage(), e);
+            fail(job, e.getMessage());
+        } finally {
+            heldJobs.remove(job.getId());
+        }
+    }
+
+    private void fail(ModerationJob job, String errorMessage) {
+        job.setStatus(ModerationJobStatus.FAILED);
+        job.setErrorMessage(StringUtils.abbreviate(errorMessage, MAX_ERROR_LENGTH));
+        try {
+            job.setFinishedAt(moderationQueueRepository.now());
+            jobRepository.save(job);
+        } catch (RuntimeException saveException) {
+            log.error("Could not mark bulk moderation job {} as failed: {}", job.getId(), saveException.getMessage());
+        }
+    }
+
+    private ModerationJob checkpoint(ModerationJob job, long lastItemId, long affected) {
+        job.setLastItemId(lastItemId);
+        job.setAffectedItems(job.getAffectedItems() + affected);
+        ModerationJob saved = jobRepository.save(job);
+        // the queued jobs of this replica wait behind this one, so they are kept alive too
+        transactionTemplate.execute(status -> jobRepository.heartbeat(List.copyOf(heldJobs)));
+        log.debug("Bulk moderation job {}: items up to id {} done, {} decided",
+                saved.getId(), saved.getLastItemId(), saved.getAffectedItems());
+        return saved;
+    }
+
+    /**
+     * Makes the catalog search read the decided items again; items that did not match the filter are read too,
+     * which changes nothing.
+     */
+    private void publishIndexChange(ModerationQueue queue, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        SearchDocumentType type = switch (queue) {
+            case COMMENTS -> SearchDocumentType.COMMENT;
+            case PROFILES -> SearchDocumentType.PROFILE;
+        };
+        eventPublisher.publishEvent(new SearchIndexChangedEvent(type, List.copyOf(ids)));
+    }
+
+    /**
+     * Evicts the cached profile response and DTO of every seller whose comments were decided. They embed
+     * the comments, and the committed decision does not bump the version of the profile.
+     */
+    private void evictSellers(List<Decided> decided) {
+        decided.stream()
+                .map(Decided::sellerId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(sellerId -> nearCache.invalidate(sellerId, NearCacheRegion.PROFILES,
+                        NearCacheRegion.PROFILE_DETAILS));
+    }
+
+    private static List<Long> ids(List<Decided> decided) {
+        return decided.stream().map(Decided::id).toList();
+    }
+
+    private BulkModerationResponse completed(ModerationQueue queue, ModerationDecision decision, long affected) {
+        BulkModerationResponse response = new BulkModerationResponse();
+        response.setQueue(queue);
+        response.setDecision(decision);
+        response.setStatus(ModerationJobStatus.COMPLETED);
+        response.setAffectedItems(affected);
+        return response;
+    }
+
+    private BulkModerationResponse toResponse(ModerationJob job) {
+        BulkModerationResponse response = new BulkModerationResponse();
+        response.setJobId(job.getId());
+        response.setQueue(job.getQueue());
+        response.setDecision(job.getDecision());
+        response.setStatus(job.getStatus());
+        response.setAffectedItems(job.getAffectedItems());
+        response.setStartedAt(job.getCreatedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        response.setErrorMessage(job.getErrorMessage());
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (jobExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.ebndrnk.leverxfinalproject.service.moderation;
+
+import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.ModerationBatchResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+
+import java.util.List;
+
+public interface ModerationService {
+    ModerationBatchResponse<CommentResponse> claimComments(int size);
+
+    int releaseComments(List<Long> commentIds);
+
+    ModerationBatchResponse<ProfileSummaryResponse> claimProfiles(int size);
+
+    int releaseProfiles(List<Long> profileIds);
+
+    void takeForDecision(ModerationQueue queue, Long id);
+
+    List<Long> takeAllForDecision(ModerationQueue queue, List<Long> ids);
+}
@@ -0,0 +1,182 @@
+package org.ebndrnk.leverxfinalproject.service.moderation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.exception.dto.ModerationItemClaimedException;
+import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.ModerationBatchResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Hands out the pending comments and profiles to moderators in claimed batches.
+ * <p>
+ * A claim lasts for a lease. Items reviewed within it leave the queue through the usual confirm and decline
+ * operations; items released or left unreviewed when the lease expires are claimed by the next moderator.
+ * Since claims skip items locked by other moderators, moderators never wait for or duplicate each other.
+ * Confirm and decline go through {@link #takeForDecision}, so an item held by another moderator is not
+ * decided under them and a decided item leaves no claim behind.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class ModerationServiceImpl implements ModerationService {
+
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private final ModerationQueueRepository moderationQueueRepository;
+    private final CommentRepository commentRepository;
+    private final ProfileRepository profileRepository;
+    private final UserService userService;
+    private final ModelMapper modelMapper;
+    private final Duration lease;
+
+    public ModerationServiceImpl(ModerationQueueRepository moderationQueueRepository,
+                                 CommentRepository commentRepository,
+                                 ProfileRepository profileRepository,
+                                 UserService userService,
+                                 ModelMapper modelMapper,
+                                 @Value("${moderation.lease-ms:300000}") long leaseMillis) {
+        this.moderationQueueRepository = moderationQueueRepository;
+        this.commentRepository = commentRepository;
+        this.profileRepository = profileRepository;
+        this.userService = userService;
+        this.modelMapper = modelMapper;
+        this.lease = Duration.ofMillis(leaseMillis);
+    }
+
+    /**
+     * Claims the oldest pending comments for the current moderator.
+     *
+     * @param size the number of comments, at most {@value #MAX_BATCH_SIZE}.
+     * @return the claimed comments and the end of the lease.
+     */
+    @Override
+    @Transactional
+    public ModerationBatchResponse<CommentResponse> claimComments(int size) {
+        return claim(ModerationQueue.COMMENTS, size, ids -> commentRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(BasicEntity::getId))
+                .map(comment -> modelMapper.map(comment, CommentResponse.class))
+                .toList());
+    }
+
+    /**
+     * Gives back comments claimed by the current moderator and not reviewed yet.
+     *
+     * @param commentIds the IDs of the comments.
+     * @return the number of released comments.
+     */
+    @Override
+    @Transactional
+    public int releaseComments(List<Long> commentIds) {
+        return release(ModerationQueue.COMMENTS, commentIds);
+    }
+
+    /**
+     * Claims the oldest profiles waiting for confirmation for the current moderator.
+     *
+     * @param size the number of profiles, at most {@value #MAX_BATCH_SIZE}.
+     * @return the claimed profiles and the end of the lease.
+     */
+    @Override
+    @Transactional
+    public ModerationBatchResponse<ProfileSummaryResponse> claimProfiles(int size) {
+        return claim(ModerationQueue.PROFILES, size, ids -> profileRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(BasicEntity::getId))
+                .map(profile -> modelMapper.map(profile, ProfileSummaryResponse.class))
+                .toList());
+    }
+
+    /**
+     * Gives back profiles claimed by the current moderator and not reviewed yet.
+     *
+     * @param profileIds the IDs of the profiles.
+     * @return the number of released profiles.
+     */
+    @Override
+    @Transactional
+    public int releaseProfiles(List<Long> profileIds) {
+        return release(ModerationQueue.PROFILES, profileIds);
+    }
+
+    /**
+     * Takes an item for a decision of the current moderator in the running transaction, clearing its claim.
+     *
+     * @param queue the queue of the item.
+     * @param id    the ID of the item.
+     * @throws ModerationItemClaimedException if another moderator holds an unexpired claim on the item.
+     */
+    @Override
+    @Transactional
+    public void takeForDecision(ModerationQueue queue, Long id) {
+        if (takeAllForDecision(queue, List.of(id)).isEmpty()) {
+            throw new ModerationItemClaimedException("Item " + id + " is claimed by another moderator");
+        }
+    }
+
+    /**
+     * Takes the items for decisions of the current moderator in the running transaction, clearing their claims.
+     *
+     * @param queue the queue of the items.
+     * @param ids   the IDs of the items.
+     * @return the IDs of the taken items; items another moderator holds an unexpired claim on are left out.
+     */
+    @Override
+    @Transactional
+    public List<Long> takeAllForDecision(ModerationQueue queue, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String moderator = userService.getCurrentUser().getUsername();
+        List<Long> taken = moderationQueueRepository.takeForDecision(queue, moderator, ids);
+        if (taken.size() < ids.size()) {
+            log.info("Moderator {} skipped {} items of the {} queue claimed by other moderators",
+                    moderator, ids.size() - taken.size(), queue);
+        }
+        return taken;
+    }
+
+    private <T> ModerationBatchResponse<T> claim(ModerationQueue queue, int size,
+                                                 Function<List<Long>, List<T>> loader) {
+        String moderator = userService.getCurrentUser().getUsername();
+        int limit = Math.max(1, Math.min(size, MAX_BATCH_SIZE));
+        List<ModerationQueueRepository.Claim> claims = moderationQueueRepository.claim(queue, moderator, limit, lease);
+        log.info("Moderator {} claimed {} items of the {} queue", moderator, claims.size(), queue);
+
+        ModerationBatchResponse<T> response = new ModerationBatchResponse<>();
+        response.setItems(claims.isEmpty()
+                ? List.of()
+                : loader.apply(claims.stream().map(ModerationQueueRepository.Claim::id).toList()));
+        response.setClaimedBy(moderator);
+        response.setLeaseExpiresAt(claims.stream()
+                .map(ModerationQueueRepository.Claim::expiresAt)
+                .findFirst()
+                .orElse(null));
+        return response;
+    }
+
+    private int release(ModerationQueue queue, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        String moderator = userService.getCurrentUser().getUsername();
+        int released = moderationQueueRepository.release(queue, moderator, ids);
+        log.info("Moderator {} released {} items of the {} queue", moderator, released, queue);
+        return released;
+    }
+}
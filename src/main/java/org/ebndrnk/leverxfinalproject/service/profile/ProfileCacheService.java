@@ -1,19 +1,18 @@
 package org.ebndrnk.leverxfinalproject.service.profile;
 
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProfileCacheService {
-    List<ProfileResponse> getTopSellersFromCache();
+    List<ProfileResponse> getTopSellers(int count, Long categoryId);
 
-    void saveTopSellersToCache(List<ProfileResponse> profiles);
+    List<Long> getTopSellerIds(int count, Long categoryId);
 
-    void clearCache();
+    void refreshRanking(Collection<Long> profileIds);
 
-    @Scheduled(initialDelay = 1000, fixedRate = 24 * 60 * 60 * 1000)
-    @Transactional
-    void updateTopSellersCache();
+    void removeFromRanking(Long profileId);
+
+    void rebuildRanking();
 }
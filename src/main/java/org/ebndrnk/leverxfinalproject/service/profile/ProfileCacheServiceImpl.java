@@ -1,63 +1,375 @@
 package org.ebndrnk.leverxfinalproject.service.profile;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
-import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
-import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileCacheRepository;
+import org.ebndrnk.leverxfinalproject.model.event.ProfileCreatedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.ProfileDeletedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.SellerCatalogChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+import org.ebndrnk.leverxfinalproject.model.projection.SellerCategory;
+import org.ebndrnk.leverxfinalproject.repository.game.GameCategoryRepository;
+import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
 import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.SellerLeaderboardRepository;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCacheRegion;
+import org.ebndrnk.leverxfinalproject.util.RatingSummaryMapper;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Service for the seller leaderboard kept in Redis.
+ * <p>
+ * The ranking is a Redis sorted set scored by the ranking score of each seller. The score of a seller is
+ * updated after every committed rating change, so the ranking is always current and the database is only
+ * scanned when the sorted set is missing. Profile summaries are cached per seller and read with one {@code MGET}.
+ * </p>
+ * <p>
+ * Each game category has its own sorted set holding the sellers that offer games in it. A rating change updates
+ * the seller in every category it belongs to, and a catalog change adds the seller to or removes it from
+ * the categories of the changed games. New sellers enter the rankings with the prior score right away and
+ * deleted sellers leave them, so the rankings hold the same sellers as the database.
+ * </p>
+ * <p>
+ * Both the ranking and the summaries are read through the in-process {@link NearCache}, so hot reads
+ * do not reach Redis. Cached rankings expire after a short time to live, cached summaries are evicted
+ * on all replicas when the seller is rated.
+ * </p>
+ * <p>
+ * A rebuild holds a lock in Redis, so replicas finding the ranking missing at the same time do not rebuild
+ * it over each other. Sellers whose score changes while a rebuild runs are ranked again once it is published,
+ * since the rebuild may have read them before the change.
+ * </p>
+ */
 @Service
+@Slf4j
 @Primary
-@RequiredArgsConstructor
-public class ProfileCacheServiceImpl implements ProfileCacheService{
+public class ProfileCacheServiceImpl implements ProfileCacheService {
+
+    private static final int REBUILD_PAGE_SIZE = 5000;
+    private static final Duration REBUILD_LEASE = Duration.ofMinutes(1);
+
     private final ProfileRepository profileRepository;
-    private static final Duration TIME_TO_LIVE = Duration.ofDays(1);
-    private final ProfileCacheRepository profileCacheRepository;
-    private static final String TOP_SELLERS_KEY = "top_sellers";
-    private static final int COUNT_OF_PROFILES_IN_CASHE = 10;
+    private final SellerLeaderboardRepository leaderboardRepository;
+    private final GameRepository gameRepository;
+    private final GameCategoryRepository gameCategoryRepository;
     private final ModelMapper modelMapper;
+    private final NearCache nearCache;
+    private final Duration summaryTtl;
+    private final double summaryTtlJitter;
 
+    public ProfileCacheServiceImpl(ProfileRepository profileRepository,
+                                   SellerLeaderboardRepository leaderboardRepository,
+                                   GameRepository gameRepository,
+                                   GameCategoryRepository gameCategoryRepository,
+                                   ModelMapper modelMapper,
+                                   NearCache nearCache,
+                                   @Value("${rating.leaderboard.summary-ttl-ms:600000}") long summaryTtlMillis,
+                                   @Value("${rating.leaderboard.summary-ttl-jitter:0.1}") double summaryTtlJitter) {
+        this.profileRepository = profileRepository;
+        this.leaderboardRepository = leaderboardRepository;
+        this.gameRepository = gameRepository;
+        this.gameCategoryRepository = gameCategoryRepository;
+        this.modelMapper = modelMapper;
+        this.nearCache = nearCache;
+        this.summaryTtl = Duration.ofMillis(summaryTtlMillis);
+        this.summaryTtlJitter = summaryTtlJitter;
+    }
 
+    /**
+     * Retrieves the best ranked sellers. Summaries missing from the near cache are read from Redis with one
+     * {@code MGET}, summaries missing from both are loaded from the database in one query and cached.
+     *
+     * @param count      The number of sellers.
+     * @param categoryId The game category to rank the sellers in, {@code null} for the overall ranking.
+     * @return The summaries of the sellers, best first.
+     * @throws RedisOperationException if Redis is not available.
+     */
     @Override
-    public List<ProfileResponse> getTopSellersFromCache() {
-        return profileCacheRepository.getByKey(TOP_SELLERS_KEY);
+    @Transactional(readOnly = true)
+    public List<ProfileResponse> getTopSellers(int count, Long categoryId) {
+        List<Long> ids = getTopSellerIds(count, categoryId);
+        Map<Long, ProfileResponse> found = new HashMap<>(nearCache.getAllPresent(NearCacheRegion.SELLER_SUMMARIES, ids));
+        List<Long> uncachedIds = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!uncachedIds.isEmpty()) {
+            loadSummaries(uncachedIds, categoryId, found);
+        }
+
+        List<ProfileResponse> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProfileResponse summary = found.get(id);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    private void loadSummaries(List<Long> ids, Long categoryId, Map<Long, ProfileResponse> found) {
+        List<ProfileResponse> summaries = leaderboardRepository.findSummaries(ids);
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            ProfileResponse summary = i < summaries.size() ? summaries.get(i) : null;
+            if (summary == null) {
+                missingIds.add(ids.get(i));
+            } else {
+                found.put(summary.getId(), summary);
+                nearCache.put(NearCacheRegion.SELLER_SUMMARIES, summary.getId(), summary);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ProfileResponse> loaded = profileRepository.findAllById(missingIds).stream()
+                .map(profile -> modelMapper.map(profile, ProfileResponse.class))
+                .collect(Collectors.toMap(ProfileResponse::getId, Function.identity()));
+        leaderboardRepository.saveSummaries(new ArrayList<>(loaded.values()), summaryTtl, summaryTtlJitter);
+        loaded.forEach((id, summary) -> nearCache.put(NearCacheRegion.SELLER_SUMMARIES, id, summary));
+        found.putAll(loaded);
+
+        List<Long> deletedIds = missingIds.stream().filter(id -> !loaded.containsKey(id)).toList();
+        if (!deletedIds.isEmpty()) {
+            leaderboardRepository.removeScores(categoryId, deletedIds);
+        }
     }
 
+    /**
+     * Retrieves the ids of the best ranked sellers, rebuilding the ranking first if it is missing.
+     * The result is kept in the near cache for the short time to live of {@link NearCacheRegion#TOP_SELLERS}.
+     *
+     * @param count      The number of sellers.
+     * @param categoryId The game category to rank the sellers in, {@code null} for the overall ranking.
+     * @return The ids of the sellers, best first.
+     * @throws RedisOperationException if Redis is not available.
+     */
     @Override
-    public void saveTopSellersToCache(List<ProfileResponse> profiles) {
-        profileRepository.findTopSellersWithLimit(
-                PageRequest.of(0, COUNT_OF_PROFILES_IN_CASHE)
-        );
+    @Transactional(readOnly = true)
+    public List<Long> getTopSellerIds(int count, Long categoryId) {
+        return nearCache.get(NearCacheRegion.TOP_SELLERS, new TopSellersKey(categoryId, count), key -> {
+            if (!leaderboardRepository.exists()) {
+                rebuildStoredRanking();
+            }
+            return leaderboardRepository.findTopIds(categoryId, count);
+        });
+    }
+
+    /**
+     * Updates the ranking of a seller once the rating change is committed, and drops its cached summary.
+     * A failure leaves the previous score in place until the next change of the seller.
+     *
+     * @param event The rating change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        try {
+            updateRanking(event.profileId(), event.ratingSum(), event.ratingCount());
+        } catch (RedisOperationException | DataAccessException e) {
+            log.warn("Failed to update leaderboard score of profile {}: {}", event.profileId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Moves a seller into or out of the categories of the changed games once the change is committed.
+     *
+     * @param event The catalog change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(SellerCatalogChangedEvent event) {
+        try {
+            Set<Long> currentCategoryIds = new HashSet<>(gameRepository.findCategoryIdsBySellerId(event.profileId()));
+            List<Long> leftCategoryIds = event.categoryIds().stream()
+                    .filter(categoryId -> !currentCategoryIds.contains(categoryId))
+                    .toList();
+            leaderboardRepository.removeFromCategories(event.profileId(), leftCategoryIds);
+            if (leftCategoryIds.size() < event.categoryIds().size()) {
+                profileRepository.findRatingSummaryById(event.profileId()).ifPresent(summary ->
+                        leaderboardRepository.saveScore(summary.getId(),
+                                RatingSummaryMapper.rankingScore(summary.getRatingSum(), summary.getRatingCount()),
+                                currentCategoryIds));
+            }
+        } catch (RedisOperationException | DataAccessException e) {
+            log.warn("Failed to update category leaderboards of profile {}: {}", event.profileId(), e.getMessage());
+        }
+    }
 
-        profileCacheRepository.save(TOP_SELLERS_KEY, profiles, TIME_TO_LIVE);
+    /**
+     * Ranks a new seller once its profile is committed, with the prior score it has until the first vote.
+     *
+     * @param event The creation of the profile.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileCreated(ProfileCreatedEvent event) {
+        try {
+            refreshRanking(List.of(event.profileId()));
+        } catch (RedisOperationException | DataAccessException e) {
+            log.warn("Failed to rank new profile {}: {}", event.profileId(), e.getMessage());
+        }
     }
 
+    /**
+     * Removes a seller from the rankings and the caches once the deletion of its profile is committed.
+     *
+     * @param event The deletion of the profile.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileDeleted(ProfileDeletedEvent event) {
+        try {
+            removeFromRanking(event.profileId());
+        } catch (RedisOperationException | DataAccessException e) {
+            log.warn("Failed to remove deleted profile {} from the leaderboard: {}", event.profileId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the current aggregates of the given sellers and updates their ranking.
+     *
+     * @param profileIds The IDs of the sellers.
+     */
     @Override
-    public void clearCache() {
-        profileCacheRepository.delete(TOP_SELLERS_KEY);
+    @Transactional(readOnly = true)
+    public void refreshRanking(Collection<Long> profileIds) {
+        for (RatingSummary summary : profileRepository.findRatingSummariesByIds(profileIds)) {
+            updateRanking(summary.getId(), summary.getRatingSum(), summary.getRatingCount());
+        }
     }
 
-    @Scheduled(initialDelay = 1000, fixedRate = 5 * 60 * 1000)
-    @Transactional
+    /**
+     * Removes a seller from the overall and category rankings, drops its cached summary and evicts its
+     * cached profile on all replicas.
+     *
+     * @param profileId The ID of the seller.
+     */
     @Override
-    public void updateTopSellersCache() {
-        List<Profile> profiles = profileRepository.findTopSellersWithLimit(
-                PageRequest.of(0, COUNT_OF_PROFILES_IN_CASHE)
-        );
+    public void removeFromRanking(Long profileId) {
+        leaderboardRepository.removeScores(null, List.of(profileId));
+        leaderboardRepository.removeFromCategories(profileId, gameCategoryRepository.findAllIds());
+        leaderboardRepository.deleteSummary(profileId);
+        nearCache.invalidate(profileId, NearCacheRegion.SELLER_SUMMARIES, NearCacheRegion.PROFILES,
+                NearCacheRegion.PROFILE_DETAILS);
+    }
 
-        List<ProfileResponse> profileResponses = profiles.stream()
-                .map(profile -> modelMapper.map(profile, ProfileResponse.class))
-                .toList();
+    /**
+     * Rebuilds the overall and category rankings from the database, page by page.
+     * The new rankings replace the old ones at once.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuildRanking() {
+        rebuildStoredRanking();
+        nearCache.invalidateAll(NearCacheRegion.TOP_SELLERS);
+    }
+
+    /**
+     * Rebuilds the rankings in Redis without touching the near cache, so it can run while the near cache
+     * is loading a ranking. Does nothing if another rebuild holds the lock; readers keep the current
+     * rankings meanwhile.
+     */
+    private void rebuildStoredRanking() {
+        List<Long> categoryIds = gameCategoryRepository.findAllIds();
+        String rebuildId = leaderboardRepository.startRebuild(REBUILD_LEASE);
+        if (rebuildId == null) {
+            log.info("Seller leaderboard is being rebuilt by another replica");
+            return;
+        }
+        List<Long> changedIds;
+        try {
+            long afterId = 0;
+            long total = 0;
+            List<RatingSummary> page;
+            do {
+                page = profileRepository.findRatingSummariesAfter(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                Map<Long, Double> scores = new HashMap<>();
+                for (RatingSummary summary : page) {
+                    scores.put(summary.getId(), RatingSummaryMapper.rankingScore(summary.getRatingSum(), summary.getRatingCount()));
+                    afterId = summary.getId();
+                }
+                if (!scores.isEmpty()) {
+                    leaderboardRepository.saveRebuildScores(rebuildId, null, scores);
+                    saveCategoryRebuildScores(rebuildId, scores);
+                }
+                total += page.size();
+                if (!leaderboardRepository.renewRebuild(rebuildId, REBUILD_LEASE)) {
+                    throw new RedisOperationException("Leaderboard rebuild " + rebuildId + " lost its lock", null);
+                }
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            changedIds = leaderboardRepository.publishRebuild(rebuildId, categoryIds);
+            log.info("Seller leaderboard rebuilt with {} profiles", total);
+        } catch (RuntimeException e) {
+            try {
+                leaderboardRepository.abortRebuild(rebuildId, categoryIds);
+            } catch (RedisOperationException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+        reapplyChanges(changedIds, categoryIds);
+    }
+
+    /**
+     * Ranks the sellers changed during a rebuild from their current state, removing the deleted ones and
+     * the ones that left a category.
+     */
+    private void reapplyChanges(List<Long> changedIds, List<Long> categoryIds) {
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        Map<Long, RatingSummary> summaries = profileRepository.findRatingSummariesByIds(changedIds).stream()
+                .collect(Collectors.toMap(RatingSummary::getId, Function.identity()));
+        for (Long profileId : changedIds) {
+            RatingSummary summary = summaries.get(profileId);
+            if (summary == null) {
+                leaderboardRepository.removeScores(null, List.of(profileId));
+                leaderboardRepository.removeFromCategories(profileId, categoryIds);
+                continue;
+            }
+            Set<Long> currentCategoryIds = new HashSet<>(gameRepository.findCategoryIdsBySellerId(profileId));
+            leaderboardRepository.removeFromCategories(profileId, categoryIds.stream()
+                    .filter(categoryId -> !currentCategoryIds.contains(categoryId))
+                    .toList());
+            leaderboardRepository.saveScore(profileId,
+                    RatingSummaryMapper.rankingScore(summary.getRatingSum(), summary.getRatingCount()), currentCategoryIds);
+        }
+        log.info("Re-ranked {} sellers changed during the leaderboard rebuild", changedIds.size());
+    }
+
+    private void saveCategoryRebuildScores(String rebuildId, Map<Long, Double> scores) {
+        Map<Long, Map<Long, Double>> scoresByCategory = new HashMap<>();
+        for (SellerCategory sellerCategory : gameRepository.findSellerCategories(scores.keySet())) {
+            scoresByCategory.computeIfAbsent(sellerCategory.getCategoryId(), id -> new HashMap<>())
+                    .put(sellerCategory.getSellerId(), scores.get(sellerCategory.getSellerId()));
+        }
+        scoresByCategory.forEach((categoryId, categoryScores) ->
+                leaderboardRepository.saveRebuildScores(rebuildId, categoryId, categoryScores));
+    }
+
+    private void updateRanking(Long profileId, long ratingSum, long ratingCount) {
+        leaderboardRepository.saveScore(profileId, RatingSummaryMapper.rankingScore(ratingSum, ratingCount),
+                gameRepository.findCategoryIdsBySellerId(profileId));
+        leaderboardRepository.deleteSummary(profileId);
+        nearCache.invalidate(profileId, NearCacheRegion.SELLER_SUMMARIES, NearCacheRegion.PROFILES,
+                NearCacheRegion.PROFILE_DETAILS);
+    }
 
-        profileCacheRepository.save(TOP_SELLERS_KEY, profileResponses, TIME_TO_LIVE);
+    private record TopSellersKey(Long categoryId, int count) {
     }
 }
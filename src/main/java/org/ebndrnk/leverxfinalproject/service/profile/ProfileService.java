@@ -1,9 +1,18 @@
 package org.ebndrnk.leverxfinalproject.service.profile;
 
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileDto;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileExpansion;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.RatingWindow;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingStatisticsResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Set;
 
 public interface ProfileService {
     ProfileDto getProfileDtoById(Long profileId);
@@ -14,12 +23,20 @@ public interface ProfileService {
 
     ProfileDto getProfileByEmail(String email);
 
-    Page<?> getAll(boolean isProjection, Pageable pageable);
+    Slice<?> getAll(boolean isProjection, Set<ProfileExpansion> expand, PageCountMode countMode, Pageable pageable);
 
     ProfileResponse getProfileResponseById(Long profileId);
 
-    Page<ProfileResponse> getTopSellers(int count);
+    Page<?> getTopSellers(int count, Long categoryId, boolean isProjection);
+
+    Slice<ProfileSummaryResponse> findProfilesByRating(Byte minRating, Byte maxRating, RatingWindow window,
+                                                       Double minRecentRating, Set<ProfileExpansion> expand,
+                                                       PageCountMode countMode, Pageable pageable);
+
+    ScrollResponse<ProfileSummaryResponse> scrollProfiles(Byte minRating, Byte maxRating, RatingWindow window,
+                                                          Double minRecentRating, Set<ProfileExpansion> expand,
+                                                          String cursor, int size);
 
-    Page<ProfileResponse> findProfilesByRating(Byte minRating, Byte maxRating, Pageable pageable);
+    RatingStatisticsResponse getRatingStatistics(Long profileId);
 
 }
@@ -1,24 +1,61 @@
 package org.ebndrnk.leverxfinalproject.service.profile;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.config.ModelMapperConfiguration;
+import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileDto;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileExpansion;
 import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingStatisticsResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.RatingWindow;
+import org.ebndrnk.leverxfinalproject.model.event.ProfileCreatedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.MarkCount;
+import org.ebndrnk.leverxfinalproject.model.projection.ProfileVersion;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingStatistics;
+import org.ebndrnk.leverxfinalproject.model.projection.TopSellerPreview;
+import org.ebndrnk.leverxfinalproject.repository.page.ListingRepository;
 import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingShardRepository;
 import org.ebndrnk.leverxfinalproject.repository.specification.ProfileSpecification;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCacheRegion;
+import org.ebndrnk.leverxfinalproject.service.cache.SingleFlightLoader;
+import org.ebndrnk.leverxfinalproject.service.cache.Versioned;
+import org.ebndrnk.leverxfinalproject.service.game.GameCategoryService;
 import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.util.PagingPolicy;
+import org.ebndrnk.leverxfinalproject.util.ScrollCursor;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for handling profile-related operations.
@@ -31,13 +68,64 @@ import java.util.List;
 @Service
 @Slf4j
 @Primary
-@RequiredArgsConstructor
 public class ProfileServiceImpl implements ProfileService {
 
+    private static final int MAX_TOP_SELLERS = 100;
+    private static final int MAX_TOP_SELLER_QUERIES = 1000;
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final Sort PROFILE_SCROLL_SORT = Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id"));
+    private static final Map<String, Class<?>> PROFILE_SCROLL_KEYS = Map.of("rating", Byte.class, "id", Long.class);
+    /**
+     * Orders of the paginated profile listings, each read from an index of the profile table.
+     */
+    private static final PagingPolicy PROFILE_PAGING = PagingPolicy.of(50,
+            Sort.by(Sort.Order.desc("id")),
+            Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id")),
+            Sort.by(Sort.Order.desc("rankingScore"), Sort.Order.desc("id")),
+            Sort.by(Sort.Order.desc("ratingAvg7d"), Sort.Order.desc("id")),
+            Sort.by(Sort.Order.desc("ratingAvg30d"), Sort.Order.desc("id")),
+            Sort.by(Sort.Order.desc("ratingAvg90d"), Sort.Order.desc("id")),
+            Sort.by(Sort.Order.asc("username")));
 
     private final ProfileRepository profileRepository;
     private final ModelMapper modelMapper;
     private final ProfileCacheService profileCacheService;
+    private final ProfileRatingShardRepository profileRatingShardRepository;
+    private final GameCategoryService gameCategoryService;
+    private final NearCache nearCache;
+    private final ListingRepository listingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    /**
+     * Database reads of the top sellers while the leaderboard is unavailable. Without Redis every request would
+     * otherwise run the ranking query, so concurrent requests share one read and its result is reused briefly.
+     */
+    private final SingleFlightLoader<TopSellersQuery, List<ProfileResponse>> topSellersFromDb;
+    private final SingleFlightLoader<TopSellersQuery, List<Long>> topSellerIdsFromDb;
+
+    public ProfileServiceImpl(ProfileRepository profileRepository,
+                              ModelMapper modelMapper,
+                              ProfileCacheService profileCacheService,
+                              ProfileRatingShardRepository profileRatingShardRepository,
+                              GameCategoryService gameCategoryService,
+                              NearCache nearCache,
+                              ListingRepository listingRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${cache.single-flight.top-sellers.ttl-ms:5000}") long topSellersTtlMillis,
+                              @Value("${cache.single-flight.top-sellers.ttl-jitter:0.2}") double topSellersTtlJitter,
+                              @Value("${cache.single-flight.top-sellers.beta:1.0}") double topSellersBeta) {
+        this.profileRepository = profileRepository;
+        this.modelMapper = modelMapper;
+        this.profileCacheService = profileCacheService;
+        this.profileRatingShardRepository = profileRatingShardRepository;
+        this.gameCategoryService = gameCategoryService;
+        this.nearCache = nearCache;
+        this.listingRepository = listingRepository;
+        this.eventPublisher = eventPublisher;
+        this.topSellersFromDb = new SingleFlightLoader<>(Duration.ofMillis(topSellersTtlMillis),
+                topSellersTtlJitter, topSellersBeta, MAX_TOP_SELLER_QUERIES);
+        this.topSellerIdsFromDb = new SingleFlightLoader<>(Duration.ofMillis(topSellersTtlMillis),
+                topSellersTtlJitter, topSellersBeta, MAX_TOP_SELLER_QUERIES);
+    }
 
     /**
      * Retrieves the profile DTO by its ID.
@@ -47,9 +135,10 @@ public class ProfileServiceImpl implements ProfileService {
      * @return the ProfileDto representing the profile.
      */
     @Override
+    @Transactional(readOnly = true)
     public ProfileDto getProfileDtoById(Long profileId) {
         log.info("Retrieving profile with ID: {}", profileId);
-        return modelMapper.map(profileRepository.findById(profileId)
+        return getCurrent(NearCacheRegion.PROFILE_DETAILS, profileRepository.findVersionById(profileId)
                 .orElseThrow(() -> new ProfileNotFoundException("Profile not found for this profile")), ProfileDto.class);
     }
 
@@ -62,7 +151,10 @@ public class ProfileServiceImpl implements ProfileService {
     @Override
     public ProfileDto saveProfileInfo(ProfileDto profileDto) {
         log.info("Saving profile information for: {}", profileDto.getUsername());
-        return modelMapper.map(profileRepository.save(modelMapper.map(profileDto, Profile.class)), ProfileDto.class);
+        Profile savedProfile = profileRepository.save(modelMapper.map(profileDto, Profile.class));
+        eventPublisher.publishEvent(new ProfileCreatedEvent(savedProfile.getId()));
+        eventPublisher.publishEvent(new SearchIndexChangedEvent(SearchDocumentType.PROFILE, List.of(savedProfile.getId())));
+        return modelMapper.map(savedProfile, ProfileDto.class);
     }
 
     /**
@@ -73,9 +165,10 @@ public class ProfileServiceImpl implements ProfileService {
      * @return the ProfileDto representing the profile.
      */
     @Override
+    @Transactional(readOnly = true)
     public ProfileDto getProfileByUsername(String username) {
         log.info("Retrieving profile with username: {}", username);
-        return modelMapper.map(profileRepository.findByUsername(username)
+        return getCurrent(NearCacheRegion.PROFILE_DETAILS, profileRepository.findVersionByUsername(username)
                 .orElseThrow(() -> new ProfileNotFoundException("Profile with this username not found")), ProfileDto.class);
     }
 
@@ -87,33 +180,43 @@ public class ProfileServiceImpl implements ProfileService {
      * @return the ProfileDto representing the profile.
      */
     @Override
+    @Transactional(readOnly = true)
     public ProfileDto getProfileByEmail(String email) {
         log.info("Retrieving profile with email: {}", email);
         if(email == null){
             throw new ProfileNotFoundException("Profile with this email not found");
         }
-        return modelMapper.map(profileRepository.findByEmail(email)
+        return getCurrent(NearCacheRegion.PROFILE_DETAILS, profileRepository.findVersionByEmail(email)
                 .orElseThrow(() -> new ProfileNotFoundException("Profile with this email not found")), ProfileDto.class);
     }
 
     /**
      * Retrieves a paginated list of profiles.
-     * If 'isProjection' is true, returns a projection of the profiles; otherwise, returns the full profiles.
+     * If 'isProjection' is true, returns a projection of the profiles; otherwise, returns the profiles
+     * with the requested associations.
      *
      * @param isProjection flag to indicate if a projection should be used.
-     * @param pageable pagination information.
-     * @return a Page of ProfileResponse or projected profiles.
+     * @param expand the associations to load with each profile.
+     * @param countMode how to report the total number of profiles.
+     * @param pageable pagination information; the sort must follow an indexed order of {@link #PROFILE_PAGING}.
+     * @return a page of profiles or projected profiles, with or without a total depending on the count mode.
      */
     @Override
     @Transactional(readOnly = true)
-    public Page<?> getAll(boolean isProjection, Pageable pageable) {
+    public Slice<?> getAll(boolean isProjection, Set<ProfileExpansion> expand, PageCountMode countMode,
+                           Pageable pageable) {
+        Pageable page = PROFILE_PAGING.apply(pageable);
         if (isProjection) {
             log.info("Retrieving profiles with projection");
-            return profileRepository.findAllProjectedProfiles(pageable);
+            if (countMode == PageCountMode.EXACT) {
+                return profileRepository.findAllProjectedProfiles(page);
+            }
+            return listingRepository.withTotal(profileRepository.findProjectedProfilesSlice(page),
+                    Profile.class, null, countMode);
         }
-        log.info("Retrieving all profiles");
-        return profileRepository.findAll(pageable)
-                .map(profile -> modelMapper.map(profile, ProfileResponse.class));
+        log.info("Retrieving all profiles expanded with {}", expand);
+        return listingRepository.findAll(Profile.class, null, page, countMode)
+                .map(profile -> toResponse(profile, expand));
     }
 
     /**
@@ -121,72 +224,267 @@ public class ProfileServiceImpl implements ProfileService {
      *
      * @param profileId the ID of the profile.
      * @return the ProfileResponse representing the profile.
+     * @throws ProfileNotFoundException if the profile does not exist.
      */
     @Override
+    @Transactional(readOnly = true)
     public ProfileResponse getProfileResponseById(Long profileId) {
         log.info("Retrieving profile response for profile ID: {}", profileId);
-        return modelMapper.map(profileRepository.findById(profileId), ProfileResponse.class);
+        return getCurrent(NearCacheRegion.PROFILES, profileRepository.findVersionById(profileId)
+                .orElseThrow(() -> new ProfileNotFoundException("Profile with id " + profileId + " not found")),
+                ProfileResponse.class);
+    }
+
+    /**
+     * Returns the cached mapping of a profile if it was built from the current version of the profile row,
+     * otherwise loads and maps the profile and caches the result. The version is read with a primary key
+     * lookup, so a hit costs one narrow query instead of loading and mapping the comments and games.
+     * <p>
+     * Comment and game changes do not bump the version, so the mapping is only cached if the profile was not
+     * invalidated while it was loaded; otherwise a load that read the old comments could outlive the eviction.
+     * </p>
+     *
+     * @param region  The near cache region holding the mappings.
+     * @param current The id and current version of the profile.
+     * @param type    The DTO type the profile is mapped to.
+     * @return The DTO.
+     */
+    private <T> T getCurrent(NearCacheRegion region, ProfileVersion current, Class<T> type) {
+        Versioned<T> cached = nearCache.getIfPresent(region, current.getId());
+        if (cached != null && cached.isCurrent(current.getVersion())) {
+            return cached.value();
+        }
+        long stamp = nearCache.stamp(region, current.getId());
+        Profile profile = profileRepository.findById(current.getId())
+                .orElseThrow(() -> new ProfileNotFoundException("Profile with id " + current.getId() + " not found"));
+        T value = modelMapper.map(profile, type);
+        nearCache.putIfUnchanged(region, profile.getId(), new Versioned<>(profile.getVersion(), value), stamp);
+        return value;
     }
 
     /**
-     * Retrieves the top sellers, either from the cache or the database, based on the count.
-     * If the count is 10 and the cache is not empty, the data is fetched from the cache.
-     * Otherwise, it fetches data from the database.
+     * Retrieves the top sellers from the leaderboard in Redis, overall or within a game category.
+     * The count is limited to {@value #MAX_TOP_SELLERS}. If Redis is not available, the data is fetched from the database.
+     * If 'isProjection' is true, returns a projection of the sellers without comments and games.
      *
      * @param count the number of top sellers to retrieve.
-     * @return a Page of ProfileResponse containing top sellers.
+     * @param categoryId the game category to rank the sellers in, or {@code null} for the overall ranking.
+     * @param isProjection flag to indicate if a projection should be used.
+     * @return a Page of ProfileResponse or projected sellers, best first.
      */
     @Override
     @Transactional(readOnly = true)
-    public Page<ProfileResponse> getTopSellers(int count) {
-        List<ProfileResponse> profileResponsesFromCache = getTopSellersFromCache();
-        if (count == 10 && profileResponsesFromCache != null) {
+    public Page<?> getTopSellers(int count, Long categoryId, boolean isProjection) {
+        int limit = Math.max(1, Math.min(count, MAX_TOP_SELLERS));
+        if (categoryId != null) {
+            gameCategoryService.getCategoryById(categoryId);
+        }
+        if (isProjection) {
+            List<Long> ids = getTopSellerIds(limit, categoryId);
+            return new PageImpl<>(orderByIds(ids, profileRepository.findTopSellerPreviewsByIds(ids), TopSellerPreview::getId));
+        }
+        try {
+            List<ProfileResponse> topSellers = profileCacheService.getTopSellers(limit, categoryId);
             log.info("Values received from cache");
-            return new PageImpl<>(profileResponsesFromCache);
+            return new PageImpl<>(topSellers);
+        } catch (RedisOperationException e) {
+            log.warn("Leaderboard is not available, reading top sellers from DB: {}", e.getMessage());
         }
 
         log.info("Values received from DB");
-        return new PageImpl<>(getTopSellersFromDB(count));
+        return new PageImpl<>(topSellersFromDb.get(new TopSellersQuery(limit, categoryId),
+                query -> getTopSellersFromDB(query.count(), query.categoryId())));
     }
 
     /**
-     * Retrieves the top sellers from the database based on the provided pageable.
+     * Retrieves the top sellers from the database in two steps: the ids of one page of the ranking are read
+     * from the ranking index, then only these profiles are loaded. Their comments and games are fetched
+     * in one batch per association while mapping.
      *
      * @param count is count of returning sellers.
+     * @param categoryId the game category, or {@code null} for all sellers.
      * @return a list of ProfileResponse representing the top sellers.
      */
-    private List<ProfileResponse> getTopSellersFromDB(int count) {
+    private List<ProfileResponse> getTopSellersFromDB(int count, Long categoryId) {
         log.debug("Retrieving top sellers from DB with pagination: {}", count);
-        return profileRepository.findTopSellersWithLimit(PageRequest.of(0, count))
+        List<Long> ids = getTopSellerIdsFromDB(count, categoryId);
+        List<ProfileResponse> topSellers = profileRepository.findAllById(ids)
                 .stream()
                 .map(profile -> modelMapper.map(profile, ProfileResponse.class))
                 .toList();
+        return orderByIds(ids, topSellers, ProfileResponse::getId);
+    }
+
+    private List<Long> getTopSellerIds(int count, Long categoryId) {
+        try {
+            return profileCacheService.getTopSellerIds(count, categoryId);
+        } catch (RedisOperationException e) {
+            log.warn("Leaderboard is not available, reading top seller ids from DB: {}", e.getMessage());
+        }
+        return topSellerIdsFromDb.get(new TopSellersQuery(count, categoryId),
+                query -> getTopSellerIdsFromDB(query.count(), query.categoryId()));
+    }
+
+    private List<Long> getTopSellerIdsFromDB(int count, Long categoryId) {
+        return categoryId == null
+                ? profileRepository.findTopSellerIds(PageRequest.of(0, count))
+                : profileRepository.findTopSellerIdsInCategory(categoryId, PageRequest.of(0, count));
+    }
+
+    /**
+     * Puts the given items in the order of the ids. Items whose id is missing are dropped.
+     */
+    private static <T> List<T> orderByIds(List<Long> ids, List<T> items, Function<T, Long> idGetter) {
+        Map<Long, T> itemsById = items.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
-     * Retrieves the top sellers from the cache.
+     * Retrieves profiles based on a rating range and, optionally, a minimum average over a recent window.
+     * The page can be sorted by the windowed scores, e.g. {@code ratingAvg30d}.
      *
-     * @return a list of ProfileResponse representing the top sellers from the cache.
+     * @param minRating the minimum rating.
+     * @param maxRating the maximum rating.
+     * @param window the recent window the minimum average applies to.
+     * @param minRecentRating the minimum average mark within the window.
+     * @param expand the associations to load with each profile.
+     * @param countMode how to report the total number of matching profiles.
+     * @param pageable pagination information; the sort must follow an indexed order of {@link #PROFILE_PAGING}.
+     * @return a page of profiles matching the rating criteria, with or without a total depending on the count mode.
      */
-    private List<ProfileResponse> getTopSellersFromCache() {
-        log.debug("Retrieving top sellers from cache");
-        return profileCacheService.getTopSellersFromCache();
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProfileSummaryResponse> findProfilesByRating(Byte minRating, Byte maxRating, RatingWindow window,
+                                                              Double minRecentRating, Set<ProfileExpansion> expand,
+                                                              PageCountMode countMode, Pageable pageable) {
+        log.info("Finding profiles with rating between {} and {}, recent rating at least {} over {}",
+                minRating, maxRating, minRecentRating, window);
+        Specification<Profile> spec = Specification.where(ProfileSpecification.hasRatingBetween(minRating, maxRating))
+                .and(ProfileSpecification.hasRecentRatingAtLeast(window, minRecentRating));
+        return listingRepository.findAll(Profile.class, spec, PROFILE_PAGING.apply(pageable), countMode)
+                .map(profile -> toResponse(profile, expand));
     }
 
     /**
-     * Retrieves profiles based on a rating range.
+     * Retrieves profiles by rating like {@link #findProfilesByRating}, one window at a time, ordered by rating
+     * and id, best first. The window after a cursor is read from {@code profile_rating_id_idx} starting right
+     * after the last profile of the previous window, so deep windows cost the same as the first and no count
+     * query is run.
      *
      * @param minRating the minimum rating.
      * @param maxRating the maximum rating.
-     * @param pageable pagination information.
-     * @return a Page of ProfileResponse containing profiles matching the rating criteria.
+     * @param window the recent window the minimum average applies to.
+     * @param minRecentRating the minimum average mark within the window.
+     * @param expand the associations to load with each profile.
+     * @param cursor the cursor returned with the previous window, or {@code null} for the first one.
+     * @param size the number of profiles, at most {@value #MAX_SCROLL_SIZE}.
+     * @return the profiles of the window and the cursor of the next one.
      */
     @Override
     @Transactional(readOnly = true)
-    public Page<ProfileResponse> findProfilesByRating(Byte minRating, Byte maxRating, Pageable pageable) {
-        log.info("Finding profiles with rating between {} and {}", minRating, maxRating);
-        Specification<Profile> spec = ProfileSpecification.hasRatingBetween(minRating, maxRating);
-        return profileRepository.findAll(spec, pageable)
-                .map(profile -> modelMapper.map(profile, ProfileResponse.class));
+    public ScrollResponse<ProfileSummaryResponse> scrollProfiles(Byte minRating, Byte maxRating, RatingWindow window,
+                                                                 Double minRecentRating, Set<ProfileExpansion> expand,
+                                                                 String cursor, int size) {
+        log.info("Scrolling profiles with rating between {} and {} after cursor {}", minRating, maxRating, cursor);
+        Specification<Profile> spec = Specification.where(ProfileSpecification.hasRatingBetween(minRating, maxRating))
+                .and(ProfileSpecification.hasRecentRatingAtLeast(window, minRecentRating));
+        ScrollPosition position = ScrollCursor.decode(cursor, PROFILE_SCROLL_KEYS);
+        Window<Profile> profiles = profileRepository.findBy(spec, query -> query
+                .sortBy(PROFILE_SCROLL_SORT)
+                .limit(Math.max(1, Math.min(size, MAX_SCROLL_SIZE)))
+                .scroll(position));
+        return ScrollCursor.toResponse(profiles, profile -> toResponse(profile, expand));
+    }
+
+    /**
+     * Maps a profile of a listing, touching only the requested associations. The comments and games of
+     * the profiles of one page are initialized in one batch per association (see {@link Profile}),
+     * so a page costs the same few queries whatever its size, and none for associations not requested.
+     *
+     * @param profile the profile.
+     * @param expand the associations to include.
+     * @return a summary, or a ProfileResponse with the requested associations.
+     */
+    private ProfileSummaryResponse toResponse(Profile profile, Set<ProfileExpansion> expand) {
+        if (expand.isEmpty()) {
+            return modelMapper.map(profile, ProfileSummaryResponse.class);
+        }
+        ProfileResponse response = modelMapper.map(profile, ProfileResponse.class,
+                ModelMapperConfiguration.PROFILE_WITHOUT_ASSOCIATIONS);
+        if (expand.contains(ProfileExpansion.COMMENTS)) {
+            response.setComment(mapAll(profile.getComment(), CommentResponse.class));
+        }
+        if (expand.contains(ProfileExpansion.GAMES)) {
+            response.setGameObjects(mapAll(profile.getGameObjects(), GameResponse.class));
+        }
+        return response;
+    }
+
+    private <S, D> List<D> mapAll(List<S> sources, Class<D> type) {
+        if (sources == null) {
+            return List.of();
+        }
+        return sources.stream().map(source -> modelMapper.map(source, type)).toList();
+    }
+
+    /**
+     * Retrieves the rating statistics of a profile: mark distribution, average and median.
+     * Everything is derived from the histogram stored on the profile and the changes still pending
+     * in its rating shards, so no ratings are read.
+     *
+     * @param profileId the ID of the profile.
+     * @return the rating statistics of the profile.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public RatingStatisticsResponse getRatingStatistics(Long profileId) {
+        log.info("Retrieving rating statistics for profile ID: {}", profileId);
+        RatingStatistics statistics = profileRepository.findRatingStatisticsById(profileId)
+                .orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+
+        long[] histogram = statistics.getRatingHistogram().clone();
+        for (MarkCount pending : profileRatingShardRepository.findPendingMarkCounts(profileId)) {
+            histogram[pending.getMark()] += pending.getMarkCount();
+        }
+
+        long count = 0;
+        long sum = 0;
+        for (int mark = 0; mark < histogram.length; mark++) {
+            count += histogram[mark];
+            sum += mark * histogram[mark];
+        }
+
+        RatingStatisticsResponse response = new RatingStatisticsResponse();
+        response.setProfileId(statistics.getId());
+        response.setRatingCount(count);
+        response.setAverage(count == 0 ? 0 : ((sum * 100 + count / 2) / count) / 100.0);
+        response.setMedian(medianOf(histogram, count));
+        response.setHistogram(histogram);
+        return response;
+    }
+
+    /**
+     * Finds the lower median mark in a histogram of marks.
+     *
+     * @param histogram the number of marks per value.
+     * @param count the total number of marks.
+     * @return the median mark, or 0 if there are no marks.
+     */
+    private int medianOf(long[] histogram, long count) {
+        long position = (count + 1) / 2;
+        long seen = 0;
+        for (int mark = 0; mark < histogram.length; mark++) {
+            seen += histogram[mark];
+            if (seen >= position && position > 0) {
+                return mark;
+            }
+        }
+        return 0;
+    }
+
+    private record TopSellersQuery(int count, Long categoryId) {
     }
 }
@@ -0,0 +1,236 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.exception.dto.RatingIngestionOverflowException;
+import org.ebndrnk.leverxfinalproject.exception.dto.RatingNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.anonymous.AnonymousUser;
+import org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingBatchRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingBatchRepository.PendingMark;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository;
+import org.ebndrnk.leverxfinalproject.service.anonymous.AnonymousUserService;
+import org.ebndrnk.leverxfinalproject.util.RatingSummaryMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Write-behind implementation of {@link RatingService}, enabled with {@code rating.ingestion.mode=buffered}.
+ * <p>
+ * Votes are put into a bounded {@link RatingIngestionBuffer} and written by a scheduled flush in JDBC batches.
+ * The aggregate and the daily buckets of every seller touched by a batch are rebuilt once per batch
+ * instead of once per vote.
+ * The response contains the rating as it was before the vote, flagged as pending.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+@ConditionalOnProperty(name = "rating.ingestion.mode", havingValue = "buffered")
+public class BufferedRatingServiceImpl implements RatingService {
+
+    private final AnonymousUserService anonymousUserService;
+    private final ProfileRepository profileRepository;
+    private final RatingBatchRepository ratingBatchRepository;
+    private final RatingMarkRepository ratingMarkRepository;
+    private final RatingWindowService ratingWindowService;
+    private final RatingEventService ratingEventService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final RatingIngestionBuffer buffer;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Timer flushTimer;
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+
+    public BufferedRatingServiceImpl(AnonymousUserService anonymousUserService,
+                                     ProfileRepository profileRepository,
+                                     RatingBatchRepository ratingBatchRepository,
+                                     RatingMarkRepository ratingMarkRepository,
+                                     RatingWindowService ratingWindowService,
+                                     RatingEventService ratingEventService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${rating.ingestion.capacity:10000}") int capacity,
+                                     @Value("${rating.ingestion.batch-size:500}") int batchSize,
+                                     @Value("${rating.ingestion.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.anonymousUserService = anonymousUserService;
+        this.profileRepository = profileRepository;
+        this.ratingBatchRepository = ratingBatchRepository;
+        this.ratingMarkRepository = ratingMarkRepository;
+        this.ratingWindowService = ratingWindowService;
+        this.ratingEventService = ratingEventService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new RatingIngestionBuffer(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+
+        Gauge.builder("rating.ingestion.queue.depth", buffer, RatingIngestionBuffer::size)
+                .description("Votes waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("rating.ingestion.flush")
+                .description("Time spent writing one batch of votes")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("rating.ingestion.coalesced")
+                .description("Votes that replaced a pending vote of the same author")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("rating.ingestion.rejected")
+                .description("Votes rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accepts the vote of an anonymous user for a profile and queues it for writing.
+     *
+     * @param ratingRequest The rating details from the user.
+     * @param profileId     The ID of the profile being rated.
+     * @param request       The HttpServletRequest object to retrieve the anonymous user.
+     * @return The current rating summary of the profile, marked as pending.
+     * @throws RatingIngestionOverflowException if the queue stays full for longer than the offer timeout.
+     */
+    @Override
+    public RatingSummaryResponse evaluate(RatingRequest ratingRequest, Long profileId, HttpServletRequest request) {
+        RatingSummary ratingSummary = profileRepository.findRatingSummaryById(profileId)
+                .orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+        AnonymousUser anonymousUser = anonymousUserService.getOrCreateAnonymousUser(request);
+
+        RatingIngestionBuffer.OfferResult result;
+        try {
+            result = buffer.offer(profileId, anonymousUser.getId(), ratingRequest.getMark(), offerTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RatingIngestionOverflowException("Rating was not accepted, try again later");
+        }
+
+        if (result == RatingIngestionBuffer.OfferResult.REJECTED) {
+            rejectedCounter.increment();
+            log.warn("Rating queue is full, vote for profileId {} rejected", profileId);
+            throw new RatingIngestionOverflowException("Too many ratings at the moment, try again later");
+        }
+        if (result == RatingIngestionBuffer.OfferResult.COALESCED) {
+            coalescedCounter.increment();
+        }
+
+        log.debug("Queued rating for profileId {} by anonymousUserId {}", profileId, anonymousUser.getAnonymousId());
+        return RatingSummaryMapper.toResponse(ratingSummary, true);
+    }
+
+    /**
+     * Retracts the mark an anonymous user has given to a profile, including a vote still waiting in the queue.
+     * The retraction is written immediately.
+     *
+     * @param profileId The ID of the rated profile.
+     * @param request   The HttpServletRequest object to retrieve the anonymous user.
+     * @return The rating summary of the profile after the retraction.
+     * @throws RatingNotFoundException if the user has neither rated the profile nor queued a vote for it.
+     */
+    @Override
+    public RatingSummaryResponse retract(Long profileId, HttpServletRequest request) {
+        if (!profileRepository.existsById(profileId)) {
+            throw new ProfileNotFoundException("Profile with this id not found");
+        }
+        AnonymousUser anonymousUser = anonymousUserService.getOrCreateAnonymousUser(request);
+        boolean dequeued = buffer.remove(profileId, anonymousUser.getId());
+
+        boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (ratingMarkRepository.deleteMark(profileId, anonymousUser.getId()).isEmpty()) {
+                return false;
+            }
+            List<Long> sellerIds = List.of(profileId);
+            profileRepository.lockProfiles(sellerIds);
+            profileRepository.recalculateRatingAggregates(sellerIds);
+            ratingWindowService.rebuildDailyBuckets(sellerIds);
+            ratingEventService.recordRetraction(profileId, anonymousUser.getId());
+            return true;
+        }));
+        if (!dequeued && !deleted) {
+            throw new RatingNotFoundException("Rating of this profile by the current user not found");
+        }
+
+        log.info("Retracted rating for profileId {} by anonymousUserId {}", profileId, anonymousUser.getAnonymousId());
+        RatingSummary ratingSummary = profileRepository.findRatingSummaryById(profileId)
+                .orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+        if (deleted) {
+            eventPublisher.publishEvent(new RatingChangedEvent(profileId, ratingSummary.getRatingSum(), ratingSummary.getRatingCount()));
+        }
+        return RatingSummaryMapper.toResponse(ratingSummary, false);
+    }
+
+    /**
+     * Writes all queued votes, one batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${rating.ingestion.flush-interval-ms:500}")
+    public void flush() {
+        List<PendingMark> batch;
+        while (!(batch = buffer.drain(batchSize)).isEmpty()) {
+            if (!writeBatch(batch)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the votes that are still queued before the application stops.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} queued ratings before shutdown", buffer.size());
+        flush();
+    }
+
+    private boolean writeBatch(List<PendingMark> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            Set<Long> sellerIds = new LinkedHashSet<>();
+            batch.forEach(mark -> sellerIds.add(mark.sellerId()));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                ratingBatchRepository.upsertMarks(batch);
+                ratingBatchRepository.appendMarkEvents(batch);
+                profileRepository.lockProfiles(sellerIds);
+                profileRepository.recalculateRatingAggregates(sellerIds);
+                ratingWindowService.rebuildDailyBuckets(sellerIds);
+            });
+            log.debug("Flushed {} ratings of {} sellers", batch.size(), sellerIds.size());
+            publishRatingChanges(sellerIds);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} ratings, they will be retried: {}", batch.size(), e.getMessage(), e);
+            buffer.restore(batch);
+            return false;
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    /**
+     * Announces the new aggregates of the sellers of a written batch.
+     */
+    private void publishRatingChanges(Set<Long> sellerIds) {
+        for (RatingSummary summary : profileRepository.findRatingSummariesByIds(sellerIds)) {
+            eventPublisher.publishEvent(new RatingChangedEvent(summary.getId(), summary.getRatingSum(), summary.getRatingCount()));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingReplayResponse;
+
+public interface RatingEventService {
+    void recordMark(Long profileId, Long authorId, byte mark);
+
+    void recordRetraction(Long profileId, Long authorId);
+
+    RatingReplayResponse replay(Long profileId, boolean apply);
+
+    int takeSnapshots();
+}
@@ -0,0 +1,296 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.aspect.LeaderOnly;
+import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingReplayResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingEvent;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingSnapshot;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingSnapshotScan;
+import org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.MarkCount;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingShardRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingEventRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingSnapshotRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingSnapshotScanRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service for the append-only rating event log.
+ * <p>
+ * Every vote and retraction appends an event next to the write of the rating itself. A periodic job stores
+ * per-seller snapshots of the aggregate, so the aggregate of a seller can be rebuilt from the latest snapshot
+ * and the events after it, without reading the {@code rating} table.
+ * </p>
+ * <p>
+ * The job walks the log in ranges and stores how far it got in {@code rating_snapshot_scan}, so a restart
+ * or a new leader continues where the last scan stopped instead of starting over from the first event.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class RatingEventServiceImpl implements RatingEventService {
+
+    private static final int MARK_VALUES = 11;
+
+    private final RatingEventRepository eventRepository;
+    private final RatingSnapshotRepository snapshotRepository;
+    private final RatingSnapshotScanRepository snapshotScanRepository;
+    private final ProfileRepository profileRepository;
+    private final ProfileRatingShardRepository shardRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate repeatableReadTemplate;
+    private final int pageSize;
+    private final int snapshotMinEvents;
+    private final long snapshotLagMillis;
+    private final long snapshotScanSize;
+    private final boolean snapshotEnabled;
+
+    public RatingEventServiceImpl(RatingEventRepository eventRepository,
+                                  RatingSnapshotRepository snapshotRepository,
+                                  RatingSnapshotScanRepository snapshotScanRepository,
+                                  ProfileRepository profileRepository,
+                                  ProfileRatingShardRepository shardRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${rating.events.replay-page-size:5000}") int pageSize,
+                                  @Value("${rating.events.snapshot-min-events:1000}") int snapshotMinEvents,
+                                  @Value("${rating.events.snapshot-lag-ms:60000}") long snapshotLagMillis,
+                                  @Value("${rating.events.snapshot-scan-size:100000}") long snapshotScanSize,
+                                  @Value("${rating.events.snapshot-enabled:true}") boolean snapshotEnabled) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotScanRepository = snapshotScanRepository;
+        this.profileRepository = profileRepository;
+        this.shardRepository = shardRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repeatableReadTemplate = new TransactionTemplate(transactionManager);
+        this.repeatableReadTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.pageSize = pageSize;
+        this.snapshotMinEvents = snapshotMinEvents;
+        this.snapshotLagMillis = snapshotLagMillis;
+        this.snapshotScanSize = snapshotScanSize;
+        this.snapshotEnabled = snapshotEnabled;
+    }
+
+    /**
+     * Appends the event of a mark. Must be called in the transaction that wrote the rating.
+     *
+     * @param profileId The ID of the rated profile.
+     * @param authorId  The ID of the anonymous user who voted.
+     * @param mark      The new mark.
+     */
+    @Override
+    @Transactional
+    public void recordMark(Long profileId, Long authorId, byte mark) {
+        eventRepository.appendMark(profileId, authorId, mark);
+    }
+
+    /**
+     * Appends the retraction of a mark. Must be called in the transaction that deleted the rating.
+     *
+     * @param profileId The ID of the rated profile.
+     * @param authorId  The ID of the anonymous user who retracted the mark.
+     */
+    @Override
+    @Transactional
+    public void recordRetraction(Long profileId, Long authorId) {
+        eventRepository.appendRetraction(profileId, authorId);
+    }
+
+    /**
+     * Rebuilds the rating aggregate of a profile from its latest snapshot and the events after it.
+     * <p>
+     * When {@code apply} is set, the result is written to the profile. The replay then runs in one
+     * repeatable-read transaction holding the profile lock, so events and pending shard counters are read
+     * from the same state, and the counters still pending in the shards are left out of the profile.
+     * </p>
+     *
+     * @param profileId The ID of the profile.
+     * @param apply     Whether to overwrite the aggregate of the profile with the replayed one.
+     * @return The replayed aggregate.
+     */
+    @Override
+    public RatingReplayResponse replay(Long profileId, boolean apply) {
+        if (!apply) {
+            return transactionTemplate.execute(status -> {
+                if (!profileRepository.existsById(profileId)) {
+                    throw new ProfileNotFoundException("Profile with this id not found");
+                }
+                return toResponse(profileId, replayTail(profileId, Long.MAX_VALUE), false);
+            });
+        }
+        return repeatableReadTemplate.execute(status -> {
+            if (profileRepository.lockProfiles(List.of(profileId)).isEmpty()) {
+                throw new ProfileNotFoundException("Profile with this id not found");
+            }
+            Replay replay = replayTail(profileId, Long.MAX_VALUE);
+
+            long[] histogram = replay.histogram().clone();
+            for (MarkCount pending : shardRepository.findPendingMarkCounts(profileId)) {
+                histogram[pending.getMark()] -= pending.getMarkCount();
+            }
+            Profile profile = profileRepository.findById(profileId)
+                    .orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+            writeAggregate(profile, histogram);
+            profileRepository.save(profile);
+            RatingReplayResponse response = toResponse(profileId, replay, true);
+            eventPublisher.publishEvent(new RatingChangedEvent(profileId,
+                    sumOf(replay.histogram()), response.getRatingCount()));
+            log.info("Rating aggregate of profile {} rebuilt from {} events after snapshot {}",
+                    profileId, replay.replayedEvents(), replay.snapshotEventId());
+            return response;
+        });
+    }
+
+    /**
+     * Stores a new snapshot for every seller whose events since the last snapshot reached
+     * {@code rating.events.snapshot-min-events}.
+     * <p>
+     * Only events older than {@code rating.events.snapshot-lag-ms} are included: event ids are taken when
+     * a vote writes, not when it commits, so a newer event may still be followed by an older uncommitted one.
+     * Each call scans at most {@code rating.events.snapshot-scan-size} events after the stored scan position
+     * and moves the position past them.
+     * </p>
+     *
+     * @return The number of stored snapshots.
+     */
+    @Override
+    public synchronized int takeSnapshots() {
+        RatingSnapshotScan scan = snapshotScanRepository.findFirstByOrderByIdAsc().orElseGet(RatingSnapshotScan::new);
+        long scannedEventId = scan.getScannedEventId();
+        Long lastEventId = eventRepository.findLastEventIdBefore(LocalDateTime.now().minus(Duration.ofMillis(snapshotLagMillis)));
+        if (lastEventId == null || lastEventId <= scannedEventId) {
+            return 0;
+        }
+        long upToId = Math.min(lastEventId, scannedEventId + snapshotScanSize);
+
+        int taken = 0;
+        for (Long sellerId : eventRepository.findSellerIdsWithEvents(scannedEventId, upToId)) {
+            Boolean stored = transactionTemplate.execute(status -> snapshot(sellerId, upToId));
+            if (Boolean.TRUE.equals(stored)) {
+                taken++;
+            }
+        }
+        scan.setScannedEventId(upToId);
+        snapshotScanRepository.save(scan);
+        if (taken > 0) {
+            log.info("Stored {} rating snapshots up to event {}", taken, upToId);
+        }
+        return taken;
+    }
+
+    @Scheduled(initialDelayString = "${rating.events.snapshot-interval-ms:300000}",
+            fixedDelayString = "${rating.events.snapshot-interval-ms:300000}")
+    @LeaderOnly("rating-snapshots")
+    public void scheduledSnapshots() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        takeSnapshots();
+    }
+
+    private boolean snapshot(Long sellerId, long upToId) {
+        Replay replay = replayTail(sellerId, upToId);
+        if (replay.replayedEvents() < snapshotMinEvents) {
+            return false;
+        }
+        RatingSnapshot snapshot = snapshotRepository.findByProfileId(sellerId).orElseGet(RatingSnapshot::new);
+        snapshot.setProfileId(sellerId);
+        snapshot.setLastEventId(replay.lastEventId());
+        snapshot.setRatingHistogram(replay.histogram());
+        snapshot.setUpdatedAt(LocalDateTime.now());
+        snapshotRepository.save(snapshot);
+        return true;
+    }
+
+    /**
+     * Applies the events of a profile after its latest snapshot, up to the given event, to the snapshot histogram.
+     */
+    private Replay replayTail(Long profileId, long upToId) {
+        RatingSnapshot snapshot = snapshotRepository.findByProfileId(profileId).orElse(null);
+        long[] histogram = snapshot == null ? new long[MARK_VALUES] : snapshot.getRatingHistogram().clone();
+        long snapshotEventId = snapshot == null ? 0 : snapshot.getLastEventId();
+
+        long lastEventId = snapshotEventId;
+        long replayed = 0;
+        List<RatingEvent> page;
+        do {
+            page = eventRepository.findTail(profileId, lastEventId, upToId, PageRequest.of(0, pageSize));
+            for (RatingEvent event : page) {
+                if (event.getPreviousMark() != null) {
+                    histogram[event.getPreviousMark()]--;
+                }
+                if (event.getMark() != null) {
+                    histogram[event.getMark()]++;
+                }
+                lastEventId = event.getId();
+            }
+            replayed += page.size();
+        } while (page.size() == pageSize);
+
+        return new Replay(histogram, snapshotEventId, lastEventId, replayed);
+    }
+
+    private void writeAggregate(Profile profile, long[] histogram) {
+        long count = countOf(histogram);
+        long sum = sumOf(histogram);
+        profile.setRatingHistogram(histogram);
+        profile.setRatingSum(sum);
+        profile.setRatingCount(count);
+        profile.setRating((byte) (count == 0 ? 0 : sum / count));
+        profile.setRatingMeanFixed((int) (count == 0 ? 0 : (sum * 100 + count / 2) / count));
+    }
+
+    private RatingReplayResponse toResponse(Long profileId, Replay replay, boolean applied) {
+        long count = countOf(replay.histogram());
+        long sum = sumOf(replay.histogram());
+        RatingReplayResponse response = new RatingReplayResponse();
+        response.setProfileId(profileId);
+        response.setSnapshotEventId(replay.snapshotEventId());
+        response.setLastEventId(replay.lastEventId());
+        response.setReplayedEvents(replay.replayedEvents());
+        response.setRatingCount(count);
+        response.setAverage(count == 0 ? 0 : ((sum * 100 + count / 2) / count) / 100.0);
+        response.setHistogram(replay.histogram());
+        response.setApplied(applied);
+        return response;
+    }
+
+    private static long countOf(long[] histogram) {
+        long count = 0;
+        for (long markCount : histogram) {
+            count += markCount;
+        }
+        return count;
+    }
+
+    private static long sumOf(long[] histogram) {
+        long sum = 0;
+        for (int mark = 0; mark < histogram.length; mark++) {
+            sum += mark * histogram[mark];
+        }
+        return sum;
+    }
+
+    private record Replay(long[] histogram, long snapshotEventId, long lastEventId, long replayedEvents) {
+    }
+}
@@ -0,0 +1,145 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingBatchRepository.PendingMark;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded buffer of votes waiting to be written.
+ * <p>
+ * Votes are keyed by (seller, author): a repeated vote of the same author for the same seller
+ * replaces the pending one instead of taking another slot, so only the last mark is written.
+ * When the buffer is full, producers wait for a flush until the given timeout expires.
+ * </p>
+ */
+public class RatingIngestionBuffer {
+
+    public enum OfferResult { ACCEPTED, COALESCED, REJECTED }
+
+    private record RatingKey(long sellerId, long authorId) {
+    }
+
+    private final Map<RatingKey, Byte> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final int capacity;
+
+    public RatingIngestionBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a vote to the buffer, waiting for free space if necessary.
+     *
+     * @param sellerId      The ID of the rated profile.
+     * @param authorId      The ID of the anonymous user.
+     * @param mark          The mark.
+     * @param timeoutMillis How long to wait for free space.
+     * @return Whether the vote took a new slot, replaced a pending vote or was rejected.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public OfferResult offer(long sellerId, long authorId, byte mark, long timeoutMillis) throws InterruptedException {
+        RatingKey key = new RatingKey(sellerId, authorId);
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lockInterruptibly();
+        try {
+            if (pending.containsKey(key)) {
+                pending.put(key, mark);
+                return OfferResult.COALESCED;
+            }
+            while (pending.size() >= capacity) {
+                if (nanos <= 0) {
+                    return OfferResult.REJECTED;
+                }
+                nanos = notFull.awaitNanos(nanos);
+                if (pending.containsKey(key)) {
+                    pending.put(key, mark);
+                    return OfferResult.COALESCED;
+                }
+            }
+            pending.put(key, mark);
+            return OfferResult.ACCEPTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to {@code maxSize} of the oldest votes from the buffer.
+     *
+     * @param maxSize The maximum number of votes to remove.
+     * @return The removed votes in arrival order.
+     */
+    public List<PendingMark> drain(int maxSize) {
+        lock.lock();
+        try {
+            List<PendingMark> batch = new ArrayList<>(Math.min(maxSize, pending.size()));
+            Iterator<Map.Entry<RatingKey, Byte>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < maxSize) {
+                Map.Entry<RatingKey, Byte> entry = iterator.next();
+                batch.add(new PendingMark(entry.getKey().sellerId(), entry.getKey().authorId(), entry.getValue()));
+                iterator.remove();
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts back votes whose write failed. A newer vote of the same author is kept,
+     * and the capacity limit is ignored so no accepted vote is lost.
+     *
+     * @param marks The votes to put back.
+     */
+    public void restore(List<PendingMark> marks) {
+        lock.lock();
+        try {
+            for (PendingMark mark : marks) {
+                pending.putIfAbsent(new RatingKey(mark.sellerId(), mark.authorId()), mark.mark());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the queued vote of an author for a seller, if any.
+     *
+     * @return Whether a vote was removed.
+     */
+    public boolean remove(long sellerId, long authorId) {
+        lock.lock();
+        try {
+            boolean removed = pending.remove(new RatingKey(sellerId, authorId)) != null;
+            if (removed) {
+                notFull.signalAll();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRecomputeStatusResponse;
+
+public interface RatingRecomputeService {
+    RatingRecomputeStatusResponse start();
+
+    RatingRecomputeStatusResponse getStatus();
+}
@@ -0,0 +1,274 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRecomputeStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingRecomputeJob;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RecomputeJobStatus;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingRecomputeJobRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingRecomputeRepository;
+import org.ebndrnk.leverxfinalproject.service.profile.ProfileCacheService;
+import org.ebndrnk.leverxfinalproject.util.RatingAggregateAccumulator;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebuilds the rating aggregates of all profiles from the rating table.
+ * <p>
+ * Profiles are walked in id order with keyset pagination. Every page is a task on a fork-join pool that
+ * locks its profiles, streams their marks into a {@link RatingAggregateAccumulator} and writes the result
+ * back in one JDBC batch. At most two pages per worker are in flight, so the heap used does not depend
+ * on the size of the tables.
+ * </p>
+ * <p>
+ * Pages are checkpointed in order: the job row stores the last profile id below which everything is done,
+ * so a job interrupted by a crash or an error continues from there when it is started again.
+ * When the job completes, the seller leaderboard is rebuilt from the new aggregates.
+ * </p>
+ * <p>
+ * A replica claims the job in the database before running it and touches its heartbeat at every checkpoint.
+ * A running job is only resumed once its heartbeat is older than {@code staleAfterMs}, so replicas started
+ * at the same time do not run it twice, and a replica that lost the job stops at its next checkpoint.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class RatingRecomputeServiceImpl implements RatingRecomputeService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final RatingRecomputeJobRepository jobRepository;
+    private final RatingRecomputeRepository recomputeRepository;
+    private final ProfileCacheService profileCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final int pageSize;
+    private final Duration staleAfter;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile long runStartedNanos;
+    private volatile long ratingsAtRunStart;
+
+    public RatingRecomputeServiceImpl(RatingRecomputeJobRepository jobRepository,
+                                      RatingRecomputeRepository recomputeRepository,
+                                      ProfileCacheService profileCacheService,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${rating.recompute.parallelism:4}") int parallelism,
+                                      @Value("${rating.recompute.page-size:1000}") int pageSize,
+                                      @Value("${rating.recompute.stale-after-ms:600000}") long staleAfterMs) {
+        this.jobRepository = jobRepository;
+        this.recomputeRepository = recomputeRepository;
+        this.profileCacheService = profileCacheService;
+        this.transactionTemplate = transactionTemplate;
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+    }
+
+    /**
+     * Starts the recompute job in the background, or resumes the last one if it did not complete.
+     * If the job is already running in this instance, or on another replica that is still alive,
+     * nothing is started.
+     *
+     * @return The status of the started or running job.
+     */
+    @Override
+    public RatingRecomputeStatusResponse start() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Rating recompute job is already running");
+            return getStatus();
+        }
+
+        try {
+            Optional<RatingRecomputeJob> job = claim();
+            if (job.isEmpty()) {
+                running.set(false);
+                return getStatus();
+            }
+            RatingRecomputeJob claimed = job.get();
+            runStartedNanos = System.nanoTime();
+            ratingsAtRunStart = claimed.getProcessedRatings();
+
+            Thread coordinator = new Thread(() -> run(claimed), "rating-recompute-" + claimed.getId());
+            coordinator.setDaemon(true);
+            coordinator.start();
+            return toResponse(claimed);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Claims the last job if it did not complete, or inserts a new one.
+     *
+     * @return The claimed job, empty if another replica holds it.
+     */
+    private Optional<RatingRecomputeJob> claim() {
+        Optional<RatingRecomputeJob> unfinished = jobRepository.findFirstByOrderByIdDesc()
+                .filter(last -> last.getStatus() != RecomputeJobStatus.COMPLETED);
+        if (unfinished.isPresent()) {
+            Long jobId = unfinished.get().getId();
+            LocalDateTime staleBefore = recomputeRepository.now().minus(staleAfter);
+            Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(jobId, instanceId, staleBefore));
+            if (claimed == null || claimed == 0) {
+                log.info("Rating recompute job {} is running on another replica", jobId);
+                return Optional.empty();
+            }
+            RatingRecomputeJob job = jobRepository.findById(jobId).orElseThrow();
+            log.info("Resuming rating recompute job {} after profile id {}", job.getId(), job.getLastProfileId());
+            return Optional.of(job);
+        }
+
+        RatingRecomputeJob job = new RatingRecomputeJob();
+        job.setStatus(RecomputeJobStatus.RUNNING);
+        job.setOwner(instanceId);
+        try {
+            return Optional.of(jobRepository.save(job));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Rating recompute job was started on another replica");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the status of the last recompute job.
+     *
+     * @return The status of the job, or an empty status if the job has never been run.
+     */
+    @Override
+    public RatingRecomputeStatusResponse getStatus() {
+        return jobRepository.findFirstByOrderByIdDesc()
+                .map(this::toResponse)
+                .orElseGet(RatingRecomputeStatusResponse::new);
+    }
+
+    private void run(RatingRecomputeJob job) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Deque<Page> inFlight = new ArrayDeque<>();
+        long cursor = job.getLastProfileId();
+        boolean exhausted = false;
+
+        try {
+            while (!exhausted || !inFlight.isEmpty()) {
+                while (!exhausted && inFlight.size() < parallelism * 2) {
+                    long[] profileIds = recomputeRepository.findProfileIdsAfter(cursor, pageSize);
+                    if (profileIds.length == 0) {
+                        exhausted = true;
+                    } else {
+                        cursor = profileIds[profileIds.length - 1];
+                        inFlight.add(new Page(profileIds, pool.submit(() -> recomputePage(profileIds))));
+                    }
+                }
+                if (!inFlight.isEmpty()) {
+                    Page page = inFlight.poll();
+                    long ratings = page.task().join();
+                    job = checkpoint(job, page.profileIds(), ratings);
+                }
+            }
+
+            job.setStatus(RecomputeJobStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+            log.info("Rating recompute job {} completed: {} profiles, {} ratings, {} ratings/s",
+                    job.getId(), job.getProcessedProfiles(), job.getProcessedRatings(),
+                    String.format("%.0f", ratingsPerSecond(job)));
+            rebuildLeaderboard();
+        } catch (JobTakenOverException | OptimisticLockingFailureException e) {
+            log.warn("Rating recompute job {} was taken over by another replica after profile id {}",
+                    job.getId(), job.getLastProfileId());
+        } catch (RuntimeException e) {
+            log.error("Rating recompute job {} failed after profile id {}: {}",
+                    job.getId(), job.getLastProfileId(), e.getMessage(), e);
+            job.setStatus(RecomputeJobStatus.FAILED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setErrorMessage(StringUtils.abbreviate(e.getMessage(), MAX_ERROR_LENGTH));
+            try {
+                jobRepository.save(job);
+            } catch (RuntimeException saveException) {
+                log.error("Could not mark rating recompute job {} as failed, it stays resumable: {}",
+                        job.getId(), saveException.getMessage());
+            }
+        } finally {
+            pool.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private long recomputePage(long[] profileIds) {
+        long fromId = profileIds[0];
+        long toId = profileIds[profileIds.length - 1];
+        return transactionTemplate.execute(status -> {
+            recomputeRepository.lockProfiles(fromId, toId);
+            RatingAggregateAccumulator accumulator = new RatingAggregateAccumulator(profileIds);
+            long ratings = recomputeRepository.accumulateMarks(fromId, toId, accumulator);
+            recomputeRepository.writeAggregates(accumulator);
+            return ratings;
+        });
+    }
+
+    private RatingRecomputeJob checkpoint(RatingRecomputeJob job, long[] profileIds, long ratings) {
+        job.setLastProfileId(profileIds[profileIds.length - 1]);
+        job.setProcessedProfiles(job.getProcessedProfiles() + profileIds.length);
+        job.setProcessedRatings(job.getProcessedRatings() + ratings);
+        RatingRecomputeJob saved = jobRepository.save(job);
+        Integer touched = transactionTemplate.execute(status -> jobRepository.heartbeat(saved.getId(), instanceId));
+        if (touched == null || touched == 0) {
+            throw new JobTakenOverException();
+        }
+        log.info("Rating recompute job {}: profiles up to id {} done, {} profiles, {} ratings, {} ratings/s",
+                saved.getId(), saved.getLastProfileId(), saved.getProcessedProfiles(), saved.getProcessedRatings(),
+                String.format("%.0f", ratingsPerSecond(saved)));
+        return saved;
+    }
+
+    private double ratingsPerSecond(RatingRecomputeJob job) {
+        double seconds = (System.nanoTime() - runStartedNanos) / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : (job.getProcessedRatings() - ratingsAtRunStart) / seconds;
+    }
+
+    private RatingRecomputeStatusResponse toResponse(RatingRecomputeJob job) {
+        RatingRecomputeStatusResponse response = new RatingRecomputeStatusResponse();
+        response.setJobId(job.getId());
+        response.setStatus(job.getStatus());
+        response.setLastProfileId(job.getLastProfileId());
+        response.setProcessedProfiles(job.getProcessedProfiles());
+        response.setProcessedRatings(job.getProcessedRatings());
+        response.setRatingsPerSecond(running.get() ? ratingsPerSecond(job) : 0);
+        response.setStartedAt(job.getCreatedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        response.setErrorMessage(job.getErrorMessage());
+        return response;
+    }
+
+    private record Page(long[] profileIds, ForkJoinTask<Long> task) {
+    }
+
+    private static class JobTakenOverException extends RuntimeException {
+    }
+
+    private void rebuildLeaderboard() {
+        try {
+            profileCacheService.rebuildRanking();
+        } catch (RedisOperationException e) {
+            log.warn("Failed to rebuild seller leaderboard after recompute: {}", e.getMessage());
+        }
+    }
+}
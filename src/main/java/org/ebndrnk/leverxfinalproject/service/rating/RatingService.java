@@ -1,9 +1,11 @@
 package org.ebndrnk.leverxfinalproject.service.rating;
 
 import jakarta.servlet.http.HttpServletRequest;
-import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingSummaryResponse;
 
 public interface RatingService {
-    ProfileResponse evaluate(RatingRequest ratingRequest, Long profileId, HttpServletRequest request);
+    RatingSummaryResponse evaluate(RatingRequest ratingRequest, Long profileId, HttpServletRequest request);
+
+    RatingSummaryResponse retract(Long profileId, HttpServletRequest request);
 }
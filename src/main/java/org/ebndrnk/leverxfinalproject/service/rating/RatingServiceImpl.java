@@ -3,107 +3,140 @@ package org.ebndrnk.leverxfinalproject.service.rating;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
 import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingSummaryResponse;
 import org.ebndrnk.leverxfinalproject.model.entity.anonymous.AnonymousUser;
-import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
-import org.ebndrnk.leverxfinalproject.model.entity.rating.Rating;
+import org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
 import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
-import org.ebndrnk.leverxfinalproject.repository.rating.RatingRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository.RetractedMark;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository.UpsertedMark;
 import org.ebndrnk.leverxfinalproject.service.anonymous.AnonymousUserService;
+import org.ebndrnk.leverxfinalproject.util.RatingSummaryMapper;
 import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
-import org.modelmapper.ModelMapper;
+import org.ebndrnk.leverxfinalproject.exception.dto.RatingNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Service class for handling rating functionality.
+ * <p>
+ * The rating of a profile is kept as an aggregate (sum, count and histogram of marks) on the profile itself.
+ * Every vote only adds its change to a rating shard of the seller (see {@link RatingShardService}),
+ * so the ratings of a seller are never rescanned and concurrent votes do not contend on the profile row.
+ * Every change is also appended to the rating event log (see {@link RatingEventService}).
+ * </p>
  */
 @Service
 @Slf4j
 @Primary
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "rating.ingestion.mode", havingValue = "direct", matchIfMissing = true)
 public class RatingServiceImpl implements RatingService {
 
 
-    private final RatingRepository ratingRepository;
+    private final RatingMarkRepository ratingMarkRepository;
     private final AnonymousUserService anonymousUserService;
     private final ProfileRepository profileRepository;
-    private final ModelMapper modelMapper;
+    private final RatingShardService ratingShardService;
+    private final RatingWindowService ratingWindowService;
+    private final RatingEventService ratingEventService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Evaluate and update the rating for a specific profile by an anonymous user.
-     * If the user has already rated the profile, it updates the rating.
-     * Otherwise, it creates a new rating.
+     * The mark is written with a single upsert keyed on (seller, author): if the user has already
+     * rated the profile, the mark is overwritten, otherwise a new rating is created. Giving the same mark
+     * again leaves the rating untouched. Marks are counted on the current day of the database, the day
+     * a later change or retraction takes them back from.
      *
      * @param ratingRequest The rating details from the user.
      * @param profileId     The ID of the profile being rated.
      * @param request       The HttpServletRequest object to retrieve the anonymous user.
-     * @return The updated profile response with the new rating.
+     * @return The rating summary of the profile after the vote.
      */
     @Override
-    public ProfileResponse evaluate(RatingRequest ratingRequest, Long profileId, HttpServletRequest request) {
-        // Fetch profile by ID, or throw an exception if not found
-        Profile profile = profileRepository.findById(profileId)
-                .orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+    @Transactional
+    public RatingSummaryResponse evaluate(RatingRequest ratingRequest, Long profileId, HttpServletRequest request) {
+        if (!profileRepository.existsById(profileId)) {
+            throw new ProfileNotFoundException("Profile with this id not found");
+        }
 
         AnonymousUser anonymousUser = anonymousUserService.getOrCreateAnonymousUser(request);
+        byte mark = ratingRequest.getMark();
 
-        Optional<Rating> existingRating = findPreviousMark(profileId, anonymousUser);
+        UpsertedMark result = ratingMarkRepository.upsertMark(profileId, anonymousUser.getId(), mark).orElse(null);
 
-        if (existingRating.isPresent()) {
-            Rating rating = existingRating.get();
-            rating.setMark(ratingRequest.getMark());
-            ratingRepository.save(rating);
-            log.info("Updated rating for profileId {} by anonymousUserId {}", profileId, anonymousUser.getAnonymousId());
-        } else {
-            Rating rating = new Rating();
-            rating.setMark(ratingRequest.getMark());
-            rating.setAuthor(anonymousUser);
-            rating.setSeller(profile);
-            ratingRepository.save(rating);
+        if (result == null) {
+            log.info("Rating for profileId {} by anonymousUserId {} is unchanged", profileId, anonymousUser.getAnonymousId());
+        } else if (result.inserted()) {
+            ratingShardService.addMark(profileId, anonymousUser.getId(), mark, 1, LocalDate.ofEpochDay(result.epochDay()));
+            ratingEventService.recordMark(profileId, anonymousUser.getId(), mark);
             log.info("Created new rating for profileId {} by anonymousUserId {}", profileId, anonymousUser.getAnonymousId());
+        } else if (result.previousMark() == null) {
+            profileRepository.lockProfiles(List.of(profileId));
+            profileRepository.recalculateRatingAggregates(List.of(profileId));
+            ratingWindowService.rebuildDailyBuckets(List.of(profileId));
+            ratingEventService.recordMark(profileId, anonymousUser.getId(), mark);
+            log.warn("Concurrent vote for profileId {} by anonymousUserId {}, aggregate recalculated", profileId, anonymousUser.getAnonymousId());
+        } else {
+            LocalDate previousDay = LocalDate.ofEpochDay(result.previousEpochDay());
+            ratingShardService.addMark(profileId, anonymousUser.getId(), result.previousMark(), -1, previousDay);
+            ratingShardService.addMark(profileId, anonymousUser.getId(), mark, 1, LocalDate.ofEpochDay(result.epochDay()));
+            ratingEventService.recordMark(profileId, anonymousUser.getId(), mark);
+            log.info("Updated rating for profileId {} by anonymousUserId {}", profileId, anonymousUser.getAnonymousId());
         }
 
-        profile.setRating(calculateRating(profileId));
-
-        ProfileResponse profileResponse = modelMapper.map(profileRepository.save(profile), ProfileResponse.class);
-        log.info("ProfileId {} rating updated to {}", profileId, profile.getRating());
-        return profileResponse;
+        RatingSummaryResponse ratingSummary = getRatingSummary(profileId);
+        log.info("ProfileId {} rating updated to {}", profileId, ratingSummary.getRating());
+        return ratingSummary;
     }
 
     /**
-     * Calculates the average rating of a profile based on the ratings given by users.
+     * Retracts the mark an anonymous user has given to a profile.
      *
-     * @param profileId The ID of the profile for which the rating is to be calculated.
-     * @return The calculated average rating as a byte value.
+     * @param profileId The ID of the rated profile.
+     * @param request   The HttpServletRequest object to retrieve the anonymous user.
+     * @return The rating summary of the profile after the retraction.
+     * @throws RatingNotFoundException if the user has not rated the profile.
      */
-    private byte calculateRating(Long profileId) {
-        List<Rating> ratings = ratingRepository.findAllBySeller_Id(profileId);
-        if (ratings.isEmpty()) {
-            log.warn("No ratings found for profileId {}", profileId);
-            return 0;
+    @Override
+    @Transactional
+    public RatingSummaryResponse retract(Long profileId, HttpServletRequest request) {
+        if (!profileRepository.existsById(profileId)) {
+            throw new ProfileNotFoundException("Profile with this id not found");
         }
 
-        int total = ratings.stream().mapToInt(Rating::getMark).sum();
-        byte averageRating = (byte) (total / ratings.size());
-        log.info("Calculated average rating for profileId {}: {}", profileId, averageRating);
-        return averageRating;
+        AnonymousUser anonymousUser = anonymousUserService.getOrCreateAnonymousUser(request);
+        RetractedMark retracted = ratingMarkRepository.deleteMark(profileId, anonymousUser.getId())
+                .orElseThrow(() -> new RatingNotFoundException("Rating of this profile by the current user not found"));
+
+        ratingShardService.addMark(profileId, anonymousUser.getId(), retracted.mark(), -1,
+                LocalDate.ofEpochDay(retracted.epochDay()));
+        ratingEventService.recordRetraction(profileId, anonymousUser.getId());
+        log.info("Retracted rating for profileId {} by anonymousUserId {}", profileId, anonymousUser.getAnonymousId());
+
+        return getRatingSummary(profileId);
     }
 
     /**
-     * Finds a previous rating by the anonymous user for the given profile.
+     * Reads the rating aggregate of a profile, announces it as changed and converts it into a summary.
      *
-     * @param profileId The profile ID.
-     * @param anonymousUser The anonymous user who might have already rated the profile.
-     * @return An Optional containing the existing rating if found.
+     * @param profileId The ID of the profile.
+     * @return The rating summary of the profile.
      */
-    private Optional<Rating> findPreviousMark(Long profileId, AnonymousUser anonymousUser) {
-        return ratingRepository.findAllBySeller_Id(profileId).stream()
-                .filter(rating -> rating.getAuthor().getAnonymousId().equals(anonymousUser.getAnonymousId()))
-                .findFirst();
+    private RatingSummaryResponse getRatingSummary(Long profileId) {
+        RatingSummary ratingSummary = profileRepository.findRatingSummaryById(profileId)
+                .orElseThrow(() -> new ProfileNotFoundException("Profile with this id not found"));
+        eventPublisher.publishEvent(new RatingChangedEvent(profileId, ratingSummary.getRatingSum(), ratingSummary.getRatingCount()));
+
+        return RatingSummaryMapper.toResponse(ratingSummary, false);
     }
 }
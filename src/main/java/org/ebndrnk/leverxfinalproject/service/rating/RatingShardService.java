@@ -0,0 +1,9 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import java.time.LocalDate;
+
+public interface RatingShardService {
+    void addMark(Long profileId, Long authorId, int mark, long delta, LocalDate day);
+
+    int fold();
+}
@@ -0,0 +1,153 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.aspect.LeaderOnly;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.ProfileRatingDaily;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.ProfileRatingShard;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingDailyRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingShardRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service for the striped rating counters of sellers.
+ * <p>
+ * A vote does not touch the profile row: it adds its change to one of {@code rating.shards.count} shard rows
+ * of the seller, picked by the hash of the author, so concurrent votes for a hot seller update different rows.
+ * The pending changes are added to the profile aggregates on read and moved into them by a periodic fold.
+ * </p>
+ * <p>
+ * The same change is also added to the daily bucket of the seller, striped the same way,
+ * from which the recent rating windows are rolled up (see {@link RatingWindowService}).
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class RatingShardServiceImpl implements RatingShardService {
+
+    private static final int MAX_FOLD_ROUNDS = 100;
+
+    private final ProfileRatingShardRepository shardRepository;
+    private final ProfileRatingDailyRepository dailyRepository;
+    private final ProfileRepository profileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int shardCount;
+    private final int foldBatchSize;
+    private final boolean foldEnabled;
+
+    public RatingShardServiceImpl(ProfileRatingShardRepository shardRepository,
+                                  ProfileRatingDailyRepository dailyRepository,
+                                  ProfileRepository profileRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${rating.shards.count:8}") int shardCount,
+                                  @Value("${rating.shards.fold-batch-size:5000}") int foldBatchSize,
+                                  @Value("${rating.shards.fold-enabled:true}") boolean foldEnabled) {
+        this.shardRepository = shardRepository;
+        this.dailyRepository = dailyRepository;
+        this.profileRepository = profileRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardCount = shardCount;
+        this.foldBatchSize = foldBatchSize;
+        this.foldEnabled = foldEnabled;
+    }
+
+    /**
+     * Adds a change of the number of marks with the given value to the shard of the author.
+     * Must be called in the transaction that writes the rating itself.
+     *
+     * @param profileId The ID of the rated profile.
+     * @param authorId  The ID of the anonymous user who voted.
+     * @param mark      The mark.
+     * @param delta     {@code 1} when the mark is given, {@code -1} when it is replaced.
+     * @param day       The day the mark was given, used to pick the daily bucket.
+     */
+    @Override
+    @Transactional
+    public void addMark(Long profileId, Long authorId, int mark, long delta, LocalDate day) {
+        short shard = (short) Math.floorMod(Long.hashCode(authorId), shardCount);
+        boolean locked = false;
+        if (shardRepository.addToShard(profileId, shard, (short) mark, delta) == 0) {
+            profileRepository.lockProfiles(List.of(profileId));
+            locked = true;
+            if (shardRepository.addToShard(profileId, shard, (short) mark, delta) == 0) {
+                createShard(profileId, shard, (short) mark, delta);
+            }
+        }
+        if (dailyRepository.addToBucket(profileId, day, shard, mark * delta, delta) == 0) {
+            if (!locked) {
+                profileRepository.lockProfiles(List.of(profileId));
+            }
+            if (dailyRepository.addToBucket(profileId, day, shard, mark * delta, delta) == 0) {
+                createBucket(profileId, day, shard, mark * delta, delta);
+            }
+        }
+    }
+
+    /**
+     * Moves the pending shard counters into the profile aggregates.
+     *
+     * @return The number of updated profiles.
+     */
+    @Override
+    public int fold() {
+        int folded = 0;
+        for (int round = 0; round < MAX_FOLD_ROUNDS; round++) {
+            int updated = transactionTemplate.execute(status -> shardRepository.foldPendingShards(foldBatchSize));
+            if (updated == 0) {
+                break;
+            }
+            folded += updated;
+        }
+        if (folded > 0) {
+            log.debug("Folded rating shards of {} profiles", folded);
+        }
+        return folded;
+    }
+
+    @Scheduled(initialDelayString = "${rating.shards.fold-interval-ms:5000}",
+            fixedDelayString = "${rating.shards.fold-interval-ms:5000}")
+    @LeaderOnly("rating-shard-fold")
+    public void scheduledFold() {
+        if (!foldEnabled) {
+            return;
+        }
+        fold();
+    }
+
+    /**
+     * Creates the shard row of a mark. Callers hold the lock of the profile row,
+     * so two votes never try to create the same shard row.
+     */
+    private void createShard(Long profileId, short shard, short mark, long delta) {
+        ProfileRatingShard ratingShard = new ProfileRatingShard();
+        ratingShard.setProfile(profileRepository.getReferenceById(profileId));
+        ratingShard.setShard(shard);
+        ratingShard.setMark(mark);
+        ratingShard.setMarkCount(delta);
+        shardRepository.saveAndFlush(ratingShard);
+        log.debug("Created rating shard {} of profile {} for mark {}", shard, profileId, mark);
+    }
+
+    /**
+     * Creates the daily bucket row of a shard. Callers hold the lock of the profile row, as for {@link #createShard}.
+     */
+    private void createBucket(Long profileId, LocalDate day, short shard, long sumDelta, long countDelta) {
+        ProfileRatingDaily bucket = new ProfileRatingDaily();
+        bucket.setProfile(profileRepository.getReferenceById(profileId));
+        bucket.setDay(day);
+        bucket.setShard(shard);
+        bucket.setRatingSum(sumDelta);
+        bucket.setRatingCount(countDelta);
+        dailyRepository.saveAndFlush(bucket);
+        log.debug("Created rating bucket {} of profile {} for {}", shard, profileId, day);
+    }
+}
@@ -0,0 +1,16 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.model.dto.rating.DailyRatingResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RatingWindowService {
+    List<DailyRatingResponse> getTrend(Long profileId, int days);
+
+    void rebuildDailyBuckets(Collection<Long> profileIds);
+
+    int refreshChangedWindows();
+
+    int refreshAllWindows();
+}
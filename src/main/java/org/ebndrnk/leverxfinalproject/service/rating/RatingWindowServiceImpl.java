@@ -0,0 +1,162 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.aspect.LeaderOnly;
+import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.DailyRatingResponse;
+import org.ebndrnk.leverxfinalproject.model.projection.DailyRating;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingDailyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the recent rating windows of sellers.
+ * <p>
+ * Every vote adds its mark to a daily bucket of the seller (see {@link RatingShardService}).
+ * The buckets are rolled up into the 7, 30 and 90 day windows stored on the profile: often for the sellers
+ * whose buckets changed, and once a night for every seller, so windows also shrink on days without votes.
+ * Raw ratings are never read, except when the buckets of a seller are rebuilt.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class RatingWindowServiceImpl implements RatingWindowService {
+
+    private static final int MAX_TREND_DAYS = 365;
+
+    private final ProfileRatingDailyRepository dailyRepository;
+    private final ProfileRepository profileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean refreshEnabled;
+
+    private LocalDateTime lastRefresh;
+
+    public RatingWindowServiceImpl(ProfileRatingDailyRepository dailyRepository,
+                                   ProfileRepository profileRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${rating.windows.refresh-enabled:true}") boolean refreshEnabled) {
+        this.dailyRepository = dailyRepository;
+        this.profileRepository = profileRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.refreshEnabled = refreshEnabled;
+    }
+
+    /**
+     * Retrieves the number and average of the marks given to a profile per day, oldest day first.
+     * Days without marks are included with zero values, so the result can be charted directly.
+     *
+     * @param profileId The ID of the profile.
+     * @param days      The number of days up to and including today, capped at one year.
+     * @return One entry per day.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyRatingResponse> getTrend(Long profileId, int days) {
+        if (!profileRepository.existsById(profileId)) {
+            throw new ProfileNotFoundException("Profile with this id not found");
+        }
+        int length = Math.max(1, Math.min(days, MAX_TREND_DAYS));
+        LocalDate from = dailyRepository.now().toLocalDate().minusDays(length - 1L);
+
+        Map<LocalDate, DailyRating> byDay = new HashMap<>();
+        for (DailyRating dailyRating : dailyRepository.findDailyRatings(profileId, from)) {
+            byDay.put(dailyRating.getDay(), dailyRating);
+        }
+
+        List<DailyRatingResponse> trend = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            LocalDate day = from.plusDays(i);
+            DailyRating dailyRating = byDay.get(day);
+            long count = dailyRating == null ? 0 : dailyRating.getRatingCount();
+            long sum = dailyRating == null ? 0 : dailyRating.getRatingSum();
+
+            DailyRatingResponse response = new DailyRatingResponse();
+            response.setDay(day);
+            response.setRatingCount(count);
+            response.setAverage(count == 0 ? 0 : ((sum * 100 + count / 2) / count) / 100.0);
+            trend.add(response);
+        }
+        return trend;
+    }
+
+    /**
+     * Rebuilds the daily buckets of the given profiles from their ratings.
+     * Used when the previous mark of a vote is unknown, so its bucket cannot be corrected by a delta.
+     * Callers should hold the locks of the profile rows.
+     *
+     * @param profileIds The IDs of the profiles.
+     */
+    @Override
+    @Transactional
+    public void rebuildDailyBuckets(Collection<Long> profileIds) {
+        dailyRepository.deleteBuckets(profileIds);
+        dailyRepository.insertBucketsFromRatings(profileIds);
+    }
+
+    /**
+     * Rolls up the windows of the profiles whose buckets changed since the previous refresh.
+     * The first refresh after a start covers the last day.
+     *
+     * @return The number of updated profiles.
+     */
+    @Override
+    public synchronized int refreshChangedWindows() {
+        // the database clock, which the buckets are stamped with, so a skewed replica neither skips nor repeats them
+        LocalDateTime startedAt = dailyRepository.now();
+        LocalDateTime since = lastRefresh == null ? startedAt.minusDays(1) : lastRefresh;
+        int updated = transactionTemplate.execute(status ->
+                dailyRepository.refreshChangedRatingWindows(startedAt.toLocalDate(), since));
+        // buckets written by transactions still running at the start are picked up on the next refresh
+        lastRefresh = startedAt.minusMinutes(1);
+        if (updated > 0) {
+            log.debug("Refreshed rating windows of {} profiles", updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Rolls up the windows of every profile with recent marks, moving all windows to the current day.
+     *
+     * @return The number of updated profiles.
+     */
+    @Override
+    public synchronized int refreshAllWindows() {
+        int updated = transactionTemplate.execute(status ->
+                dailyRepository.refreshAllRatingWindows(dailyRepository.now().toLocalDate()));
+        log.info("Refreshed rating windows of {} profiles", updated);
+        return updated;
+    }
+
+    @Scheduled(initialDelayString = "${rating.windows.refresh-interval-ms:60000}",
+            fixedDelayString = "${rating.windows.refresh-interval-ms:60000}")
+    @LeaderOnly("rating-window-refresh")
+    public void scheduledRefresh() {
+        if (!refreshEnabled) {
+            return;
+        }
+        refreshChangedWindows();
+    }
+
+    @Scheduled(cron = "${rating.windows.nightly-cron:0 5 0 * * *}")
+    @LeaderOnly("rating-window-nightly-refresh")
+    public void nightlyRefresh() {
+        if (!refreshEnabled) {
+            return;
+        }
+        refreshAllWindows();
+    }
+}
@@ -0,0 +1,23 @@
+package org.ebndrnk.leverxfinalproject.service.scheduling;
+
+import org.ebndrnk.leverxfinalproject.model.dto.job.ScheduledJobStatusResponse;
+
+import java.util.List;
+
+public interface ScheduledJobRegistry {
+
+    /**
+     * Runs a tick of a scheduled job if this replica holds, or can take, the lease of the job.
+     * Failures of the job are recorded and logged, not rethrown.
+     *
+     * @param jobName The name of the job.
+     * @param job     The work of the tick.
+     * @return {@code true} if the job ran on this replica.
+     */
+    boolean runIfLeader(String jobName, Runnable job);
+
+    /**
+     * @return The leader and the last run of every job known to this replica.
+     */
+    List<ScheduledJobStatusResponse> getStatuses();
+}
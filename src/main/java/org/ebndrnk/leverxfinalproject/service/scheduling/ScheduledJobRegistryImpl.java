@@ -0,0 +1,227 @@
+package org.ebndrnk.leverxfinalproject.service.scheduling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.model.dto.job.JobRunStatus;
+import org.ebndrnk.leverxfinalproject.model.dto.job.ScheduledJobStatusResponse;
+import org.ebndrnk.leverxfinalproject.repository.job.JobLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leader election of scheduled jobs across replicas.
+ * <p>
+ * Each job has its own Redis lease (see {@link JobLeaseRepository}), so different jobs may lead on different
+ * replicas. A replica takes the lease on its first tick after the lease is free and keeps it by renewing it
+ * from a background thread every third of {@code scheduling.leader-election.lease-ms}. When the leader stops
+ * or loses Redis, its lease expires and the next tick of another replica takes over.
+ * </p>
+ * <p>
+ * If the lease cannot be read, the leader goes on running the job until the lease it last acquired or renewed
+ * would have expired, and every other replica skips the tick: nobody else can have taken the lease before then,
+ * so Redis being down never makes several replicas run a job at once. With
+ * {@code scheduling.leader-election.enabled=false} every tick runs locally.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class ScheduledJobRegistryImpl implements ScheduledJobRegistry {
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration lease;
+    private final String instanceId;
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+    /**
+     * The leases held by this replica and when, in {@link System#nanoTime()}, each expires at the latest.
+     */
+    private final Map<String, Long> heldLeases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewer;
+
+    public ScheduledJobRegistryImpl(JobLeaseRepository jobLeaseRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${scheduling.leader-election.enabled:true}") boolean enabled,
+                                    @Value("${scheduling.leader-election.lease-ms:30000}") long leaseMillis) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.instanceId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        // The default task scheduler has a single thread, so a long job would delay renewals scheduled there
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long period = Math.max(1, leaseMillis / 3);
+            renewer.scheduleWithFixedDelay(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public boolean runIfLeader(String jobName, Runnable job) {
+        JobState state = jobs.computeIfAbsent(jobName, name -> new JobState());
+        if (!isLeader(jobName)) {
+            state.skipped++;
+            state.lastStatus = JobRunStatus.SKIPPED;
+            return false;
+        }
+
+        state.lastStartedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        JobRunStatus status = JobRunStatus.SUCCEEDED;
+        try {
+            job.run();
+            state.lastError = null;
+        } catch (RuntimeException e) {
+            status = JobRunStatus.FAILED;
+            state.lastError = e.getMessage();
+            log.error("Scheduled job {} failed: {}", jobName, e.getMessage(), e);
+        } finally {
+            long duration = System.nanoTime() - start;
+            state.lastDurationMs = TimeUnit.NANOSECONDS.toMillis(duration);
+            state.lastStatus = status;
+            state.runs++;
+            Timer.builder("scheduled.job")
+                    .description("Duration of scheduled job runs on the leading replica")
+                    .tag("job", jobName)
+                    .tag("outcome", status.name())
+                    .register(meterRegistry)
+                    .record(duration, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    @Override
+    public List<ScheduledJobStatusResponse> getStatuses() {
+        List<ScheduledJobStatusResponse> statuses = new ArrayList<>(jobs.size());
+        jobs.forEach((name, state) -> {
+            ScheduledJobStatusResponse response = new ScheduledJobStatusResponse();
+            response.setName(name);
+            response.setLeader(!enabled || heldLeases.containsKey(name));
+            response.setLeaseOwner(enabled ? findOwner(name) : instanceId);
+            response.setLastStatus(state.lastStatus);
+            response.setLastStartedAt(state.lastStartedAt);
+            response.setLastDurationMs(state.lastDurationMs);
+            response.setLastError(state.lastError);
+            response.setRuns(state.runs);
+            response.setSkipped(state.skipped);
+            statuses.add(response);
+        });
+        statuses.sort(Comparator.comparing(ScheduledJobStatusResponse::getName));
+        return statuses;
+    }
+
+    /**
+     * Hands the leases over on a graceful shutdown, so another replica does not wait for them to expire.
+     */
+    @PreDestroy
+    public void releaseLeases() {
+        renewer.shutdownNow();
+        for (String jobName : heldLeases.keySet()) {
+            try {
+                jobLeaseRepository.release(jobName, instanceId);
+            } catch (RedisOperationException e) {
+                log.warn("Failed to release the lease of job {}: {}", jobName, e.getMessage());
+            }
+        }
+        heldLeases.clear();
+    }
+
+    void renewLeases() {
+        for (String jobName : heldLeases.keySet()) {
+            try {
+                long deadline = System.nanoTime() + lease.toNanos();
+                if (jobLeaseRepository.renew(jobName, instanceId, lease)) {
+                    heldLeases.replace(jobName, deadline);
+                } else {
+                    heldLeases.remove(jobName);
+                    log.warn("Lost the lease of job {}", jobName);
+                }
+            } catch (RedisOperationException e) {
+                log.warn("Failed to renew the lease of job {}: {}", jobName, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isLeader(String jobName) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            // taken before the call, so the deadline is never later than the expiry Redis applies
+            long deadline = System.nanoTime() + lease.toNanos();
+            if (jobLeaseRepository.acquire(jobName, instanceId, lease)) {
+                if (heldLeases.put(jobName, deadline) == null) {
+                    log.info("Replica {} leads job {}", instanceId, jobName);
+                }
+                return true;
+            }
+            if (heldLeases.remove(jobName) != null) {
+                log.warn("Lost the lease of job {}", jobName);
+            }
+            return false;
+        } catch (RedisOperationException e) {
+            Long deadline = heldLeases.get(jobName);
+            if (deadline != null && System.nanoTime() - deadline < 0) {
+                log.warn("Job lease of {} unavailable, running it until the held lease expires: {}",
+                        jobName, e.getMessage());
+                return true;
+            }
+            if (heldLeases.remove(jobName) != null) {
+                log.warn("Lost the lease of job {}", jobName);
+            }
+            log.warn("Job lease of {} unavailable, skipping the tick: {}", jobName, e.getMessage());
+            return false;
+        }
+    }
+
+    private String findOwner(String jobName) {
+        try {
+            return jobLeaseRepository.findOwner(jobName);
+        } catch (RedisOperationException e) {
+            return null;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Runs of a job on this replica. Ticks of one job never overlap, so plain volatile fields are enough.
+     */
+    private static class JobState {
+        private volatile LocalDateTime lastStartedAt;
+        private volatile Long lastDurationMs;
+        private volatile JobRunStatus lastStatus;
+        private volatile String lastError;
+        private volatile long runs;
+        private volatile long skipped;
+    }
+}
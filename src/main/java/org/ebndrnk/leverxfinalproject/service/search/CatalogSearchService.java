@@ -0,0 +1,18 @@
+package org.ebndrnk.leverxfinalproject.service.search;
+
+import org.ebndrnk.leverxfinalproject.model.dto.search.CatalogSearchHit;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchIndexStatusResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Set;
+
+public interface CatalogSearchService {
+    Slice<CatalogSearchHit> search(String searchQuery, Set<SearchDocumentType> types, Float minPrice, Float maxPrice,
+                                   Pageable pageable);
+
+    SearchIndexStatusResponse rebuild();
+
+    SearchIndexStatusResponse getStatus();
+}
@@ -0,0 +1,420 @@
+package org.ebndrnk.leverxfinalproject.service.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSearchQueryException;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ApproximatePage;
+import org.ebndrnk.leverxfinalproject.model.dto.search.CatalogSearchHit;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchIndexStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.BasicEntity;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
+import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.util.PagingPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog search over games, seller profiles confirmed by an admin and approved comments, served from
+ * the {@link SearchIndex} of this replica without a database query.
+ * <p>
+ * The database stays the source of truth. Services publish a {@link SearchIndexChangedEvent} for every change;
+ * once it is committed, the changed items are read again and indexed, or removed from the index if they were
+ * deleted or are no longer searchable. The change is then broadcast over the Redis channel
+ * {@value #CHANGES_CHANNEL}, so the other replicas read the items into their own indexes too. A change missed
+ * by a replica, e.g. while it was down, is corrected by a rebuild, which reads all searchable items page by page
+ * and runs on startup with {@code search.index.rebuild-on-startup} or when an admin asks for it.
+ * </p>
+ * <p>
+ * Each page of a rebuild and each change hold the same lock while reading and indexing, so a rebuild never
+ * overwrites a change with the version it read before the change. A rebuild that fails is rolled back, so searches
+ * go on with the index as it was before; the changes indexed while it ran are then indexed again.
+ * </p>
+ */
+@Service
+@Slf4j
+@Primary
+public class CatalogSearchServiceImpl implements CatalogSearchService, MessageListener {
+
+    public static final String CHANGES_CHANNEL = "search-index:changes";
+
+    private static final String SEPARATOR = "|";
+    private static final String ID_SEPARATOR = ",";
+    /**
+     * Results are read from the top of the ranking, so deep pages get slower; past this many a query should be
+     * refined instead.
+     */
+    private static final int MAX_RESULT_WINDOW = 1000;
+    private static final PagingPolicy SEARCH_PAGING = PagingPolicy.fixedOrder(50);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final SearchIndex searchIndex;
+    private final GameRepository gameRepository;
+    private final ProfileRepository profileRepository;
+    private final CommentRepository commentRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Executor rebuildExecutor;
+    private final int rebuildPageSize;
+    private final boolean rebuildOnStartup;
+    private final boolean broadcastEnabled;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    /**
+     * Changes indexed while a rebuild runs, guarded by the write lock.
+     */
+    private final Map<SearchDocumentType, Set<Long>> changedDuringRebuild = new EnumMap<>(SearchDocumentType.class);
+
+    private volatile LocalDateTime lastRebuildStartedAt;
+    private volatile LocalDateTime lastRebuildFinishedAt;
+    private volatile long lastRebuildDocuments;
+    private volatile String lastRebuildError;
+
+    @Autowired
+    public CatalogSearchServiceImpl(SearchIndex searchIndex,
+                                    GameRepository gameRepository,
+                                    ProfileRepository profileRepository,
+                                    CommentRepository commentRepository,
+                                    StringRedisTemplate stringRedisTemplate,
+                                    @Value("${search.index.rebuild-page-size:1000}") int rebuildPageSize,
+                                    @Value("${search.index.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                                    @Value("${search.index.broadcast-enabled:true}") boolean broadcastEnabled) {
+        this(searchIndex, gameRepository, profileRepository, commentRepository, stringRedisTemplate,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "search-index-rebuild");
+                    thread.setDaemon(true);
+                    return thread;
+                }), rebuildPageSize, rebuildOnStartup, broadcastEnabled);
+    }
+
+    CatalogSearchServiceImpl(SearchIndex searchIndex,
+                             GameRepository gameRepository,
+                             ProfileRepository profileRepository,
+                             CommentRepository commentRepository,
+                             StringRedisTemplate stringRedisTemplate,
+                             Executor rebuildExecutor,
+                             int rebuildPageSize,
+                             boolean rebuildOnStartup,
+                             boolean broadcastEnabled) {
+        this.searchIndex = searchIndex;
+        this.gameRepository = gameRepository;
+        this.profileRepository = profileRepository;
+        this.commentRepository = commentRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.rebuildExecutor = rebuildExecutor;
+        this.rebuildPageSize = rebuildPageSize;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.broadcastEnabled = broadcastEnabled;
+    }
+
+    /**
+     * Finds the games, profiles and comments matching the query, most relevant first.
+     *
+     * @param searchQuery The words to look for; each may be misspelled or only the start of a word.
+     * @param types       The kinds of items to look for, or {@code null} for all kinds.
+     * @param minPrice    The lowest price of the games, or {@code null}; only games have a price.
+     * @param maxPrice    The highest price of the games, or {@code null}.
+     * @param pageable    The page; its sort is rejected.
+     * @return A page of the results if their total is known, otherwise a page with an approximate total.
+     * @throws InvalidSearchQueryException if the query has no words, the price range is empty or the page
+     *                                     lies past the first {@value #MAX_RESULT_WINDOW} results.
+     */
+    @Override
+    public Slice<CatalogSearchHit> search(String searchQuery, Set<SearchDocumentType> types, Float minPrice,
+                                          Float maxPrice, Pageable pageable) {
+        if (StringUtils.isBlank(searchQuery)) {
+            throw new InvalidSearchQueryException("The search query must not be blank");
+        }
+        Pageable page = SEARCH_PAGING.apply(pageable);
+        if (page.getOffset() + page.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new InvalidSearchQueryException("Only the first " + MAX_RESULT_WINDOW
+                    + " results can be paged through, refine the query instead");
+        }
+        log.info("Searching the catalog for '{}' in {} priced {} to {}", searchQuery, types, minPrice, maxPrice);
+
+        SearchIndex.Hits hits = searchIndex.search(searchQuery, types, minPrice, maxPrice,
+                Math.toIntExact(page.getOffset()), page.getPageSize());
+        if (hits.totalExact()) {
+            return new PageImpl<>(hits.hits(), page, hits.total());
+        }
+        return new ApproximatePage<>(hits.hits(), page, hits.total(), true);
+    }
+
+    /**
+     * Starts rebuilding the index of this replica from the database, unless a rebuild is running already.
+     *
+     * @return The status of the index.
+     */
+    @Override
+    public SearchIndexStatusResponse rebuild() {
+        if (rebuilding.compareAndSet(false, true)) {
+            lastRebuildStartedAt = LocalDateTime.now();
+            lastRebuildFinishedAt = null;
+            lastRebuildError = null;
+            rebuildExecutor.execute(this::runRebuild);
+        }
+        return getStatus();
+    }
+
+    /**
+     * @return The size of the index of this replica and the progress of its last rebuild.
+     */
+    @Override
+    public SearchIndexStatusResponse getStatus() {
+        SearchIndexStatusResponse status = new SearchIndexStatusResponse();
+        status.setDocuments(searchIndex.size());
+        status.setRebuilding(rebuilding.get());
+        status.setLastRebuildStartedAt(lastRebuildStartedAt);
+        status.setLastRebuildFinishedAt(lastRebuildFinishedAt);
+        status.setLastRebuildDocuments(lastRebuildDocuments);
+        status.setLastRebuildError(lastRebuildError);
+        return status;
+    }
+
+    /**
+     * Rebuilds the index once the application has started, if configured to, so changes made while this
+     * replica was down become searchable. Searches are served from the index on disk in the meantime.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            log.info("Rebuilding the search index on startup");
+            rebuild();
+        }
+    }
+
+    /**
+     * Indexes the changed items once the change is committed, and tells the other replicas to do the same.
+     *
+     * @param event The change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSearchIndexChanged(SearchIndexChangedEvent event) {
+        if (event.ids().isEmpty()) {
+            return;
+        }
+        try {
+            reindex(event.type(), event.ids());
+        } catch (DataAccessException | UncheckedIOException e) {
+            log.warn("Failed to index {} {}, the next rebuild indexes them: {}", event.type(), event.ids(), e.getMessage());
+        }
+        broadcast(event);
+    }
+
+    /**
+     * Indexes the items changed on another replica.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            List<Long> ids = Arrays.stream(parts[2].split(ID_SEPARATOR)).map(Long::valueOf).toList();
+            reindex(SearchDocumentType.valueOf(parts[1]), ids);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed search index change: {}", e.getMessage());
+        } catch (DataAccessException | UncheckedIOException e) {
+            log.warn("Failed to index {} changed on another replica, the next rebuild indexes them: {}",
+                    parts[1], e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the items again and indexes the searchable ones; the others are removed from the index.
+     */
+    void reindex(SearchDocumentType type, Collection<Long> ids) {
+        writeLock.lock();
+        try {
+            if (rebuilding.get()) {
+                changedDuringRebuild.computeIfAbsent(type, key -> new HashSet<>()).addAll(ids);
+            }
+            switch (type) {
+                case GAME -> {
+                    Map<Long, GameObject> games = byId(gameRepository.findAllById(ids));
+                    for (Long id : ids) {
+                        GameObject game = games.get(id);
+                        if (game == null) {
+                            searchIndex.delete(type, id);
+                        } else {
+                            searchIndex.index(SearchDocument.of(game));
+                        }
+                    }
+                }
+                case PROFILE -> {
+                    Map<Long, Profile> profiles = byId(profileRepository.findAllById(ids));
+                    for (Long id : ids) {
+                        Profile profile = profiles.get(id);
+                        if (profile == null) {
+                            searchIndex.deleteSeller(id);
+                        } else if (!profile.isConfirmedByAdmin()) {
+                            searchIndex.delete(type, id);
+                        } else {
+                            searchIndex.index(SearchDocument.of(profile));
+                        }
+                    }
+                }
+                case COMMENT -> {
+                    Map<Long, Comment> comments = byId(commentRepository.findAllById(ids));
+                    for (Long id : ids) {
+                        Comment comment = comments.get(id);
+                        if (comment == null || !comment.isApproved()) {
+                            searchIndex.delete(type, id);
+                        } else {
+                            searchIndex.index(SearchDocument.of(comment));
+                        }
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void runRebuild() {
+        long start = System.nanoTime();
+        long documents = 0;
+        try {
+            writeLock.lock();
+            try {
+                changedDuringRebuild.clear();
+                searchIndex.beginRebuild();
+            } finally {
+                writeLock.unlock();
+            }
+            documents += reindexAll(profileRepository::findSearchIndexPage, SearchDocument::of);
+            documents += reindexAll(gameRepository::findSearchIndexPage, SearchDocument::of);
+            documents += reindexAll(commentRepository::findSearchIndexPage, SearchDocument::of);
+            writeLock.lock();
+            try {
+                searchIndex.finishRebuild();
+                changedDuringRebuild.clear();
+            } finally {
+                writeLock.unlock();
+            }
+            log.info("Rebuilt the search index with {} documents in {} ms",
+                    documents, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Search index rebuild failed after {} documents, keeping the previous index: {}",
+                    documents, e.getMessage(), e);
+            lastRebuildError = StringUtils.abbreviate(e.getMessage(), MAX_ERROR_LENGTH);
+            abortRebuild();
+        } finally {
+            lastRebuildDocuments = documents;
+            lastRebuildFinishedAt = LocalDateTime.now();
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Rolls the index back to where it was before the rebuild and indexes the changes made meanwhile again,
+     * since the rollback dropped them.
+     */
+    private void abortRebuild() {
+        Map<SearchDocumentType, Set<Long>> changes;
+        writeLock.lock();
+        try {
+            searchIndex.abortRebuild();
+            changes = new EnumMap<>(changedDuringRebuild);
+            changedDuringRebuild.clear();
+        } catch (RuntimeException e) {
+            log.error("Could not roll back the failed search index rebuild: {}", e.getMessage(), e);
+            return;
+        } finally {
+            writeLock.unlock();
+        }
+        changes.forEach((type, ids) -> {
+            try {
+                reindex(type, ids);
+            } catch (DataAccessException | UncheckedIOException e) {
+                log.warn("Failed to index {} {} again, the next rebuild indexes them: {}", type, ids, e.getMessage());
+            }
+        });
+    }
+
+    private <T extends BasicEntity> long reindexAll(BiFunction<Long, Pageable, List<T>> pageLoader,
+                                                    Function<T, SearchDocument> toDocument) {
+        Pageable pageable = PageRequest.of(0, rebuildPageSize);
+        long afterId = 0;
+        long indexed = 0;
+        List<T> page;
+        do {
+            writeLock.lock();
+            try {
+                page = pageLoader.apply(afterId, pageable);
+                page.forEach(entity -> searchIndex.index(toDocument.apply(entity)));
+            } finally {
+                writeLock.unlock();
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+            indexed += page.size();
+        } while (page.size() == rebuildPageSize);
+        return indexed;
+    }
+
+    private static <T extends BasicEntity> Map<Long, T> byId(List<T> entities) {
+        return entities.stream().collect(Collectors.toMap(BasicEntity::getId, Function.identity()));
+    }
+
+    private void broadcast(SearchIndexChangedEvent event) {
+        if (!broadcastEnabled) {
+            return;
+        }
+        String ids = event.ids().stream().map(String::valueOf).collect(Collectors.joining(ID_SEPARATOR));
+        try {
+            stringRedisTemplate.convertAndSend(CHANGES_CHANNEL, instanceId + SEPARATOR + event.type() + SEPARATOR + ids);
+        } catch (DataAccessException e) {
+            log.warn("Failed to broadcast the change of {} {}, other replicas pick it up on their next rebuild: {}",
+                    event.type(), event.ids(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuildExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+}
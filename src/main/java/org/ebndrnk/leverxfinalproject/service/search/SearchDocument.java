@@ -0,0 +1,44 @@
+package org.ebndrnk.leverxfinalproject.service.search;
+
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An item as it is stored in the catalog search index.
+ *
+ * @param type     The kind of the item.
+ * @param id       The ID of the item.
+ * @param title    The heavier searched text, or {@code null}.
+ * @param text     The lighter searched text, or {@code null}.
+ * @param price    The price, or {@code null} for items without one.
+ * @param sellerId The seller the item belongs to; the item is removed with the seller.
+ */
+public record SearchDocument(SearchDocumentType type, long id, String title, String text, Float price, Long sellerId) {
+
+    public static SearchDocument of(GameObject gameObject) {
+        return new SearchDocument(SearchDocumentType.GAME, gameObject.getId(), gameObject.getTitle(),
+                gameObject.getText(), gameObject.getPrice(), gameObject.getSeller().getId());
+    }
+
+    public static SearchDocument of(Profile profile) {
+        String name = Stream.of(profile.getFirstname(), profile.getLastname())
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "));
+        return new SearchDocument(SearchDocumentType.PROFILE, profile.getId(), profile.getUsername(),
+                name.isEmpty() ? null : name, null, profile.getId());
+    }
+
+    /**
+     * @param comment The comment; only its seller ID is read, so the seller may be an uninitialized proxy.
+     */
+    public static SearchDocument of(Comment comment) {
+        return new SearchDocument(SearchDocumentType.COMMENT, comment.getId(), null, comment.getMessage(),
+                null, comment.getSeller().getId());
+    }
+}
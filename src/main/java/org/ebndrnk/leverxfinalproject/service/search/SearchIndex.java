@@ -0,0 +1,450 @@
+package org.ebndrnk.leverxfinalproject.service.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFormatTooNewException;
+import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSearchQueryException;
+import org.ebndrnk.leverxfinalproject.model.dto.search.CatalogSearchHit;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The Lucene index of the catalog search on this replica.
+ * <p>
+ * The index lives in a memory-mapped directory at {@code search.index.path}, or in memory when no path is set.
+ * Writes are buffered by the index writer; searches go through a near-real-time reader that a background thread
+ * reopens every {@code search.index.refresh-interval-ms}, so a write shows up in searches within that time without
+ * a commit. Commits, which make the writes survive a restart, happen every {@code search.index.commit-interval-ms}
+ * and on shutdown. A rebuild is committed as a whole once it finishes; until then nothing is committed, so a failed
+ * rebuild can be rolled back to the index as it was before. An index that cannot be opened is recreated empty.
+ * </p>
+ * <p>
+ * A query matches the items containing every word of it, either exactly, as the start of a longer word or with
+ * up to two typos. Exact matches rank above prefix matches, which rank above typos, and matches in the title
+ * above matches in the text.
+ * </p>
+ */
+@Component
+@Slf4j
+public class SearchIndex {
+
+    private static final String UID = "uid";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String TEXT = "text";
+    private static final String PRICE = "price";
+    private static final String SELLER = "seller";
+
+    private static final int MAX_QUERY_TERMS = 10;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    /**
+     * Typos are not looked for in the first letter, which keeps the number of candidate words small.
+     */
+    private static final int FUZZY_PREFIX_LENGTH = 1;
+    private static final float TITLE_BOOST = 2f;
+    private static final float EXACT_BOOST = 4f;
+    private static final float PREFIX_BOOST = 2f;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    /**
+     * Held for writing only while a rolled back rebuild replaces the writer and the searcher manager.
+     */
+    private final ReadWriteLock writerLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService refresher;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private volatile boolean rebuilding;
+
+    @Autowired
+    public SearchIndex(@Value("${search.index.path:}") String path,
+                       @Value("${search.index.refresh-interval-ms:1000}") long refreshMillis,
+                       @Value("${search.index.commit-interval-ms:60000}") long commitMillis) throws IOException {
+        this(openDirectory(path), refreshMillis, commitMillis);
+        log.info("Opened the search index at {} with {} documents",
+                path.isBlank() ? "memory" : path, writer.getDocStats().numDocs);
+    }
+
+    /**
+     * @param refreshMillis How often searches pick up the writes, or {@code 0} to leave it to {@link #refresh()}.
+     * @param commitMillis  How often the writes are committed, or {@code 0} to leave it to {@link #commit()}.
+     */
+    SearchIndex(Directory directory, long refreshMillis, long commitMillis) throws IOException {
+        this.directory = directory;
+        this.writer = openWriter(directory, analyzer);
+        this.searcherManager = new SearcherManager(writer, null);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-index-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (refreshMillis > 0) {
+            refresher.scheduleWithFixedDelay(() -> {
+                if (!rebuilding) {
+                    quietly("refresh", this::refresh);
+                }
+            }, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+        if (commitMillis > 0) {
+            refresher.scheduleWithFixedDelay(() -> {
+                if (!rebuilding) {
+                    quietly("commit", this::commit);
+                }
+            }, commitMillis, commitMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return The number of items in the index, including additions not visible to searches yet; deletions
+     * are counted once the writer has applied them.
+     */
+    public long size() {
+        writerLock.readLock().lock();
+        try {
+            return writer.getDocStats().numDocs;
+        } finally {
+            writerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the item or replaces the indexed version of it.
+     */
+    public void index(SearchDocument document) {
+        write(() -> writer.updateDocument(uid(document.type(), document.id()), toLucene(document)));
+    }
+
+    public void delete(SearchDocumentType type, long id) {
+        write(() -> writer.deleteDocuments(uid(type, id)));
+    }
+
+    /**
+     * Removes a seller profile together with its games and the comments about it.
+     *
+     * @param profileId The ID of the profile.
+     */
+    public void deleteSeller(long profileId) {
+        write(() -> writer.deleteDocuments(new Term(SELLER, Long.toString(profileId))));
+    }
+
+    /**
+     * Commits the writes so far and empties the index for a rebuild. Searches keep seeing the index as it was until
+     * {@link #finishRebuild()}, and so do not see the writes made in between either; nothing is committed until then.
+     */
+    public void beginRebuild() {
+        commit();
+        rebuilding = true;
+        write(() -> writer.deleteAll());
+    }
+
+    /**
+     * Commits the rebuilt index and shows it to searches.
+     */
+    public void finishRebuild() {
+        rebuilding = false;
+        commit();
+        refresh();
+    }
+
+    /**
+     * Drops the rebuild together with the writes made since it began, returning to the index committed by
+     * {@link #beginRebuild()}. Searches never saw the rebuild and go on with that index.
+     */
+    public void abortRebuild() {
+        writerLock.writeLock().lock();
+        try {
+            searcherManager.close();
+            writer.rollback();
+            writer = openWriter(directory, analyzer);
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll back the search index", e);
+        } finally {
+            rebuilding = false;
+            writerLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the writes so far visible to searches.
+     */
+    public void refresh() {
+        write(() -> searcherManager.maybeRefresh());
+    }
+
+    /**
+     * Makes the writes so far survive a restart.
+     */
+    public void commit() {
+        write(() -> {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        });
+    }
+
+    /**
+     * Finds the items matching the query, most relevant first.
+     *
+     * @param searchQuery The words to look for.
+     * @param types       The kinds of items to look for, all kinds if empty.
+     * @param minPrice    The lowest price, or {@code null}; items without a price do not match a price range.
+     * @param maxPrice    The highest price, or {@code null}.
+     * @param offset      The number of leading results to skip.
+     * @param limit       The number of results to return.
+     * @return The results and their total, which is exact up to at least a thousand.
+     * @throws InvalidSearchQueryException if the query has no words or the price range is empty.
+     */
+    public Hits search(String searchQuery, Set<SearchDocumentType> types, Float minPrice, Float maxPrice,
+                       int offset, int limit) {
+        Query query = buildQuery(searchQuery, types, minPrice, maxPrice);
+        writerLock.readLock().lock();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, offset + limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<CatalogSearchHit> hits = new ArrayList<>();
+                for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    hits.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+                }
+                return new Hits(hits, topDocs.totalHits.value,
+                        topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to search the catalog index", e);
+        } finally {
+            writerLock.readLock().unlock();
+        }
+    }
+
+    Query buildQuery(String searchQuery, Set<SearchDocumentType> types, Float minPrice, Float maxPrice) {
+        List<String> terms = analyze(searchQuery);
+        if (terms.isEmpty()) {
+            throw new InvalidSearchQueryException("The search query must contain at least one word");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidSearchQueryException("The minimum price must not be above the maximum price");
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            addTermQueries(anyField, TITLE, term, TITLE_BOOST);
+            addTermQueries(anyField, TEXT, term, 1f);
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        if (types != null && !types.isEmpty() && types.size() < SearchDocumentType.values().length) {
+            BooleanQuery.Builder anyType = new BooleanQuery.Builder();
+            types.forEach(type -> anyType.add(new TermQuery(new Term(TYPE, type.name())), BooleanClause.Occur.SHOULD));
+            query.add(anyType.build(), BooleanClause.Occur.FILTER);
+        }
+        if (minPrice != null || maxPrice != null) {
+            query.add(FloatPoint.newRangeQuery(PRICE,
+                    minPrice == null ? Float.NEGATIVE_INFINITY : minPrice,
+                    maxPrice == null ? Float.POSITIVE_INFINITY : maxPrice), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private void addTermQueries(BooleanQuery.Builder query, String field, String term, float boost) {
+        query.add(new BoostQuery(new TermQuery(new Term(field, term)), EXACT_BOOST * boost), BooleanClause.Occur.SHOULD);
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            query.add(new BoostQuery(new PrefixQuery(new Term(field, term)), PREFIX_BOOST * boost),
+                    BooleanClause.Occur.SHOULD);
+        }
+        int maxEdits = maxEdits(term);
+        if (maxEdits > 0) {
+            query.add(new BoostQuery(new FuzzyQuery(new Term(field, term), maxEdits, FUZZY_PREFIX_LENGTH), boost),
+                    BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    /**
+     * Short words would match too many other words with a typo, so they have to be spelled right.
+     */
+    private static int maxEdits(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    private List<String> analyze(String searchQuery) {
+        List<String> terms = new ArrayList<>();
+        if (searchQuery == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(TEXT, searchQuery)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to analyze the search query", e);
+        }
+        return terms;
+    }
+
+    private static Document toLucene(SearchDocument document) {
+        Document lucene = new Document();
+        lucene.add(new StringField(UID, uid(document.type(), document.id()).text(), Field.Store.NO));
+        lucene.add(new StringField(TYPE, document.type().name(), Field.Store.YES));
+        lucene.add(new StoredField(ID, document.id()));
+        if (document.title() != null) {
+            lucene.add(new TextField(TITLE, document.title(), Field.Store.YES));
+        }
+        if (document.text() != null) {
+            lucene.add(new TextField(TEXT, document.text(), Field.Store.YES));
+        }
+        if (document.price() != null) {
+            lucene.add(new FloatPoint(PRICE, document.price()));
+            lucene.add(new StoredField(PRICE, document.price()));
+        }
+        if (document.sellerId() != null) {
+            lucene.add(new StringField(SELLER, Long.toString(document.sellerId()), Field.Store.YES));
+        }
+        return lucene;
+    }
+
+    private static CatalogSearchHit toHit(Document document, float score) {
+        CatalogSearchHit hit = new CatalogSearchHit();
+        hit.setType(SearchDocumentType.valueOf(document.get(TYPE)));
+        hit.setId(document.getField(ID).numericValue().longValue());
+        hit.setTitle(document.get(TITLE));
+        hit.setText(document.get(TEXT));
+        IndexableField price = document.getField(PRICE);
+        hit.setPrice(price == null ? null : price.numericValue().floatValue());
+        String sellerId = document.get(SELLER);
+        hit.setSellerId(sellerId == null ? null : Long.valueOf(sellerId));
+        hit.setScore(score);
+        return hit;
+    }
+
+    private static Term uid(SearchDocumentType type, long id) {
+        return new Term(UID, type.name() + ":" + id);
+    }
+
+    private static Directory openDirectory(String path) throws IOException {
+        if (path.isBlank()) {
+            return new ByteBuffersDirectory();
+        }
+        return new MMapDirectory(Files.createDirectories(Path.of(path)));
+    }
+
+    private static IndexWriter openWriter(Directory directory, Analyzer analyzer) throws IOException {
+        try {
+            return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
+            // the index is only a copy of the database, a rebuild restores it
+            log.warn("Recreating the unreadable search index: {}", e.getMessage());
+            return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        }
+    }
+
+    private void write(IndexOperation operation) {
+        writerLock.readLock().lock();
+        try {
+            operation.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to the search index", e);
+        } finally {
+            writerLock.readLock().unlock();
+        }
+    }
+
+    private void quietly(String action, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            log.warn("Failed to {} the search index: {}", action, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+        try {
+            searcherManager.close();
+            if (rebuilding) {
+                // an unfinished rebuild must not replace the committed index
+                writer.rollback();
+            } else {
+                writer.close();
+            }
+            directory.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the search index, uncommitted writes are lost: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A page of search results.
+     *
+     * @param hits       The results of the page.
+     * @param total      The number of matching items.
+     * @param totalExact Whether the total is exact rather than a lower bound.
+     */
+    public record Hits(List<CatalogSearchHit> hits, long total, boolean totalExact) {
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,32 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Randomizes cache expiry, so entries written together, e.g. by a rebuild, do not all expire in the same instant.
+ */
+public final class CacheTtl {
+
+    private CacheTtl() {
+    }
+
+    /**
+     * Shortens the time to live by a random share of up to {@code spread}.
+     *
+     * @param ttl    The nominal time to live.
+     * @param spread The largest share to cut, between {@code 0} and {@code 1}.
+     * @return A time to live between {@code ttl * (1 - spread)} and {@code ttl}.
+     */
+    public static Duration jittered(Duration ttl, double spread) {
+        return jittered(ttl, spread, ThreadLocalRandom.current().nextDouble());
+    }
+
+    static Duration jittered(Duration ttl, double spread, double random) {
+        if (spread <= 0) {
+            return ttl;
+        }
+        long millis = ttl.toMillis();
+        return Duration.ofMillis(Math.max(1, millis - (long) (millis * Math.min(spread, 1) * random)));
+    }
+}
@@ -0,0 +1,117 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSortException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The sort orders and page size a paginated listing accepts from clients.
+ * <p>
+ * Each allowed order matches an index, ending with a unique key so pages are stable. A client may ask for
+ * any leading part of an allowed order, in its direction or fully reversed, e.g. {@code sort=rating,desc}
+ * for the {@code (rating desc, id desc)} index; the listing is then read in the complete order. Other sort
+ * keys are rejected instead of making the database sort the whole table, and page sizes are capped.
+ * </p>
+ */
+public final class PagingPolicy {
+
+    private final int maxPageSize;
+    private final List<Sort> orders;
+
+    private PagingPolicy(int maxPageSize, List<Sort> orders) {
+        this.maxPageSize = maxPageSize;
+        this.orders = orders;
+    }
+
+    /**
+     * @param maxPageSize  The largest page a client gets.
+     * @param defaultOrder The order of unsorted requests.
+     * @param otherOrders  The other allowed orders.
+     * @return The policy.
+     */
+    public static PagingPolicy of(int maxPageSize, Sort defaultOrder, Sort... otherOrders) {
+        List<Sort> orders = new ArrayList<>();
+        orders.add(defaultOrder);
+        orders.addAll(Arrays.asList(otherOrders));
+        return new PagingPolicy(maxPageSize, List.copyOf(orders));
+    }
+
+    /**
+     * @param maxPageSize The largest page a client gets.
+     * @return The policy of a listing read in an order of its own, e.g. by relevance, which accepts no sort.
+     */
+    public static PagingPolicy fixedOrder(int maxPageSize) {
+        return new PagingPolicy(maxPageSize, List.of(Sort.unsorted()));
+    }
+
+    /**
+     * Replaces the requested sort with the allowed order it belongs to and caps the page size.
+     *
+     * @param pageable The page requested by the client.
+     * @return The page to read.
+     * @throws InvalidSortException if the requested sort is not part of an allowed order.
+     */
+    public Pageable apply(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return PageRequest.of(0, maxPageSize, orders.get(0));
+        }
+        int size = Math.min(pageable.getPageSize(), maxPageSize);
+        return PageRequest.of(pageable.getPageNumber(), size, resolve(pageable.getSort()));
+    }
+
+    private Sort resolve(Sort requested) {
+        if (requested.isUnsorted()) {
+            return orders.get(0);
+        }
+        for (Sort order : orders) {
+            if (startsWith(order, requested)) {
+                return order;
+            }
+            Sort reversed = reverse(order);
+            if (startsWith(reversed, requested)) {
+                // a B-tree index is read backwards just as fast
+                return reversed;
+            }
+        }
+        if (orders.get(0).isUnsorted()) {
+            throw new InvalidSortException("Sorting by " + describe(requested) + " is not supported, "
+                    + "the listing has an order of its own");
+        }
+        throw new InvalidSortException("Sorting by " + describe(requested) + " is not supported, expected one of: "
+                + orders.stream().map(PagingPolicy::describe).collect(Collectors.joining("; ")));
+    }
+
+    private static boolean startsWith(Sort order, Sort requested) {
+        Iterator<Sort.Order> allowed = order.iterator();
+        for (Sort.Order requestedOrder : requested) {
+            if (!allowed.hasNext() || requestedOrder.isIgnoreCase()) {
+                return false;
+            }
+            Sort.Order allowedOrder = allowed.next();
+            if (!allowedOrder.getProperty().equals(requestedOrder.getProperty())
+                    || allowedOrder.getDirection() != requestedOrder.getDirection()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Sort reverse(Sort order) {
+        return Sort.by(order.stream()
+                .map(o -> o.with(o.getDirection().isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC))
+                .toList());
+    }
+
+    private static String describe(Sort sort) {
+        return sort.stream()
+                .map(o -> o.getProperty() + "," + o.getDirection().name().toLowerCase())
+                .collect(Collectors.joining(" "));
+    }
+}
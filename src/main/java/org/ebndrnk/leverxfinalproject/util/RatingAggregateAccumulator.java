@@ -0,0 +1,95 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import java.util.Arrays;
+
+/**
+ * Rating aggregates of a fixed, sorted set of profiles kept in primitive arrays.
+ * <p>
+ * The profile id is resolved to a slot with a binary search, so adding a mark allocates nothing
+ * and the memory used depends only on the number of profiles, not on the number of marks.
+ * </p>
+ */
+public class RatingAggregateAccumulator {
+
+    public static final int MARK_VALUES = 11;
+
+    private final long[] profileIds;
+    private final long[] sums;
+    private final long[] counts;
+    private final long[] histograms;
+
+    /**
+     * @param profileIds The profile ids in ascending order.
+     */
+    public RatingAggregateAccumulator(long[] profileIds) {
+        this.profileIds = profileIds;
+        this.sums = new long[profileIds.length];
+        this.counts = new long[profileIds.length];
+        this.histograms = new long[profileIds.length * MARK_VALUES];
+    }
+
+    /**
+     * Adds a mark to the aggregate of a profile. Marks of unknown profiles are ignored.
+     *
+     * @param profileId The ID of the rated profile.
+     * @param mark      The mark, from 0 to 10.
+     * @return Whether the mark was counted.
+     */
+    public boolean add(long profileId, int mark) {
+        return add(profileId, mark, 1);
+    }
+
+    /**
+     * Adds {@code weight} marks with the same value to the aggregate of a profile.
+     * A negative weight removes marks. Marks of unknown profiles are ignored.
+     *
+     * @param profileId The ID of the rated profile.
+     * @param mark      The mark, from 0 to 10.
+     * @param weight    The number of marks.
+     * @return Whether the marks were counted.
+     */
+    public boolean add(long profileId, int mark, long weight) {
+        int slot = Arrays.binarySearch(profileIds, profileId);
+        if (slot < 0 || mark < 0 || mark >= MARK_VALUES) {
+            return false;
+        }
+        sums[slot] += mark * weight;
+        counts[slot] += weight;
+        histograms[slot * MARK_VALUES + mark] += weight;
+        return true;
+    }
+
+    public int size() {
+        return profileIds.length;
+    }
+
+    public long profileId(int slot) {
+        return profileIds[slot];
+    }
+
+    public long sum(int slot) {
+        return sums[slot];
+    }
+
+    public long count(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * @return The truncated average mark, as stored in {@code profile.rating}.
+     */
+    public int rating(int slot) {
+        return counts[slot] == 0 ? 0 : (int) (sums[slot] / counts[slot]);
+    }
+
+    /**
+     * @return The average mark multiplied by 100 and rounded half up, as stored in {@code profile.rating_mean_fixed}.
+     */
+    public int meanFixed(int slot) {
+        return counts[slot] == 0 ? 0 : (int) ((sums[slot] * 100 + counts[slot] / 2) / counts[slot]);
+    }
+
+    public long[] histogram(int slot) {
+        return Arrays.copyOfRange(histograms, slot * MARK_VALUES, (slot + 1) * MARK_VALUES);
+    }
+}
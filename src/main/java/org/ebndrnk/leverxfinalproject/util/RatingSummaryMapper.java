@@ -0,0 +1,51 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+
+/**
+ * Converts the rating aggregate of a profile into the response returned to clients.
+ * The rating is derived from the sum and the count, which already include changes not yet folded into the profile.
+ */
+public final class RatingSummaryMapper {
+
+    /**
+     * Virtual marks every seller starts with in the ranking score, same as the ranking_score column.
+     */
+    private static final long PRIOR_COUNT = 10;
+    private static final long PRIOR_MEAN = 5;
+
+    private RatingSummaryMapper() {
+    }
+
+    /**
+     * Builds a rating summary response from the stored aggregate.
+     *
+     * @param ratingSummary The rating aggregate of the profile.
+     * @param pending       Whether the vote that triggered the request is not yet applied.
+     * @return The rating summary response.
+     */
+    public static RatingSummaryResponse toResponse(RatingSummary ratingSummary, boolean pending) {
+        long sum = ratingSummary.getRatingSum();
+        long count = ratingSummary.getRatingCount();
+
+        RatingSummaryResponse response = new RatingSummaryResponse();
+        response.setProfileId(ratingSummary.getId());
+        response.setRating(count == 0 ? 0 : (byte) (sum / count));
+        response.setRatingCount(count);
+        response.setAverage(count == 0 ? 0 : (double) sum / count);
+        response.setPending(pending);
+        return response;
+    }
+
+    /**
+     * Computes the Bayesian ranking score of a seller, the same way the database computes ranking_score.
+     *
+     * @param ratingSum   The sum of the marks of the seller.
+     * @param ratingCount The number of marks of the seller.
+     * @return The ranking score.
+     */
+    public static double rankingScore(long ratingSum, long ratingCount) {
+        return (double) (ratingSum + PRIOR_COUNT * PRIOR_MEAN) / (ratingCount + PRIOR_COUNT);
+    }
+}
@@ -0,0 +1,111 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidCursorException;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts keyset scroll positions to the opaque cursors handed to clients and back.
+ * <p>
+ * A cursor is the URL-safe Base64 of the sort key values of the last item of a window, e.g.
+ * {@code {"rating":7,"id":42}}. Decoding checks that the cursor holds exactly the keys of the listing
+ * and converts each value to the type of its attribute, so the next window is read with
+ * {@code WHERE (rating, id) < (7, 42)} from the index instead of skipping all earlier rows.
+ * </p>
+ */
+public final class ScrollCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private ScrollCursor() {
+    }
+
+    /**
+     * @param cursor   The cursor from the client, or {@code null} for the first window.
+     * @param keyTypes The sort keys of the listing and the types of their attributes.
+     * @return The position to scroll from.
+     * @throws InvalidCursorException if the cursor was not issued for this listing or has a key without a value.
+     */
+    public static ScrollPosition decode(String cursor, Map<String, Class<?>> keyTypes) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys;
+        try {
+            keys = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidCursorException("Cursor is malformed");
+        }
+        if (keys == null || !keys.keySet().equals(keyTypes.keySet())) {
+            throw new InvalidCursorException("Cursor does not belong to this listing");
+        }
+
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        for (Map.Entry<String, Class<?>> keyType : keyTypes.entrySet()) {
+            Object value = keys.get(keyType.getKey());
+            if (value == null) {
+                // the keys of every listing are not null, a null would only match no rows or all of them
+                throw new InvalidCursorException("Cursor is malformed");
+            }
+            try {
+                typedKeys.put(keyType.getKey(), DefaultConversionService.getSharedInstance().convert(value, keyType.getValue()));
+            } catch (ConversionException e) {
+                throw new InvalidCursorException("Cursor does not belong to this listing");
+            }
+        }
+        return ScrollPosition.forward(typedKeys);
+    }
+
+    /**
+     * Maps a window of entities to the response returned to clients, with the cursor of the following window.
+     *
+     * @param window The window read with a keyset position.
+     * @param mapper Maps each entity to its DTO.
+     * @return The response.
+     */
+    public static <T, R> ScrollResponse<R> toResponse(Window<T> window, Function<T, R> mapper) {
+        ScrollResponse<R> response = new ScrollResponse<>();
+        response.setContent(window.stream().map(mapper).toList());
+        response.setSize(window.size());
+        response.setHasNext(window.hasNext());
+        if (window.hasNext() && !window.isEmpty()) {
+            response.setNextCursor(encode((KeysetScrollPosition) window.positionAt(window.size() - 1)));
+        }
+        return response;
+    }
+
+    static String encode(KeysetScrollPosition position) {
+        return encode(position.getKeys());
+    }
+
+    /**
+     * Encodes the sort key values of the last item of a window read without Spring Data scrolling.
+     *
+     * @param keys The sort keys and their values, e.g. {@code {"id":42}}.
+     * @return The cursor of the next window.
+     */
+    public static String encode(Map<String, ?> keys) {
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsString(keys).getBytes(StandardCharsets.UTF_8);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode scroll cursor", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+alter table public.profile
+    add column if not exists rating_sum   bigint default 0 not null,
+    add column if not exists rating_count bigint default 0 not null;
+
+update public.profile p
+set rating_sum   = r.rating_sum,
+    rating_count = r.rating_count,
+    rating       = r.rating_sum / r.rating_count
+from (select seller_id, sum(mark) as rating_sum, count(*) as rating_count
+      from public.rating
+      group by seller_id) r
+where r.seller_id = p.id;
+
+comment on column profile.rating_sum is 'Sum of all marks given to the seller. Maintained incrementally on every vote.';
+
+comment on column profile.rating_count is 'Number of marks given to the seller. Maintained incrementally on every vote.';
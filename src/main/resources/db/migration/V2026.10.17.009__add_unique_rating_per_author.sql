@@ -0,0 +1,20 @@
+-- keep only the latest mark of every (seller, author) pair before the constraint is added
+delete
+from public.rating r
+    using public.rating newer
+where newer.seller_id = r.seller_id
+  and newer.author_id = r.author_id
+  and newer.id > r.id;
+
+update public.profile p
+set rating_sum   = coalesce(r.rating_sum, 0),
+    rating_count = coalesce(r.rating_count, 0),
+    rating       = case when coalesce(r.rating_count, 0) = 0 then 0 else r.rating_sum / r.rating_count end
+from public.profile p2
+         left join (select seller_id, sum(mark) as rating_sum, count(*) as rating_count
+                    from public.rating
+                    group by seller_id) r on r.seller_id = p2.id
+where p2.id = p.id;
+
+alter table public.rating
+    add constraint rating_seller_author_uk unique (seller_id, author_id);
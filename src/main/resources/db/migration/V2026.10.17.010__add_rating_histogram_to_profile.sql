@@ -0,0 +1,22 @@
+alter table public.profile
+    add column if not exists rating_histogram  bigint[] default '{0,0,0,0,0,0,0,0,0,0,0}' not null,
+    add column if not exists rating_mean_fixed integer  default 0                         not null;
+
+update public.profile p
+set rating_histogram  = agg.rating_histogram,
+    rating_mean_fixed = case
+                            when p.rating_count = 0 then 0
+                            else (p.rating_sum * 100 + p.rating_count / 2) / p.rating_count end
+from (select s.id                                                 as profile_id,
+             array_agg(coalesce(c.mark_count, 0) order by m.mark) as rating_histogram
+      from public.profile s
+               cross join generate_series(0, 10) as m(mark)
+               left join (select seller_id, mark, count(*) as mark_count
+                          from public.rating
+                          group by seller_id, mark) c on c.seller_id = s.id and c.mark = m.mark
+      group by s.id) agg
+where agg.profile_id = p.id;
+
+comment on column profile.rating_histogram is 'Number of marks per value: element i (1-based) counts the marks equal to i - 1. Maintained incrementally on every vote.';
+
+comment on column profile.rating_mean_fixed is 'Average mark in fixed point with two decimal places (average * 100, rounded half up).';
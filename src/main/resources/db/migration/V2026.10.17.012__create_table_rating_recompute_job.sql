@@ -0,0 +1,34 @@
+create table if not exists public.rating_recompute_job
+(
+    id                 bigint generated by default as identity
+        primary key,
+    created_dttm       timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at         timestamp(6) default CURRENT_TIMESTAMP not null,
+    version            bigint       default 1                 not null
+        constraint rating_recompute_job_version_check
+            check (version > 0),
+    status             varchar(20)                            not null,
+    last_profile_id    bigint       default 0                 not null,
+    processed_profiles bigint       default 0                 not null,
+    processed_ratings  bigint       default 0                 not null,
+    finished_at        timestamp(6),
+    error_message      varchar(1000)
+);
+
+comment on table rating_recompute_job is 'Checkpoints of the job that rebuilds profile rating aggregates from the rating table';
+
+comment on column rating_recompute_job.status is 'RUNNING, COMPLETED or FAILED';
+
+comment on column rating_recompute_job.last_profile_id is 'Every profile with id <= last_profile_id has already been recomputed. A resumed job continues after it.';
+
+comment on column rating_recompute_job.processed_profiles is 'Number of profiles recomputed by the job';
+
+comment on column rating_recompute_job.processed_ratings is 'Number of ratings read by the job';
+
+comment on column rating_recompute_job.finished_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column rating_recompute_job.error_message is 'Error that stopped the job, if any';
+
+-- lets the job and the aggregate recalculation read marks of a seller range with an index-only scan
+create index if not exists rating_seller_mark_idx
+    on public.rating (seller_id, mark);
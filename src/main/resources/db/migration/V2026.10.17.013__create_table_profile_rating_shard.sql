@@ -0,0 +1,43 @@
+create table if not exists public.profile_rating_shard
+(
+    id           bigint generated by default as identity
+        primary key,
+    created_dttm timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at   timestamp(6) default CURRENT_TIMESTAMP not null,
+    version      bigint       default 1                 not null
+        constraint profile_rating_shard_version_check
+            check (version > 0),
+    profile_id   bigint                                 not null
+        constraint profile_rating_shard_profile_fk
+            references profile
+            on delete cascade,
+    shard        smallint                               not null,
+    mark         smallint                               not null
+        constraint profile_rating_shard_mark_check
+            check (mark between 0 and 10),
+    mark_count   bigint       default 0                 not null,
+    constraint profile_rating_shard_uk
+        unique (profile_id, shard, mark)
+);
+
+create index if not exists profile_rating_shard_pending_idx
+    on public.profile_rating_shard (id)
+    where mark_count <> 0;
+
+comment on table profile_rating_shard is 'Rating changes not yet folded into the profile aggregate, striped over several rows per seller so concurrent votes do not contend on one row';
+
+comment on column profile_rating_shard.id is 'Identifier';
+
+comment on column profile_rating_shard.created_dttm is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column profile_rating_shard.updated_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column profile_rating_shard.version is 'large range number from -9223372036854775808 to +9223372036854775807';
+
+comment on column profile_rating_shard.profile_id is 'Rated seller';
+
+comment on column profile_rating_shard.shard is 'Stripe of the seller counters, chosen by the hash of the author';
+
+comment on column profile_rating_shard.mark is 'number from 0 to 10';
+
+comment on column profile_rating_shard.mark_count is 'Change of the number of marks with this value since the last fold, may be negative';
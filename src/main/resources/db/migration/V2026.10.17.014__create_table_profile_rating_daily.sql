@@ -0,0 +1,72 @@
+create table if not exists public.profile_rating_daily
+(
+    id           bigint generated by default as identity
+        primary key,
+    created_dttm timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at   timestamp(6) default CURRENT_TIMESTAMP not null,
+    version      bigint       default 1                 not null
+        constraint profile_rating_daily_version_check
+            check (version > 0),
+    profile_id   bigint                                 not null
+        constraint profile_rating_daily_profile_fk
+            references profile
+            on delete cascade,
+    day          date                                   not null,
+    shard        smallint                               not null,
+    rating_sum   bigint       default 0                 not null,
+    rating_count bigint       default 0                 not null,
+    constraint profile_rating_daily_uk
+        unique (profile_id, day, shard)
+);
+
+create index if not exists profile_rating_daily_updated_at_idx
+    on public.profile_rating_daily (updated_at);
+
+insert into public.profile_rating_daily (profile_id, day, shard, rating_sum, rating_count)
+select seller_id, cast(updated_at as date), 0, sum(mark), count(*)
+from public.rating
+where seller_id is not null
+group by seller_id, cast(updated_at as date);
+
+comment on table profile_rating_daily is 'Sum and count of the marks given to a seller per day, striped like profile_rating_shard. A mark belongs to the day it was last given.';
+
+comment on column profile_rating_daily.id is 'Identifier';
+
+comment on column profile_rating_daily.created_dttm is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column profile_rating_daily.updated_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column profile_rating_daily.version is 'large range number from -9223372036854775808 to +9223372036854775807';
+
+comment on column profile_rating_daily.profile_id is 'Rated seller';
+
+comment on column profile_rating_daily.day is 'Day the marks were given';
+
+comment on column profile_rating_daily.shard is 'Stripe of the seller counters, chosen by the hash of the author';
+
+comment on column profile_rating_daily.rating_sum is 'Sum of the marks given that day';
+
+comment on column profile_rating_daily.rating_count is 'Number of the marks given that day';
+
+alter table public.profile
+    add column if not exists rating_avg_7d    double precision default 0 not null,
+    add column if not exists rating_count_7d  bigint           default 0 not null,
+    add column if not exists rating_avg_30d   double precision default 0 not null,
+    add column if not exists rating_count_30d bigint           default 0 not null,
+    add column if not exists rating_avg_90d   double precision default 0 not null,
+    add column if not exists rating_count_90d bigint           default 0 not null;
+
+comment on column profile.rating_avg_7d is 'Average mark given during the last 7 days. Rolled up from profile_rating_daily.';
+
+comment on column profile.rating_count_7d is 'Number of marks given during the last 7 days. Rolled up from profile_rating_daily.';
+
+comment on column profile.rating_avg_30d is 'Average mark given during the last 30 days. Rolled up from profile_rating_daily.';
+
+comment on column profile.rating_count_30d is 'Number of marks given during the last 30 days. Rolled up from profile_rating_daily.';
+
+comment on column profile.rating_avg_90d is 'Average mark given during the last 90 days. Rolled up from profile_rating_daily.';
+
+comment on column profile.rating_count_90d is 'Number of marks given during the last 90 days. Rolled up from profile_rating_daily.';
+
+create index if not exists profile_rating_avg_30d_idx
+    on public.profile (rating_avg_30d desc, id desc);
@@ -0,0 +1,80 @@
+create table if not exists public.rating_event
+(
+    id            bigint generated by default as identity
+        primary key,
+    created_dttm  timestamp(6) default CURRENT_TIMESTAMP not null,
+    seller_id     bigint                                 not null
+        constraint rating_event_seller_fk
+            references profile
+            on delete cascade,
+    author_id     bigint                                 not null,
+    event_type    smallint                               not null
+        constraint rating_event_type_check
+            check (event_type between 0 and 2),
+    mark          smallint,
+    previous_mark smallint
+);
+
+create index if not exists rating_event_seller_idx
+    on public.rating_event (seller_id, id);
+
+create index if not exists rating_event_seller_author_idx
+    on public.rating_event (seller_id, author_id, id desc);
+
+insert into public.rating_event (created_dttm, seller_id, author_id, event_type, mark)
+select updated_at, seller_id, author_id, 0, mark
+from public.rating
+where seller_id is not null
+  and author_id is not null
+order by updated_at, id;
+
+comment on table rating_event is 'Append-only log of rating changes. Rows are never updated or deleted.';
+
+comment on column rating_event.id is 'Identifier, also the order of the events';
+
+comment on column rating_event.created_dttm is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column rating_event.seller_id is 'Rated seller';
+
+comment on column rating_event.author_id is 'Anonymous user who voted';
+
+comment on column rating_event.event_type is '0 - mark given, 1 - mark changed, 2 - mark retracted';
+
+comment on column rating_event.mark is 'Mark after the event, null for a retraction';
+
+comment on column rating_event.previous_mark is 'Mark before the event, null for a new mark';
+
+create table if not exists public.rating_snapshot
+(
+    id               bigint generated by default as identity
+        primary key,
+    created_dttm     timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at       timestamp(6) default CURRENT_TIMESTAMP not null,
+    version          bigint       default 1                 not null
+        constraint rating_snapshot_version_check
+            check (version > 0),
+    profile_id       bigint                                 not null
+        constraint rating_snapshot_profile_uk
+            unique
+        constraint rating_snapshot_profile_fk
+            references profile
+            on delete cascade,
+    last_event_id    bigint                                 not null,
+    rating_histogram bigint[]                               not null
+);
+
+comment on table rating_snapshot is 'Rating aggregate of a seller as of one event of the rating_event log';
+
+comment on column rating_snapshot.id is 'Identifier';
+
+comment on column rating_snapshot.created_dttm is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column rating_snapshot.updated_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column rating_snapshot.version is 'large range number from -9223372036854775808 to +9223372036854775807';
+
+comment on column rating_snapshot.profile_id is 'Rated seller';
+
+comment on column rating_snapshot.last_event_id is 'Last event of the seller included in the snapshot';
+
+comment on column rating_snapshot.rating_histogram is 'Number of marks per value: element i counts the marks equal to i';
@@ -0,0 +1,50 @@
+create table if not exists public.game_category
+(
+    id           bigint generated by default as identity
+        primary key,
+    created_dttm timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at   timestamp(6) default CURRENT_TIMESTAMP not null,
+    version      bigint       default 1                 not null
+        constraint game_category_version_check
+            check (version > 0),
+    name         varchar(100)                           not null
+        constraint game_category_name_uk
+            unique,
+    slug         varchar(100)                           not null
+        constraint game_category_slug_uk
+            unique
+);
+
+insert into public.game_category (name, slug)
+values ('CS:GO', 'cs-go'),
+       ('FIFA', 'fifa'),
+       ('Dota 2', 'dota-2')
+on conflict do nothing;
+
+comment on table game_category is 'Game a game object belongs to, e.g. CS:GO or FIFA. Sellers are ranked per category.';
+
+comment on column game_category.id is 'Identifier';
+
+comment on column game_category.created_dttm is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column game_category.updated_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column game_category.version is 'large range number from -9223372036854775808 to +9223372036854775807';
+
+comment on column game_category.name is 'Display name of the category';
+
+comment on column game_category.slug is 'URL-friendly name of the category';
+
+alter table public.game_object
+    add column if not exists category_id bigint
+        constraint game_object_category_fk
+            references game_category
+            on delete set null;
+
+comment on column game_object.category_id is 'Category of the game. A seller belongs to every category they offer a game in.';
+
+create index if not exists game_object_seller_category_idx
+    on public.game_object (seller_id, category_id);
+
+create index if not exists game_object_category_seller_idx
+    on public.game_object (category_id, seller_id);
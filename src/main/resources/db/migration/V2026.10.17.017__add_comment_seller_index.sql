@@ -0,0 +1,4 @@
+-- The top-seller read loads the comments of one page of sellers with a single
+-- "seller_id in (...)" batch, which needs an index instead of a scan of all comments.
+create index if not exists comment_seller_idx
+    on public.comment (seller_id);
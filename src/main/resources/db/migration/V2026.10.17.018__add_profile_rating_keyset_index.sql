@@ -0,0 +1,5 @@
+-- Keyset pagination of profiles reads "where (rating, id) < (:rating, :id) order by rating desc, id desc".
+-- With this index each window starts at the cursor instead of scanning and discarding all earlier rows.
+-- Games are scrolled by id and use the primary key.
+create index if not exists profile_rating_id_idx
+    on public.profile (rating desc, id desc);
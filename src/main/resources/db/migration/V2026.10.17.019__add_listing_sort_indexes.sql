@@ -0,0 +1,15 @@
+-- Paginated listings only accept sort orders read from an index (see PagingPolicy), so a page is a short
+-- index range scan instead of a sort of the whole table. Orders already covered:
+-- profile by id, (rating desc, id desc), (ranking_score desc, id desc), (rating_avg_30d desc, id desc)
+-- and username; game_object by id.
+create index if not exists profile_rating_avg_7d_idx
+    on public.profile (rating_avg_7d desc, id desc);
+
+create index if not exists profile_rating_avg_90d_idx
+    on public.profile (rating_avg_90d desc, id desc);
+
+create index if not exists game_object_price_id_idx
+    on public.game_object (price, id);
+
+create index if not exists game_object_title_id_idx
+    on public.game_object (title, id);
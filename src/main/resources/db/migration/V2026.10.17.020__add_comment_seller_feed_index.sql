@@ -0,0 +1,7 @@
+-- The seller comment feed reads "where seller_id = :seller and approved and id < :cursor order by id desc limit n",
+-- a short range of this index whatever the number of comments of the seller.
+create index if not exists comment_seller_approved_id_idx
+    on public.comment (seller_id, approved, id desc);
+
+-- Batches of "seller_id in (...)" use the leading column of the new index.
+drop index if exists comment_seller_idx;
@@ -0,0 +1,32 @@
+-- Moderators claim pending comments and profiles for a lease: "claimed_by" holds the moderator and
+-- "claim_expires_at" the end of the lease, after which the row can be claimed again. "reviewed_at" marks rows a
+-- moderator has confirmed or declined, so declined rows leave the queue too.
+alter table public.comment
+    add column if not exists claimed_by       varchar(100),
+    add column if not exists claim_expires_at timestamp(6),
+    add column if not exists reviewed_at      timestamp(6);
+
+comment on column comment.claimed_by is 'Username of the moderator holding the claim on the comment.';
+comment on column comment.claim_expires_at is 'End of the moderation claim. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+comment on column comment.reviewed_at is 'Time the comment was confirmed or declined. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+alter table public.profile
+    add column if not exists claimed_by       varchar(100),
+    add column if not exists claim_expires_at timestamp(6),
+    add column if not exists reviewed_at      timestamp(6);
+
+comment on column profile.claimed_by is 'Username of the moderator holding the claim on the profile.';
+comment on column profile.claim_expires_at is 'End of the moderation claim. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+comment on column profile.reviewed_at is 'Time the profile was confirmed or declined. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+-- Rows confirmed before the queue existed are reviewed; unconfirmed ones stay pending, as they were.
+update public.comment set reviewed_at = updated_at where approved and reviewed_at is null;
+update public.profile set reviewed_at = updated_at where is_confirmed_by_admin and reviewed_at is null;
+
+-- Claims read "where reviewed_at is null ... order by id limit n for update skip locked", which only walks the
+-- pending rows.
+create index if not exists comment_moderation_pending_idx
+    on public.comment (id) where reviewed_at is null;
+
+create index if not exists profile_moderation_pending_idx
+    on public.profile (id) where reviewed_at is null;
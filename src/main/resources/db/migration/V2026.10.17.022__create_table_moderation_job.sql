@@ -0,0 +1,36 @@
+create table if not exists public.moderation_job
+(
+    id             bigint generated by default as identity
+        primary key,
+    created_dttm   timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at     timestamp(6) default CURRENT_TIMESTAMP not null,
+    version        bigint       default 1                 not null
+        constraint moderation_job_version_check
+            check (version > 0),
+    queue          varchar(20)                            not null,
+    decision       varchar(20)                            not null,
+    status         varchar(20)                            not null,
+    requested_by   varchar(100)                           not null,
+    last_item_id   bigint       default 0                 not null,
+    affected_items bigint       default 0                 not null,
+    finished_at    timestamp(6),
+    error_message  varchar(1000)
+);
+
+comment on table moderation_job is 'Progress of the jobs that confirm or decline large sets of comments or profiles';
+
+comment on column moderation_job.queue is 'COMMENTS or PROFILES';
+
+comment on column moderation_job.decision is 'CONFIRM or DECLINE';
+
+comment on column moderation_job.status is 'QUEUED, RUNNING, COMPLETED or FAILED';
+
+comment on column moderation_job.requested_by is 'Username of the moderator who started the job';
+
+comment on column moderation_job.last_item_id is 'Every selected item with id <= last_item_id has already been decided';
+
+comment on column moderation_job.affected_items is 'Number of items decided by the job';
+
+comment on column moderation_job.finished_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column moderation_job.error_message is 'Error that stopped the job, if any';
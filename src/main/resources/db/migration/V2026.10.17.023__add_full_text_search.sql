@@ -0,0 +1,30 @@
+-- Substring filters of the game search read "lower(title) like '%x%'" and "lower(text) like '%x%'".
+-- Trigram indexes serve them for patterns of three or more characters instead of a scan of every description.
+create extension if not exists pg_trgm;
+
+create index if not exists game_object_title_trgm_idx
+    on public.game_object using gin (lower(title) gin_trgm_ops);
+
+create index if not exists game_object_text_trgm_idx
+    on public.game_object using gin (lower(text) gin_trgm_ops);
+
+-- Ranked search matches "search_vector @@ websearch_to_tsquery('english', :query)". The vectors are kept by the
+-- database on every insert and update; titles weigh more than descriptions in the ranking.
+alter table public.game_object
+    add column if not exists search_vector tsvector
+        generated always as (setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+                             setweight(to_tsvector('english', coalesce(text, '')), 'B')) stored;
+
+comment on column game_object.search_vector is 'Full-text search vector of the title and the description, generated.';
+
+create index if not exists game_object_search_idx
+    on public.game_object using gin (search_vector);
+
+alter table public.comment
+    add column if not exists search_vector tsvector
+        generated always as (to_tsvector('english', coalesce(message, ''))) stored;
+
+comment on column comment.search_vector is 'Full-text search vector of the message, generated.';
+
+create index if not exists comment_search_idx
+    on public.comment using gin (search_vector);
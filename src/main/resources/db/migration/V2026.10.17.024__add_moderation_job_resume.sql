@@ -0,0 +1,17 @@
+-- Jobs deciding the items matching a filter keep the filter, so another replica can continue them after
+-- "last_item_id" when the replica running them stops. Jobs deciding a list of IDs have no filter and fail instead.
+-- "heartbeat_at" is touched while the replica holding the job is alive; a job it stopped touching is orphaned.
+alter table public.moderation_job
+    add column if not exists pending_only   boolean,
+    add column if not exists seller_id      bigint,
+    add column if not exists created_before timestamp(6),
+    add column if not exists heartbeat_at   timestamp(6) default CURRENT_TIMESTAMP not null;
+
+comment on column moderation_job.pending_only is 'Filter of the job: only items not reviewed yet. Null for jobs deciding a list of IDs';
+comment on column moderation_job.seller_id is 'Filter of the job: only comments about this seller';
+comment on column moderation_job.created_before is 'Filter of the job: only items created before this time. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+comment on column moderation_job.heartbeat_at is 'Last time the replica holding the job showed it is alive. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+-- "where status in ('QUEUED', 'RUNNING') and heartbeat_at < ?" only walks the unfinished jobs.
+create index if not exists moderation_job_unfinished_idx
+    on public.moderation_job (heartbeat_at) where status in ('QUEUED', 'RUNNING');
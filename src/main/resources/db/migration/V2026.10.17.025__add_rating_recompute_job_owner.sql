@@ -0,0 +1,12 @@
+-- A replica claims the recompute job by writing its id to "owner" and keeps touching "heartbeat_at" while it runs,
+-- so other replicas only resume a RUNNING job once its owner has stopped touching it.
+alter table public.rating_recompute_job
+    add column if not exists owner        varchar(64),
+    add column if not exists heartbeat_at timestamp(6) default CURRENT_TIMESTAMP not null;
+
+comment on column rating_recompute_job.owner is 'Id of the replica running or last running the job';
+comment on column rating_recompute_job.heartbeat_at is 'Last time the owner showed it is alive. Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+-- at most one job runs at a time, so replicas starting a new job at the same time cannot both insert one
+create unique index if not exists rating_recompute_job_running_idx
+    on public.rating_recompute_job (status) where status = 'RUNNING';
@@ -0,0 +1,27 @@
+create table if not exists public.rating_snapshot_scan
+(
+    id               bigint generated by default as identity
+        primary key,
+    created_dttm     timestamp(6) default CURRENT_TIMESTAMP not null,
+    updated_at       timestamp(6) default CURRENT_TIMESTAMP not null,
+    version          bigint       default 1                 not null
+        constraint rating_snapshot_scan_version_check
+            check (version > 0),
+    scanned_event_id bigint       default 0                 not null
+);
+
+comment on table rating_snapshot_scan is 'Progress of the snapshot job through the rating_event log, a single row';
+
+comment on column rating_snapshot_scan.id is 'Identifier';
+
+comment on column rating_snapshot_scan.created_dttm is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column rating_snapshot_scan.updated_at is 'Format ISO 8601: YYYY-MM-DD hh:mm:ss.000000';
+
+comment on column rating_snapshot_scan.version is 'large range number from -9223372036854775808 to +9223372036854775807';
+
+comment on column rating_snapshot_scan.scanned_event_id is 'Every event with id <= scanned_event_id has been considered for a snapshot. The next scan continues after it.';
+
+insert into public.rating_snapshot_scan (scanned_event_id)
+select 0
+where not exists (select 1 from public.rating_snapshot_scan);
@@ -0,0 +1,56 @@
+package org.ebndrnk.leverxfinalproject.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Base of the integration tests that persist their own data and count the statements a service runs for it.
+ * Every test runs in a transaction rolled back afterwards, so the data of one test is not seen by the next.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional
+public abstract class StatisticsIntegrationTest {
+
+    @Autowired
+    protected EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Persists a profile with the given username and an email derived from it.
+     */
+    protected Profile persistProfile(String username) {
+        Profile profile = new Profile();
+        profile.setUsername(username);
+        profile.setEmail(username + "@email.com");
+        entityManager.persist(profile);
+        return profile;
+    }
+
+    /**
+     * Writes the persisted data and detaches it, so the service under test reads it from the database.
+     */
+    protected void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * @return The Hibernate statistics, counting from now on.
+     */
+    protected Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,123 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+class NearCacheTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        nearCache = new NearCache(stringRedisTemplate, meterRegistry, new MockEnvironment(), true);
+    }
+
+    @Test
+    void testGet_secondRead_shouldNotCallLoader() {
+        int[] loads = {0};
+
+        nearCache.get(NearCacheRegion.PROFILES, 1L, id -> ++loads[0]);
+        Object value = nearCache.get(NearCacheRegion.PROFILES, 1L, id -> ++loads[0]);
+
+        assertEquals(1, value);
+        assertEquals(1, loads[0]);
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "profiles").gauge().value());
+    }
+
+    @Test
+    void testInvalidate_shouldEvictLocallyAndBroadcastOnce() {
+        nearCache.put(NearCacheRegion.SELLER_SUMMARIES, 1L, "summary");
+        nearCache.put(NearCacheRegion.PROFILES, 1L, "profile");
+
+        nearCache.invalidate(1L, NearCacheRegion.SELLER_SUMMARIES, NearCacheRegion.PROFILES);
+
+        assertTrue(nearCache.getAllPresent(NearCacheRegion.SELLER_SUMMARIES, List.of(1L)).isEmpty());
+        assertTrue(nearCache.getAllPresent(NearCacheRegion.PROFILES, List.of(1L)).isEmpty());
+        verify(stringRedisTemplate).convertAndSend(eq(NearCache.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void testOnMessage_fromOtherReplica_shouldEvict() {
+        nearCache.put(NearCacheRegion.PROFILES, 1L, "profile");
+        nearCache.put(NearCacheRegion.PROFILES, 2L, "profile");
+
+        nearCache.onMessage(message("other-replica|PROFILES|1"), null);
+
+        assertEquals(Map.of(2L, "profile"), nearCache.getAllPresent(NearCacheRegion.PROFILES, List.of(1L, 2L)));
+    }
+
+    @Test
+    void testOnMessage_ownBroadcast_shouldBeIgnored() {
+        nearCache.invalidate(1L, NearCacheRegion.PROFILES);
+        ArgumentCaptor<String> broadcast = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(NearCache.INVALIDATION_CHANNEL), broadcast.capture());
+        nearCache.put(NearCacheRegion.PROFILES, 1L, "reloaded");
+
+        nearCache.onMessage(message(broadcast.getValue()), null);
+
+        assertEquals(Map.of(1L, "reloaded"), nearCache.getAllPresent(NearCacheRegion.PROFILES, List.of(1L)));
+    }
+
+    @Test
+    void testPutIfUnchanged_invalidatedWhileLoading_shouldNotCache() {
+        long stamp = nearCache.stamp(NearCacheRegion.PROFILES, 1L);
+        nearCache.invalidate(1L, NearCacheRegion.PROFILES);
+
+        boolean cached = nearCache.putIfUnchanged(NearCacheRegion.PROFILES, 1L, "stale", stamp);
+
+        assertFalse(cached);
+        assertTrue(nearCache.getAllPresent(NearCacheRegion.PROFILES, List.of(1L)).isEmpty());
+    }
+
+    @Test
+    void testPutIfUnchanged_invalidatedByOtherReplicaWhileLoading_shouldNotCache() {
+        long stamp = nearCache.stamp(NearCacheRegion.PROFILES, 1L);
+        nearCache.onMessage(message("other-replica|PROFILES|1"), null);
+
+        nearCache.putIfUnchanged(NearCacheRegion.PROFILES, 1L, "stale", stamp);
+
+        assertTrue(nearCache.getAllPresent(NearCacheRegion.PROFILES, List.of(1L)).isEmpty());
+    }
+
+    @Test
+    void testPutIfUnchanged_otherKeyInvalidated_shouldCache() {
+        long stamp = nearCache.stamp(NearCacheRegion.PROFILES, 1L);
+        nearCache.invalidate(2L, NearCacheRegion.PROFILES);
+        nearCache.invalidate(1L, NearCacheRegion.PROFILE_DETAILS);
+
+        boolean cached = nearCache.putIfUnchanged(NearCacheRegion.PROFILES, 1L, "profile", stamp);
+
+        assertTrue(cached);
+        assertEquals(Map.of(1L, "profile"), nearCache.getAllPresent(NearCacheRegion.PROFILES, List.of(1L)));
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(NearCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package org.ebndrnk.leverxfinalproject.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightLoaderTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testGet_concurrentMisses_shouldLoadOnce() throws Exception {
+        SingleFlightLoader<String, Integer> loader = new SingleFlightLoader<>(Duration.ofSeconds(5), 0, 0, 10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> loader.get("top", key -> {
+                loading.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            })));
+            loading.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> loader.get("top", key -> loads.incrementAndGet())));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGet_expired_shouldReload() {
+        SingleFlightLoader<String, Integer> loader = loader(0);
+        AtomicInteger loads = new AtomicInteger();
+
+        loader.get("top", key -> loads.incrementAndGet());
+        clock.addAndGet(4 * SECOND);
+        assertEquals(1, loader.get("top", key -> loads.incrementAndGet()));
+        clock.addAndGet(2 * SECOND);
+
+        assertEquals(2, loader.get("top", key -> loads.incrementAndGet()));
+    }
+
+    @Test
+    void testGet_zeroTtl_shouldNotReuseValue() {
+        SingleFlightLoader<String, Integer> loader = new SingleFlightLoader<>(Duration.ZERO, 0.2, 0, 10,
+                clock::get, () -> 0.5);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, loader.get("top", key -> loads.incrementAndGet()));
+
+        assertEquals(2, loader.get("top", key -> loads.incrementAndGet()));
+    }
+
+    @Test
+    void testGet_nearExpiryWithSlowLoad_shouldRefreshEarly() {
+        SingleFlightLoader<String, Integer> loader = loader(1.0);
+        AtomicInteger loads = new AtomicInteger();
+
+        loader.get("top", key -> {
+            clock.addAndGet(SECOND);
+            return loads.incrementAndGet();
+        });
+        // one second before expiry, a load took one second and ln(0.5) stretches it to ~0.7s
+        clock.addAndGet(4 * SECOND);
+        assertEquals(1, loader.get("top", key -> loads.incrementAndGet()));
+        clock.addAndGet(SECOND / 2);
+
+        assertEquals(2, loader.get("top", key -> loads.incrementAndGet()));
+    }
+
+    @Test
+    void testGet_failedLoad_shouldNotBeCached() {
+        SingleFlightLoader<String, Integer> loader = loader(0);
+
+        assertThrows(IllegalStateException.class, () -> loader.get("top", key -> {
+            throw new IllegalStateException("database is down");
+        }));
+
+        assertEquals(1, loader.get("top", key -> 1));
+    }
+
+    @Test
+    void testGet_failedEarlyRefresh_shouldKeepCurrentValue() {
+        SingleFlightLoader<String, Integer> loader = loader(1.0);
+        loader.get("top", key -> {
+            clock.addAndGet(SECOND);
+            return 1;
+        });
+        clock.addAndGet(SECOND * 9 / 2);
+
+        assertEquals(1, loader.get("top", key -> {
+            throw new IllegalStateException("database is down");
+        }));
+    }
+
+    private SingleFlightLoader<String, Integer> loader(double beta) {
+        return new SingleFlightLoader<>(Duration.ofSeconds(5), 0, beta, 10, clock::get, () -> 0.5);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.ebndrnk.leverxfinalproject.service.comment;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidCursorException;
+import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.service.StatisticsIntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks the seller comment feed of {@code /comment/seller/{sellerId}} window by window.
+ */
+class CommentServiceImplSellerCommentsTest extends StatisticsIntegrationTest {
+
+    private static final int COMMENTS = 23;
+    private static final int WINDOW = 5;
+
+    @Autowired
+    private CommentService commentService;
+
+    private Profile seller;
+    private Profile silentSeller;
+    private final List<Comment> comments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        seller = persistProfile("feed-seller");
+        silentSeller = persistProfile("feed-silent");
+        for (int i = 0; i < COMMENTS; i++) {
+            Comment comment = new Comment("comment " + i, null, seller, i % 3 != 0);
+            entityManager.persist(comment);
+            comments.add(comment);
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void testGetSellersComments_approvedOnly_shouldWalkApprovedCommentsNewestFirst() {
+        List<Long> expected = comments.stream()
+                .filter(Comment::isApproved)
+                .map(Comment::getId)
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        Statistics statistics = statistics();
+
+        List<Long> read = new ArrayList<>();
+        String cursor = null;
+        int windows = 0;
+        do {
+            ScrollResponse<CommentResponse> window = commentService.getSellersComments(seller.getId(), true, cursor, WINDOW);
+            window.getContent().forEach(comment -> {
+                assertTrue(comment.isApproved());
+                assertEquals(seller.getId(), comment.getSellerId());
+                read.add(comment.getId());
+            });
+            cursor = window.getNextCursor();
+            windows++;
+        } while (cursor != null);
+
+        assertEquals(expected, read);
+        // one query per window, the seller check included
+        assertEquals(windows, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetSellersComments_withUnapproved_shouldReturnAllComments() {
+        ScrollResponse<CommentResponse> window = commentService.getSellersComments(seller.getId(), false, null, 100);
+
+        assertEquals(COMMENTS, window.getSize());
+        assertFalse(window.isHasNext());
+        assertNull(window.getNextCursor());
+    }
+
+    @Test
+    void testGetSellersComments_sellerWithoutComments_shouldReturnAnEmptyWindow() {
+        ScrollResponse<CommentResponse> window = commentService.getSellersComments(silentSeller.getId(), true, null, WINDOW);
+
+        assertTrue(window.getContent().isEmpty());
+        assertFalse(window.isHasNext());
+    }
+
+    @Test
+    void testGetSellersComments_missingSellerOrForeignCursor_shouldBeRejected() {
+        assertThrows(ProfileNotFoundException.class,
+                () -> commentService.getSellersComments(-1L, true, null, WINDOW));
+        // cursor of the profile listing: {"rating":7,"id":42}
+        assertThrows(InvalidCursorException.class,
+                () -> commentService.getSellersComments(seller.getId(), true, "eyJyYXRpbmciOjcsImlkIjo0Mn0", WINDOW));
+    }
+
+    @Test
+    void testGetSellersComments_cursorWithoutId_shouldBeRejected() {
+        // {"id":null}, used to fail unboxing the id
+        assertThrows(InvalidCursorException.class,
+                () -> commentService.getSellersComments(seller.getId(), true, "eyJpZCI6bnVsbH0", WINDOW));
+    }
+}
@@ -1,24 +1,38 @@
 package org.ebndrnk.leverxfinalproject.service.comment;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSearchQueryException;
+import org.ebndrnk.leverxfinalproject.exception.dto.ModerationItemClaimedException;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
 import org.ebndrnk.leverxfinalproject.model.entity.anonymous.AnonymousUser;
 import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
 import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
 import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
 import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
 import org.ebndrnk.leverxfinalproject.service.anonymous.AnonymousUserService;
+import org.ebndrnk.leverxfinalproject.service.moderation.ModerationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class CommentServiceImplTest {
@@ -35,6 +49,15 @@ class CommentServiceImplTest {
     @Mock
     private AnonymousUserService anonymousUserService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ModerationQueueRepository moderationQueueRepository;
+
+    @Mock
+    private ModerationService moderationService;
+
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -68,7 +91,39 @@ class CommentServiceImplTest {
         verify(commentRepository).save(any(Comment.class));
     }
 
+    @Test
+    void testSearchComments_blankQuery_shouldBeRejected() {
+        assertThrows(InvalidSearchQueryException.class,
+                () -> commentService.searchComments(" ", null, true, PageCountMode.NONE, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void testConfirm_shouldMakeTheCommentSearchable() {
+        Comment comment = new Comment("Fast delivery", null, null, false);
+        comment.setId(5L);
+        LocalDateTime databaseTime = LocalDateTime.of(2026, 10, 2, 12, 0);
+        when(commentRepository.findById(5L)).thenReturn(Optional.of(comment));
+        when(commentRepository.save(comment)).thenReturn(comment);
+        when(moderationQueueRepository.now()).thenReturn(databaseTime);
+
+        commentService.confirm(5L);
+
+        assertEquals(databaseTime, comment.getReviewedAt());
+        verify(moderationService).takeForDecision(ModerationQueue.COMMENTS, 5L);
+        verify(eventPublisher).publishEvent(new SearchIndexChangedEvent(SearchDocumentType.COMMENT, List.of(5L)));
+    }
 
+    @Test
+    void testDecline_claimedByAnotherModerator_shouldNotDecide() {
+        Comment comment = new Comment("Fast delivery", null, null, false);
+        comment.setId(5L);
+        when(commentRepository.findById(5L)).thenReturn(Optional.of(comment));
+        doThrow(new ModerationItemClaimedException("Item 5 is claimed by another moderator"))
+                .when(moderationService).takeForDecision(ModerationQueue.COMMENTS, 5L);
 
+        assertThrows(ModerationItemClaimedException.class, () -> commentService.decline(5L));
 
+        verify(commentRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
 }
@@ -0,0 +1,101 @@
+package org.ebndrnk.leverxfinalproject.service.game;
+
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ApproximatePage;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.service.StatisticsIntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which count queries the game search runs in each {@link PageCountMode}.
+ */
+@TestPropertySource(properties = "listing.approximate-count.cap=8")
+class GameServiceImplCountModeTest extends StatisticsIntegrationTest {
+
+    private static final int GAMES = 12;
+    private static final String TITLE = "countmode";
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id"));
+
+    @Autowired
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() {
+        Profile seller = persistProfile("countmode-seller");
+        for (int i = 0; i < GAMES; i++) {
+            entityManager.persist(new GameObject(TITLE + " " + i, "text", seller, 10f, null));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void testFindGameObjects_exact_shouldCountAllMatches() {
+        Slice<GameResponse> slice = gameService.findGameObjects(TITLE, null, null, PageCountMode.EXACT, FIRST_PAGE);
+
+        Page<GameResponse> page = assertInstanceOf(Page.class, slice);
+        assertEquals(GAMES, page.getTotalElements());
+        assertEquals(5, page.getNumberOfElements());
+    }
+
+    @Test
+    void testFindGameObjects_none_shouldRunNoCountQuery() {
+        Statistics statistics = statistics();
+
+        Slice<GameResponse> slice = gameService.findGameObjects(TITLE, null, null, PageCountMode.NONE, FIRST_PAGE);
+
+        assertFalse(slice instanceof Page);
+        assertTrue(slice.hasNext());
+        assertEquals(5, slice.getNumberOfElements());
+        for (String query : statistics.getQueries()) {
+            assertFalse(query.toLowerCase().contains("count("), query);
+        }
+    }
+
+    @Test
+    void testFindGameObjects_lastPage_shouldKnowTheTotalWithoutCounting() {
+        Statistics statistics = statistics();
+
+        Slice<GameResponse> slice = gameService.findGameObjects(TITLE, null, null, PageCountMode.NONE,
+                PageRequest.of(2, 5, Sort.by(Sort.Direction.DESC, "id")));
+
+        Page<GameResponse> page = assertInstanceOf(Page.class, slice);
+        assertEquals(GAMES, page.getTotalElements());
+        for (String query : statistics.getQueries()) {
+            assertFalse(query.toLowerCase().contains("count("), query);
+        }
+    }
+
+    @Test
+    void testFindGameObjects_approximate_shouldStopCountingAtTheCap() {
+        Slice<GameResponse> slice = gameService.findGameObjects(TITLE, null, null, PageCountMode.APPROXIMATE, FIRST_PAGE);
+
+        ApproximatePage<GameResponse> page = assertInstanceOf(ApproximatePage.class, slice);
+        assertEquals(8, page.getApproximateTotalElements());
+        assertTrue(page.isLowerBound());
+    }
+
+    @Test
+    void testFindGameObjects_approximateBelowTheCap_shouldReturnTheExactTotal() {
+        Slice<GameResponse> slice = gameService.findGameObjects(TITLE + " 1", null, null, PageCountMode.APPROXIMATE,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        // "countmode 1", "countmode 10" and "countmode 11"
+        Page<GameResponse> page = assertInstanceOf(Page.class, slice);
+        assertEquals(3, page.getTotalElements());
+    }
+}
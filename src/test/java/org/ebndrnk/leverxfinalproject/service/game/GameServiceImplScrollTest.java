@@ -0,0 +1,89 @@
+package org.ebndrnk.leverxfinalproject.service.game;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidCursorException;
+import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.service.StatisticsIntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Walks the keyset listing of {@code /game/scroll} and checks it returns every matching game once, newest first,
+ * without a count query.
+ */
+class GameServiceImplScrollTest extends StatisticsIntegrationTest {
+
+    private static final int GAMES = 12;
+    private static final int WINDOW = 5;
+    private static final String TITLE = "scrollgame";
+
+    @Autowired
+    private GameService gameService;
+
+    private final List<GameObject> games = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Profile seller = persistProfile("scrollgame-seller");
+        for (int i = 0; i < GAMES; i++) {
+            GameObject game = new GameObject(TITLE + " " + i, "text", seller, 10f, null);
+            entityManager.persist(game);
+            games.add(game);
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void testScrollGameObjects_allWindows_shouldFollowIdWithoutGapsOrCounts() {
+        List<Long> expected = games.stream()
+                .map(GameObject::getId)
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        Statistics statistics = statistics();
+
+        List<Long> scrolled = new ArrayList<>();
+        String cursor = null;
+        do {
+            ScrollResponse<GameResponse> window = gameService.scrollGameObjects(TITLE, null, cursor, WINDOW);
+            window.getContent().forEach(game -> scrolled.add(game.getId()));
+            cursor = window.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, scrolled);
+        for (String query : statistics.getQueries()) {
+            assertFalse(query.toLowerCase().contains("count("), query);
+        }
+    }
+
+    @Test
+    void testScrollGameObjects_lastWindow_shouldHaveNoCursor() {
+        ScrollResponse<GameResponse> window = gameService.scrollGameObjects(TITLE, null, null, GAMES);
+
+        assertEquals(GAMES, window.getContent().size());
+        assertFalse(window.isHasNext());
+        assertNull(window.getNextCursor());
+    }
+
+    @Test
+    void testScrollGameObjects_cursorWithoutId_shouldBeRejected() {
+        // {"id":null}
+        assertThrows(InvalidCursorException.class,
+                () -> gameService.scrollGameObjects(TITLE, null, "eyJpZCI6bnVsbH0", WINDOW));
+        // cursor of the profile listing: {"rating":7,"id":42}
+        assertThrows(InvalidCursorException.class,
+                () -> gameService.scrollGameObjects(TITLE, null, "eyJyYXRpbmciOjcsImlkIjo0Mn0", WINDOW));
+    }
+}
@@ -3,23 +3,40 @@ package org.ebndrnk.leverxfinalproject.service.game;
 import org.ebndrnk.leverxfinalproject.model.dto.auth.UserDto;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameRequest;
 import org.ebndrnk.leverxfinalproject.model.dto.game.GameResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
 import org.ebndrnk.leverxfinalproject.model.entity.auth.User;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameCategory;
 import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.SellerCatalogChangedEvent;
 import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
+import org.ebndrnk.leverxfinalproject.repository.search.FullTextSearchRepository;
 import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
 import org.ebndrnk.leverxfinalproject.exception.dto.GameNotFoundException;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSortException;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class GameServiceImplTest {
@@ -36,6 +53,15 @@ class GameServiceImplTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private GameCategoryService gameCategoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FullTextSearchRepository fullTextSearchRepository;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -45,6 +71,7 @@ class GameServiceImplTest {
     void testCreateGameObject() {
         GameRequest request = new GameRequest();
         GameObject gameObject = new GameObject();
+        gameObject.setId(1L);
         GameResponse response = new GameResponse();
         UserDto userDto = new UserDto();
         User user = new User();
@@ -63,6 +90,34 @@ class GameServiceImplTest {
         assertNotNull(result);
         verify(gameRepository).save(gameObject);
         verify(modelMapper).map(userDto, User.class);
+        verify(eventPublisher).publishEvent(new SearchIndexChangedEvent(SearchDocumentType.GAME, List.of(1L)));
+    }
+
+    @Test
+    void testCreateGameObject_withCategory_shouldPublishCatalogChange() {
+        GameRequest request = new GameRequest();
+        request.setCategoryId(3L);
+        GameObject gameObject = new GameObject();
+        gameObject.setId(1L);
+        UserDto userDto = new UserDto();
+        User user = new User();
+        Profile seller = new Profile();
+        seller.setId(7L);
+        user.setProfile(seller);
+        GameCategory category = new GameCategory("CS:GO", "cs-go");
+        category.setId(3L);
+
+        when(userService.getCurrentUser()).thenReturn(userDto);
+        when(modelMapper.map(userDto, User.class)).thenReturn(user);
+        when(modelMapper.map(request, GameObject.class)).thenReturn(gameObject);
+        when(gameCategoryService.getCategoryById(3L)).thenReturn(category);
+        when(gameRepository.save(gameObject)).thenReturn(gameObject);
+        when(modelMapper.map(gameObject, GameResponse.class)).thenReturn(new GameResponse());
+
+        gameService.createGameObject(request);
+
+        assertEquals(category, gameObject.getCategory());
+        verify(eventPublisher).publishEvent(new SellerCatalogChangedEvent(7L, Set.of(3L)));
     }
 
 
@@ -91,10 +146,29 @@ class GameServiceImplTest {
     @Test
     void testDeleteGameObjectById_GameNotFound() {
         Long gameId = 1L;
-        when(gameRepository.existsById(gameId)).thenReturn(false);
+        when(gameRepository.findById(gameId)).thenReturn(Optional.empty());
 
         assertThrows(GameNotFoundException.class, () -> gameService.deleteGameObjectById(gameId));
     }
 
-}
+    @Test
+    void testFindGameObjects_withSearchQuery_shouldRankByRelevance() {
+        GameObject gameObject = new GameObject();
+        GameResponse response = new GameResponse();
+        when(fullTextSearchRepository.searchGames("rare skin", "ak", null, PageRequest.of(0, 100), PageCountMode.NONE))
+                .thenReturn(new SliceImpl<>(List.of(gameObject)));
+        when(modelMapper.map(gameObject, GameResponse.class)).thenReturn(response);
+
+        Slice<GameResponse> result = gameService.findGameObjects("ak", null, "rare skin", PageCountMode.NONE,
+                PageRequest.of(0, 500));
+
+        assertEquals(List.of(response), result.getContent());
+    }
 
+    @Test
+    void testFindGameObjects_withSearchQueryAndSort_shouldBeRejected() {
+        assertThrows(InvalidSortException.class, () -> gameService.findGameObjects(null, null, "rare skin",
+                PageCountMode.NONE, PageRequest.of(0, 20, Sort.by("price"))));
+        verifyNoInteractions(fullTextSearchRepository);
+    }
+}
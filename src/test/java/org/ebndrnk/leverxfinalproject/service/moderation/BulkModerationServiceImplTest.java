@@ -0,0 +1,302 @@
+package org.ebndrnk.leverxfinalproject.service.moderation;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidModerationRequestException;
+import org.ebndrnk.leverxfinalproject.model.dto.auth.UserDto;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.BulkModerationResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationDecision;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJob;
+import org.ebndrnk.leverxfinalproject.model.entity.moderation.ModerationJobStatus;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationFilter;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationJobRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository.Decided;
+import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCacheRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The set-based updates need Postgres, so the repository is mocked and jobs run on the calling thread.
+ */
+class BulkModerationServiceImplTest {
+
+    private static final int SYNC_LIMIT = 4;
+    private static final int CHUNK_SIZE = 3;
+    private static final long ORPHAN_AFTER_MS = 60_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+    private static final ModerationFilter PENDING = new ModerationFilter(true, null, null);
+
+    @Mock
+    private ModerationQueueRepository moderationQueueRepository;
+
+    @Mock
+    private ModerationJobRepository jobRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private NearCache nearCache;
+
+    private BulkModerationServiceImpl bulkModerationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkModerationService = new BulkModerationServiceImpl(moderationQueueRepository, jobRepository, userService,
+                transactionTemplate, eventPublisher, nearCache, Runnable::run, SYNC_LIMIT, CHUNK_SIZE, ORPHAN_AFTER_MS);
+        UserDto moderator = new UserDto();
+        moderator.setUsername("admin");
+        when(userService.getCurrentUser()).thenReturn(moderator);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            ModerationJob job = invocation.getArgument(0);
+            job.setId(1L);
+            return job;
+        });
+    }
+
+    @Test
+    void testDecideComments_fewIds_shouldRunOneUpdateWithinTheRequest() {
+        BulkModerationRequest request = new BulkModerationRequest();
+        request.setIds(List.of(3L, 1L, 3L, 2L));
+        when(moderationQueueRepository.decide(ModerationQueue.COMMENTS, true, PENDING, List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(new Decided(1L, 10L), new Decided(3L, 10L)));
+
+        BulkModerationResponse response = bulkModerationService.decideComments(ModerationDecision.CONFIRM, request);
+
+        assertNull(response.getJobId());
+        assertEquals(ModerationJobStatus.COMPLETED, response.getStatus());
+        assertEquals(2, response.getAffectedItems());
+        verifyNoInteractions(jobRepository);
+        verify(eventPublisher).publishEvent(new SearchIndexChangedEvent(SearchDocumentType.COMMENT, List.of(1L, 2L, 3L)));
+        verify(nearCache).invalidate(10L, NearCacheRegion.PROFILES, NearCacheRegion.PROFILE_DETAILS);
+    }
+
+    @Test
+    void testDecideComments_manyIds_shouldDecideThemInChunksInAJob() {
+        BulkModerationRequest request = new BulkModerationRequest();
+        request.setIds(LongStream.rangeClosed(1, 7).boxed().toList());
+        when(moderationQueueRepository.decide(eq(ModerationQueue.COMMENTS), eq(false), eq(PENDING), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(3).stream()
+                        .map(id -> new Decided(id, id % 2))
+                        .toList());
+        when(moderationQueueRepository.now()).thenReturn(NOW);
+
+        BulkModerationResponse response = bulkModerationService.decideComments(ModerationDecision.DECLINE, request);
+
+        assertEquals(1L, response.getJobId());
+        verify(moderationQueueRepository).decide(ModerationQueue.COMMENTS, false, PENDING, List.of(1L, 2L, 3L));
+        verify(moderationQueueRepository).decide(ModerationQueue.COMMENTS, false, PENDING, List.of(4L, 5L, 6L));
+        verify(moderationQueueRepository).decide(ModerationQueue.COMMENTS, false, PENDING, List.of(7L));
+        ModerationJob job = lastSavedJob();
+        assertEquals(ModerationJobStatus.COMPLETED, job.getStatus());
+        assertEquals(7, job.getAffectedItems());
+        assertEquals(NOW, job.getFinishedAt());
+        // every chunk evicts its sellers once committed
+        verify(nearCache, times(2)).invalidate(0L, NearCacheRegion.PROFILES, NearCacheRegion.PROFILE_DETAILS);
+        verify(nearCache, times(3)).invalidate(1L, NearCacheRegion.PROFILES, NearCacheRegion.PROFILE_DETAILS);
+    }
+
+    @Test
+    void testDecideProfiles_smallFilter_shouldCompleteWithinTheRequest() {
+        when(moderationQueueRepository.decideNext(ModerationQueue.PROFILES, true, PENDING, 0, SYNC_LIMIT))
+                .thenReturn(profiles(5L, 9L));
+
+        BulkModerationResponse response = bulkModerationService.decideProfiles(ModerationDecision.CONFIRM,
+                new BulkModerationRequest());
+
+        assertNull(response.getJobId());
+        assertEquals(2, response.getAffectedItems());
+        verifyNoInteractions(jobRepository);
+        // the decided profiles bump their own version, which the near cache checks
+        verifyNoInteractions(nearCache);
+    }
+
+    @Test
+    void testDecideProfiles_largeFilter_shouldContinueAfterTheFirstChunkInAJob() {
+        when(moderationQueueRepository.decideNext(ModerationQueue.PROFILES, true, PENDING, 0, SYNC_LIMIT))
+                .thenReturn(profiles(4L, 2L, 1L, 3L));
+        when(moderationQueueRepository.decideNext(ModerationQueue.PROFILES, true, PENDING, 4, CHUNK_SIZE))
+                .thenReturn(profiles(5L, 7L, 6L));
+        when(moderationQueueRepository.decideNext(ModerationQueue.PROFILES, true, PENDING, 7, CHUNK_SIZE))
+                .thenReturn(profiles(10L));
+
+        bulkModerationService.decideProfiles(ModerationDecision.CONFIRM, new BulkModerationRequest());
+
+        ModerationJob job = lastSavedJob();
+        assertEquals(ModerationJobStatus.COMPLETED, job.getStatus());
+        assertEquals(8, job.getAffectedItems());
+        assertEquals(10, job.getLastItemId());
+        assertEquals(true, job.getPendingOnly());
+        verify(moderationQueueRepository, times(3)).decideNext(any(), anyBoolean(), any(), anyLong(), anyInt());
+        verify(jobRepository, times(2)).heartbeat(List.of(1L));
+    }
+
+    @Test
+    void testDecideComments_failingChunk_shouldFailTheJobAtItsCheckpoint() {
+        BulkModerationRequest request = new BulkModerationRequest();
+        request.setIds(LongStream.rangeClosed(1, 6).boxed().toList());
+        when(moderationQueueRepository.decide(any(), anyBoolean(), any(), eq(List.of(1L, 2L, 3L))))
+                .thenReturn(List.of(new Decided(1L, 7L), new Decided(2L, 7L), new Decided(3L, 7L)));
+        when(moderationQueueRepository.decide(any(), anyBoolean(), any(), eq(List.of(4L, 5L, 6L))))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+        when(moderationQueueRepository.now()).thenReturn(NOW);
+
+        bulkModerationService.decideComments(ModerationDecision.CONFIRM, request);
+
+        ModerationJob job = lastSavedJob();
+        assertEquals(ModerationJobStatus.FAILED, job.getStatus());
+        assertEquals(NOW, job.getFinishedAt());
+        assertEquals(3, job.getLastItemId());
+        assertEquals(3, job.getAffectedItems());
+        verify(nearCache).invalidate(7L, NearCacheRegion.PROFILES, NearCacheRegion.PROFILE_DETAILS);
+    }
+
+    @Test
+    void testTakeOverOrphanedJobs_filterJob_shouldContinueAfterItsLastItem() {
+        ModerationJob orphan = orphanedJob(ModerationQueue.COMMENTS, 42);
+        orphan.setPendingOnly(false);
+        orphan.setSellerId(7L);
+        LocalDateTime staleBefore = NOW.minusMinutes(1);
+        when(moderationQueueRepository.now()).thenReturn(NOW);
+        when(jobRepository.findByStatusInAndHeartbeatAtBeforeOrderById(any(), eq(staleBefore)))
+                .thenReturn(List.of(orphan));
+        when(jobRepository.takeOver(5L, staleBefore)).thenReturn(1);
+        ModerationFilter filter = new ModerationFilter(false, 7L, null);
+        when(moderationQueueRepository.decideNext(ModerationQueue.COMMENTS, false, filter, 42, CHUNK_SIZE))
+                .thenReturn(List.of(new Decided(43L, 7L)));
+
+        bulkModerationService.takeOverOrphanedJobs();
+
+        ModerationJob job = lastSavedJob();
+        assertEquals(ModerationJobStatus.COMPLETED, job.getStatus());
+        assertEquals(43, job.getLastItemId());
+        assertEquals(11, job.getAffectedItems());
+    }
+
+    @Test
+    void testTakeOverOrphanedJobs_jobGoingStaleAfterStartup_shouldBeTakenOverByALaterSweep() {
+        ModerationJob orphan = orphanedJob(ModerationQueue.COMMENTS, 42);
+        orphan.setPendingOnly(true);
+        LocalDateTime later = NOW.plusMinutes(10);
+        // right after a quick restart the heartbeat of the lost job is still fresh
+        when(moderationQueueRepository.now()).thenReturn(NOW, later);
+        when(jobRepository.findByStatusInAndHeartbeatAtBeforeOrderById(any(), eq(NOW.minusMinutes(1))))
+                .thenReturn(List.of());
+        when(jobRepository.findByStatusInAndHeartbeatAtBeforeOrderById(any(), eq(later.minusMinutes(1))))
+                .thenReturn(List.of(orphan));
+        when(jobRepository.takeOver(5L, later.minusMinutes(1))).thenReturn(1);
+        when(moderationQueueRepository.decideNext(ModerationQueue.COMMENTS, false, PENDING, 42, CHUNK_SIZE))
+                .thenReturn(List.of());
+
+        bulkModerationService.takeOverOrphanedJobs();
+        verify(jobRepository, never()).save(any());
+
+        bulkModerationService.takeOverOrphanedJobs();
+        ModerationJob job = lastSavedJob();
+        assertEquals(ModerationJobStatus.COMPLETED, job.getStatus());
+        assertEquals(42, job.getLastItemId());
+    }
+
+    @Test
+    void testTakeOverOrphanedJobs_idListJob_shouldFail() {
+        ModerationJob orphan = orphanedJob(ModerationQueue.PROFILES, 9);
+        when(moderationQueueRepository.now()).thenReturn(NOW);
+        when(jobRepository.findByStatusInAndHeartbeatAtBeforeOrderById(any(), any())).thenReturn(List.of(orphan));
+        when(jobRepository.takeOver(eq(5L), any())).thenReturn(1);
+
+        bulkModerationService.takeOverOrphanedJobs();
+
+        ModerationJob job = lastSavedJob();
+        assertEquals(ModerationJobStatus.FAILED, job.getStatus());
+        assertNotNull(job.getErrorMessage());
+        verify(moderationQueueRepository, never()).decide(any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void testTakeOverOrphanedJobs_takenByAnotherReplica_shouldBeLeftAlone() {
+        ModerationJob orphan = orphanedJob(ModerationQueue.COMMENTS, 42);
+        orphan.setPendingOnly(true);
+        when(moderationQueueRepository.now()).thenReturn(NOW);
+        when(jobRepository.findByStatusInAndHeartbeatAtBeforeOrderById(any(), any())).thenReturn(List.of(orphan));
+        when(jobRepository.takeOver(eq(5L), any())).thenReturn(0);
+
+        bulkModerationService.takeOverOrphanedJobs();
+
+        verify(jobRepository, never()).save(any());
+        assertEquals(ModerationJobStatus.RUNNING, orphan.getStatus());
+    }
+
+    @Test
+    void testDecideProfiles_sellerFilter_shouldBeRejected() {
+        BulkModerationRequest request = new BulkModerationRequest();
+        request.setSellerId(7L);
+
+        assertThrows(InvalidModerationRequestException.class,
+                () -> bulkModerationService.decideProfiles(ModerationDecision.CONFIRM, request));
+        verifyNoInteractions(moderationQueueRepository);
+    }
+
+    private static ModerationJob orphanedJob(ModerationQueue queue, long lastItemId) {
+        ModerationJob job = new ModerationJob();
+        job.setId(5L);
+        job.setQueue(queue);
+        job.setDecision(ModerationDecision.DECLINE);
+        job.setStatus(ModerationJobStatus.RUNNING);
+        job.setRequestedBy("admin");
+        job.setLastItemId(lastItemId);
+        job.setAffectedItems(10);
+        return job;
+    }
+
+    private static List<Decided> profiles(Long... ids) {
+        return Arrays.stream(ids).map(id -> new Decided(id, null)).toList();
+    }
+
+    private ModerationJob lastSavedJob() {
+        ArgumentCaptor<ModerationJob> captor = ArgumentCaptor.forClass(ModerationJob.class);
+        verify(jobRepository, atLeastOnce()).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,147 @@
+package org.ebndrnk.leverxfinalproject.service.moderation;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.ModerationItemClaimedException;
+import org.ebndrnk.leverxfinalproject.model.dto.auth.UserDto;
+import org.ebndrnk.leverxfinalproject.model.dto.comment.CommentResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.moderation.ModerationBatchResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueue;
+import org.ebndrnk.leverxfinalproject.repository.moderation.ModerationQueueRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.service.account.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.modelmapper.ModelMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The claim and release statements need Postgres, so the repository is mocked here.
+ */
+class ModerationServiceImplTest {
+
+    private static final String MODERATOR = "admin";
+    private static final long LEASE_MILLIS = 60_000;
+
+    @Mock
+    private ModerationQueueRepository moderationQueueRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private UserService userService;
+
+    private ModerationServiceImpl moderationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        moderationService = new ModerationServiceImpl(moderationQueueRepository, commentRepository, profileRepository,
+                userService, new ModelMapper(), LEASE_MILLIS);
+        UserDto moderator = new UserDto();
+        moderator.setUsername(MODERATOR);
+        when(userService.getCurrentUser()).thenReturn(moderator);
+    }
+
+    @Test
+    void testClaimComments_shouldReturnClaimedCommentsOldestFirst() {
+        LocalDateTime expiresAt = LocalDateTime.of(2026, 10, 17, 12, 5);
+        when(moderationQueueRepository.claim(ModerationQueue.COMMENTS, MODERATOR, 20, Duration.ofMillis(LEASE_MILLIS)))
+                .thenReturn(List.of(new ModerationQueueRepository.Claim(4L, expiresAt),
+                        new ModerationQueueRepository.Claim(2L, expiresAt)));
+        when(commentRepository.findAllById(List.of(4L, 2L))).thenReturn(List.of(comment(4L), comment(2L)));
+
+        ModerationBatchResponse<CommentResponse> batch = moderationService.claimComments(20);
+
+        assertEquals(List.of(2L, 4L), batch.getItems().stream().map(CommentResponse::getId).toList());
+        assertEquals(MODERATOR, batch.getClaimedBy());
+        assertEquals(expiresAt, batch.getLeaseExpiresAt());
+    }
+
+    @Test
+    void testClaimComments_emptyQueue_shouldLoadNothing() {
+        when(moderationQueueRepository.claim(any(), anyString(), anyInt(), any())).thenReturn(List.of());
+
+        ModerationBatchResponse<CommentResponse> batch = moderationService.claimComments(20);
+
+        assertTrue(batch.getItems().isEmpty());
+        assertNull(batch.getLeaseExpiresAt());
+        verify(commentRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testClaimProfiles_oversizedBatch_shouldBeCapped() {
+        when(moderationQueueRepository.claim(any(), anyString(), anyInt(), any())).thenReturn(List.of());
+
+        moderationService.claimProfiles(10_000);
+
+        verify(moderationQueueRepository).claim(ModerationQueue.PROFILES, MODERATOR, 50, Duration.ofMillis(LEASE_MILLIS));
+    }
+
+    @Test
+    void testReleaseComments_shouldReleaseOnlyForTheCurrentModerator() {
+        when(moderationQueueRepository.release(ModerationQueue.COMMENTS, MODERATOR, List.of(1L, 2L))).thenReturn(1);
+
+        assertEquals(1, moderationService.releaseComments(List.of(1L, 2L)));
+        assertEquals(0, moderationService.releaseProfiles(List.of()));
+        verify(moderationQueueRepository, never()).release(ModerationQueue.PROFILES, MODERATOR, List.of());
+        verifyNoInteractions(profileRepository);
+    }
+
+    @Test
+    void testTakeForDecision_claimedByAnotherModerator_shouldBeRejected() {
+        when(moderationQueueRepository.takeForDecision(ModerationQueue.COMMENTS, MODERATOR, List.of(3L)))
+                .thenReturn(List.of());
+
+        assertThrows(ModerationItemClaimedException.class,
+                () -> moderationService.takeForDecision(ModerationQueue.COMMENTS, 3L));
+    }
+
+    @Test
+    void testTakeForDecision_unclaimedOrOwnOrExpiredClaim_shouldClearTheClaim() {
+        when(moderationQueueRepository.takeForDecision(ModerationQueue.PROFILES, MODERATOR, List.of(3L)))
+                .thenReturn(List.of(3L));
+
+        moderationService.takeForDecision(ModerationQueue.PROFILES, 3L);
+
+        verify(moderationQueueRepository).takeForDecision(ModerationQueue.PROFILES, MODERATOR, List.of(3L));
+    }
+
+    @Test
+    void testTakeAllForDecision_shouldLeaveOutItemsClaimedByOthers() {
+        when(moderationQueueRepository.takeForDecision(ModerationQueue.PROFILES, MODERATOR, List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(3L, 1L));
+
+        List<Long> taken = moderationService.takeAllForDecision(ModerationQueue.PROFILES, List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(3L, 1L), taken);
+        assertTrue(moderationService.takeAllForDecision(ModerationQueue.COMMENTS, List.of()).isEmpty());
+    }
+
+    private Comment comment(long id) {
+        Comment comment = new Comment("comment " + id, null, null, false);
+        comment.setId(id);
+        return comment;
+    }
+}
@@ -0,0 +1,229 @@
+package org.ebndrnk.leverxfinalproject.service.profile;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.ProfileCreatedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.ProfileDeletedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.event.SellerCatalogChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+import org.ebndrnk.leverxfinalproject.model.projection.SellerCategory;
+import org.ebndrnk.leverxfinalproject.repository.game.GameCategoryRepository;
+import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.SellerLeaderboardRepository;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCacheRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.modelmapper.ModelMapper;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProfileCacheServiceImplTest {
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private SellerLeaderboardRepository leaderboardRepository;
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private GameCategoryRepository gameCategoryRepository;
+
+    @Mock
+    private ModelMapper modelMapper;
+
+    @Mock
+    private NearCache nearCache;
+
+    private ProfileCacheServiceImpl profileCacheService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        profileCacheService = new ProfileCacheServiceImpl(profileRepository, leaderboardRepository, gameRepository,
+                gameCategoryRepository, modelMapper, nearCache, 60_000, 0.1);
+        when(leaderboardRepository.exists()).thenReturn(true);
+        when(nearCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<Object, Object>>getArgument(2).apply(invocation.getArgument(1)));
+    }
+
+    @Test
+    void testGetTopSellers_allCached_shouldNotQueryDatabase() {
+        when(leaderboardRepository.findTopIds(null, 2)).thenReturn(List.of(3L, 1L));
+        when(leaderboardRepository.findSummaries(List.of(3L, 1L))).thenReturn(List.of(summary(3L), summary(1L)));
+
+        List<ProfileResponse> result = profileCacheService.getTopSellers(2, null);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(ProfileResponse::getId).toList());
+        verifyNoInteractions(profileRepository);
+    }
+
+    @Test
+    void testGetTopSellers_missingSummaries_shouldLoadThemAndKeepRankOrder() {
+        when(leaderboardRepository.findTopIds(5L, 3)).thenReturn(List.of(3L, 2L, 1L));
+        when(leaderboardRepository.findSummaries(List.of(3L, 2L, 1L)))
+                .thenReturn(Arrays.asList(null, summary(2L), null));
+        Profile profile = new Profile();
+        profile.setId(1L);
+        when(profileRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(profile));
+        when(modelMapper.map(profile, ProfileResponse.class)).thenReturn(summary(1L));
+
+        List<ProfileResponse> result = profileCacheService.getTopSellers(3, 5L);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(ProfileResponse::getId).toList());
+        verify(leaderboardRepository).saveSummaries(any(), eq(Duration.ofMillis(60_000)), eq(0.1));
+        verify(leaderboardRepository).removeScores(5L, List.of(3L));
+    }
+
+    @Test
+    void testGetTopSellers_nearCached_shouldOnlyReadMissingSummariesFromRedis() {
+        when(leaderboardRepository.findTopIds(null, 2)).thenReturn(List.of(3L, 1L));
+        when(nearCache.getAllPresent(NearCacheRegion.SELLER_SUMMARIES, List.of(3L, 1L)))
+                .thenReturn(Map.of(3L, summary(3L)));
+        when(leaderboardRepository.findSummaries(List.of(1L))).thenReturn(List.of(summary(1L)));
+
+        List<ProfileResponse> result = profileCacheService.getTopSellers(2, null);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(ProfileResponse::getId).toList());
+        verify(nearCache).put(eq(NearCacheRegion.SELLER_SUMMARIES), eq(1L), any());
+        verifyNoInteractions(profileRepository);
+    }
+
+    @Test
+    void testOnRatingChanged_shouldUpdateScoreInAllCategoriesAndDropSummary() {
+        when(gameRepository.findCategoryIdsBySellerId(7L)).thenReturn(List.of(1L, 2L));
+
+        profileCacheService.onRatingChanged(new RatingChangedEvent(7L, 40, 5));
+
+        verify(leaderboardRepository).saveScore(7L, 90.0 / 15, List.of(1L, 2L));
+        verify(leaderboardRepository).deleteSummary(7L);
+        verify(nearCache).invalidate(7L, NearCacheRegion.SELLER_SUMMARIES, NearCacheRegion.PROFILES,
+                NearCacheRegion.PROFILE_DETAILS);
+    }
+
+    @Test
+    void testOnCatalogChanged_shouldMoveSellerBetweenCategories() {
+        when(gameRepository.findCategoryIdsBySellerId(7L)).thenReturn(List.of(2L, 3L));
+        RatingSummary summary = mock(RatingSummary.class);
+        when(summary.getId()).thenReturn(7L);
+        when(summary.getRatingSum()).thenReturn(40L);
+        when(summary.getRatingCount()).thenReturn(5L);
+        when(profileRepository.findRatingSummaryById(7L)).thenReturn(Optional.of(summary));
+
+        profileCacheService.onCatalogChanged(new SellerCatalogChangedEvent(7L, Set.of(1L, 2L)));
+
+        verify(leaderboardRepository).removeFromCategories(7L, List.of(1L));
+        verify(leaderboardRepository).saveScore(7L, 90.0 / 15, Set.of(2L, 3L));
+    }
+
+    @Test
+    void testOnProfileCreated_shouldRankSellerWithPriorScore() {
+        RatingSummary summary = mock(RatingSummary.class);
+        when(summary.getId()).thenReturn(9L);
+        when(profileRepository.findRatingSummariesByIds(List.of(9L))).thenReturn(List.of(summary));
+        when(gameRepository.findCategoryIdsBySellerId(9L)).thenReturn(List.of());
+
+        profileCacheService.onProfileCreated(new ProfileCreatedEvent(9L));
+
+        verify(leaderboardRepository).saveScore(9L, 5.0, List.of());
+    }
+
+    @Test
+    void testOnProfileDeleted_shouldRemoveSellerFromAllRankings() {
+        when(gameCategoryRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+
+        profileCacheService.onProfileDeleted(new ProfileDeletedEvent(9L));
+
+        verify(leaderboardRepository).removeScores(null, List.of(9L));
+        verify(leaderboardRepository).removeFromCategories(9L, List.of(1L, 2L));
+        verify(leaderboardRepository).deleteSummary(9L);
+        verify(nearCache).invalidate(9L, NearCacheRegion.SELLER_SUMMARIES, NearCacheRegion.PROFILES,
+                NearCacheRegion.PROFILE_DETAILS);
+    }
+
+    @Test
+    void testRebuildRanking_anotherReplicaRebuilding_shouldLeaveRankingsAlone() {
+        when(gameCategoryRepository.findAllIds()).thenReturn(List.of(1L));
+        when(leaderboardRepository.startRebuild(any())).thenReturn(null);
+
+        profileCacheService.rebuildRanking();
+
+        verify(leaderboardRepository, never()).saveRebuildScores(any(), any(), any());
+        verify(leaderboardRepository, never()).publishRebuild(any(), any());
+        verifyNoInteractions(profileRepository);
+    }
+
+    @Test
+    void testRebuildRanking_scoresChangedDuringRebuild_shouldRankThemAgainAfterPublishing() {
+        when(gameCategoryRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        when(leaderboardRepository.startRebuild(any())).thenReturn("r1");
+        when(leaderboardRepository.renewRebuild(eq("r1"), any())).thenReturn(true);
+        RatingSummary rebuilt = ratingSummary(3L, 40L, 5L);
+        when(profileRepository.findRatingSummariesAfter(eq(0L), any())).thenReturn(List.of(rebuilt));
+        SellerCategory sellerCategory = mock(SellerCategory.class);
+        when(sellerCategory.getSellerId()).thenReturn(3L);
+        when(sellerCategory.getCategoryId()).thenReturn(1L);
+        when(gameRepository.findSellerCategories(Set.of(3L))).thenReturn(List.of(sellerCategory));
+        when(leaderboardRepository.publishRebuild("r1", List.of(1L, 2L))).thenReturn(List.of(3L, 4L));
+        RatingSummary changed = ratingSummary(3L, 45L, 6L);
+        when(profileRepository.findRatingSummariesByIds(List.of(3L, 4L))).thenReturn(List.of(changed));
+        when(gameRepository.findCategoryIdsBySellerId(3L)).thenReturn(List.of(2L));
+
+        profileCacheService.rebuildRanking();
+
+        verify(leaderboardRepository).saveRebuildScores("r1", null, Map.of(3L, 90.0 / 15));
+        verify(leaderboardRepository).saveRebuildScores("r1", 1L, Map.of(3L, 90.0 / 15));
+        verify(leaderboardRepository).removeFromCategories(3L, List.of(1L));
+        verify(leaderboardRepository).saveScore(3L, 95.0 / 16, Set.of(2L));
+        verify(leaderboardRepository).removeScores(null, List.of(4L));
+        verify(leaderboardRepository).removeFromCategories(4L, List.of(1L, 2L));
+        verify(leaderboardRepository, never()).abortRebuild(any(), any());
+        verify(nearCache).invalidateAll(NearCacheRegion.TOP_SELLERS);
+    }
+
+    @Test
+    void testRebuildRanking_lockLost_shouldDropTheRebuildWithoutPublishing() {
+        when(gameCategoryRepository.findAllIds()).thenReturn(List.of(1L));
+        when(leaderboardRepository.startRebuild(any())).thenReturn("r1");
+        when(leaderboardRepository.renewRebuild(eq("r1"), any())).thenReturn(false);
+        when(profileRepository.findRatingSummariesAfter(eq(0L), any())).thenReturn(List.of());
+
+        assertThrows(RedisOperationException.class, () -> profileCacheService.rebuildRanking());
+
+        verify(leaderboardRepository, never()).publishRebuild(any(), any());
+        verify(leaderboardRepository).abortRebuild("r1", List.of(1L));
+    }
+
+    private RatingSummary ratingSummary(Long id, long ratingSum, long ratingCount) {
+        RatingSummary summary = mock(RatingSummary.class);
+        when(summary.getId()).thenReturn(id);
+        when(summary.getRatingSum()).thenReturn(ratingSum);
+        when(summary.getRatingCount()).thenReturn(ratingCount);
+        return summary;
+    }
+
+    private ProfileResponse summary(Long id) {
+        ProfileResponse response = new ProfileResponse();
+        response.setId(id);
+        return response;
+    }
+}
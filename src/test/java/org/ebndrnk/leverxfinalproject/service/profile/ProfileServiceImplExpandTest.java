@@ -0,0 +1,110 @@
+package org.ebndrnk.leverxfinalproject.service.profile;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidExpandException;
+import org.ebndrnk.leverxfinalproject.model.dto.page.PageCountMode;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileExpansion;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.service.StatisticsIntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that profile listings load comments and games only when expanded, in one batch per association.
+ */
+class ProfileServiceImplExpandTest extends StatisticsIntegrationTest {
+
+    private static final int PROFILES = 12;
+    private static final int COMMENTS_PER_PROFILE = 3;
+    private static final PageRequest PAGE = PageRequest.of(0, PROFILES, Sort.by(Sort.Direction.DESC, "id"));
+
+    @Autowired
+    private ProfileService profileService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PROFILES; i++) {
+            Profile profile = persistProfile("expand" + i);
+            for (int j = 0; j < COMMENTS_PER_PROFILE; j++) {
+                entityManager.persist(new Comment("comment " + j, null, profile, true));
+            }
+            entityManager.persist(new GameObject("game " + i, "text", profile, 10f, null));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void testFindProfilesByRating_noExpansion_shouldOnlyLoadProfiles() {
+        Statistics statistics = statistics();
+
+        List<ProfileSummaryResponse> page = profileService
+                .findProfilesByRating(null, null, null, null, Set.of(), PageCountMode.EXACT, PAGE).getContent();
+
+        assertEquals(PROFILES, page.size());
+        page.forEach(profile -> assertFalse(profile instanceof ProfileResponse));
+        assertEquals(0, statistics.getCollectionFetchCount());
+        // profiles and the count
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindProfilesByRating_allExpansions_shouldLoadOneBatchPerAssociation() {
+        Statistics statistics = statistics();
+
+        List<ProfileSummaryResponse> page = profileService.findProfilesByRating(null, null, null, null,
+                EnumSet.allOf(ProfileExpansion.class), PageCountMode.EXACT, PAGE).getContent();
+
+        assertEquals(PROFILES, page.size());
+        page.forEach(profile -> {
+            ProfileResponse response = assertInstanceOf(ProfileResponse.class, profile);
+            assertEquals(COMMENTS_PER_PROFILE, response.getComment().size());
+            assertEquals(1, response.getGameObjects().size());
+        });
+        // profiles, the count, one batch of comments, one batch of games
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindProfilesByRating_commentsOnly_shouldLeaveGamesUnset() {
+        Statistics statistics = statistics();
+
+        List<ProfileSummaryResponse> page = profileService.findProfilesByRating(null, null, null, null,
+                EnumSet.of(ProfileExpansion.COMMENTS), PageCountMode.EXACT, PAGE).getContent();
+
+        page.forEach(profile -> {
+            ProfileResponse response = assertInstanceOf(ProfileResponse.class, profile);
+            assertEquals(COMMENTS_PER_PROFILE, response.getComment().size());
+            assertNull(response.getGameObjects());
+        });
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testParse_shouldExpandEverythingWhenAbsentAndRejectUnknownValues() {
+        assertEquals(EnumSet.allOf(ProfileExpansion.class), ProfileExpansion.parse(null));
+        assertTrue(ProfileExpansion.parse(List.of("none")).isEmpty());
+        assertEquals(EnumSet.of(ProfileExpansion.GAMES), ProfileExpansion.parse(List.of(" Games ")));
+        assertThrows(InvalidExpandException.class, () -> ProfileExpansion.parse(List.of("ratings")));
+    }
+}
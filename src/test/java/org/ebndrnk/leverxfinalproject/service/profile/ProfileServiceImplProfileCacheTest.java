@@ -0,0 +1,178 @@
+package org.ebndrnk.leverxfinalproject.service.profile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileDto;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.projection.ProfileVersion;
+import org.ebndrnk.leverxfinalproject.repository.page.ListingRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingShardRepository;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCache;
+import org.ebndrnk.leverxfinalproject.service.cache.NearCacheRegion;
+import org.ebndrnk.leverxfinalproject.service.game.GameCategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileServiceImplProfileCacheTest {
+
+    private static final long PROFILE_ID = 7L;
+    private static final String USERNAME = "seller";
+    private static final String EMAIL = "seller@email.com";
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private ProfileCacheService profileCacheService;
+
+    @Mock
+    private ProfileRatingShardRepository profileRatingShardRepository;
+
+    @Mock
+    private GameCategoryService gameCategoryService;
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private NearCache nearCache;
+
+    private ProfileServiceImpl profileService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        nearCache = new NearCache(stringRedisTemplate, new SimpleMeterRegistry(), new MockEnvironment(), true);
+        profileService = new ProfileServiceImpl(profileRepository, new ModelMapper(), profileCacheService,
+                profileRatingShardRepository, gameCategoryService, nearCache, listingRepository, eventPublisher, 5000, 0, 0);
+        when(profileRepository.findById(PROFILE_ID)).thenAnswer(invocation -> Optional.of(profile()));
+    }
+
+    @Test
+    void testGetProfileByUsername_sameVersion_shouldNotLoadProfileAgain() {
+        versionIs(1L);
+
+        ProfileDto first = profileService.getProfileByUsername(USERNAME);
+        ProfileDto second = profileService.getProfileByUsername(USERNAME);
+
+        assertSame(first, second);
+        verify(profileRepository, times(1)).findById(PROFILE_ID);
+    }
+
+    @Test
+    void testGetProfileByEmail_sharesEntryWithUsernameLookup() {
+        versionIs(1L);
+
+        ProfileDto byUsername = profileService.getProfileByUsername(USERNAME);
+        ProfileDto byEmail = profileService.getProfileByEmail(EMAIL);
+        ProfileDto byId = profileService.getProfileDtoById(PROFILE_ID);
+
+        assertSame(byUsername, byEmail);
+        assertSame(byUsername, byId);
+        verify(profileRepository, times(1)).findById(PROFILE_ID);
+    }
+
+    @Test
+    void testGetProfileByUsername_newVersion_shouldReload() {
+        versionIs(1L);
+        ProfileDto first = profileService.getProfileByUsername(USERNAME);
+
+        // updated by a bulk statement that no entity listener sees
+        versionIs(2L);
+        ProfileDto second = profileService.getProfileByUsername(USERNAME);
+
+        assertNotSame(first, second);
+        verify(profileRepository, times(2)).findById(PROFILE_ID);
+    }
+
+    @Test
+    void testGetProfileByUsername_evicted_shouldReload() {
+        versionIs(1L);
+        profileService.getProfileByUsername(USERNAME);
+
+        nearCache.invalidate(PROFILE_ID, NearCacheRegion.PROFILE_DETAILS);
+        profileService.getProfileByUsername(USERNAME);
+
+        verify(profileRepository, times(2)).findById(PROFILE_ID);
+    }
+
+    @Test
+    void testGetProfileByUsername_evictedWhileLoading_shouldNotCacheTheStaleLoad() {
+        versionIs(1L);
+        // a comment is committed and evicts the profile after the row was read, without bumping the version
+        when(profileRepository.findById(PROFILE_ID)).thenAnswer(invocation -> {
+            Profile profile = profile();
+            profile.setVersion(1L);
+            nearCache.invalidate(PROFILE_ID, NearCacheRegion.PROFILE_DETAILS);
+            return Optional.of(profile);
+        });
+        profileService.getProfileByUsername(USERNAME);
+
+        profileService.getProfileByUsername(USERNAME);
+
+        verify(profileRepository, times(2)).findById(PROFILE_ID);
+    }
+
+    @Test
+    void testGetProfileByEmail_unknown_shouldThrowWithoutLoading() {
+        when(profileRepository.findVersionByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertThrows(ProfileNotFoundException.class, () -> profileService.getProfileByEmail(EMAIL));
+
+        verify(profileRepository, never()).findById(PROFILE_ID);
+    }
+
+    private void versionIs(long version) {
+        ProfileVersion profileVersion = new ProfileVersion() {
+            @Override
+            public Long getId() {
+                return PROFILE_ID;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+        when(profileRepository.findVersionById(PROFILE_ID)).thenReturn(Optional.of(profileVersion));
+        when(profileRepository.findVersionByUsername(USERNAME)).thenReturn(Optional.of(profileVersion));
+        when(profileRepository.findVersionByEmail(EMAIL)).thenReturn(Optional.of(profileVersion));
+        // the loaded row carries the same version
+        when(profileRepository.findById(PROFILE_ID)).thenAnswer(invocation -> {
+            Profile profile = profile();
+            profile.setVersion(version);
+            return Optional.of(profile);
+        });
+    }
+
+    private static Profile profile() {
+        Profile profile = new Profile();
+        profile.setId(PROFILE_ID);
+        profile.setUsername(USERNAME);
+        profile.setEmail(EMAIL);
+        return profile;
+    }
+}
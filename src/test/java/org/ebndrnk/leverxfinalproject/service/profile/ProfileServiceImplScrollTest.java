@@ -0,0 +1,98 @@
+package org.ebndrnk.leverxfinalproject.service.profile;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidCursorException;
+import org.ebndrnk.leverxfinalproject.model.dto.page.ScrollResponse;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.service.StatisticsIntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks the keyset listing of {@code /profile/scroll} and checks it matches the full ordering without a count query.
+ */
+class ProfileServiceImplScrollTest extends StatisticsIntegrationTest {
+
+    private static final int PROFILES = 25;
+    private static final int WINDOW = 10;
+
+    @Autowired
+    private ProfileService profileService;
+
+    private final List<Profile> profiles = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PROFILES; i++) {
+            Profile profile = new Profile();
+            profile.setUsername("scroll" + i);
+            profile.setEmail("scroll" + i + "@email.com");
+            // few distinct ratings, so the id breaks most ties
+            profile.setRating((byte) (i % 4));
+            entityManager.persist(profile);
+            profiles.add(profile);
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void testScrollProfiles_allWindows_shouldFollowRatingThenIdWithoutGapsOrCounts() {
+        List<Long> expected = profiles.stream()
+                .sorted(Comparator.comparing(Profile::getRating).thenComparing(Profile::getId).reversed())
+                .map(Profile::getId)
+                .toList();
+        Statistics statistics = statistics();
+
+        List<Long> scrolled = new ArrayList<>();
+        String cursor = null;
+        int windows = 0;
+        do {
+            ScrollResponse<ProfileSummaryResponse> window = profileService.scrollProfiles(null, null, null, null, Set.of(), cursor, WINDOW);
+            window.getContent().forEach(profile -> scrolled.add(profile.getId()));
+            cursor = window.getNextCursor();
+            windows++;
+            if (cursor == null) {
+                assertFalse(window.isHasNext());
+            }
+        } while (cursor != null);
+
+        List<Long> ownIds = scrolled.stream().filter(expected::contains).toList();
+        assertEquals(expected, ownIds);
+        assertEquals(scrolled.size(), scrolled.stream().distinct().count());
+        assertTrue(windows >= PROFILES / WINDOW + 1);
+        for (String query : statistics.getQueries()) {
+            assertFalse(query.toLowerCase().contains("count("), query);
+        }
+    }
+
+    @Test
+    void testScrollProfiles_ratingFilter_shouldOnlyReturnMatchingProfiles() {
+        ScrollResponse<ProfileSummaryResponse> window = profileService.scrollProfiles((byte) 3, (byte) 3, null, null, Set.of(), null, 100);
+
+        assertTrue(window.getContent().stream().allMatch(profile -> profile.getRating() == 3));
+        assertFalse(window.isHasNext());
+        assertNull(window.getNextCursor());
+    }
+
+    @Test
+    void testScrollProfiles_foreignCursor_shouldBeRejected() {
+        // cursor of the game listing: {"id":1}
+        assertThrows(InvalidCursorException.class,
+                () -> profileService.scrollProfiles(null, null, null, null, Set.of(), "eyJpZCI6MX0", WINDOW));
+        assertThrows(InvalidCursorException.class,
+                () -> profileService.scrollProfiles(null, null, null, null, Set.of(), "not a cursor", WINDOW));
+    }
+}
@@ -0,0 +1,99 @@
+package org.ebndrnk.leverxfinalproject.service.profile;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.model.dto.profile.ProfileResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.projection.TopSellerPreview;
+import org.ebndrnk.leverxfinalproject.service.StatisticsIntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the database path of {@code /profile/top} against loading more than one page of sellers.
+ */
+class ProfileServiceImplTopSellersTest extends StatisticsIntegrationTest {
+
+    private static final int SELLERS = 8;
+    private static final int COMMENTS_PER_SELLER = 5;
+    private static final int TOP = 3;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @MockitoBean
+    private ProfileCacheService profileCacheService;
+
+    private final List<Long> expectedTopIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(profileCacheService.getTopSellers(anyInt(), any()))
+                .thenThrow(new RedisOperationException("Redis is down", null));
+        when(profileCacheService.getTopSellerIds(anyInt(), any()))
+                .thenThrow(new RedisOperationException("Redis is down", null));
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < SELLERS; i++) {
+            Profile profile = persistProfile("seller" + i);
+            for (int j = 0; j < COMMENTS_PER_SELLER; j++) {
+                entityManager.persist(new Comment("comment " + j, null, profile, true));
+            }
+            GameObject gameObject = new GameObject("game " + i, "text", profile, 10f, null);
+            entityManager.persist(gameObject);
+            ids.add(profile.getId());
+        }
+        entityManager.flush();
+        // ranking_score is generated by PostgreSQL, H2 keeps it as a plain column
+        for (int i = 0; i < SELLERS; i++) {
+            entityManager.createNativeQuery("UPDATE profile SET ranking_score = :score WHERE id = :id")
+                    .setParameter("score", (double) i)
+                    .setParameter("id", ids.get(i))
+                    .executeUpdate();
+        }
+        for (int i = SELLERS - 1; i >= SELLERS - TOP; i--) {
+            expectedTopIds.add(ids.get(i));
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void testGetTopSellers_fromDb_shouldLoadOnlyTheRequestedPage() {
+        Statistics statistics = statistics();
+
+        List<?> result = profileService.getTopSellers(TOP, null, false).getContent();
+
+        List<Long> resultIds = result.stream().map(seller -> ((ProfileResponse) seller).getId()).toList();
+        assertEquals(expectedTopIds, resultIds);
+        result.forEach(seller -> assertEquals(COMMENTS_PER_SELLER, ((ProfileResponse) seller).getComment().size()));
+        // ids, profiles, one batch of comments, one batch of games
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(TOP + TOP * COMMENTS_PER_SELLER + TOP, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetTopSellers_projection_shouldNotLoadEntities() {
+        Statistics statistics = statistics();
+
+        List<?> result = profileService.getTopSellers(TOP, null, true).getContent();
+
+        List<Long> resultIds = result.stream().map(seller -> ((TopSellerPreview) seller).getId()).toList();
+        assertEquals(expectedTopIds, resultIds);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,92 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingSnapshotScan;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingShardRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingEventRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingSnapshotRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingSnapshotScanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingEventServiceImplTest {
+
+    private static final long SCAN_SIZE = 1000;
+
+    @Mock
+    private RatingEventRepository eventRepository;
+
+    @Mock
+    private RatingSnapshotRepository snapshotRepository;
+
+    @Mock
+    private RatingSnapshotScanRepository snapshotScanRepository;
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private ProfileRatingShardRepository shardRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RatingEventServiceImpl ratingEventService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ratingEventService = new RatingEventServiceImpl(eventRepository, snapshotRepository, snapshotScanRepository,
+                profileRepository, shardRepository, eventPublisher, transactionManager, 5000, 1000, 60_000,
+                SCAN_SIZE, true);
+    }
+
+    @Test
+    void testTakeSnapshots_shouldContinueFromTheStoredScanPosition() {
+        when(snapshotScanRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.of(scannedUpTo(5000)));
+        when(eventRepository.findLastEventIdBefore(any())).thenReturn(9000L);
+        when(eventRepository.findSellerIdsWithEvents(5000, 6000)).thenReturn(List.of());
+
+        ratingEventService.takeSnapshots();
+
+        ArgumentCaptor<RatingSnapshotScan> saved = ArgumentCaptor.forClass(RatingSnapshotScan.class);
+        verify(snapshotScanRepository).save(saved.capture());
+        assertEquals(6000, saved.getValue().getScannedEventId());
+    }
+
+    @Test
+    void testTakeSnapshots_noEventsAfterTheStoredPosition_shouldNotScan() {
+        when(snapshotScanRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.of(scannedUpTo(9000)));
+        when(eventRepository.findLastEventIdBefore(any())).thenReturn(9000L);
+
+        assertEquals(0, ratingEventService.takeSnapshots());
+
+        verify(eventRepository, never()).findSellerIdsWithEvents(anyLong(), anyLong());
+        verify(snapshotScanRepository, never()).save(any());
+    }
+
+    private RatingSnapshotScan scannedUpTo(long eventId) {
+        RatingSnapshotScan scan = new RatingSnapshotScan();
+        scan.setId(1L);
+        scan.setScannedEventId(eventId);
+        return scan;
+    }
+}
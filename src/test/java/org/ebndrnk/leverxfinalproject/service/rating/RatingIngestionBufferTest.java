@@ -0,0 +1,74 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingBatchRepository.PendingMark;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RatingIngestionBufferTest {
+
+    @Test
+    void testOffer_sameAuthorAndSeller_shouldKeepLastMark() throws InterruptedException {
+        RatingIngestionBuffer buffer = new RatingIngestionBuffer(10);
+
+        assertEquals(RatingIngestionBuffer.OfferResult.ACCEPTED, buffer.offer(1, 1, (byte) 3, 0));
+        assertEquals(RatingIngestionBuffer.OfferResult.ACCEPTED, buffer.offer(1, 2, (byte) 5, 0));
+        assertEquals(RatingIngestionBuffer.OfferResult.COALESCED, buffer.offer(1, 1, (byte) 9, 0));
+
+        List<PendingMark> batch = buffer.drain(10);
+        assertEquals(List.of(new PendingMark(1, 1, (byte) 9), new PendingMark(1, 2, (byte) 5)), batch);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testOffer_fullBuffer_shouldRejectNewKeyButCoalesceExisting() throws InterruptedException {
+        RatingIngestionBuffer buffer = new RatingIngestionBuffer(1);
+        buffer.offer(1, 1, (byte) 3, 0);
+
+        assertEquals(RatingIngestionBuffer.OfferResult.REJECTED, buffer.offer(2, 1, (byte) 4, 10));
+        assertEquals(RatingIngestionBuffer.OfferResult.COALESCED, buffer.offer(1, 1, (byte) 7, 0));
+    }
+
+    @Test
+    void testOffer_fullBuffer_shouldWaitForDrain() throws InterruptedException {
+        RatingIngestionBuffer buffer = new RatingIngestionBuffer(1);
+        buffer.offer(1, 1, (byte) 3, 0);
+
+        Thread flusher = new Thread(() -> buffer.drain(1));
+        flusher.start();
+
+        assertEquals(RatingIngestionBuffer.OfferResult.ACCEPTED, buffer.offer(2, 1, (byte) 4, 5_000));
+        flusher.join();
+    }
+
+    @Test
+    void testRestore_shouldNotOverwriteNewerVote() throws InterruptedException {
+        RatingIngestionBuffer buffer = new RatingIngestionBuffer(10);
+        buffer.offer(1, 1, (byte) 3, 0);
+        List<PendingMark> failedBatch = buffer.drain(10);
+        buffer.offer(1, 1, (byte) 8, 0);
+
+        buffer.restore(failedBatch);
+
+        List<PendingMark> batch = buffer.drain(10);
+        assertEquals(1, batch.size());
+        assertTrue(batch.contains(new PendingMark(1, 1, (byte) 8)));
+    }
+
+    @Test
+    void testRemove_shouldDropOnlyVoteOfAuthor() throws InterruptedException {
+        RatingIngestionBuffer buffer = new RatingIngestionBuffer(10);
+        buffer.offer(1, 1, (byte) 3, 0);
+        buffer.offer(1, 2, (byte) 5, 0);
+
+        assertTrue(buffer.remove(1, 1));
+        assertFalse(buffer.remove(1, 1));
+
+        List<PendingMark> batch = buffer.drain(10);
+        assertEquals(List.of(new PendingMark(1, 2, (byte) 5)), batch);
+    }
+}
@@ -0,0 +1,90 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRecomputeStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RatingRecomputeJob;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.RecomputeJobStatus;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingRecomputeJobRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingRecomputeRepository;
+import org.ebndrnk.leverxfinalproject.service.profile.ProfileCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingRecomputeServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+    private static final long STALE_AFTER_MS = 600_000;
+
+    @Mock
+    private RatingRecomputeJobRepository jobRepository;
+
+    @Mock
+    private RatingRecomputeRepository recomputeRepository;
+
+    @Mock
+    private ProfileCacheService profileCacheService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private RatingRecomputeServiceImpl recomputeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        recomputeService = new RatingRecomputeServiceImpl(jobRepository, recomputeRepository, profileCacheService,
+                transactionTemplate, 2, 10, STALE_AFTER_MS);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(recomputeRepository.now()).thenReturn(NOW);
+    }
+
+    @Test
+    void testStart_jobRunningOnLiveReplica_shouldNotResumeIt() {
+        RatingRecomputeJob running = job(RecomputeJobStatus.RUNNING);
+        when(jobRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(running));
+        when(jobRepository.claim(eq(3L), anyString(), eq(NOW.minusMinutes(10)))).thenReturn(0);
+
+        RatingRecomputeStatusResponse response = recomputeService.start();
+
+        assertEquals(RecomputeJobStatus.RUNNING, response.getStatus());
+        verify(jobRepository, never()).findById(any());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void testStart_newJobStartedByAnotherReplica_shouldNotStartASecondOne() {
+        when(jobRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(job(RecomputeJobStatus.COMPLETED)));
+        when(jobRepository.save(any())).thenThrow(new DataIntegrityViolationException("rating_recompute_job_running_idx"));
+
+        recomputeService.start();
+
+        verify(jobRepository, never()).claim(any(), any(), any());
+        verify(recomputeRepository, never()).findProfileIdsAfter(anyLong(), anyInt());
+    }
+
+    private RatingRecomputeJob job(RecomputeJobStatus status) {
+        RatingRecomputeJob job = new RatingRecomputeJob();
+        job.setId(3L);
+        job.setStatus(status);
+        job.setLastProfileId(100L);
+        return job;
+    }
+}
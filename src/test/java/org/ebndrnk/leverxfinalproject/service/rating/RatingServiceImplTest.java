@@ -0,0 +1,183 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.ebndrnk.leverxfinalproject.exception.dto.ProfileNotFoundException;
+import org.ebndrnk.leverxfinalproject.exception.dto.RatingNotFoundException;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingRequest;
+import org.ebndrnk.leverxfinalproject.model.dto.rating.RatingSummaryResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.anonymous.AnonymousUser;
+import org.ebndrnk.leverxfinalproject.model.event.RatingChangedEvent;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository.RetractedMark;
+import org.ebndrnk.leverxfinalproject.repository.rating.RatingMarkRepository.UpsertedMark;
+import org.ebndrnk.leverxfinalproject.service.anonymous.AnonymousUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class RatingServiceImplTest {
+
+    private static final Long PROFILE_ID = 1L;
+    private static final Long AUTHOR_ID = 2L;
+    private static final LocalDate PREVIOUS_DAY = LocalDate.of(2026, 9, 1);
+    private static final LocalDate DATABASE_DAY = LocalDate.of(2026, 10, 2);
+
+    @Mock
+    private RatingMarkRepository ratingMarkRepository;
+
+    @Mock
+    private AnonymousUserService anonymousUserService;
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private RatingShardService ratingShardService;
+
+    @Mock
+    private RatingWindowService ratingWindowService;
+
+    @Mock
+    private RatingEventService ratingEventService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RatingServiceImpl ratingService;
+
+    private HttpServletRequest request;
+    private AnonymousUser author;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        request = mock(HttpServletRequest.class);
+        author = new AnonymousUser();
+        author.setId(AUTHOR_ID);
+        author.setAnonymousId("anonymous");
+
+        when(profileRepository.existsById(PROFILE_ID)).thenReturn(true);
+        when(anonymousUserService.getOrCreateAnonymousUser(request)).thenReturn(author);
+    }
+
+    @Test
+    void testEvaluate_firstMark_shouldAddMarkToShard() {
+        mockUpsert(8, true, null);
+        mockSummary(8, 1);
+
+        RatingSummaryResponse result = ratingService.evaluate(ratingRequest(8), PROFILE_ID, request);
+
+        verify(ratingShardService).addMark(PROFILE_ID, AUTHOR_ID, 8, 1, DATABASE_DAY);
+        verify(ratingEventService).recordMark(PROFILE_ID, AUTHOR_ID, (byte) 8);
+        verify(eventPublisher).publishEvent(new RatingChangedEvent(PROFILE_ID, 8, 1));
+        assertEquals(8, result.getRating());
+        assertEquals(1, result.getRatingCount());
+        assertEquals(8.0, result.getAverage());
+    }
+
+    @Test
+    void testEvaluate_changedMark_shouldMoveMarkInShard() {
+        mockUpsert(4, false, 9, PREVIOUS_DAY);
+        mockSummary(13, 2);
+
+        RatingSummaryResponse result = ratingService.evaluate(ratingRequest(4), PROFILE_ID, request);
+
+        verify(ratingShardService).addMark(PROFILE_ID, AUTHOR_ID, 9, -1, PREVIOUS_DAY);
+        verify(ratingShardService).addMark(PROFILE_ID, AUTHOR_ID, 4, 1, DATABASE_DAY);
+        verify(ratingEventService).recordMark(PROFILE_ID, AUTHOR_ID, (byte) 4);
+        assertEquals(6.5, result.getAverage());
+    }
+
+    @Test
+    void testEvaluate_sameMark_shouldNotTouchAggregate() {
+        when(ratingMarkRepository.upsertMark(PROFILE_ID, AUTHOR_ID, (byte) 7)).thenReturn(Optional.empty());
+        mockSummary(7, 1);
+
+        ratingService.evaluate(ratingRequest(7), PROFILE_ID, request);
+
+        verifyNoInteractions(ratingShardService);
+        verifyNoInteractions(ratingEventService);
+    }
+
+    @Test
+    void testEvaluate_concurrentVote_shouldRecalculateAggregate() {
+        mockUpsert(5, false, null);
+        mockSummary(5, 1);
+
+        ratingService.evaluate(ratingRequest(5), PROFILE_ID, request);
+
+        verify(profileRepository).lockProfiles(List.of(PROFILE_ID));
+        verify(profileRepository).recalculateRatingAggregates(List.of(PROFILE_ID));
+        verify(ratingWindowService).rebuildDailyBuckets(List.of(PROFILE_ID));
+        verifyNoInteractions(ratingShardService);
+    }
+
+    @Test
+    void testRetract_shouldRemoveMarkFromDayItWasGiven() {
+        RetractedMark retracted = new RetractedMark(6, (int) PREVIOUS_DAY.toEpochDay());
+        when(ratingMarkRepository.deleteMark(PROFILE_ID, AUTHOR_ID)).thenReturn(Optional.of(retracted));
+        mockSummary(0, 0);
+
+        RatingSummaryResponse result = ratingService.retract(PROFILE_ID, request);
+
+        verify(ratingShardService).addMark(PROFILE_ID, AUTHOR_ID, 6, -1, PREVIOUS_DAY);
+        verify(ratingEventService).recordRetraction(PROFILE_ID, AUTHOR_ID);
+        assertEquals(0, result.getRatingCount());
+    }
+
+    @Test
+    void testRetract_noRating_shouldThrow() {
+        when(ratingMarkRepository.deleteMark(PROFILE_ID, AUTHOR_ID)).thenReturn(Optional.empty());
+
+        assertThrows(RatingNotFoundException.class, () -> ratingService.retract(PROFILE_ID, request));
+        verifyNoInteractions(ratingShardService);
+        verifyNoInteractions(ratingEventService);
+    }
+
+    @Test
+    void testEvaluate_profileNotFound() {
+        when(profileRepository.existsById(PROFILE_ID)).thenReturn(false);
+
+        assertThrows(ProfileNotFoundException.class,
+                () -> ratingService.evaluate(ratingRequest(5), PROFILE_ID, request));
+    }
+
+    private RatingRequest ratingRequest(int mark) {
+        RatingRequest ratingRequest = new RatingRequest();
+        ratingRequest.setMark((byte) mark);
+        return ratingRequest;
+    }
+
+    private void mockUpsert(int mark, boolean inserted, Integer previousMark) {
+        mockUpsert(mark, inserted, previousMark, null);
+    }
+
+    private void mockUpsert(int mark, boolean inserted, Integer previousMark, LocalDate previousDay) {
+        UpsertedMark result = new UpsertedMark(inserted, previousMark,
+                previousDay == null ? null : (int) previousDay.toEpochDay(), (int) DATABASE_DAY.toEpochDay());
+        when(ratingMarkRepository.upsertMark(PROFILE_ID, AUTHOR_ID, (byte) mark)).thenReturn(Optional.of(result));
+    }
+
+    private void mockSummary(long sum, long count) {
+        RatingSummary summary = mock(RatingSummary.class);
+        when(summary.getId()).thenReturn(PROFILE_ID);
+        when(summary.getRatingSum()).thenReturn(sum);
+        when(summary.getRatingCount()).thenReturn(count);
+        when(profileRepository.findRatingSummaryById(PROFILE_ID)).thenReturn(Optional.of(summary));
+    }
+}
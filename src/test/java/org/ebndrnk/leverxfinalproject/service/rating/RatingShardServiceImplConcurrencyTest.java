@@ -0,0 +1,123 @@
+package org.ebndrnk.leverxfinalproject.service.rating;
+
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.entity.rating.ProfileRatingShard;
+import org.ebndrnk.leverxfinalproject.model.projection.DailyRating;
+import org.ebndrnk.leverxfinalproject.model.projection.RatingSummary;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingDailyRepository;
+import org.ebndrnk.leverxfinalproject.repository.rating.ProfileRatingShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:rating_shard_db;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "rating.shards.count=4"
+})
+@TestPropertySource(locations = "classpath:application-test.yaml")
+class RatingShardServiceImplConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int VOTES_PER_THREAD = 50;
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Autowired
+    private RatingShardService ratingShardService;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private ProfileRatingShardRepository shardRepository;
+
+    @Autowired
+    private ProfileRatingDailyRepository dailyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long profileId;
+
+    @BeforeEach
+    void setUp() {
+        shardRepository.deleteAll();
+        Profile profile = new Profile();
+        profile.setUsername("seller" + System.nanoTime());
+        profileId = profileRepository.save(profile).getId();
+    }
+
+    @Test
+    void testAddMark_concurrentVotes_shouldNotLoseAnyVote() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadIndex = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int vote = 0; vote < VOTES_PER_THREAD; vote++) {
+                    long authorId = (long) threadIndex * VOTES_PER_THREAD + vote;
+                    ratingShardService.addMark(profileId, authorId, 10, 1, TODAY);
+                    if (vote % 5 == 0) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            ratingShardService.addMark(profileId, authorId, 10, -1, TODAY);
+                            ratingShardService.addMark(profileId, authorId, 2, 1, TODAY);
+                        });
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int votes = THREADS * VOTES_PER_THREAD;
+        int changedVotes = THREADS * (VOTES_PER_THREAD / 5);
+
+        List<ProfileRatingShard> shards = shardRepository.findAll().stream()
+                .filter(shard -> shard.getProfile().getId().equals(profileId))
+                .toList();
+        assertTrue(shards.size() <= 4 * 2, "at most one row per shard and mark");
+        assertEquals(votes - changedVotes, sumOf(shards, 10));
+        assertEquals(changedVotes, sumOf(shards, 2));
+
+        RatingSummary summary = profileRepository.findRatingSummaryById(profileId).orElseThrow();
+        assertEquals(votes, summary.getRatingCount());
+        assertEquals(10L * (votes - changedVotes) + 2L * changedVotes, summary.getRatingSum());
+
+        List<DailyRating> days = dailyRepository.findDailyRatings(profileId, TODAY);
+        assertEquals(1, days.size());
+        assertEquals(votes, days.get(0).getRatingCount());
+        assertEquals(summary.getRatingSum(), days.get(0).getRatingSum());
+    }
+
+    private long sumOf(List<ProfileRatingShard> shards, int mark) {
+        return shards.stream()
+                .filter(shard -> shard.getMark() == mark)
+                .mapToLong(ProfileRatingShard::getMarkCount)
+                .sum();
+    }
+}
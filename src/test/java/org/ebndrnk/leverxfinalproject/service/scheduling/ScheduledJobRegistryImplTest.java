@@ -0,0 +1,142 @@
+package org.ebndrnk.leverxfinalproject.service.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ebndrnk.leverxfinalproject.exception.dto.RedisOperationException;
+import org.ebndrnk.leverxfinalproject.model.dto.job.JobRunStatus;
+import org.ebndrnk.leverxfinalproject.model.dto.job.ScheduledJobStatusResponse;
+import org.ebndrnk.leverxfinalproject.repository.job.JobLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledJobRegistryImplTest {
+
+    private static final String JOB = "rating-shard-fold";
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ScheduledJobRegistryImpl scheduledJobRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // a long lease keeps the background renewal out of the tests
+        scheduledJobRegistry = new ScheduledJobRegistryImpl(jobLeaseRepository, meterRegistry, true, 600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduledJobRegistry.releaseLeases();
+    }
+
+    @Test
+    void testRunIfLeader_leaseAcquired_shouldRunAndRecord() {
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any())).thenReturn(true);
+        int[] runs = {0};
+
+        assertTrue(scheduledJobRegistry.runIfLeader(JOB, () -> runs[0]++));
+
+        assertEquals(1, runs[0]);
+        ScheduledJobStatusResponse status = scheduledJobRegistry.getStatuses().get(0);
+        assertTrue(status.isLeader());
+        assertEquals(JobRunStatus.SUCCEEDED, status.getLastStatus());
+        assertEquals(1, status.getRuns());
+        assertEquals(1, meterRegistry.get("scheduled.job").tag("job", JOB).tag("outcome", "SUCCEEDED").timer().count());
+    }
+
+    @Test
+    void testRunIfLeader_leaseHeldByAnotherReplica_shouldSkip() {
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any())).thenReturn(false);
+        when(jobLeaseRepository.findOwner(JOB)).thenReturn("other-replica");
+        int[] runs = {0};
+
+        assertFalse(scheduledJobRegistry.runIfLeader(JOB, () -> runs[0]++));
+
+        assertEquals(0, runs[0]);
+        ScheduledJobStatusResponse status = scheduledJobRegistry.getStatuses().get(0);
+        assertFalse(status.isLeader());
+        assertEquals("other-replica", status.getLeaseOwner());
+        assertEquals(JobRunStatus.SKIPPED, status.getLastStatus());
+        assertEquals(1, status.getSkipped());
+    }
+
+    @Test
+    void testRunIfLeader_jobFails_shouldRecordFailureWithoutRethrowing() {
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any())).thenReturn(true);
+
+        assertTrue(scheduledJobRegistry.runIfLeader(JOB, () -> {
+            throw new IllegalStateException("database is down");
+        }));
+
+        ScheduledJobStatusResponse status = scheduledJobRegistry.getStatuses().get(0);
+        assertEquals(JobRunStatus.FAILED, status.getLastStatus());
+        assertEquals("database is down", status.getLastError());
+    }
+
+    @Test
+    void testRunIfLeader_redisUnavailable_shouldSkipWithoutALease() {
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any()))
+                .thenThrow(new RedisOperationException("Redis is down", null));
+        int[] runs = {0};
+
+        assertFalse(scheduledJobRegistry.runIfLeader(JOB, () -> runs[0]++));
+
+        assertEquals(0, runs[0]);
+        assertEquals(JobRunStatus.SKIPPED, scheduledJobRegistry.getStatuses().get(0).getLastStatus());
+    }
+
+    @Test
+    void testRunIfLeader_redisUnavailable_shouldKeepRunningUntilTheHeldLeaseExpires() {
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any()))
+                .thenReturn(true)
+                .thenThrow(new RedisOperationException("Redis is down", null));
+        int[] runs = {0};
+
+        assertTrue(scheduledJobRegistry.runIfLeader(JOB, () -> runs[0]++));
+        assertTrue(scheduledJobRegistry.runIfLeader(JOB, () -> runs[0]++));
+
+        assertEquals(2, runs[0]);
+    }
+
+    @Test
+    void testRunIfLeader_redisUnavailablePastTheHeldLease_shouldSkip() {
+        ScheduledJobRegistryImpl expiredLease =
+                new ScheduledJobRegistryImpl(jobLeaseRepository, meterRegistry, true, 0);
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any()))
+                .thenReturn(true)
+                .thenThrow(new RedisOperationException("Redis is down", null));
+        int[] runs = {0};
+
+        assertTrue(expiredLease.runIfLeader(JOB, () -> runs[0]++));
+        assertFalse(expiredLease.runIfLeader(JOB, () -> runs[0]++));
+
+        assertEquals(1, runs[0]);
+        assertFalse(expiredLease.getStatuses().get(0).isLeader());
+        expiredLease.releaseLeases();
+    }
+
+    @Test
+    void testReleaseLeases_shouldReleaseHeldLeases() {
+        when(jobLeaseRepository.acquire(eq(JOB), anyString(), any())).thenReturn(true);
+        scheduledJobRegistry.runIfLeader(JOB, () -> { });
+
+        scheduledJobRegistry.releaseLeases();
+
+        verify(jobLeaseRepository).release(eq(JOB), anyString());
+    }
+}
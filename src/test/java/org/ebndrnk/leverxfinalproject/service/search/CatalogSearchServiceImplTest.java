@@ -0,0 +1,173 @@
+package org.ebndrnk.leverxfinalproject.service.search;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSearchQueryException;
+import org.ebndrnk.leverxfinalproject.model.dto.search.CatalogSearchHit;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchIndexStatusResponse;
+import org.ebndrnk.leverxfinalproject.model.entity.comment.Comment;
+import org.ebndrnk.leverxfinalproject.model.entity.game.GameObject;
+import org.ebndrnk.leverxfinalproject.model.entity.profile.Profile;
+import org.ebndrnk.leverxfinalproject.model.event.SearchIndexChangedEvent;
+import org.ebndrnk.leverxfinalproject.repository.comment.CommentRepository;
+import org.ebndrnk.leverxfinalproject.repository.game.GameRepository;
+import org.ebndrnk.leverxfinalproject.repository.pofile.ProfileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The index is a real one in memory; the database is mocked and rebuilds run on the calling thread.
+ */
+class CatalogSearchServiceImplTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SearchIndex searchIndex;
+    private CatalogSearchServiceImpl catalogSearchService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        searchIndex = new SearchIndex(new ByteBuffersDirectory(), 0, 0);
+        catalogSearchService = new CatalogSearchServiceImpl(searchIndex, gameRepository, profileRepository,
+                commentRepository, stringRedisTemplate, Runnable::run, PAGE_SIZE, false, false);
+        when(gameRepository.findSearchIndexPage(anyLong(), any())).thenReturn(List.of());
+        when(profileRepository.findSearchIndexPage(anyLong(), any())).thenReturn(List.of());
+        when(commentRepository.findSearchIndexPage(anyLong(), any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchIndex.close();
+    }
+
+    @Test
+    void testOnSearchIndexChanged_declinedComment_shouldLeaveTheIndex() {
+        Comment comment = comment(5L, "Fast delivery", true);
+        when(commentRepository.findAllById(List.of(5L))).thenReturn(List.of(comment));
+        catalogSearchService.onSearchIndexChanged(new SearchIndexChangedEvent(SearchDocumentType.COMMENT, List.of(5L)));
+        searchIndex.refresh();
+        assertEquals(1, search("delivery").getNumberOfElements());
+
+        comment.setApproved(false);
+        catalogSearchService.onSearchIndexChanged(new SearchIndexChangedEvent(SearchDocumentType.COMMENT, List.of(5L)));
+        searchIndex.refresh();
+
+        assertTrue(search("delivery").isEmpty());
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void testOnSearchIndexChanged_deletedProfile_shouldTakeItsGamesAlong() {
+        when(gameRepository.findAllById(List.of(1L))).thenReturn(List.of(game(1L, "Epic Adventure", 7L)));
+        catalogSearchService.onSearchIndexChanged(new SearchIndexChangedEvent(SearchDocumentType.GAME, List.of(1L)));
+        when(profileRepository.findAllById(List.of(7L))).thenReturn(List.of());
+
+        catalogSearchService.onSearchIndexChanged(new SearchIndexChangedEvent(SearchDocumentType.PROFILE, List.of(7L)));
+        searchIndex.refresh();
+
+        assertTrue(search("adventure").isEmpty());
+    }
+
+    @Test
+    void testRebuild_shouldIndexEveryPageOfEveryKind() {
+        when(gameRepository.findSearchIndexPage(eq(0L), any()))
+                .thenReturn(List.of(game(1L, "Epic Adventure", 7L), game(2L, "Adventure Island", 7L)));
+        when(gameRepository.findSearchIndexPage(eq(2L), any()))
+                .thenReturn(List.of(game(4L, "Adventure Time", 8L)));
+        when(profileRepository.findSearchIndexPage(eq(0L), any())).thenReturn(List.of(profile(7L, "adventurer")));
+        when(commentRepository.findSearchIndexPage(eq(0L), any()))
+                .thenReturn(List.of(comment(3L, "Great adventure pack", true)));
+
+        SearchIndexStatusResponse status = catalogSearchService.rebuild();
+
+        assertEquals(5, status.getLastRebuildDocuments());
+        assertNull(status.getLastRebuildError());
+        assertEquals(5, search("adventure").getNumberOfElements());
+    }
+
+    @Test
+    void testRebuild_failingPage_shouldKeepThePreviousIndex() {
+        when(gameRepository.findAllById(List.of(1L))).thenReturn(List.of(game(1L, "Epic Adventure", 7L)));
+        catalogSearchService.onSearchIndexChanged(new SearchIndexChangedEvent(SearchDocumentType.GAME, List.of(1L)));
+        when(profileRepository.findSearchIndexPage(eq(0L), any())).thenReturn(List.of(profile(7L, "adventurer")));
+        when(commentRepository.findSearchIndexPage(eq(0L), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        SearchIndexStatusResponse status = catalogSearchService.rebuild();
+
+        assertEquals("connection refused", status.getLastRebuildError());
+        // the game is gone from the rebuild, which only got to the profile, but the rebuild was rolled back
+        assertEquals(List.of(1L), search("adventure").map(CatalogSearchHit::getId).toList());
+    }
+
+    @Test
+    void testSearch_pagePastTheResultWindow_shouldBeRejected() {
+        assertThrows(InvalidSearchQueryException.class,
+                () -> catalogSearchService.search("adventure", null, null, null, PageRequest.of(40, 50)));
+        assertThrows(InvalidSearchQueryException.class,
+                () -> catalogSearchService.search(" ", null, null, null, PageRequest.of(0, 20)));
+    }
+
+    private Slice<CatalogSearchHit> search(String query) {
+        Pageable pageable = PageRequest.of(0, 20);
+        return catalogSearchService.search(query, null, null, null, pageable);
+    }
+
+    private static GameObject game(long id, String title, long sellerId) {
+        GameObject game = new GameObject();
+        game.setId(id);
+        game.setTitle(title);
+        game.setText("A game");
+        game.setPrice(10f);
+        game.setSeller(profile(sellerId, "seller" + sellerId));
+        return game;
+    }
+
+    private static Profile profile(long id, String username) {
+        Profile profile = new Profile();
+        profile.setId(id);
+        profile.setUsername(username);
+        profile.setConfirmedByAdmin(true);
+        return profile;
+    }
+
+    private static Comment comment(long id, String message, boolean approved) {
+        Comment comment = new Comment(message, null, profile(7L, "seller7"), approved);
+        comment.setId(id);
+        return comment;
+    }
+}
@@ -0,0 +1,138 @@
+package org.ebndrnk.leverxfinalproject.service.search;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSearchQueryException;
+import org.ebndrnk.leverxfinalproject.model.dto.search.CatalogSearchHit;
+import org.ebndrnk.leverxfinalproject.model.dto.search.SearchDocumentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+
+    private SearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        searchIndex = new SearchIndex(new ByteBuffersDirectory(), 0, 0);
+        searchIndex.index(new SearchDocument(SearchDocumentType.GAME, 1, "Epic Adventure",
+                "An exciting adventure game with multiple levels", 20f, 7L));
+        searchIndex.index(new SearchDocument(SearchDocumentType.GAME, 2, "Racing Legends",
+                "Drive through an adventure of speed", 5f, 8L));
+        searchIndex.index(new SearchDocument(SearchDocumentType.PROFILE, 7, "adventurer", "Anna Smith", null, 7L));
+        searchIndex.index(new SearchDocument(SearchDocumentType.COMMENT, 3, null,
+                "Fast delivery of the adventure pack", null, 7L));
+        searchIndex.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchIndex.close();
+    }
+
+    @Test
+    void testSearch_exactTitleMatch_shouldRankFirst() {
+        List<CatalogSearchHit> hits = search("adventure", Set.of(), null, null);
+
+        assertEquals(4, hits.size());
+        assertEquals(SearchDocumentType.GAME, hits.get(0).getType());
+        assertEquals(1L, hits.get(0).getId());
+        assertEquals(20f, hits.get(0).getPrice());
+        assertEquals(7L, hits.get(0).getSellerId());
+    }
+
+    @Test
+    void testSearch_misspelledWord_shouldStillMatch() {
+        List<CatalogSearchHit> hits = search("adventrue legnds", Set.of(), null, null);
+
+        assertEquals(List.of(2L), ids(hits));
+    }
+
+    @Test
+    void testSearch_startOfWord_shouldMatchPrefix() {
+        List<CatalogSearchHit> hits = search("rac", Set.of(), null, null);
+
+        assertEquals(List.of(2L), ids(hits));
+    }
+
+    @Test
+    void testSearch_priceRange_shouldOnlyMatchGamesWithin() {
+        List<CatalogSearchHit> hits = search("adventure", Set.of(), 10f, 30f);
+
+        assertEquals(List.of(1L), ids(hits));
+    }
+
+    @Test
+    void testSearch_types_shouldFilterTheKinds() {
+        List<CatalogSearchHit> hits = search("adventure", Set.of(SearchDocumentType.COMMENT), null, null);
+
+        assertEquals(List.of(3L), ids(hits));
+        assertEquals("Fast delivery of the adventure pack", hits.get(0).getText());
+    }
+
+    @Test
+    void testSearch_writesBeforeRefresh_shouldNotBeVisible() {
+        searchIndex.delete(SearchDocumentType.GAME, 2);
+        assertEquals(List.of(2L), ids(search("racing", Set.of(), null, null)));
+
+        searchIndex.refresh();
+        assertTrue(search("racing", Set.of(), null, null).isEmpty());
+    }
+
+    @Test
+    void testDeleteSeller_shouldRemoveProfileGamesAndComments() {
+        searchIndex.deleteSeller(7L);
+        searchIndex.refresh();
+
+        assertEquals(List.of(2L), ids(search("adventure", Set.of(), null, null)));
+        assertTrue(search("adventurer", Set.of(SearchDocumentType.PROFILE), null, null).isEmpty());
+    }
+
+    @Test
+    void testRebuild_shouldKeepServingTheOldIndexUntilFinished() {
+        searchIndex.beginRebuild();
+        searchIndex.index(new SearchDocument(SearchDocumentType.GAME, 2, "Racing Legends", null, 5f, 8L));
+        assertEquals(4, search("adventure", Set.of(), null, null).size());
+
+        searchIndex.finishRebuild();
+        assertTrue(search("adventure", Set.of(), null, null).isEmpty());
+        assertEquals(List.of(2L), ids(search("racing", Set.of(), null, null)));
+    }
+
+    @Test
+    void testAbortRebuild_shouldReturnToTheIndexBeforeIt() {
+        searchIndex.beginRebuild();
+        searchIndex.index(new SearchDocument(SearchDocumentType.GAME, 2, "Racing Legends", null, 5f, 8L));
+
+        searchIndex.abortRebuild();
+        searchIndex.refresh();
+        assertEquals(4, search("adventure", Set.of(), null, null).size());
+        assertEquals(4, searchIndex.size());
+
+        searchIndex.delete(SearchDocumentType.COMMENT, 3);
+        searchIndex.refresh();
+        assertEquals(3, search("adventure", Set.of(), null, null).size());
+    }
+
+    @Test
+    void testSearch_queryWithoutWords_shouldBeRejected() {
+        assertThrows(InvalidSearchQueryException.class, () -> search("?! -", Set.of(), null, null));
+        assertThrows(InvalidSearchQueryException.class, () -> search("adventure", Set.of(), 30f, 10f));
+    }
+
+    private List<CatalogSearchHit> search(String query, Set<SearchDocumentType> types, Float minPrice, Float maxPrice) {
+        return searchIndex.search(query, types, minPrice, maxPrice, 0, 10).hits();
+    }
+
+    private static List<Long> ids(List<CatalogSearchHit> hits) {
+        return hits.stream().map(CatalogSearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,64 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidSortException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PagingPolicyTest {
+
+    private static final Sort BY_ID = Sort.by(Sort.Order.desc("id"));
+    private static final Sort BY_RATING = Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id"));
+
+    private final PagingPolicy policy = PagingPolicy.of(50, BY_ID, BY_RATING);
+
+    @Test
+    void testApply_unsorted_shouldUseTheDefaultOrder() {
+        Pageable page = policy.apply(PageRequest.of(2, 20));
+
+        assertEquals(PageRequest.of(2, 20, BY_ID), page);
+    }
+
+    @Test
+    void testApply_leadingKey_shouldCompleteTheIndexedOrder() {
+        Pageable page = policy.apply(PageRequest.of(0, 20, Sort.by(Sort.Order.desc("rating"))));
+
+        assertEquals(BY_RATING, page.getSort());
+    }
+
+    @Test
+    void testApply_reversedOrder_shouldBeAllowed() {
+        Pageable page = policy.apply(PageRequest.of(0, 20, Sort.by(Sort.Order.asc("rating"))));
+
+        assertEquals(Sort.by(Sort.Order.asc("rating"), Sort.Order.asc("id")), page.getSort());
+    }
+
+    @Test
+    void testApply_largePage_shouldBeCapped() {
+        assertEquals(50, policy.apply(PageRequest.of(0, 100_000)).getPageSize());
+        assertEquals(50, policy.apply(Pageable.unpaged()).getPageSize());
+    }
+
+    @Test
+    void testApply_unindexedOrMixedSort_shouldBeRejected() {
+        assertThrows(InvalidSortException.class,
+                () -> policy.apply(PageRequest.of(0, 20, Sort.by(Sort.Order.asc("email")))));
+        assertThrows(InvalidSortException.class,
+                () -> policy.apply(PageRequest.of(0, 20, Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id")))));
+        assertThrows(InvalidSortException.class,
+                () -> policy.apply(PageRequest.of(0, 20, Sort.by(Sort.Order.desc("id"), Sort.Order.desc("rating")))));
+    }
+
+    @Test
+    void testApply_fixedOrder_shouldOnlyCapThePage() {
+        PagingPolicy fixed = PagingPolicy.fixedOrder(50);
+
+        assertEquals(PageRequest.of(1, 50), fixed.apply(PageRequest.of(1, 500)));
+        assertThrows(InvalidSortException.class,
+                () -> fixed.apply(PageRequest.of(0, 20, Sort.by(Sort.Order.desc("id")))));
+    }
+}
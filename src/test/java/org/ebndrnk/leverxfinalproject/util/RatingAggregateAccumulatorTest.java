@@ -0,0 +1,50 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RatingAggregateAccumulatorTest {
+
+    @Test
+    void testAdd_shouldAggregatePerProfile() {
+        RatingAggregateAccumulator accumulator = new RatingAggregateAccumulator(new long[]{3, 7, 11});
+
+        assertTrue(accumulator.add(7, 10));
+        assertTrue(accumulator.add(7, 9));
+        assertTrue(accumulator.add(7, 9));
+        assertTrue(accumulator.add(11, 4));
+
+        assertEquals(28, accumulator.sum(1));
+        assertEquals(3, accumulator.count(1));
+        assertEquals(9, accumulator.rating(1));
+        assertEquals(933, accumulator.meanFixed(1));
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 1}, accumulator.histogram(1));
+
+        assertEquals(400, accumulator.meanFixed(2));
+    }
+
+    @Test
+    void testAdd_profileWithoutMarks_shouldHaveZeroAggregate() {
+        RatingAggregateAccumulator accumulator = new RatingAggregateAccumulator(new long[]{3, 7});
+        accumulator.add(7, 5);
+
+        assertEquals(0, accumulator.count(0));
+        assertEquals(0, accumulator.rating(0));
+        assertEquals(0, accumulator.meanFixed(0));
+        assertArrayEquals(new long[11], accumulator.histogram(0));
+    }
+
+    @Test
+    void testAdd_unknownProfileOrInvalidMark_shouldBeIgnored() {
+        RatingAggregateAccumulator accumulator = new RatingAggregateAccumulator(new long[]{3, 7});
+
+        assertFalse(accumulator.add(5, 5));
+        assertFalse(accumulator.add(3, 11));
+        assertEquals(0, accumulator.count(0));
+        assertEquals(0, accumulator.count(1));
+    }
+}
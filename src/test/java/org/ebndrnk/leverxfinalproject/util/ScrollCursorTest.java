@@ -0,0 +1,55 @@
+package org.ebndrnk.leverxfinalproject.util;
+
+import org.ebndrnk.leverxfinalproject.exception.dto.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScrollCursorTest {
+
+    private static final Map<String, Class<?>> KEYS = Map.of("rating", Byte.class, "id", Long.class);
+
+    @Test
+    void testDecode_encodedKeys_shouldRestoreTypedPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("rating", (byte) 7);
+        keys.put("id", 42L);
+
+        ScrollPosition position = ScrollCursor.decode(ScrollCursor.encode(keys), KEYS);
+
+        KeysetScrollPosition keyset = (KeysetScrollPosition) position;
+        assertEquals(Map.of("rating", (byte) 7, "id", 42L), keyset.getKeys());
+    }
+
+    @Test
+    void testDecode_noCursor_shouldStartAtTheBeginning() {
+        assertTrue(ScrollCursor.decode(null, KEYS).isInitial());
+        assertTrue(ScrollCursor.decode(" ", KEYS).isInitial());
+    }
+
+    @Test
+    void testDecode_nullKey_shouldBeRejected() {
+        // {"id":null}
+        assertThrows(InvalidCursorException.class, () -> ScrollCursor.decode("eyJpZCI6bnVsbH0", Map.of("id", Long.class)));
+        // {"rating":null,"id":42}
+        assertThrows(InvalidCursorException.class,
+                () -> ScrollCursor.decode("eyJyYXRpbmciOm51bGwsImlkIjo0Mn0", KEYS));
+    }
+
+    @Test
+    void testDecode_foreignOrMalformedCursor_shouldBeRejected() {
+        // {"id":1}
+        assertThrows(InvalidCursorException.class, () -> ScrollCursor.decode("eyJpZCI6MX0", KEYS));
+        // {"rating":"high","id":1}
+        assertThrows(InvalidCursorException.class,
+                () -> ScrollCursor.decode("eyJyYXRpbmciOiJoaWdoIiwiaWQiOjF9", KEYS));
+        assertThrows(InvalidCursorException.class, () -> ScrollCursor.decode("not a cursor", KEYS));
+    }
+}